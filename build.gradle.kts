@@ -81,6 +81,11 @@ configure<SourceSetContainer> {
         compileClasspath += sourceSets["main"].output
         runtimeClasspath += sourceSets["main"].output
     }
+    register("jmh") {
+        java.srcDir("src/jmh/java")
+        compileClasspath += sourceSets["main"].output
+        runtimeClasspath += sourceSets["main"].output
+    }
 }
 
 
@@ -119,6 +124,9 @@ dependencies {
     // since jna is a transitive runtime dependency of opus-java we don't include it explicitly as dependency
     compileOnly(libs.jna)
 
+    //Optional zstd-stream transport compression, users have to add this dependency to use Compression.ZSTD
+    compileOnly(libs.zstd)
+
     /* Internal dependencies */
 
     //General Utility
@@ -135,6 +143,15 @@ dependencies {
         addAll(configurations["compileOnly"].allDependencies)
     }
 
+    //Sets the dependencies for the benchmarks
+    configurations["jmhImplementation"].withDependencies {
+        addAll(configurations["api"].allDependencies)
+        addAll(configurations["implementation"].allDependencies)
+        addAll(configurations["compileOnly"].allDependencies)
+    }
+    "jmhImplementation"(libs.jmh.core)
+    "jmhAnnotationProcessor"(libs.jmh.generator)
+
     testImplementation(libs.bundles.junit)
     testImplementation(libs.reflections)
     testImplementation(libs.mockito)
@@ -142,6 +159,7 @@ dependencies {
     testImplementation(libs.commons.lang3)
     testImplementation(libs.logback.classic)
     testImplementation(libs.archunit)
+    testImplementation(libs.zstd)
 
     // OpenRewrite
     // Import Rewrite's bill of materials.
@@ -363,6 +381,15 @@ val updateTestSnapshots by tasks.registering(Test::class) {
     systemProperty("updateSnapshots", "true")
 }
 
+// Runs the benchmarks in src/jmh, options can be passed with -Pjmh="<regex> -f 1 ..."
+val jmh by tasks.registering(JavaExec::class) {
+    group = "verification"
+    description = "Runs the JMH benchmarks"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args((project.findProperty("jmh") as String?)?.split(" ") ?: emptyList())
+}
+
 ////////////////////////////////////
 //                                //
 //    Publishing And Signing      //
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.bench;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.utils.compress.Decompressor;
+import net.dv8tion.jda.internal.utils.compress.ZlibDecompressor;
+import net.dv8tion.jda.internal.utils.compress.ZstdDecompressor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compares the zlib-stream and zstd-stream transport compression on a session of synthetic {@code GUILD_CREATE} payloads.
+ *
+ * <p>Every message is flushed on a single stream per session, like the gateway does.
+ * Each invocation decompresses the whole session with a new decompressor.
+ * The compressed size of the session is printed during setup.
+ *
+ * <p>Run with {@code ./gradlew jmh -Pjmh="DecompressorBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecompressorBenchmark
+{
+    private static final int MESSAGE_COUNT = 20;
+    private static final int MAX_BUFFER_SIZE = 2048;
+
+    @Param({"zlib", "zstd"})
+    public String compression;
+
+    @Param({"100", "1000"})
+    public int memberCount;
+
+    private List<byte[]> messages;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        Random random = new Random(42);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        OutputStream stream = "zstd".equals(compression)
+                ? new ZstdOutputStream(compressed)
+                : new DeflaterOutputStream(compressed, new Deflater(), true);
+
+        messages = new ArrayList<>(MESSAGE_COUNT);
+        long rawSize = 0, compressedSize = 0;
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            byte[] payload = guildCreate(random, i).toJson();
+            compressed.reset();
+            stream.write(payload);
+            stream.flush();
+            messages.add(compressed.toByteArray());
+            rawSize += payload.length;
+            compressedSize += compressed.size();
+        }
+
+        System.out.printf("%n%s: %d bytes compressed to %d bytes%n", compression, rawSize, compressedSize);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGE_COUNT)
+    public long decompress() throws DataFormatException
+    {
+        Decompressor decompressor = "zstd".equals(compression)
+                ? new ZstdDecompressor(MAX_BUFFER_SIZE)
+                : new ZlibDecompressor(MAX_BUFFER_SIZE);
+        long size = 0;
+        for (byte[] message : messages)
+            size += decompressor.decompress(message).remaining();
+        decompressor.shutdown();
+        return size;
+    }
+
+    private DataObject guildCreate(Random random, int index)
+    {
+        DataArray roles = DataArray.empty();
+        for (int i = 0; i < 50; i++)
+        {
+            roles.add(DataObject.empty()
+                    .put("id", Long.toUnsignedString(random.nextLong()))
+                    .put("name", "role-" + i)
+                    .put("permissions", Long.toString(random.nextLong() & 0xFFFFFFFFFFL))
+                    .put("position", i)
+                    .put("color", random.nextInt(0xFFFFFF)));
+        }
+
+        DataArray members = DataArray.empty();
+        for (int i = 0; i < memberCount; i++)
+        {
+            DataArray memberRoles = DataArray.empty();
+            for (int j = random.nextInt(4); j > 0; j--)
+                memberRoles.add(roles.getObject(random.nextInt(roles.length())).getString("id"));
+            members.add(DataObject.empty()
+                    .put("user", DataObject.empty()
+                            .put("id", Long.toUnsignedString(random.nextLong()))
+                            .put("username", "user" + random.nextInt(100_000))
+                            .put("avatar", Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong())))
+                    .put("roles", memberRoles)
+                    .put("joined_at", "2021-08-16T12:36:08.126000+00:00")
+                    .put("deaf", false)
+                    .put("mute", false));
+        }
+
+        return DataObject.empty()
+                .put("op", 0)
+                .put("t", "GUILD_CREATE")
+                .put("s", index + 2)
+                .put("d", DataObject.empty()
+                        .put("id", Long.toUnsignedString(random.nextLong()))
+                        .put("name", "guild-" + index)
+                        .put("member_count", memberCount)
+                        .put("roles", roles)
+                        .put("members", members));
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.bench;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.AnnotatedEventManager;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.hooks.IEventManager;
+import net.dv8tion.jda.api.hooks.InterfacedEventManager;
+import net.dv8tion.jda.api.hooks.SubscribeEvent;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.utils.ClassWalker;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the dispatch cost of {@link AnnotatedEventManager} with the previous reflective implementation
+ * and with {@link InterfacedEventManager} as a baseline.
+ *
+ * <p>Run with {@code ./gradlew jmh -Pjmh="EventManagerBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventManagerBenchmark
+{
+    @Param({"1", "10", "50"})
+    public int listenerCount;
+
+    private IEventManager annotated;
+    private IEventManager reflective;
+    private IEventManager interfaced;
+    private GenericEvent event;
+
+    @Setup
+    public void setup()
+    {
+        annotated = new AnnotatedEventManager();
+        reflective = new ReflectiveEventManager();
+        interfaced = new InterfacedEventManager();
+        for (int i = 0; i < listenerCount; i++)
+        {
+            annotated.register(new AnnotatedListener());
+            reflective.register(new AnnotatedListener());
+            interfaced.register(new InterfacedListener());
+        }
+        event = new MessageEvent();
+    }
+
+    @Benchmark
+    public void annotated()
+    {
+        annotated.handle(event);
+    }
+
+    @Benchmark
+    public void reflective()
+    {
+        reflective.handle(event);
+    }
+
+    @Benchmark
+    public void interfaced()
+    {
+        interfaced.handle(event);
+    }
+
+    public static class BaseEvent implements GenericEvent
+    {
+        int count;
+
+        @Nonnull
+        @Override
+        public JDA getJDA()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getResponseNumber()
+        {
+            return 0;
+        }
+
+        @Override
+        public DataObject getRawData()
+        {
+            return null;
+        }
+    }
+
+    public static class MessageEvent extends BaseEvent {}
+
+    public static class AnnotatedListener
+    {
+        @SubscribeEvent
+        public void onMessage(MessageEvent event)
+        {
+            event.count++;
+        }
+
+        @SubscribeEvent
+        public void onBase(BaseEvent event)
+        {
+            event.count++;
+        }
+    }
+
+    public static class InterfacedListener implements EventListener
+    {
+        @Override
+        public void onEvent(@Nonnull GenericEvent event)
+        {
+            if (event instanceof MessageEvent)
+                ((MessageEvent) event).count++;
+            if (event instanceof BaseEvent)
+                ((BaseEvent) event).count++;
+        }
+    }
+
+    // Dispatch as implemented by AnnotatedEventManager before handlers were resolved ahead of time
+    public static class ReflectiveEventManager implements IEventManager
+    {
+        private final Set<Object> listeners = new HashSet<>();
+        private final Map<Class<?>, Map<Object, List<Method>>> methods = new HashMap<>();
+
+        @Override
+        public void register(@Nonnull Object listener)
+        {
+            listeners.add(listener);
+            for (Method m : listener.getClass().getDeclaredMethods())
+            {
+                if (m.isAnnotationPresent(SubscribeEvent.class))
+                {
+                    methods.computeIfAbsent(m.getParameterTypes()[0], k -> new HashMap<>())
+                           .computeIfAbsent(listener, k -> new ArrayList<>())
+                           .add(m);
+                }
+            }
+        }
+
+        @Override
+        public void unregister(@Nonnull Object listener)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void handle(@Nonnull GenericEvent event)
+        {
+            for (Class<?> eventClass : ClassWalker.walk(event.getClass()))
+            {
+                Map<Object, List<Method>> listeners = methods.get(eventClass);
+                if (listeners != null)
+                {
+                    listeners.forEach((key, value) -> value.forEach(method ->
+                    {
+                        try
+                        {
+                            method.setAccessible(true);
+                            method.invoke(key, event);
+                        }
+                        catch (ReflectiveOperationException e)
+                        {
+                            throw new IllegalStateException(e);
+                        }
+                    }));
+                }
+            }
+        }
+
+        @Nonnull
+        @Override
+        public List<Object> getRegisteredListeners()
+        {
+            return new ArrayList<>(listeners);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.bench;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.*;
+import net.dv8tion.jda.internal.entities.channel.concrete.TextChannelImpl;
+import net.dv8tion.jda.internal.utils.PermissionUtil;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import net.dv8tion.jda.internal.utils.cache.SortedSnowflakeCacheViewImpl;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import net.dv8tion.jda.internal.utils.config.MetaConfig;
+import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares cold and warm lookups of {@link PermissionUtil#getEffectivePermission(net.dv8tion.jda.api.entities.channel.middleman.GuildChannel, Member)}
+ * on a guild with 250 roles and 500 channels, each channel with overrides for 10 roles.
+ *
+ * <p>The {@code cold} benchmark invalidates the member before every lookup, which is the cost of the first check
+ * after an update, or of every check without the cache.
+ *
+ * <p>Run with {@code ./gradlew jmh -Pjmh="PermissionCacheBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionCacheBenchmark
+{
+    private static final long GUILD_ID = 1;
+    private static final int ROLE_COUNT = 250;
+    private static final int CHANNEL_COUNT = 500;
+    private static final int OVERRIDES_PER_CHANNEL = 10;
+    private static final int MEMBER_ROLES = 20;
+    private static final long ALL_PERMISSIONS = Permission.getRaw(Permission.values());
+
+    private GuildImpl guild;
+    private MemberImpl member;
+    private List<TextChannel> channels;
+    private int index;
+
+    @Setup
+    public void setup()
+    {
+        EnumSet<ConfigFlag> flags = ConfigFlag.getDefault();
+        flags.remove(ConfigFlag.SHUTDOWN_HOOK);
+        flags.add(ConfigFlag.PERMISSION_CACHE);
+        MetaConfig metaConfig = new MetaConfig(2048, null, EnumSet.allOf(CacheFlag.class), flags);
+        JDAImpl jda = new JDAImpl(new AuthorizationConfig("token"), null, null, metaConfig, null);
+        Random random = new Random(4242);
+
+        guild = new GuildImpl(jda, GUILD_ID);
+        SnowflakeCacheViewImpl<Guild> guilds = jda.getGuildsView();
+        try (UnlockHook hook = guilds.writeLock())
+        {
+            guilds.getMap().put(GUILD_ID, guild);
+        }
+
+        long basePermissions = Permission.getRaw(Permission.VIEW_CHANNEL, Permission.MESSAGE_SEND, Permission.MESSAGE_HISTORY);
+        List<Role> roles = new ArrayList<>(ROLE_COUNT);
+        SortedSnowflakeCacheViewImpl<Role> roleView = guild.getRolesView();
+        for (int i = 0; i < ROLE_COUNT; i++)
+        {
+            long id = i == 0 ? GUILD_ID : 1000 + i;
+            RoleImpl role = new RoleImpl(id, guild);
+            try (UnlockHook hook = roleView.writeLock())
+            {
+                roleView.getMap().put(id, role);
+            }
+            role.setRawPosition(i);
+            role.setRawPermissions(i == 0 ? basePermissions : random.nextLong() & ALL_PERMISSIONS & ~Permission.ADMINISTRATOR.getRawValue());
+            roles.add(role);
+        }
+        guild.setPublicRole(roles.get(0));
+        guild.setOwnerId(2);
+
+        channels = new ArrayList<>(CHANNEL_COUNT);
+        for (int i = 0; i < CHANNEL_COUNT; i++)
+        {
+            TextChannelImpl channel = new TextChannelImpl(100_000 + i, guild);
+            guild.getChannelView().put(channel);
+            for (int j = 0; j < OVERRIDES_PER_CHANNEL; j++)
+            {
+                Role role = roles.get(random.nextInt(ROLE_COUNT));
+                PermissionOverrideImpl override = new PermissionOverrideImpl(channel, role.getIdLong(), true)
+                        .setAllow(random.nextLong() & ALL_PERMISSIONS)
+                        .setDeny(random.nextLong() & ALL_PERMISSIONS);
+                channel.getPermissionOverrideMap().put(role.getIdLong(), override);
+            }
+            channels.add(channel);
+        }
+
+        UserImpl user = new UserImpl(3, jda);
+        member = new MemberImpl(guild, user);
+        List<Role> memberRoles = new ArrayList<>(MEMBER_ROLES);
+        for (int i = 0; i < MEMBER_ROLES; i++)
+            memberRoles.add(roles.get(1 + random.nextInt(ROLE_COUNT - 1)));
+        member.setRoles(memberRoles);
+    }
+
+    private TextChannel nextChannel()
+    {
+        index = (index + 1) % CHANNEL_COUNT;
+        return channels.get(index);
+    }
+
+    @Benchmark
+    public long cold()
+    {
+        guild.invalidatePermissionCache(member.getIdLong());
+        return PermissionUtil.getEffectivePermission(nextChannel(), member);
+    }
+
+    @Benchmark
+    public long warm()
+    {
+        return PermissionUtil.getEffectivePermission(nextChannel(), member);
+    }
+}
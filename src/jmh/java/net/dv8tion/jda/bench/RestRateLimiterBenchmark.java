@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.bench;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.api.requests.SequentialRestRateLimiter;
+import net.dv8tion.jda.api.requests.StripedRestRateLimiter;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.*;
+
+/**
+ * Compares the throughput of {@link SequentialRestRateLimiter} and {@link StripedRestRateLimiter}
+ * with many threads enqueueing requests at once, like shards which share a single rate-limiter.
+ *
+ * <p>Requests complete immediately with a response that never exhausts its bucket,
+ * so the measured time is spent on bucket lookups, scheduling, and rate-limit updates.
+ *
+ * <p>Run with {@code ./gradlew jmh -Pjmh="RestRateLimiterBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RestRateLimiterBenchmark
+{
+    private static final int BATCH_SIZE = 64;
+    private static final Route ROUTE = Route.Messages.SEND_MESSAGE;
+
+    @Param({"sequential", "striped"})
+    public String implementation;
+
+    @Param({"1", "64"})
+    public int channelCount;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService elastic;
+    private RestRateLimiter rateLimiter;
+    private Response response;
+
+    @Setup
+    public void setup()
+    {
+        scheduler = Executors.newScheduledThreadPool(2);
+        elastic = Executors.newCachedThreadPool();
+        RestRateLimiter.RateLimitConfig config = new RestRateLimiter.RateLimitConfig(scheduler, elastic, RestRateLimiter.GlobalRateLimit.create(), true);
+        rateLimiter = "striped".equals(implementation)
+                ? new StripedRestRateLimiter(config)
+                : new SequentialRestRateLimiter(config);
+        response = new Response.Builder()
+                .request(new Request.Builder().url("https://discord.com/api/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .header(RestRateLimiter.HASH_HEADER, "benchmark")
+                .header(RestRateLimiter.LIMIT_HEADER, "5")
+                .header(RestRateLimiter.REMAINING_HEADER, "5")
+                .header(RestRateLimiter.RESET_AFTER_HEADER, "0.000")
+                .build();
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        rateLimiter.stop(true, () -> {});
+        scheduler.shutdownNow();
+        elastic.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void enqueue() throws InterruptedException
+    {
+        CountDownLatch latch = new CountDownLatch(BATCH_SIZE);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < BATCH_SIZE; i++)
+            rateLimiter.enqueue(new Work(ROUTE.compile(Integer.toString(random.nextInt(channelCount))), latch));
+        latch.await();
+    }
+
+    private class Work implements RestRateLimiter.Work
+    {
+        private final Route.CompiledRoute route;
+        private final CountDownLatch latch;
+        private volatile boolean done;
+
+        private Work(Route.CompiledRoute route, CountDownLatch latch)
+        {
+            this.route = route;
+            this.latch = latch;
+        }
+
+        @Nonnull
+        @Override
+        public Route.CompiledRoute getRoute()
+        {
+            return route;
+        }
+
+        @Nonnull
+        @Override
+        public JDA getJDA()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response execute()
+        {
+            done = true;
+            latch.countDown();
+            return response;
+        }
+
+        @Override
+        public boolean isSkipped()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isDone()
+        {
+            return done;
+        }
+
+        @Override
+        public boolean isPriority()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled()
+        {
+            return false;
+        }
+
+        @Override
+        public void cancel() {}
+    }
+}
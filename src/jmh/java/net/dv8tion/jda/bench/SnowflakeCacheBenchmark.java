@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.bench;
+
+import gnu.trove.map.TLongObjectMap;
+import net.dv8tion.jda.api.entities.ISnowflake;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.ConcurrentLongObjectMap;
+import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link SnowflakeCacheViewImpl#getElementById(long)} on the default
+ * {@link gnu.trove.map.hash.TLongObjectHashMap TLongObjectHashMap} behind the read-write lock
+ * and on {@link ConcurrentLongObjectMap}, while a single writer updates the cache like the gateway thread does.
+ *
+ * <p>The writer replaces and re-adds random entries under the write-lock,
+ * so the readers contend with it the same way user and member lookups contend with gateway events.
+ *
+ * <p>Run with {@code ./gradlew jmh -Pjmh="SnowflakeCacheBenchmark"}
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnowflakeCacheBenchmark
+{
+    private static final int SIZE = 100_000;
+
+    @Param({"locked", "concurrent"})
+    public String implementation;
+
+    private SnowflakeCacheViewImpl<Entity> cache;
+
+    @Setup
+    public void setup()
+    {
+        cache = new SnowflakeCacheViewImpl<>(Entity.class, Entity::getId, "concurrent".equals(implementation));
+        try (UnlockHook hook = cache.writeLock())
+        {
+            TLongObjectMap<Entity> map = cache.getMap();
+            for (long id = 0; id < SIZE; id++)
+                map.put(id, new Entity(id));
+        }
+    }
+
+    @Benchmark
+    @Group("gateway")
+    @GroupThreads(7)
+    public Entity getById()
+    {
+        return cache.getElementById(ThreadLocalRandom.current().nextInt(SIZE));
+    }
+
+    @Benchmark
+    @Group("gateway")
+    @GroupThreads(1)
+    public Entity update()
+    {
+        long id = ThreadLocalRandom.current().nextInt(SIZE);
+        try (UnlockHook hook = cache.writeLock())
+        {
+            TLongObjectMap<Entity> map = cache.getMap();
+            map.remove(id);
+            return map.put(id, new Entity(id));
+        }
+    }
+
+    private static class Entity implements ISnowflake
+    {
+        private final long id;
+
+        private Entity(long id)
+        {
+            this.id = id;
+        }
+
+        @Override
+        public long getIdLong()
+        {
+            return id;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import net.dv8tion.jda.api.entities.emoji.CustomEmoji;
 import net.dv8tion.jda.api.entities.emoji.RichCustomEmoji;
 import net.dv8tion.jda.api.entities.sticker.*;
 import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventQueueStatistics;
 import net.dv8tion.jda.api.hooks.IEventManager;
 import net.dv8tion.jda.api.interactions.commands.Command;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
@@ -47,6 +48,7 @@ import net.dv8tion.jda.api.utils.Once;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.dv8tion.jda.api.utils.cache.CacheView;
 import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
+import net.dv8tion.jda.internal.hooks.EventQueueStatisticsImpl;
 import net.dv8tion.jda.internal.interactions.CommandDataImpl;
 import net.dv8tion.jda.internal.requests.CompletedRestAction;
 import net.dv8tion.jda.internal.requests.RestActionImpl;
@@ -578,6 +580,21 @@ public interface JDA extends IGuildChannelContainer<Channel>
      */
     void setEventManager(@Nullable IEventManager manager);
 
+    /**
+     * Statistics of the queue of events waiting to be handled on the event pool.
+     * <br>Events are only queued if an event pool is configured,
+     * see {@link JDABuilder#setEventQueueLimit(int, net.dv8tion.jda.api.hooks.EventQueuePolicy)} to limit the size of this queue.
+     *
+     * <p>Implementations which do not queue events return empty statistics.
+     *
+     * @return Snapshot of the current {@link EventQueueStatistics}
+     */
+    @Nonnull
+    default EventQueueStatistics getEventQueueStatistics()
+    {
+        return new EventQueueStatisticsImpl(0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
     /**
      * Adds all provided listeners to the event-listeners that will be used to handle events.
      * This uses the {@link net.dv8tion.jda.api.hooks.InterfacedEventManager InterfacedEventListener} by default.
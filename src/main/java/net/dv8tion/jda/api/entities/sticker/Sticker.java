@@ -179,6 +179,16 @@ public interface Sticker extends StickerSnowflake
             return extension;
         }
 
+        /**
+         * The Discord defined id for this format.
+         *
+         * @return The id for this format, or -1 for {@link #UNKNOWN}
+         */
+        public int getId()
+        {
+            return id;
+        }
+
         /**
          * Resolves the specified format identifier to the StickerFormat enum constant.
          *
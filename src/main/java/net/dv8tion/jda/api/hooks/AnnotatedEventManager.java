@@ -23,7 +23,9 @@ import org.jetbrains.annotations.Unmodifiable;
 import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
@@ -55,8 +57,12 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class AnnotatedEventManager implements IEventManager
 {
     private static final Logger LOGGER = JDALogger.getLog(AnnotatedEventManager.class);
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private static final MethodType invokerType = MethodType.methodType(Void.TYPE, GenericEvent.class);
     private final Set<Object> listeners = ConcurrentHashMap.newKeySet();
-    private final Map<Class<?>, Map<Object, List<Method>>> methods = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Map<Object, List<MethodHandle>>> methods = new ConcurrentHashMap<>();
+    // Handlers resolved for the full hierarchy of each concrete event class, replaced whenever listeners change
+    private volatile Map<Class<?>, MethodHandle[]> subscribers = new ConcurrentHashMap<>();
 
     @Override
     public void register(@Nonnull Object listener)
@@ -71,6 +77,7 @@ public class AnnotatedEventManager implements IEventManager
         if (listeners.add(listener))
         {
             registerListenerMethods(listener);
+            subscribers = new ConcurrentHashMap<>();
         }
     }
 
@@ -101,33 +108,40 @@ public class AnnotatedEventManager implements IEventManager
     @Override
     public void handle(@Nonnull GenericEvent event)
     {
-        for (Class<?> eventClass : ClassWalker.walk(event.getClass()))
+        Map<Class<?>, MethodHandle[]> subscribers = this.subscribers;
+        MethodHandle[] resolved = subscribers.computeIfAbsent(event.getClass(), this::resolveSubscribers);
+        for (MethodHandle handler : resolved)
         {
-            Map<Object, List<Method>> listeners = methods.get(eventClass);
-            if (listeners != null)
+            try
+            {
+                handler.invokeExact(event);
+            }
+            catch (Throwable throwable)
             {
-                listeners.forEach((key, value) -> value.forEach(method ->
-                {
-                    try
-                    {
-                        method.setAccessible(true);
-                        method.invoke(key, event);
-                    }
-                    catch (IllegalAccessException | InvocationTargetException e1)
-                    {
-                        JDAImpl.LOG.error("Couldn't access annotated EventListener method", e1);
-                    }
-                    catch (Throwable throwable)
-                    {
-                        JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
-                        if (throwable instanceof Error)
-                            throw (Error) throwable;
-                    }
-                }));
+                // Errors are only logged as well, like they were when the methods were invoked through reflection
+                JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
             }
         }
     }
 
+    @Override
+    public boolean isListening(@Nonnull Class<? extends GenericEvent> eventType)
+    {
+        return subscribers.computeIfAbsent(eventType, this::resolveSubscribers).length > 0;
+    }
+
+    private MethodHandle[] resolveSubscribers(Class<?> type)
+    {
+        List<MethodHandle> resolved = new ArrayList<>();
+        for (Class<?> eventClass : ClassWalker.walk(type))
+        {
+            Map<Object, List<MethodHandle>> listeners = methods.get(eventClass);
+            if (listeners != null)
+                listeners.values().forEach(resolved::addAll);
+        }
+        return resolved.toArray(new MethodHandle[0]);
+    }
+
     private void updateMethods()
     {
         methods.clear();
@@ -135,6 +149,7 @@ public class AnnotatedEventManager implements IEventManager
         {
             registerListenerMethods(listener);
         }
+        subscribers = new ConcurrentHashMap<>();
     }
 
     private void registerListenerMethods(Object listener)
@@ -157,10 +172,26 @@ public class AnnotatedEventManager implements IEventManager
                 continue;
             }
 
+            // Bind to the listener and adapt to accept any event, so the handle can be invoked exactly
+            MethodHandle invoker;
+            try
+            {
+                m.setAccessible(true);
+                invoker = lookup.unreflect(m);
+                if (!Modifier.isStatic(m.getModifiers()))
+                    invoker = invoker.bindTo(listener);
+                invoker = invoker.asType(invokerType);
+            }
+            catch (IllegalAccessException | RuntimeException e)
+            {
+                JDAImpl.LOG.error("Couldn't access annotated EventListener method", e);
+                continue;
+            }
+
             Class<?> eventClass = parameterTypes[0];
             methods.computeIfAbsent(eventClass, k -> new ConcurrentHashMap<>())
                     .computeIfAbsent(listener, k -> new CopyOnWriteArrayList<>())
-                    .add(m);
+                    .add(invoker);
         }
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.hooks;
+
+/**
+ * Policies applied when the number of pending events reaches the limit configured with
+ * {@link net.dv8tion.jda.api.JDABuilder#setEventQueueLimit(int, EventQueuePolicy) JDABuilder.setEventQueueLimit(int, EventQueuePolicy)}.
+ *
+ * <p>Blocking the handling thread stops reading from the gateway.
+ * If listeners fall behind for too long, the session will time out and reconnect.
+ *
+ * @see EventQueueStatistics
+ */
+public enum EventQueuePolicy
+{
+    /**
+     * Blocks the thread handling gateway messages until an event has been handled.
+     *
+     * <p>With {@link net.dv8tion.jda.api.JDABuilder#setParallelGuildSetupEnabled(boolean) parallel guild setup},
+     * the gateway thread holds the lock which orders guild setup with other events while it is blocked.
+     * Guilds which finished building in the meantime are only set up once the event has been handled,
+     * so slow listeners also delay guild ready events.
+     */
+    BLOCK,
+    /**
+     * Drops high-volume events which are commonly ignored, such as
+     * {@link net.dv8tion.jda.api.events.user.UserTypingEvent UserTypingEvent}
+     * and {@link net.dv8tion.jda.api.events.user.update.GenericUserPresenceEvent presence updates},
+     * and blocks for all other events.
+     */
+    DROP_LOW_PRIORITY,
+    /**
+     * Merges an {@link net.dv8tion.jda.api.events.UpdateEvent UpdateEvent} into a pending update of the same
+     * type for the same entity, and blocks for all other events.
+     * <br>Updates are only merged if no other event of the same guild was submitted after the pending update,
+     * so the order of events is preserved.
+     *
+     * <p>Only the latest update is handled, the intermediate updates are skipped.
+     * The {@link net.dv8tion.jda.api.events.UpdateEvent#getOldValue() old value} is the value before the latest update,
+     * not the value before the skipped updates.
+     */
+    COALESCE_UPDATES
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.hooks;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the statistics of the event queue, which holds events submitted to the event pool until they are handled.
+ * <br>If no event pool is configured, events are handled on the gateway thread and are never queued.
+ *
+ * @see net.dv8tion.jda.api.JDA#getEventQueueStatistics()
+ * @see EventQueuePolicy
+ */
+public interface EventQueueStatistics
+{
+    /**
+     * The maximum number of pending events, or {@code 0} if the queue is unbounded.
+     *
+     * @return The queue limit
+     */
+    int getLimit();
+
+    /**
+     * The number of events which were submitted but have not been handled yet.
+     *
+     * @return The current queue size
+     */
+    int getSize();
+
+    /**
+     * The highest number of pending events at any point.
+     *
+     * @return The high watermark
+     */
+    int getHighWatermark();
+
+    /**
+     * The number of events dropped by {@link EventQueuePolicy#DROP_LOW_PRIORITY}.
+     *
+     * @return The number of dropped events
+     */
+    long getDroppedEvents();
+
+    /**
+     * The number of updates merged into a pending update by {@link EventQueuePolicy#COALESCE_UPDATES}.
+     *
+     * @return The number of coalesced events
+     */
+    long getCoalescedEvents();
+
+    /**
+     * The number of events which were taken from the queue to be handled.
+     *
+     * @return The number of handled events
+     */
+    long getHandledEvents();
+
+    /**
+     * The average time events waited in the queue before being handled.
+     *
+     * @param  unit
+     *         The time unit of the result
+     *
+     * @return The average latency
+     */
+    long getAverageLatency(@Nonnull TimeUnit unit);
+
+    /**
+     * The longest time an event waited in the queue before being handled.
+     *
+     * @param  unit
+     *         The time unit of the result
+     *
+     * @return The maximum latency
+     */
+    long getMaxLatency(@Nonnull TimeUnit unit);
+}
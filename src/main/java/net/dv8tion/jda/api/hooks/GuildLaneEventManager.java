@@ -0,0 +1,231 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.hooks;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.hooks.EventGuildResolver;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.Unmodifiable;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * An {@link IEventManager IEventManager} implementation which handles events on a fixed number of lanes,
+ * where each lane is a single thread.
+ *
+ * <p>Events are assigned to a lane by the id of their guild, so all events of one guild are handled sequentially
+ * in the order they were received, while events of different guilds are handled in parallel.
+ * Events which do not belong to a guild, such as direct messages, share a single lane.
+ *
+ * <p>The actual dispatch to listeners is done by a delegate manager, which is an {@link InterfacedEventManager} by default.
+ * Use {@link #getQueueDepth(int)} and {@link #getLane(long)} to find lanes, and guilds, which fall behind.
+ *
+ * <p>This manager should not be combined with an event pool, since that would break the ordering guarantees.
+ * When used with a {@link net.dv8tion.jda.api.sharding.ShardManager ShardManager}, each shard should use its own instance,
+ * for example with {@code setEventManagerProvider(id -> new GuildLaneEventManager(4))}.
+ * The lane threads are not stopped with JDA, use {@link #shutdown()} to stop them.
+ *
+ * <p><b>Example</b><br>
+ * <pre>{@code
+ * JDABuilder.createDefault(token)
+ *     .setEventManager(new GuildLaneEventManager(Runtime.getRuntime().availableProcessors()))
+ *     .addEventListeners(new MyListener())
+ *     .build();
+ * }</pre>
+ *
+ * @see InterfacedEventManager
+ * @see AnnotatedEventManager
+ */
+public class GuildLaneEventManager implements IEventManager
+{
+    private final IEventManager delegate;
+    private final ThreadPoolExecutor[] lanes;
+
+    /**
+     * Creates a new manager with the provided number of lanes, which uses an {@link InterfacedEventManager} to dispatch events.
+     *
+     * @param  laneCount
+     *         The number of lanes
+     *
+     * @throws IllegalArgumentException
+     *         If the lane count is not positive
+     */
+    public GuildLaneEventManager(int laneCount)
+    {
+        this(laneCount, new InterfacedEventManager());
+    }
+
+    /**
+     * Creates a new manager with the provided number of lanes, which uses the provided manager to dispatch events.
+     *
+     * @param  laneCount
+     *         The number of lanes
+     * @param  delegate
+     *         The manager which handles listener registration and dispatch
+     *
+     * @throws IllegalArgumentException
+     *         If the lane count is not positive or the delegate is null
+     */
+    public GuildLaneEventManager(int laneCount, @Nonnull IEventManager delegate)
+    {
+        Checks.positive(laneCount, "Lane count");
+        Checks.notNull(delegate, "Delegate");
+        this.delegate = delegate;
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++)
+        {
+            String name = "JDA Event-Lane " + i;
+            this.lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r ->
+            {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public void register(@Nonnull Object listener)
+    {
+        delegate.register(listener);
+    }
+
+    @Override
+    public void unregister(@Nonnull Object listener)
+    {
+        delegate.unregister(listener);
+    }
+
+    @Override
+    public boolean isListening(@Nonnull Class<? extends GenericEvent> eventType)
+    {
+        return delegate.isListening(eventType);
+    }
+
+    @Override
+    public void handle(@Nonnull GenericEvent event)
+    {
+        ThreadPoolExecutor lane = lanes[getLane(EventGuildResolver.getGuildId(event))];
+        if (lane.isShutdown())
+        {
+            handleInternally(event);
+            return;
+        }
+
+        try
+        {
+            lane.execute(() -> handleInternally(event));
+        }
+        catch (RejectedExecutionException ex)
+        {
+            JDAImpl.LOG.warn("Event lane rejected event execution! Running on handling thread instead...");
+            handleInternally(event);
+        }
+    }
+
+    @Nonnull
+    @Override
+    @Unmodifiable
+    public List<Object> getRegisteredListeners()
+    {
+        return delegate.getRegisteredListeners();
+    }
+
+    /**
+     * The number of lanes used by this manager.
+     *
+     * @return The lane count
+     */
+    public int getLaneCount()
+    {
+        return lanes.length;
+    }
+
+    /**
+     * The lane which handles events of the provided guild.
+     *
+     * @param  guildId
+     *         The guild id, or {@code 0} for events without a guild
+     *
+     * @return The index of the lane
+     */
+    public int getLane(long guildId)
+    {
+        // Spread the snowflake bits, since the low bits of ids are not evenly distributed
+        long hash = guildId * 0x9E3779B97F4A7C15L;
+        return (int) ((hash >>> 32) % lanes.length);
+    }
+
+    /**
+     * The number of events currently waiting to be handled on the provided lane.
+     * <br>This does not include the event which is currently being handled.
+     *
+     * @param  lane
+     *         The index of the lane
+     *
+     * @throws IllegalArgumentException
+     *         If the lane does not exist
+     *
+     * @return The queue depth of the lane
+     */
+    public int getQueueDepth(int lane)
+    {
+        Checks.check(lane >= 0 && lane < lanes.length, "Lane index out of bounds");
+        return lanes[lane].getQueue().size();
+    }
+
+    /**
+     * The number of events currently waiting to be handled on each lane, indexed by lane.
+     *
+     * @return The queue depth of every lane
+     *
+     * @see    #getQueueDepth(int)
+     */
+    @Nonnull
+    public int[] getQueueDepths()
+    {
+        int[] depths = new int[lanes.length];
+        for (int i = 0; i < lanes.length; i++)
+            depths[i] = lanes[i].getQueue().size();
+        return depths;
+    }
+
+    /**
+     * Stops the lane threads once all pending events have been handled.
+     * <br>Events received afterwards are handled on the calling thread.
+     */
+    public void shutdown()
+    {
+        for (ThreadPoolExecutor lane : lanes)
+            lane.shutdown();
+    }
+
+    private void handleInternally(GenericEvent event)
+    {
+        try
+        {
+            delegate.handle(event);
+        }
+        catch (RuntimeException e)
+        {
+            JDAImpl.LOG.error("The EventManager.handle() call had an uncaught exception", e);
+        }
+    }
+}
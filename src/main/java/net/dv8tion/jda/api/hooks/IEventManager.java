@@ -79,6 +79,23 @@ public interface IEventManager
      */
     void handle(@Nonnull GenericEvent event);
 
+    /**
+     * Whether any registered listener would receive events of the provided type.
+     * <br>JDA uses this to skip creating events nobody listens to. The cache is updated regardless.
+     *
+     * <p>Implementations must not return {@code false} if any listener could receive the event.
+     * The default implementation always returns {@code true}.
+     *
+     * @param  eventType
+     *         The concrete event class
+     *
+     * @return True, if an event of this type might be handled by a listener
+     */
+    default boolean isListening(@Nonnull Class<? extends GenericEvent> eventType)
+    {
+        return true;
+    }
+
     /**
      * The currently registered listeners
      *
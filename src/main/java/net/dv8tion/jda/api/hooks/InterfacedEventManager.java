@@ -24,6 +24,8 @@ import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -43,6 +45,8 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class InterfacedEventManager implements IEventManager
 {
     private final CopyOnWriteArrayList<EventListener> listeners = new CopyOnWriteArrayList<>();
+    // Whether any listener handles an event class, replaced whenever listeners change
+    private volatile Map<Class<?>, Boolean> subscriptions = new ConcurrentHashMap<>();
 
     public InterfacedEventManager()
     {
@@ -63,6 +67,7 @@ public class InterfacedEventManager implements IEventManager
             throw new IllegalArgumentException("Listener must implement EventListener");
         }
         listeners.add((EventListener) listener);
+        subscriptions = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -77,7 +82,8 @@ public class InterfacedEventManager implements IEventManager
         }
 
         //noinspection SuspiciousMethodCalls
-        listeners.remove(listener);
+        if (listeners.remove(listener))
+            subscriptions = new ConcurrentHashMap<>();
     }
 
     @Nonnull
@@ -88,6 +94,23 @@ public class InterfacedEventManager implements IEventManager
         return Collections.unmodifiableList(new ArrayList<>(listeners));
     }
 
+    @Override
+    public boolean isListening(@Nonnull Class<? extends GenericEvent> eventType)
+    {
+        return subscriptions.computeIfAbsent(eventType, this::hasSubscriber);
+    }
+
+    private boolean hasSubscriber(Class<?> eventType)
+    {
+        for (EventListener listener : listeners)
+        {
+            // Only adapters tell us which events they handle, any other listener might handle everything
+            if (!(listener instanceof ListenerAdapter) || ListenerAdapter.isSubscribed(listener.getClass(), eventType))
+                return true;
+        }
+        return false;
+    }
+
     @Override
     public void handle(@Nonnull GenericEvent event)
     {
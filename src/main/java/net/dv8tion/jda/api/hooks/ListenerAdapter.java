@@ -96,7 +96,9 @@ import javax.annotation.Nonnull;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -423,7 +425,17 @@ public abstract class ListenerAdapter implements EventListener
     public void onGenericForumTagUpdate(@Nonnull GenericForumTagUpdateEvent event) {}
 
     private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private static final MethodType dispatchType = MethodType.methodType(Void.TYPE, ListenerAdapter.class, GenericEvent.class);
     private static final ConcurrentMap<Class<?>, MethodHandle> methods = new ConcurrentHashMap<>();
+    // Per listener class, the handlers overridden for each event class in the order of the event hierarchy
+    private static final ClassValue<ConcurrentMap<Class<?>, MethodHandle[]>> dispatchTables = new ClassValue<ConcurrentMap<Class<?>, MethodHandle[]>>()
+    {
+        @Override
+        protected ConcurrentMap<Class<?>, MethodHandle[]> computeValue(Class<?> type)
+        {
+            return new ConcurrentHashMap<>();
+        }
+    };
     private static final Set<Class<?>> unresolved;
     static
     {
@@ -443,7 +455,40 @@ public abstract class ListenerAdapter implements EventListener
         if (event instanceof UpdateEvent)
             onGenericUpdate((UpdateEvent<?, ?>) event);
 
-        for (Class<?> clazz : ClassWalker.range(event.getClass(), GenericEvent.class))
+        Class<?> listenerClass = getClass();
+        MethodHandle[] handlers = dispatchTables.get(listenerClass)
+                .computeIfAbsent(event.getClass(), eventClass -> compileHandlers(listenerClass, eventClass));
+
+        try
+        {
+            for (MethodHandle handler : handlers)
+                handler.invokeExact(this, event);
+        }
+        catch (Throwable throwable)
+        {
+            if (throwable instanceof RuntimeException)
+                throw (RuntimeException) throwable;
+            if (throwable instanceof Error)
+                throw (Error) throwable;
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    static boolean isSubscribed(Class<?> listenerClass, Class<?> eventClass)
+    {
+        if (isOverridden(listenerClass, "onGenericEvent", GenericEvent.class))
+            return true;
+        if (UpdateEvent.class.isAssignableFrom(eventClass) && isOverridden(listenerClass, "onGenericUpdate", UpdateEvent.class))
+            return true;
+        return dispatchTables.get(listenerClass)
+                .computeIfAbsent(eventClass, type -> compileHandlers(listenerClass, type))
+                .length > 0;
+    }
+
+    private static MethodHandle[] compileHandlers(Class<?> listenerClass, Class<?> eventClass)
+    {
+        List<MethodHandle> handlers = new ArrayList<>();
+        for (Class<?> clazz : ClassWalker.range(eventClass, GenericEvent.class))
         {
             if (unresolved.contains(clazz))
                 continue;
@@ -454,29 +499,38 @@ public abstract class ListenerAdapter implements EventListener
                 continue;
             }
 
-            try
-            {
-                mh.invoke(this, event);
-            }
-            catch (Throwable throwable)
-            {
-                if (throwable instanceof RuntimeException)
-                    throw (RuntimeException) throwable;
-                if (throwable instanceof Error)
-                    throw (Error) throwable;
-                throw new IllegalStateException(throwable);
-            }
+            // Methods which are not overridden are empty, calling them would be pointless
+            if (isOverridden(listenerClass, getMethodName(clazz), clazz))
+                handlers.add(mh.asType(dispatchType));
         }
+        return handlers.toArray(new MethodHandle[0]);
     }
 
-    private static MethodHandle findMethod(Class<?> clazz)
+    private static boolean isOverridden(Class<?> listenerClass, String methodName, Class<?> eventClass)
+    {
+        try
+        {
+            return listenerClass.getMethod(methodName, eventClass).getDeclaringClass() != ListenerAdapter.class;
+        }
+        catch (NoSuchMethodException | SecurityException e)
+        {
+            // Can't tell, so keep calling it
+            return true;
+        }
+    }
+
+    private static String getMethodName(Class<?> clazz)
     {
         String name = clazz.getSimpleName();
+        return "on" + name.substring(0, name.length() - "Event".length());
+    }
+
+    private static MethodHandle findMethod(Class<?> clazz)
+    {
         MethodType type = MethodType.methodType(Void.TYPE, clazz);
         try
         {
-            name = "on" + name.substring(0, name.length() - "Event".length());
-            return lookup.findVirtual(ListenerAdapter.class, name, type);
+            return lookup.findVirtual(ListenerAdapter.class, getMethodName(clazz), type);
         }
         catch (NoSuchMethodException | IllegalAccessException ignored) {} // this means this is probably a custom event!
         return null;
@@ -0,0 +1,570 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.api.requests;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import okhttp3.Headers;
+import okhttp3.Response;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Shared implementation of the rate-limiters, which queue requests in buckets determined by the route hash and major parameters.
+ *
+ * <p>Implementations decide how bucket workers are scheduled and how buckets are stored and removed.
+ * Bucket workers run the requests in the order they were enqueued, and update the rate-limit state with each response.
+ */
+abstract class AbstractRestRateLimiter implements RestRateLimiter
+{
+    protected static final Logger log = JDALogger.getLog(RestRateLimiter.class);
+    protected static final String UNINIT_BUCKET = "uninit"; // we generate an uninit bucket for every major parameter configuration
+
+    protected final CompletableFuture<?> shutdownHandle = new CompletableFuture<>();
+
+    protected final Future<?> cleanupWorker;
+    protected final RateLimitConfig config;
+
+    protected volatile boolean isStopped;
+    protected final AtomicBoolean isShutdown = new AtomicBoolean(false);
+
+    // Route -> Should we print warning for 429? AKA did we already hit it once before
+    protected final Set<Route> hitRatelimit = ConcurrentHashMap.newKeySet();
+    // Route -> Hash
+    protected final Map<Route, String> hashes = new ConcurrentHashMap<>();
+
+    protected AbstractRestRateLimiter(@Nonnull RateLimitConfig config)
+    {
+        Checks.notNull(config, "Config");
+        this.config = config;
+        this.cleanupWorker = config.getScheduler().scheduleAtFixedRate(this::cleanup, 30, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The buckets which are currently known to this rate-limiter.
+     *
+     * @return The buckets
+     */
+    @Nonnull
+    protected abstract Collection<? extends Bucket> getBuckets();
+
+    /**
+     * The bucket for the provided route, creating it if necessary.
+     *
+     * @param  route
+     *         The compiled route
+     *
+     * @return The bucket
+     */
+    @Nonnull
+    protected abstract Bucket getBucket(@Nonnull Route.CompiledRoute route);
+
+    /**
+     * Removes buckets that are no longer needed, called every 30 seconds and on shutdown.
+     */
+    protected abstract void cleanup();
+
+    @Override
+    public void stop(boolean shutdown, @Nonnull Runnable callback)
+    {
+        boolean doShutdown = shutdown;
+        synchronized (shutdownHandle)
+        {
+            if (!isStopped)
+            {
+                isStopped = true;
+                shutdownHandle.thenRun(callback);
+                if (!doShutdown)
+                {
+                    int count = getBuckets().stream()
+                            .mapToInt(bucket -> bucket.getRequests().size())
+                            .sum();
+
+                    if (count > 0)
+                        log.info("Waiting for {} requests to finish.", count);
+                    doShutdown = count == 0;
+                }
+            }
+        }
+        if (doShutdown)
+            shutdown();
+    }
+
+    @Override
+    public boolean isStopped()
+    {
+        return isStopped;
+    }
+
+    @Override
+    public int cancelRequests()
+    {
+        // Empty buckets will be removed by the cleanup worker, which also checks for rate limit parameters
+        int cancelled = (int) getBuckets()
+                .stream()
+                .map(Bucket::getRequests)
+                .flatMap(Collection::stream)
+                .filter(request -> !request.isPriority() && !request.isCancelled())
+                .peek(Work::cancel)
+                .count();
+
+        if (cancelled == 1)
+            log.warn("Cancelled 1 request!");
+        else if (cancelled > 1)
+            log.warn("Cancelled {} requests!", cancelled);
+        return cancelled;
+    }
+
+    protected void shutdown()
+    {
+        if (!isShutdown.compareAndSet(false, true))
+            return;
+        cleanupWorker.cancel(false);
+        cleanup();
+        shutdownHandle.complete(null);
+    }
+
+    protected String getRouteHash(Route route)
+    {
+        return hashes.getOrDefault(route, UNINIT_BUCKET + "+" + route);
+    }
+
+    protected void scheduleElastic(Bucket bucket)
+    {
+        if (isShutdown.get())
+            return;
+
+        ExecutorService elastic = config.getElastic();
+        ScheduledExecutorService scheduler = config.getScheduler();
+
+        try
+        {
+            // Avoid context switch if unnecessary
+            if (elastic == scheduler)
+                bucket.run();
+            else
+                elastic.execute(bucket);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            if (!isShutdown.get())
+                log.error("Failed to execute bucket worker", ex);
+        }
+        catch (Throwable t)
+        {
+            log.error("Caught throwable in bucket worker", t);
+            if (t instanceof Error)
+                throw t;
+        }
+    }
+
+    protected static long parseLong(String input)
+    {
+        return input == null ? 0L : Long.parseLong(input);
+    }
+
+    protected static long parseDouble(String input)
+    {
+        //The header value is using a double to represent milliseconds and seconds:
+        // 5.250 this is 5 seconds and 250 milliseconds (5250 milliseconds)
+        return input == null ? 0L : (long) (Double.parseDouble(input) * 1000);
+    }
+
+    protected static long getNow()
+    {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Caches the bucket hash of a route, which was received with a response.
+     *
+     * @param baseRoute
+     *        The route
+     * @param hash
+     *        The bucket hash
+     */
+    protected void setHash(@Nonnull Route baseRoute, @Nonnull String hash)
+    {
+        if (hashes.putIfAbsent(baseRoute, hash) == null)
+            log.debug("Caching bucket hash {} -> {}", baseRoute, hash);
+    }
+
+    /**
+     * Applies a global or cloudflare rate-limit, which was received with a response.
+     *
+     * @param timestamp
+     *        The time until the rate-limit applies
+     * @param cloudflare
+     *        Whether this is a cloudflare ban
+     */
+    protected void setGlobalRateLimit(long timestamp, boolean cloudflare)
+    {
+        if (cloudflare)
+            config.getGlobalRateLimit().setCloudflare(timestamp);
+        else
+            config.getGlobalRateLimit().setClassic(timestamp);
+    }
+
+    /**
+     * Updates the rate-limit state with the headers of a response.
+     *
+     * @param  bucket
+     *         The bucket which executed the request
+     * @param  route
+     *         The route of the request
+     * @param  response
+     *         The response
+     *
+     * @return True, if the response provided the state of the bucket
+     */
+    protected boolean updateBucket(@Nonnull Bucket bucket, @Nonnull Route.CompiledRoute route, @Nonnull Response response)
+    {
+        try
+        {
+            Headers headers = response.headers();
+
+            boolean global = headers.get(GLOBAL_HEADER) != null;
+            boolean cloudflare = headers.get("via") == null;
+            String hash = headers.get(HASH_HEADER);
+            String scope = headers.get(SCOPE_HEADER);
+            long now = getNow();
+
+            // Create a new bucket for the hash if needed
+            Route baseRoute = route.getBaseRoute();
+            if (hash != null)
+                setHash(baseRoute, hash);
+
+            if (response.code() == 429)
+            {
+                String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
+                long retryAfter = parseLong(retryAfterHeader) * 1000; // seconds precision
+                // Handle global rate limit if necessary
+                if (global)
+                {
+                    setGlobalRateLimit(now + retryAfter, false);
+                    log.error("Encountered global rate limit! Retry-After: {} ms Scope: {}", retryAfter, scope);
+                    return false;
+                }
+                // Handle cloudflare rate limits, this applies to all routes and uses seconds for retry-after
+                if (cloudflare)
+                {
+                    setGlobalRateLimit(now + retryAfter, true);
+                    log.error("Encountered cloudflare rate limit! Retry-After: {} s", retryAfter / 1000);
+                    return false;
+                }
+
+                // Handle hard rate limit, pretty much just log that it happened
+                boolean firstHit = hitRatelimit.add(baseRoute) && retryAfter < 60000;
+                // Update the bucket to the new information
+                bucket = bucket.update(route, 0, now + retryAfter);
+                // don't log warning if we hit the rate limit for the first time, likely due to initialization of the bucket
+                // unless its a long retry-after delay (more than a minute)
+                if (firstHit)
+                    log.debug("Encountered 429 on route {} with bucket {} Retry-After: {} ms Scope: {}", baseRoute, bucket.bucketId, retryAfter, scope);
+                else
+                    log.warn("Encountered 429 on route {} with bucket {} Retry-After: {} ms Scope: {}", baseRoute, bucket.bucketId, retryAfter, scope);
+                return true;
+            }
+
+            // If hash is null this means we didn't get enough information to update a bucket
+            if (hash == null)
+                return false;
+
+            // Update the bucket parameters with new information
+            String limitHeader = headers.get(LIMIT_HEADER);
+            String remainingHeader = headers.get(REMAINING_HEADER);
+            String resetAfterHeader = headers.get(RESET_AFTER_HEADER);
+            String resetHeader = headers.get(RESET_HEADER);
+
+            int remaining = (int) parseLong(remainingHeader);
+            long reset = config.isRelative() ? now + parseDouble(resetAfterHeader) : parseDouble(resetHeader);
+            bucket = bucket.update(route, remaining, reset);
+            log.trace("Updated bucket {} to ({}/{}, {})", bucket.bucketId, remaining, limitHeader, reset - now);
+            return true;
+        }
+        catch (Exception e)
+        {
+            log.error("Encountered Exception while updating a bucket. Route: {} Bucket: {} Code: {} Headers:\n{}",
+                    route.getBaseRoute(), bucket, response.code(), response.headers(), e);
+            return false;
+        }
+    }
+
+    protected abstract class Bucket implements Runnable
+    {
+        protected final String bucketId;
+        protected final boolean interaction;
+        protected final Deque<Work> requests = new ConcurrentLinkedDeque<>();
+
+        // Only written by the worker of this bucket, or the worker of an uninit bucket for the same route
+        protected volatile long reset = 0;
+        protected volatile int remaining = 1;
+        // The backoff computed by the last attempt to acquire a request
+        protected volatile long backoff = 0;
+
+        protected Bucket(@Nonnull String bucketId, boolean interaction)
+        {
+            this.bucketId = bucketId;
+            this.interaction = interaction;
+        }
+
+        public boolean isUninit()
+        {
+            return bucketId.startsWith(UNINIT_BUCKET);
+        }
+
+        public void enqueue(@Nonnull Work request)
+        {
+            requests.addLast(request);
+        }
+
+        public void retry(@Nonnull Work request)
+        {
+            if (!moveRequest(request))
+                requests.addFirst(request);
+        }
+
+        @Nonnull
+        public Queue<Work> getRequests()
+        {
+            return requests;
+        }
+
+        public long getReset()
+        {
+            return reset;
+        }
+
+        public int getRemaining()
+        {
+            return remaining;
+        }
+
+        /**
+         * Releases the worker of this bucket, once it stopped running requests.
+         * <br>Requests which are still queued need a new worker.
+         */
+        protected abstract void backoff();
+
+        public long getGlobalRateLimit(long now)
+        {
+            GlobalRateLimit holder = config.getGlobalRateLimit();
+            // Only cloudflare bans apply to interactions
+            if (interaction)
+                return holder.getCloudflare() - now;
+            return Math.max(holder.getClassic(), holder.getCloudflare()) - now;
+        }
+
+        public long getRateLimit()
+        {
+            long now = getNow();
+
+            long global = getGlobalRateLimit(now);
+
+            // Check if the bucket reset time has expired
+            if (reset <= now)
+            {
+                // Update the remaining uses to the limit (we don't know better)
+                remaining = 1;
+            }
+
+            // If there are remaining requests we don't need to do anything, otherwise return backoff in milliseconds
+            return Math.max(global, remaining < 1 ? reset - now : 0L);
+        }
+
+        protected boolean isGlobalRateLimit()
+        {
+            return getGlobalRateLimit(getNow()) > 0;
+        }
+
+        /**
+         * Reserves the execution of the next request of this bucket.
+         *
+         * @return 0 if the request can be executed, otherwise the backoff in milliseconds
+         */
+        protected long acquire()
+        {
+            return getRateLimit();
+        }
+
+        /**
+         * Updates the rate-limit state with the information of a response.
+         *
+         * @param  route
+         *         The route of the request
+         * @param  remaining
+         *         The remaining uses
+         * @param  reset
+         *         The reset time (unix timestamp in milliseconds)
+         *
+         * @return The updated bucket, which is a different bucket if the response revealed the hash of an uninit route
+         */
+        @Nonnull
+        protected Bucket update(@Nonnull Route.CompiledRoute route, int remaining, long reset)
+        {
+            Bucket bucket = getBucket(route);
+            bucket.reset = reset;
+            bucket.remaining = remaining;
+            return bucket;
+        }
+
+        protected boolean moveRequest(@Nonnull Work request)
+        {
+            // Attempt moving request to correct bucket if it has been created
+            if (getBucket(request.getRoute()) == this)
+                return false;
+            AbstractRestRateLimiter.this.enqueue(request);
+            return true;
+        }
+
+        protected CompletableFuture<Response> execute(@Nonnull Work request)
+        {
+            try
+            {
+                return request.executeAsync();
+            }
+            catch (Throwable ex)
+            {
+                CompletableFuture<Response> future = new CompletableFuture<>();
+                future.completeExceptionally(ex);
+                return future;
+            }
+        }
+
+        /**
+         * Handles the result of a request, before it is retried or completed.
+         *
+         * @param request
+         *        The request
+         * @param response
+         *        The response, or null if the request failed
+         */
+        protected void onResponse(@Nonnull Work request, @Nullable Response response)
+        {
+            if (response != null)
+                updateBucket(this, request.getRoute(), response);
+        }
+
+        protected boolean handleResponse(@Nonnull Work request, Response response, Throwable error)
+        {
+            try
+            {
+                onResponse(request, response);
+                if (error != null)
+                    throw error;
+                if (!request.isDone())
+                    retry(request);
+            }
+            catch (Throwable ex)
+            {
+                log.error("Encountered exception trying to execute request", ex);
+                if (ex instanceof Error)
+                    throw (Error) ex;
+                return true;
+            }
+            return false;
+        }
+
+        public void run()
+        {
+            log.trace("Bucket {} is running {} requests", bucketId, requests.size());
+            backoff = 0;
+            while (!requests.isEmpty())
+            {
+                Work request = requests.pollFirst();
+                if (request == null)
+                    break;
+                if (request.isSkipped())
+                    continue;
+
+                if (isUninit() && moveRequest(request))
+                    continue;
+
+                long rateLimit;
+                try
+                {
+                    rateLimit = acquire();
+                }
+                catch (Exception ex)
+                {
+                    log.error("Failed to acquire rate-limit for bucket {}", bucketId, ex);
+                    rateLimit = 1000;
+                }
+
+                if (rateLimit > 0L)
+                {
+                    // We need to backoff since we ran out of remaining uses or hit the global rate limit
+                    requests.addFirst(request);
+                    String baseRoute = request.getRoute().getBaseRoute().toString();
+                    if (!isGlobalRateLimit() && rateLimit >= 1000 * 60 * 30) // 30 minutes
+                        log.warn("Encountered long {} minutes Rate-Limit on route {}", TimeUnit.MILLISECONDS.toMinutes(rateLimit), baseRoute);
+                    log.debug("Backing off {} ms for bucket {} on route {}", rateLimit, bucketId, baseRoute);
+                    backoff = rateLimit;
+                    break;
+                }
+
+                CompletableFuture<Response> future = execute(request);
+                if (!future.isDone())
+                {
+                    // Continue once the response arrived, the worker stays registered for this bucket in the meantime
+                    future.whenComplete((response, error) -> {
+                        if (handleResponse(request, response, error))
+                            backoff();
+                        else
+                            scheduleElastic(this);
+                    });
+                    return;
+                }
+
+                Response response = null;
+                Throwable error = null;
+                try
+                {
+                    response = future.join();
+                }
+                catch (CompletionException ex)
+                {
+                    error = ex.getCause();
+                }
+                catch (CancellationException ex)
+                {
+                    error = ex;
+                }
+
+                if (handleResponse(request, response, error)) break;
+            }
+
+            backoff();
+        }
+
+        @Override
+        public String toString()
+        {
+            return bucketId;
+        }
+    }
+}
@@ -0,0 +1,527 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import okhttp3.Response;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate-limiter which coordinates rate-limits of multiple processes using the same token through a shared {@link Store}.
+ *
+ * <p>Each process only knows the responses it received itself. When multiple processes share a token,
+ * they can exhaust buckets and the global rate-limit of each other without noticing, which results in 429 responses or even cloudflare bans.
+ * This rate-limiter keeps the bucket hashes, the state of every bucket, the global rate-limit, and the global request budget in the store instead.
+ *
+ * <p>Requests are still queued locally and buckets are handled like in {@link StripedRestRateLimiter}.
+ * The store is only used by the workers of the buckets, never by the threads which enqueue requests.
+ * Before a request is executed, a slot on its bucket is reserved in the store.
+ * If the state of a bucket is unknown, the bucket is reserved exclusively until the response is reported to the store,
+ * or at most {@value #LEASE_TIME} milliseconds if the process fails to report it.
+ *
+ * <p>The global budget (by default {@value #DEFAULT_GLOBAL_LIMIT} requests per second) is acquired in batches,
+ * to avoid a round trip to the store for every request. Permits which were acquired but not used expire at the end of the second.
+ *
+ * <p><b>Example</b>
+ * <pre>{@code
+ * ClusterRestRateLimiter.Store store = new LoopbackRateLimitStore(port);
+ * JDABuilder.createDefault(token)
+ *     .setRestConfig(new RestConfig().setRateLimiterFactory(config -> new ClusterRestRateLimiter(config, store)))
+ *     .build();
+ * }</pre>
+ *
+ * @see LoopbackRateLimitStore
+ */
+public final class ClusterRestRateLimiter extends ConcurrentRestRateLimiter
+{
+    /** Default global rate-limit of bots, in requests per second */
+    public static final int DEFAULT_GLOBAL_LIMIT = 50;
+    /** Default number of global permits acquired at once */
+    public static final int DEFAULT_BATCH_SIZE = 5;
+    /** Maximum time (in milliseconds) a bucket with unknown state stays reserved for a single request */
+    public static final long LEASE_TIME = 10000;
+
+    private final Store store;
+    private final GlobalBudget budget;
+
+    // Routes which were already looked up in the store, the hash cache only contains hashes which are known to the store
+    private final Set<Route> checkedRoutes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a new rate-limiter with the {@link #DEFAULT_GLOBAL_LIMIT default global limit} and {@link #DEFAULT_BATCH_SIZE batch size}.
+     *
+     * @param  config
+     *         The rate-limit config
+     * @param  store
+     *         The shared store
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     */
+    public ClusterRestRateLimiter(@Nonnull RateLimitConfig config, @Nonnull Store store)
+    {
+        this(config, store, DEFAULT_GLOBAL_LIMIT, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a new rate-limiter.
+     * <br>The {@link RateLimitConfig#getGlobalRateLimit() global rate-limit} of the config is replaced by the store.
+     *
+     * @param  config
+     *         The rate-limit config
+     * @param  store
+     *         The shared store
+     * @param  globalLimit
+     *         The global rate-limit of the token, in requests per second
+     * @param  batchSize
+     *         The number of global permits to acquire at once
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided, or the limit or batch size are not positive
+     */
+    public ClusterRestRateLimiter(@Nonnull RateLimitConfig config, @Nonnull Store store, int globalLimit, int batchSize)
+    {
+        super(config);
+        Checks.notNull(store, "Store");
+        Checks.positive(globalLimit, "Global limit");
+        Checks.positive(batchSize, "Batch size");
+        this.store = store;
+        this.budget = new GlobalBudget(globalLimit, Math.min(batchSize, globalLimit));
+    }
+
+    @Override
+    protected boolean canRemove(@Nonnull ConcurrentBucket bucket)
+    {
+        // The state of the buckets remains in the store, so every empty bucket can be removed
+        return true;
+    }
+
+    @Override
+    protected void cleanup()
+    {
+        if (store instanceof InMemoryStore)
+            ((InMemoryStore) store).cleanup(getNow());
+        super.cleanup();
+    }
+
+    @Nonnull
+    @Override
+    protected ConcurrentBucket createBucket(@Nonnull String bucketId, boolean interaction)
+    {
+        return new ClusterBucket(bucketId, interaction);
+    }
+
+    @Override
+    protected void setHash(@Nonnull Route baseRoute, @Nonnull String hash)
+    {
+        // Share the hash of the route with the other processes
+        if (hashes.putIfAbsent(baseRoute, hash) == null)
+        {
+            checkedRoutes.add(baseRoute);
+            store.setHash(baseRoute.toString(), hash);
+            log.debug("Caching bucket hash {} -> {}", baseRoute, hash);
+        }
+    }
+
+    @Override
+    protected void setGlobalRateLimit(long timestamp, boolean cloudflare)
+    {
+        budget.setCooldown(timestamp, cloudflare);
+        if (cloudflare)
+            store.setCloudflare(timestamp);
+        else
+            store.setClassic(timestamp);
+    }
+
+    /**
+     * Store for rate-limit information shared by multiple processes.
+     * <br>The global rate-limit timestamps of {@link GlobalRateLimit} are shared through the store as well.
+     *
+     * <p>Every operation has to be atomic with regard to all processes using the store.
+     * Operations are called by the bucket workers, either on the rate-limit threads or on the thread which completed a request.
+     * They may block for the round trip to a remote store, but should fail after a short timeout instead of blocking the workers indefinitely.
+     *
+     * @see InMemoryStore
+     * @see LoopbackRateLimitStore
+     */
+    public interface Store extends GlobalRateLimit
+    {
+        /**
+         * The bucket hash of the provided route.
+         *
+         * @param  route
+         *         The route, for example {@code POST/channels/{channel_id}/messages}
+         *
+         * @return The bucket hash, or null if the hash is not known yet
+         */
+        @Nullable
+        String getHash(@Nonnull String route);
+
+        /**
+         * Sets the bucket hash of the provided route.
+         *
+         * @param route
+         *        The route, for example {@code POST/channels/{channel_id}/messages}
+         * @param hash
+         *        The bucket hash of the route
+         */
+        void setHash(@Nonnull String route, @Nonnull String hash);
+
+        /**
+         * Attempts to reserve a request on the provided bucket.
+         *
+         * <p>If the bucket has remaining uses, one use is consumed.
+         * If the state of the bucket is unknown or the reset time has passed,
+         * the bucket is reserved exclusively for the caller until the next {@link #update(String, int, long) update},
+         * or until the lease time expired.
+         *
+         * @param  bucketId
+         *         The bucket id
+         * @param  now
+         *         The current time (unix timestamp in milliseconds)
+         * @param  lease
+         *         The time in milliseconds after which an exclusive reservation is released
+         *
+         * @return 0 if the request was reserved, otherwise the time in milliseconds until the bucket resets
+         */
+        long acquire(@Nonnull String bucketId, long now, long lease);
+
+        /**
+         * Updates the state of the provided bucket with the information of a response.
+         *
+         * <p>This always replaces an exclusive reservation.
+         * Otherwise, the state is only replaced for a later reset time,
+         * and the remaining uses can only decrease within the same reset window.
+         *
+         * @param bucketId
+         *        The bucket id
+         * @param remaining
+         *        The remaining uses of the bucket
+         * @param reset
+         *        The reset time (unix timestamp in milliseconds), or 0 if unknown
+         */
+        void update(@Nonnull String bucketId, int remaining, long reset);
+
+        /**
+         * Takes up to the provided number of permits from the global budget of a one-second window.
+         *
+         * @param  window
+         *         The window, the current time in seconds
+         * @param  permits
+         *         The number of permits to take
+         * @param  limit
+         *         The total number of permits in every window
+         *
+         * @return The number of permits taken, between 0 and {@code permits}
+         */
+        int acquireGlobal(long window, int permits, int limit);
+    }
+
+    /**
+     * Default implementation of {@link Store}, keeping all state in memory.
+     * <br>This only coordinates the rate-limiters of a single process, and is used by {@link LoopbackRateLimitStore.Server} to share its state.
+     */
+    public static class InMemoryStore implements Store
+    {
+        private final AtomicLong classic = new AtomicLong(-1);
+        private final AtomicLong cloudflare = new AtomicLong(-1);
+        private final Map<String, String> hashes = new ConcurrentHashMap<>();
+        private final Map<String, long[]> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong window = new AtomicLong();
+        private final AtomicInteger used = new AtomicInteger();
+
+        // Bucket state layout, guarded by the lock of the array
+        private static final int REMAINING = 0, RESET = 1, LEASED = 2;
+
+        @Override
+        public long getClassic()
+        {
+            return classic.get();
+        }
+
+        @Override
+        public void setClassic(long timestamp)
+        {
+            classic.set(timestamp);
+        }
+
+        @Override
+        public long getCloudflare()
+        {
+            return cloudflare.get();
+        }
+
+        @Override
+        public void setCloudflare(long timestamp)
+        {
+            cloudflare.set(timestamp);
+        }
+
+        @Nullable
+        @Override
+        public String getHash(@Nonnull String route)
+        {
+            return hashes.get(route);
+        }
+
+        @Override
+        public void setHash(@Nonnull String route, @Nonnull String hash)
+        {
+            hashes.putIfAbsent(route, hash);
+        }
+
+        @Override
+        public long acquire(@Nonnull String bucketId, long now, long lease)
+        {
+            long[] state = buckets.computeIfAbsent(bucketId, k -> new long[3]);
+            synchronized (state)
+            {
+                if (state[RESET] <= now)
+                {
+                    // Unknown state, only allow one request until its response updated the bucket
+                    state[REMAINING] = 0;
+                    state[RESET] = now + lease;
+                    state[LEASED] = 1;
+                    return 0;
+                }
+                if (state[REMAINING] > 0)
+                {
+                    state[REMAINING]--;
+                    return 0;
+                }
+                return state[RESET] - now;
+            }
+        }
+
+        @Override
+        public void update(@Nonnull String bucketId, int remaining, long reset)
+        {
+            long[] state = buckets.computeIfAbsent(bucketId, k -> new long[3]);
+            synchronized (state)
+            {
+                if (state[LEASED] != 0 || reset > state[RESET])
+                {
+                    state[REMAINING] = remaining;
+                    state[RESET] = reset;
+                    state[LEASED] = 0;
+                }
+                else
+                {
+                    state[REMAINING] = Math.min(state[REMAINING], remaining);
+                }
+            }
+        }
+
+        @Override
+        public int acquireGlobal(long window, int permits, int limit)
+        {
+            synchronized (this.window)
+            {
+                long current = this.window.get();
+                // Permits of a past window can no longer be used, a late call must not reset the current window
+                if (window < current)
+                    return 0;
+                if (window > current)
+                {
+                    this.window.set(window);
+                    used.set(0);
+                }
+                int taken = Math.max(0, Math.min(permits, limit - used.get()));
+                used.addAndGet(taken);
+                return taken;
+            }
+        }
+
+        /**
+         * Removes the state of buckets which have reset before the provided time.
+         *
+         * @param now
+         *        The current time (unix timestamp in milliseconds)
+         */
+        public void cleanup(long now)
+        {
+            buckets.values().removeIf(state -> {
+                synchronized (state)
+                {
+                    return state[RESET] <= now;
+                }
+            });
+        }
+    }
+
+    /**
+     * Permits of the global budget, which were acquired from the store but not used yet.
+     */
+    private class GlobalBudget
+    {
+        private final int limit;
+        private final int batchSize;
+        private long window = -1;
+        private int permits = 0;
+        // The end of the window, if the budget of the window is exhausted for every process
+        private long exhaustedUntil = 0;
+        private volatile long classic = -1, cloudflare = -1;
+
+        private GlobalBudget(int limit, int batchSize)
+        {
+            this.limit = limit;
+            this.batchSize = batchSize;
+        }
+
+        private void setCooldown(long timestamp, boolean isCloudflare)
+        {
+            if (isCloudflare)
+                cloudflare = timestamp;
+            else
+                classic = timestamp;
+        }
+
+        private long getCooldown(long now, boolean interaction)
+        {
+            long global = interaction ? cloudflare : Math.max(classic, cloudflare);
+            return global - now;
+        }
+
+        /**
+         * Takes a permit of the current window, acquiring a new batch from the store if necessary.
+         *
+         * @return 0 if a permit was taken, otherwise the backoff in milliseconds
+         */
+        private synchronized long acquire(long now)
+        {
+            long current = now / 1000;
+            if (window != current)
+            {
+                // Permits of the previous window expired
+                window = current;
+                permits = 0;
+                // Other processes might have hit the global rate-limit in the meantime
+                classic = Math.max(classic, store.getClassic());
+                cloudflare = Math.max(cloudflare, store.getCloudflare());
+            }
+
+            long cooldown = getCooldown(now, false);
+            if (cooldown > 0)
+                return cooldown;
+
+            if (permits == 0 && exhaustedUntil <= now)
+            {
+                permits = store.acquireGlobal(current, batchSize, limit);
+                // A partial batch means the other processes used the rest of this window
+                if (permits < batchSize)
+                    exhaustedUntil = (current + 1) * 1000;
+            }
+
+            if (permits == 0)
+                return exhaustedUntil - now; // budget exhausted until the next window
+            permits--;
+            return 0;
+        }
+    }
+
+    private class ClusterBucket extends ConcurrentBucket
+    {
+        private ClusterBucket(@Nonnull String bucketId, boolean interaction)
+        {
+            super(bucketId, interaction);
+        }
+
+        @Override
+        protected long getDelay()
+        {
+            // The state of the bucket is only known after acquiring a request from the store
+            return Math.max(0, backoff);
+        }
+
+        @Override
+        public long getGlobalRateLimit(long now)
+        {
+            // Only cloudflare bans apply to interactions
+            return budget.getCooldown(now, interaction);
+        }
+
+        /**
+         * Reserves a request on the global budget and the shared bucket state.
+         *
+         * @return 0 if the request can be executed, otherwise the backoff in milliseconds
+         */
+        @Override
+        protected long acquire()
+        {
+            long now = getNow();
+            // The global permit is taken first, since a bucket reservation can only be released with a response
+            long global = interaction ? budget.getCooldown(now, true) : budget.acquire(now);
+            if (global > 0)
+                return global;
+            return store.acquire(bucketId, now, LEASE_TIME);
+        }
+
+        @Nonnull
+        @Override
+        protected Bucket update(@Nonnull Route.CompiledRoute route, int remaining, long reset)
+        {
+            // The reservation was taken on this bucket, even if the response revealed the hash of an uninit route
+            store.update(bucketId, remaining, reset);
+            return this;
+        }
+
+        @Override
+        protected boolean moveRequest(@Nonnull Work request)
+        {
+            // Another process might already know the hash of this route
+            Route baseRoute = request.getRoute().getBaseRoute();
+            if (!hashes.containsKey(baseRoute) && checkedRoutes.add(baseRoute))
+            {
+                try
+                {
+                    String hash = store.getHash(baseRoute.toString());
+                    if (hash != null)
+                        hashes.putIfAbsent(baseRoute, hash);
+                }
+                catch (Exception ex)
+                {
+                    checkedRoutes.remove(baseRoute);
+                    log.error("Failed to retrieve bucket hash from store for route {}", baseRoute, ex);
+                }
+            }
+            return super.moveRequest(request);
+        }
+
+        @Override
+        protected void onResponse(@Nonnull Work request, @Nullable Response response)
+        {
+            try
+            {
+                // Without rate-limit information, the reservation is released and the bucket state stays unknown
+                if (response == null || !updateBucket(this, request.getRoute(), response))
+                    store.update(bucketId, 1, 0);
+            }
+            catch (Exception ex)
+            {
+                // The reservation expires with its lease, the request still has to be retried or completed
+                log.error("Failed to release bucket {} in store", bucketId, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.api.requests;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rate-limiter which stores its buckets in a concurrent map, without a shared lock.
+ *
+ * <p>Each bucket tracks its worker with an atomic state machine:
+ * <ol>
+ *     <li><b>Idle</b> - No worker is scheduled, the next enqueued request schedules one</li>
+ *     <li><b>Scheduled</b> - A worker is scheduled or running, and will drain the queue of the bucket</li>
+ *     <li><b>Retired</b> - The bucket was removed by the cleanup, requests are redirected to its replacement</li>
+ * </ol>
+ */
+abstract class ConcurrentRestRateLimiter extends AbstractRestRateLimiter
+{
+    protected static final int IDLE = 0, SCHEDULED = 1, RETIRED = 2;
+
+    // Hash + Major Parameter -> Bucket
+    protected final Map<String, ConcurrentBucket> buckets = new ConcurrentHashMap<>();
+
+    protected ConcurrentRestRateLimiter(@Nonnull RateLimitConfig config)
+    {
+        super(config);
+    }
+
+    /**
+     * Whether the provided bucket can be removed by the cleanup.
+     * <br>Only idle buckets without requests are checked.
+     *
+     * @param  bucket
+     *         The bucket
+     *
+     * @return True, if the bucket has no valuable information
+     */
+    protected abstract boolean canRemove(@Nonnull ConcurrentBucket bucket);
+
+    @Nonnull
+    protected ConcurrentBucket createBucket(@Nonnull String bucketId, boolean interaction)
+    {
+        return new ConcurrentBucket(bucketId, interaction);
+    }
+
+    @Override
+    public void enqueue(@Nonnull Work task)
+    {
+        while (true)
+        {
+            if (isShutdown.get())
+            {
+                task.cancel();
+                return;
+            }
+
+            ConcurrentBucket bucket = getBucket(task.getRoute());
+            bucket.enqueue(task);
+            if (bucket.schedule() || !bucket.isRetired())
+                return;
+            // The bucket was retired concurrently, take the request back unless the cleanup already moved it
+            if (!bucket.requests.remove(task))
+                return;
+        }
+    }
+
+    @Nonnull
+    @Override
+    protected Collection<ConcurrentBucket> getBuckets()
+    {
+        return buckets.values();
+    }
+
+    @Override
+    protected void cleanup()
+    {
+        // This will remove buckets that are no longer needed every 30 seconds to avoid memory leakage
+        // We will keep the hashes in memory since they are very limited (by the amount of possible routes)
+        int removed = 0;
+        for (ConcurrentBucket bucket : buckets.values())
+        {
+            if (isShutdown.get())
+                bucket.requests.forEach(Work::cancel); // Cancel all requests
+            bucket.requests.removeIf(Work::isSkipped); // Remove cancelled requests
+
+            // Only idle buckets can be removed, running workers still need their bucket
+            if (!bucket.requests.isEmpty() || bucket.state.get() != IDLE)
+                continue;
+
+            if (canRemove(bucket) && bucket.retire())
+                removed++;
+        }
+
+        // Log how many buckets were removed
+        if (removed > 0)
+            log.debug("Removed {} expired buckets", removed);
+        else if (isStopped && !isShutdown.get())
+            shutdown();
+    }
+
+    @Nonnull
+    @Override
+    protected ConcurrentBucket getBucket(@Nonnull Route.CompiledRoute route)
+    {
+        // Retrieve the hash via the route
+        String hash = getRouteHash(route.getBaseRoute());
+        // Get or create a bucket for the hash + major parameters
+        String bucketId = hash + ":" + route.getMajorParameters();
+        ConcurrentBucket bucket = buckets.get(bucketId);
+        if (bucket != null)
+            return bucket;
+        return buckets.computeIfAbsent(bucketId, (id) -> createBucket(id, route.getBaseRoute().isInteractionBucket()));
+    }
+
+    protected class ConcurrentBucket extends Bucket
+    {
+        protected final AtomicInteger state = new AtomicInteger(IDLE);
+
+        protected ConcurrentBucket(@Nonnull String bucketId, boolean interaction)
+        {
+            super(bucketId, interaction);
+        }
+
+        public boolean isRetired()
+        {
+            return state.get() == RETIRED;
+        }
+
+        /**
+         * The delay before a new worker of this bucket runs.
+         *
+         * @return The delay in milliseconds
+         */
+        protected long getDelay()
+        {
+            return getRateLimit();
+        }
+
+        /**
+         * Schedules a worker for this bucket, unless one is already scheduled.
+         *
+         * @return True, if a worker is scheduled or running
+         */
+        public boolean schedule()
+        {
+            int current = state.get();
+            if (current == SCHEDULED)
+                return true;
+            if (current == RETIRED || !state.compareAndSet(IDLE, SCHEDULED))
+                return state.get() == SCHEDULED;
+
+            try
+            {
+                config.getScheduler().schedule(() -> scheduleElastic(this), getDelay(), TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException ex)
+            {
+                state.set(IDLE);
+                if (!isShutdown.get())
+                    log.error("Failed to schedule bucket worker", ex);
+            }
+            return true;
+        }
+
+        /**
+         * Removes this bucket from the rate-limiter, if no worker is scheduled.
+         *
+         * @return True, if the bucket was removed
+         */
+        public boolean retire()
+        {
+            if (!state.compareAndSet(IDLE, RETIRED))
+                return false;
+            buckets.remove(bucketId, this);
+            // Requests which were added while retiring are moved to the replacement bucket
+            Work request;
+            while ((request = requests.pollFirst()) != null)
+                ConcurrentRestRateLimiter.this.enqueue(request);
+            return true;
+        }
+
+        @Override
+        protected void backoff()
+        {
+            // Release the worker first, requests added in the meantime schedule a new one
+            state.set(IDLE);
+            if (!requests.isEmpty())
+                schedule();
+            else if (isStopped && retire() && buckets.isEmpty())
+                shutdown();
+        }
+    }
+}
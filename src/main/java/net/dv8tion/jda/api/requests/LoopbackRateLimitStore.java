@@ -0,0 +1,347 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.concurrent.CountingThreadFactory;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reference implementation of {@link ClusterRestRateLimiter.Store}, which shares the state of a {@link Server}
+ * with all processes on the same machine through a loopback socket.
+ *
+ * <p>This is primarily meant for tests and small deployments on a single machine.
+ * Every operation is one round trip over a single connection, which is reopened on the next operation after a failure.
+ * Failed operations, including operations which did not complete within the timeout, throw an {@link UncheckedIOException}.
+ *
+ * <p><b>Example</b>
+ * <pre>{@code
+ * // In one process, or in a separate coordinator
+ * LoopbackRateLimitStore.Server server = new LoopbackRateLimitStore.Server(4242);
+ * // In every process using the token
+ * ClusterRestRateLimiter.Store store = new LoopbackRateLimitStore(4242);
+ * }</pre>
+ */
+public class LoopbackRateLimitStore implements ClusterRestRateLimiter.Store, Closeable
+{
+    private static final Logger log = JDALogger.getLog(RestRateLimiter.class);
+    private static final String SEPARATOR = "\t";
+
+    /** Default timeout (in milliseconds) for connecting to the server and for every operation */
+    public static final int DEFAULT_TIMEOUT = 1000;
+
+    private final int port;
+    private final int timeout;
+    private Socket socket;
+    private BufferedReader reader;
+    private Writer writer;
+
+    /**
+     * Creates a new store connected to the {@link Server} on the provided port, using the {@link #DEFAULT_TIMEOUT default timeout}.
+     * <br>The connection is opened lazily by the first operation.
+     *
+     * @param port
+     *        The port of the server
+     */
+    public LoopbackRateLimitStore(int port)
+    {
+        this(port, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a new store connected to the {@link Server} on the provided port.
+     * <br>The connection is opened lazily by the first operation.
+     *
+     * @param  port
+     *         The port of the server
+     * @param  timeout
+     *         The timeout in milliseconds for connecting to the server and for every operation
+     *
+     * @throws IllegalArgumentException
+     *         If the timeout is not positive
+     */
+    public LoopbackRateLimitStore(int port, int timeout)
+    {
+        Checks.positive(timeout, "Timeout");
+        this.port = port;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if (socket == null)
+            return;
+        try
+        {
+            socket.close();
+        }
+        catch (IOException ignored) {}
+        socket = null;
+        reader = null;
+        writer = null;
+    }
+
+    private synchronized String call(String... command)
+    {
+        try
+        {
+            if (socket == null)
+            {
+                socket = new Socket();
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), timeout);
+                socket.setSoTimeout(timeout);
+                socket.setTcpNoDelay(true);
+                reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            }
+
+            writer.write(String.join(SEPARATOR, command));
+            writer.write('\n');
+            writer.flush();
+            String response = reader.readLine();
+            if (response == null)
+                throw new EOFException("Connection closed by server");
+            return response;
+        }
+        catch (IOException e)
+        {
+            // A timed out response might still arrive, so the connection cannot be reused
+            close();
+            throw new UncheckedIOException("Failed to reach rate-limit store on port " + port, e);
+        }
+    }
+
+    @Override
+    public long getClassic()
+    {
+        return Long.parseLong(call("GET_CLASSIC"));
+    }
+
+    @Override
+    public void setClassic(long timestamp)
+    {
+        call("SET_CLASSIC", Long.toString(timestamp));
+    }
+
+    @Override
+    public long getCloudflare()
+    {
+        return Long.parseLong(call("GET_CLOUDFLARE"));
+    }
+
+    @Override
+    public void setCloudflare(long timestamp)
+    {
+        call("SET_CLOUDFLARE", Long.toString(timestamp));
+    }
+
+    @Nullable
+    @Override
+    public String getHash(@Nonnull String route)
+    {
+        String hash = call("GET_HASH", route);
+        return hash.isEmpty() ? null : hash;
+    }
+
+    @Override
+    public void setHash(@Nonnull String route, @Nonnull String hash)
+    {
+        call("SET_HASH", route, hash);
+    }
+
+    @Override
+    public long acquire(@Nonnull String bucketId, long now, long lease)
+    {
+        return Long.parseLong(call("ACQUIRE", bucketId, Long.toString(now), Long.toString(lease)));
+    }
+
+    @Override
+    public void update(@Nonnull String bucketId, int remaining, long reset)
+    {
+        call("UPDATE", bucketId, Integer.toString(remaining), Long.toString(reset));
+    }
+
+    @Override
+    public int acquireGlobal(long window, int permits, int limit)
+    {
+        return Integer.parseInt(call("ACQUIRE_GLOBAL", Long.toString(window), Integer.toString(permits), Integer.toString(limit)));
+    }
+
+    /**
+     * Server which shares an {@link ClusterRestRateLimiter.InMemoryStore InMemoryStore} with the {@link LoopbackRateLimitStore} clients.
+     * <br>The server only accepts connections on the loopback address, and handles every connection on its own daemon thread.
+     */
+    public static class Server implements Closeable
+    {
+        private static final long CLEANUP_INTERVAL = 30000;
+
+        private final ClusterRestRateLimiter.InMemoryStore store = new ClusterRestRateLimiter.InMemoryStore();
+        private final AtomicLong lastCleanup = new AtomicLong(System.currentTimeMillis());
+        private final ServerSocket serverSocket;
+        private final ExecutorService pool;
+
+        /**
+         * Starts a new server on the provided port.
+         *
+         * @param  port
+         *         The port to listen on, or 0 to use any free port
+         *
+         * @throws IllegalArgumentException
+         *         If the port is out of range
+         * @throws IOException
+         *         If the server socket cannot be opened
+         */
+        public Server(int port) throws IOException
+        {
+            Checks.notNegative(port, "Port");
+            this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+            this.pool = Executors.newCachedThreadPool(new CountingThreadFactory(() -> "JDA", "RateLimitStore"));
+            this.pool.execute(this::accept);
+        }
+
+        /**
+         * The port this server listens on.
+         *
+         * @return The port
+         */
+        public int getPort()
+        {
+            return serverSocket.getLocalPort();
+        }
+
+        /**
+         * The store which is shared by this server.
+         *
+         * @return The store
+         */
+        @Nonnull
+        public ClusterRestRateLimiter.InMemoryStore getStore()
+        {
+            return store;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            serverSocket.close();
+            pool.shutdownNow();
+        }
+
+        private void accept()
+        {
+            while (!serverSocket.isClosed())
+            {
+                try
+                {
+                    Socket socket = serverSocket.accept();
+                    pool.execute(() -> handle(socket));
+                }
+                catch (RejectedExecutionException | SocketException ignored)
+                {
+                    // Server closed
+                }
+                catch (IOException e)
+                {
+                    log.error("Failed to accept connection to rate-limit store", e);
+                }
+            }
+        }
+
+        private void handle(Socket socket)
+        {
+            try (Socket ignored = socket;
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)))
+            {
+                socket.setTcpNoDelay(true);
+                String line;
+                while ((line = reader.readLine()) != null)
+                {
+                    writer.write(execute(line.split(SEPARATOR, -1)));
+                    writer.write('\n');
+                    writer.flush();
+                    cleanup();
+                }
+            }
+            catch (IOException e)
+            {
+                if (!serverSocket.isClosed())
+                    log.debug("Rate-limit store connection closed", e);
+            }
+            catch (RuntimeException e)
+            {
+                log.error("Rate-limit store received malformed command", e);
+            }
+        }
+
+        private String execute(String[] command)
+        {
+            switch (command[0])
+            {
+                case "GET_CLASSIC":
+                    return Long.toString(store.getClassic());
+                case "SET_CLASSIC":
+                    store.setClassic(Long.parseLong(command[1]));
+                    return "OK";
+                case "GET_CLOUDFLARE":
+                    return Long.toString(store.getCloudflare());
+                case "SET_CLOUDFLARE":
+                    store.setCloudflare(Long.parseLong(command[1]));
+                    return "OK";
+                case "GET_HASH":
+                    String hash = store.getHash(command[1]);
+                    return hash == null ? "" : hash;
+                case "SET_HASH":
+                    store.setHash(command[1], command[2]);
+                    return "OK";
+                case "ACQUIRE":
+                    return Long.toString(store.acquire(command[1], Long.parseLong(command[2]), Long.parseLong(command[3])));
+                case "UPDATE":
+                    store.update(command[1], Integer.parseInt(command[2]), Long.parseLong(command[3]));
+                    return "OK";
+                case "ACQUIRE_GLOBAL":
+                    return Integer.toString(store.acquireGlobal(Long.parseLong(command[1]), Integer.parseInt(command[2]), Integer.parseInt(command[3])));
+                default:
+                    throw new IllegalArgumentException("Unknown command " + command[0]);
+            }
+        }
+
+        private void cleanup()
+        {
+            long now = System.currentTimeMillis();
+            long last = lastCleanup.get();
+            if (now - last >= CLEANUP_INTERVAL && lastCleanup.compareAndSet(last, now))
+                store.cleanup(now);
+        }
+    }
+}
@@ -23,6 +23,10 @@ import okhttp3.Request;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -47,6 +51,10 @@ public class RestConfig
     private String userAgent = USER_AGENT;
     private String baseUrl = DEFAULT_BASE_URL;
     private boolean relativeRateLimit = true;
+    private boolean nonBlocking = false;
+    private boolean requestCoalescing = false;
+    private int responseCacheSize = 0;
+    private final Map<Route, Duration> responseCacheTtls = getDefaultResponseCacheTtls();
     private Consumer<? super Request.Builder> customBuilder;
     private Function<? super RestRateLimiter.RateLimitConfig, ? extends RestRateLimiter> rateLimiter = SequentialRestRateLimiter::new;
 
@@ -66,9 +74,120 @@ public class RestConfig
         return this;
     }
 
+    /**
+     * Whether requests should be executed without blocking a rate-limit thread for the entire round trip.
+     * <br>By default, every request occupies a thread of the rate-limit elastic pool until its response was received,
+     * including the backoff between retries of server errors.
+     *
+     * <p>When enabled, requests are sent with {@link okhttp3.Call#enqueue(okhttp3.Callback) asynchronous calls}
+     * and the rate-limiter continues with the bucket once the response arrived.
+     * Retries are scheduled on the rate-limit scheduler instead of sleeping.
+     * The number of concurrent calls is then limited by the {@link okhttp3.Dispatcher Dispatcher} of the HTTP client.
+     *
+     * @param  nonBlocking
+     *         True, to execute requests asynchronously
+     *
+     * @return The current RestConfig for chaining convenience
+     *
+     * @see    RestRateLimiter.Work#executeAsync()
+     */
+    @Nonnull
+    public RestConfig setNonBlocking(boolean nonBlocking)
+    {
+        this.nonBlocking = nonBlocking;
+        return this;
+    }
+
+    /**
+     * Whether identical GET requests which are queued at the same time should share a single HTTP call.
+     * <br>This is useful when different listeners retrieve the same entity concurrently,
+     * for example with {@link net.dv8tion.jda.api.entities.Guild#retrieveMemberById(long) Guild.retrieveMemberById(id)}.
+     *
+     * <p>A request joins the call of an identical request if both use the same {@link Route.CompiledRoute route} and query parameters,
+     * and neither uses custom headers or is marked as priority. The response of the call is handed to every request, in the order they were queued.
+     * Every request receives its own copy of the response body, and its deadline and checks still apply while the call is pending.
+     * The call is only skipped once every request which joined it was cancelled or skipped.
+     *
+     * <p>Default: {@code false}
+     *
+     * @param  requestCoalescing
+     *         True, to share calls between identical GET requests
+     *
+     * @return The current RestConfig for chaining convenience
+     */
+    @Nonnull
+    public RestConfig setRequestCoalescing(boolean requestCoalescing)
+    {
+        this.requestCoalescing = requestCoalescing;
+        return this;
+    }
+
+    /**
+     * Enables a short-lived cache for responses of read-only routes, which holds up to the provided number of responses.
+     * <br>Once the cache is full, the least recently used response is evicted.
+     *
+     * <p>Only responses of routes with a configured TTL are cached, see {@link #setResponseCacheTtl(Route, Duration)}.
+     * By default, this includes routes which rarely change, such as bans, invites, emojis, stickers, application commands, and voice regions.
+     * Any request with a mutating method invalidates the cached responses of routes with the same major parameters,
+     * for example {@link Route.Guilds#BAN} invalidates {@link Route.Guilds#GET_BANS} of the same guild.
+     * Routes without major parameters are grouped by the first segment of their path instead,
+     * for example {@link Route.Interactions#EDIT_COMMAND} invalidates {@link Route.Interactions#GET_COMMANDS}.
+     * Responses of requests which were sent before such an invalidation are not cached.
+     *
+     * <p>Changes made by other clients, or received through the gateway, are not reflected until the cached response expires.
+     * Requests with custom headers or a request body always bypass the cache.
+     *
+     * <p>Default: {@code 0} (disabled)
+     *
+     * @param  maxSize
+     *         The maximum number of cached responses, or {@code 0} to disable the cache
+     *
+     * @throws IllegalArgumentException
+     *         If the provided size is negative
+     *
+     * @return The current RestConfig for chaining convenience
+     */
+    @Nonnull
+    public RestConfig setResponseCacheSize(int maxSize)
+    {
+        Checks.notNegative(maxSize, "Max size");
+        this.responseCacheSize = maxSize;
+        return this;
+    }
+
+    /**
+     * Configures how long responses of the provided route are cached.
+     * <br>This has no effect, unless the cache is enabled with {@link #setResponseCacheSize(int)}.
+     *
+     * @param  route
+     *         The {@link Method#GET GET} route
+     * @param  ttl
+     *         The time a response stays cached, or {@link Duration#ZERO} to not cache this route
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided, the route is not a GET route, or the duration is negative
+     *
+     * @return The current RestConfig for chaining convenience
+     */
+    @Nonnull
+    public RestConfig setResponseCacheTtl(@Nonnull Route route, @Nonnull Duration ttl)
+    {
+        Checks.notNull(route, "Route");
+        Checks.notNull(ttl, "TTL");
+        Checks.check(route.getMethod() == Method.GET, "Only GET routes can be cached");
+        Checks.check(!ttl.isNegative(), "TTL must not be negative");
+        if (ttl.isZero())
+            responseCacheTtls.remove(route);
+        else
+            responseCacheTtls.put(route, ttl);
+        return this;
+    }
+
     /**
      * Provide a custom implementation of {@link RestRateLimiter}.
      * <br>By default, this will use the {@link SequentialRestRateLimiter}.
+     * The {@link StripedRestRateLimiter} avoids contention on a single lock, if many shards share the same rate-limiter.
+     * The {@link ClusterRestRateLimiter} coordinates the rate-limits of multiple processes using the same token.
      *
      * @param  rateLimiter
      *         The new implementation
@@ -214,4 +333,64 @@ public class RestConfig
     {
         return relativeRateLimit;
     }
+
+    /**
+     * Whether requests are executed without blocking a rate-limit thread for the entire round trip.
+     *
+     * @return True, if requests are executed asynchronously
+     */
+    public boolean isNonBlocking()
+    {
+        return nonBlocking;
+    }
+
+    /**
+     * Whether identical GET requests which are queued at the same time share a single HTTP call.
+     *
+     * @return True, if request coalescing is enabled
+     */
+    public boolean isRequestCoalescing()
+    {
+        return requestCoalescing;
+    }
+
+    /**
+     * The maximum number of cached responses.
+     *
+     * @return The maximum size of the response cache, {@code 0} if disabled
+     */
+    public int getResponseCacheSize()
+    {
+        return responseCacheSize;
+    }
+
+    /**
+     * The routes whose responses are cached, and for how long.
+     *
+     * @return Immutable map of routes to their TTL
+     */
+    @Nonnull
+    public Map<Route, Duration> getResponseCacheTtls()
+    {
+        return Collections.unmodifiableMap(responseCacheTtls);
+    }
+
+    private static Map<Route, Duration> getDefaultResponseCacheTtls()
+    {
+        Map<Route, Duration> ttls = new HashMap<>();
+        ttls.put(Route.Guilds.GET_BANS, Duration.ofSeconds(30));
+        ttls.put(Route.Invites.GET_INVITE, Duration.ofMinutes(1));
+        ttls.put(Route.Applications.GET_BOT_APPLICATION, Duration.ofMinutes(5));
+        ttls.put(Route.Interactions.GET_COMMANDS, Duration.ofMinutes(1));
+        ttls.put(Route.Interactions.GET_GUILD_COMMANDS, Duration.ofMinutes(1));
+        ttls.put(Route.Emojis.GET_EMOJIS, Duration.ofMinutes(1));
+        ttls.put(Route.Emojis.GET_EMOJI, Duration.ofMinutes(1));
+        ttls.put(Route.Stickers.GET_GUILD_STICKERS, Duration.ofMinutes(1));
+        ttls.put(Route.Stickers.GET_GUILD_STICKER, Duration.ofMinutes(1));
+        ttls.put(Route.Stickers.GET_STICKER, Duration.ofMinutes(5));
+        ttls.put(Route.Stickers.LIST_PACKS, Duration.ofMinutes(10));
+        ttls.put(Route.Misc.GET_VOICE_REGIONS, Duration.ofMinutes(10));
+        ttls.put(Route.Guilds.GET_VOICE_REGIONS, Duration.ofMinutes(10));
+        return ttls;
+    }
 }
@@ -22,13 +22,14 @@ import org.jetbrains.annotations.Blocking;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Interface used to handle requests to the Discord API.
- * <p>Requests are handed to the rate-limiter via {@link #enqueue(Work)} and executed using {@link Work#execute()}.
+ * <p>Requests are handed to the rate-limiter via {@link #enqueue(Work)} and executed using {@link Work#execute()} or {@link Work#executeAsync()}.
  * The rate-limiter is responsible to ensure that requests do not exceed the rate-limit set by Discord.
  */
 public interface RestRateLimiter
@@ -87,7 +88,8 @@ public interface RestRateLimiter
     /**
      * Type representing a pending request.
      *
-     * <p>Use {@link #execute()} to run the request (on the calling thread) and {@link #isDone()} to discard it once completed.
+     * <p>Use {@link #execute()} to run the request (on the calling thread), or {@link #executeAsync()} to run it without blocking,
+     * and {@link #isDone()} to discard it once completed.
      */
     interface Work
     {
@@ -123,6 +125,31 @@ public interface RestRateLimiter
         @Blocking
         Response execute();
 
+        /**
+         * Executes the request without blocking the calling thread, if {@link RestConfig#setNonBlocking(boolean) enabled}.
+         * <br>The returned future completes with the same result as {@link #execute()}, once the response has been handled.
+         * Retries for certain response codes are already handled by this method.
+         *
+         * <p>The default implementation runs {@link #execute()} on the calling thread and returns a completed future.
+         * Continuations of the returned future might run on the threads of the HTTP client, and should not block.
+         *
+         * @return {@link CompletableFuture} for the {@link Response} instance, used to update the rate-limit data
+         */
+        @Nonnull
+        default CompletableFuture<Response> executeAsync()
+        {
+            try
+            {
+                return CompletableFuture.completedFuture(execute());
+            }
+            catch (RuntimeException ex)
+            {
+                CompletableFuture<Response> future = new CompletableFuture<>();
+                future.completeExceptionally(ex);
+                return future;
+            }
+        }
+
         /**
          * Whether the request should be skipped.
          * <br>This can be caused by user cancellation.
@@ -17,14 +17,11 @@
 package net.dv8tion.jda.api.requests;
 
 import net.dv8tion.jda.api.utils.MiscUtil;
-import net.dv8tion.jda.internal.utils.JDALogger;
-import okhttp3.Headers;
-import okhttp3.Response;
-import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -61,32 +58,17 @@ import java.util.concurrent.locks.ReentrantLock;
  * The bucket iterates the requests in sync and gets the first response. This response provides the hash for this route, and we create a bucket for it.
  * Once the response is handled we continue with the next request in the uninit bucket and notice the new bucket. We then move all related requests to this bucket.
  */
-public final class SequentialRestRateLimiter implements RestRateLimiter
+public final class SequentialRestRateLimiter extends AbstractRestRateLimiter
 {
-    private static final Logger log = JDALogger.getLog(RestRateLimiter.class);
-    private static final String UNINIT_BUCKET = "uninit"; // we generate an uninit bucket for every major parameter configuration
-
-    private final CompletableFuture<?> shutdownHandle = new CompletableFuture<>();
-
-    private final Future<?> cleanupWorker;
-    private final RateLimitConfig config;
-
-    private boolean isStopped, isShutdown;
-
     private final ReentrantLock lock = new ReentrantLock();
-    // Route -> Should we print warning for 429? AKA did we already hit it once before
-    private final Set<Route> hitRatelimit = new HashSet<>(5);
-    // Route -> Hash
-    private final Map<Route, String> hashes = new HashMap<>();
     // Hash + Major Parameter -> Bucket
-    private final Map<String, Bucket> buckets = new HashMap<>();
+    private final Map<String, SequentialBucket> buckets = new HashMap<>();
     // Bucket -> Rate-Limit Worker
     private final Map<Bucket, Future<?>> rateLimitQueue = new HashMap<>();
 
     public SequentialRestRateLimiter(@Nonnull RateLimitConfig config)
     {
-        this.config = config;
-        this.cleanupWorker = config.getScheduler().scheduleAtFixedRate(this::cleanup, 30, 30, TimeUnit.SECONDS);
+        super(config);
     }
 
     @Override
@@ -102,76 +84,36 @@ public final class SequentialRestRateLimiter implements RestRateLimiter
     @Override
     public void stop(boolean shutdown, @Nonnull Runnable callback)
     {
-        MiscUtil.locked(lock, () -> {
-            boolean doShutdown = shutdown;
-            if (!isStopped)
-            {
-                isStopped = true;
-                shutdownHandle.thenRun(callback);
-                if (!doShutdown)
-                {
-                    int count = buckets.values().stream()
-                            .mapToInt(bucket -> bucket.getRequests().size())
-                            .sum();
-
-                    if (count > 0)
-                        log.info("Waiting for {} requests to finish.", count);
-                    doShutdown = count == 0;
-                }
-            }
-            if (doShutdown && !isShutdown)
-                shutdown();
-        });
-    }
-
-    @Override
-    public boolean isStopped()
-    {
-        return isStopped;
+        MiscUtil.locked(lock, () -> super.stop(shutdown, callback));
     }
 
     @Override
     public int cancelRequests()
     {
-        return MiscUtil.locked(lock, () -> {
-            // Empty buckets will be removed by the cleanup worker, which also checks for rate limit parameters
-            int cancelled = (int) buckets.values()
-                    .stream()
-                    .map(Bucket::getRequests)
-                    .flatMap(Collection::stream)
-                    .filter(request -> !request.isPriority() && !request.isCancelled())
-                    .peek(Work::cancel)
-                    .count();
-
-            if (cancelled == 1)
-                log.warn("Cancelled 1 request!");
-            else if (cancelled > 1)
-                log.warn("Cancelled {} requests!", cancelled);
-            return cancelled;
-        });
+        return MiscUtil.locked(lock, super::cancelRequests);
     }
 
-    private void shutdown()
+    @Nonnull
+    @Override
+    protected Collection<SequentialBucket> getBuckets()
     {
-        isShutdown = true;
-        cleanupWorker.cancel(false);
-        cleanup();
-        shutdownHandle.complete(null);
+        return buckets.values();
     }
 
-    private void cleanup()
+    @Override
+    protected void cleanup()
     {
         // This will remove buckets that are no longer needed every 30 seconds to avoid memory leakage
         // We will keep the hashes in memory since they are very limited (by the amount of possible routes)
         MiscUtil.locked(lock, () -> {
             int size = buckets.size();
-            Iterator<Map.Entry<String, Bucket>> entries = buckets.entrySet().iterator();
+            Iterator<Map.Entry<String, SequentialBucket>> entries = buckets.entrySet().iterator();
 
             while (entries.hasNext())
             {
-                Map.Entry<String, Bucket> entry = entries.next();
+                Map.Entry<String, SequentialBucket> entry = entries.next();
                 Bucket bucket = entry.getValue();
-                if (isShutdown)
+                if (isShutdown.get())
                     bucket.requests.forEach(Work::cancel); // Cancel all requests
                 bucket.requests.removeIf(Work::isSkipped); // Remove cancelled requests
 
@@ -194,17 +136,14 @@ public final class SequentialRestRateLimiter implements RestRateLimiter
             size -= buckets.size();
             if (size > 0)
                 log.debug("Removed {} expired buckets", size);
-            else if (isStopped && !isShutdown)
+            else if (isStopped && !isShutdown.get())
                 shutdown();
         });
     }
 
-    private String getRouteHash(Route route)
-    {
-        return hashes.getOrDefault(route, UNINIT_BUCKET + "+" + route);
-    }
-
-    private Bucket getBucket(Route.CompiledRoute route)
+    @Nonnull
+    @Override
+    protected SequentialBucket getBucket(@Nonnull Route.CompiledRoute route)
     {
         return MiscUtil.locked(lock, () ->
         {
@@ -212,48 +151,13 @@ public final class SequentialRestRateLimiter implements RestRateLimiter
             String hash = getRouteHash(route.getBaseRoute());
             // Get or create a bucket for the hash + major parameters
             String bucketId = hash + ":" + route.getMajorParameters();
-            return this.buckets.computeIfAbsent(bucketId, (id) ->
-            {
-                if (route.getBaseRoute().isInteractionBucket())
-                    return new InteractionBucket(id);
-                else
-                    return new ClassicBucket(id);
-            });
+            return this.buckets.computeIfAbsent(bucketId, (id) -> new SequentialBucket(id, route.getBaseRoute().isInteractionBucket()));
         });
     }
 
-    private void scheduleElastic(Bucket bucket)
-    {
-        if (isShutdown)
-            return;
-
-        ExecutorService elastic = config.getElastic();
-        ScheduledExecutorService scheduler = config.getScheduler();
-
-        try
-        {
-            // Avoid context switch if unnecessary
-            if (elastic == scheduler)
-                bucket.run();
-            else
-                elastic.execute(bucket);
-        }
-        catch (RejectedExecutionException ex)
-        {
-            if (!isShutdown)
-                log.error("Failed to execute bucket worker", ex);
-        }
-        catch (Throwable t)
-        {
-            log.error("Caught throwable in bucket worker", t);
-            if (t instanceof Error)
-                throw t;
-        }
-    }
-
     private void runBucket(Bucket bucket)
     {
-        if (isShutdown)
+        if (isShutdown.get())
             return;
         // Schedule a new bucket worker if no worker is running
         MiscUtil.locked(lock, () ->
@@ -264,178 +168,14 @@ public final class SequentialRestRateLimiter implements RestRateLimiter
         );
     }
 
-    private long parseLong(String input)
+    private class SequentialBucket extends Bucket
     {
-        return input == null ? 0L : Long.parseLong(input);
-    }
-
-    private long parseDouble(String input)
-    {
-        //The header value is using a double to represent milliseconds and seconds:
-        // 5.250 this is 5 seconds and 250 milliseconds (5250 milliseconds)
-        return input == null ? 0L : (long) (Double.parseDouble(input) * 1000);
-    }
-
-    private long getNow()
-    {
-        return System.currentTimeMillis();
-    }
-
-    private Bucket updateBucket(Route.CompiledRoute route, Response response)
-    {
-        return MiscUtil.locked(lock, () ->
-        {
-            try
-            {
-                Bucket bucket = getBucket(route);
-                Headers headers = response.headers();
-
-                boolean global = headers.get(GLOBAL_HEADER) != null;
-                boolean cloudflare = headers.get("via") == null;
-                String hash = headers.get(HASH_HEADER);
-                String scope = headers.get(SCOPE_HEADER);
-                long now = getNow();
-
-                // Create a new bucket for the hash if needed
-                Route baseRoute = route.getBaseRoute();
-                if (hash != null)
-                {
-                    if (!this.hashes.containsKey(baseRoute))
-                    {
-                        this.hashes.put(baseRoute, hash);
-                        log.debug("Caching bucket hash {} -> {}", baseRoute, hash);
-                    }
-
-                    bucket = getBucket(route);
-                }
-
-                if (response.code() == 429)
-                {
-                    String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
-                    long retryAfter = parseLong(retryAfterHeader) * 1000; // seconds precision
-                    // Handle global rate limit if necessary
-                    if (global)
-                    {
-                        config.getGlobalRateLimit().setClassic(now + retryAfter);
-                        log.error("Encountered global rate limit! Retry-After: {} ms Scope: {}", retryAfter, scope);
-                    }
-                    // Handle cloudflare rate limits, this applies to all routes and uses seconds for retry-after
-                    else if (cloudflare)
-                    {
-                        config.getGlobalRateLimit().setCloudflare(now + retryAfter);
-                        log.error("Encountered cloudflare rate limit! Retry-After: {} s", retryAfter / 1000);
-                    }
-                    // Handle hard rate limit, pretty much just log that it happened
-                    else
-                    {
-                        boolean firstHit = hitRatelimit.add(baseRoute) && retryAfter < 60000;
-                        // Update the bucket to the new information
-                        bucket.remaining = 0;
-                        bucket.reset = now + retryAfter;
-                        // don't log warning if we hit the rate limit for the first time, likely due to initialization of the bucket
-                        // unless its a long retry-after delay (more than a minute)
-                        if (firstHit)
-                            log.debug("Encountered 429 on route {} with bucket {} Retry-After: {} ms Scope: {}", baseRoute, bucket.bucketId, retryAfter, scope);
-                        else
-                            log.warn("Encountered 429 on route {} with bucket {} Retry-After: {} ms Scope: {}", baseRoute, bucket.bucketId, retryAfter, scope);
-                    }
-
-                    log.trace("Updated bucket {} to retry after {}", bucket.bucketId, bucket.reset - now);
-                    return bucket;
-                }
-
-                // If hash is null this means we didn't get enough information to update a bucket
-                if (hash == null)
-                    return bucket;
-
-                // Update the bucket parameters with new information
-                String limitHeader = headers.get(LIMIT_HEADER);
-                String remainingHeader = headers.get(REMAINING_HEADER);
-                String resetAfterHeader = headers.get(RESET_AFTER_HEADER);
-                String resetHeader = headers.get(RESET_HEADER);
-
-//                bucket.limit = (int) Math.max(1L, parseLong(limitHeader));
-                bucket.remaining = (int) parseLong(remainingHeader);
-                if (config.isRelative())
-                    bucket.reset = now + parseDouble(resetAfterHeader);
-                else
-                    bucket.reset = parseDouble(resetHeader);
-                log.trace("Updated bucket {} to ({}/{}, {})", bucket.bucketId, bucket.remaining, limitHeader, bucket.reset - now);
-                return bucket;
-            }
-            catch (Exception e)
-            {
-                Bucket bucket = getBucket(route);
-                log.error("Encountered Exception while updating a bucket. Route: {} Bucket: {} Code: {} Headers:\n{}",
-                        route.getBaseRoute(), bucket, response.code(), response.headers(), e);
-                return bucket;
-            }
-        });
-    }
-
-    private abstract class Bucket implements Runnable
-    {
-        protected final String bucketId;
-        protected final Deque<Work> requests = new ConcurrentLinkedDeque<>();
-
-        protected long reset = 0;
-        protected int remaining = 1;
-
-        public Bucket(@Nonnull String bucketId)
-        {
-            this.bucketId = bucketId;
-        }
-
-        public boolean isUninit()
-        {
-            return bucketId.startsWith(UNINIT_BUCKET);
-        }
-
-        public void enqueue(@Nonnull Work request)
-        {
-            requests.addLast(request);
-        }
-
-        public void retry(@Nonnull Work request)
-        {
-            if (!moveRequest(request))
-                requests.addFirst(request);
-        }
-
-        public long getReset()
-        {
-            return reset;
-        }
-
-        public int getRemaining()
-        {
-            return remaining;
-        }
-
-        public abstract long getGlobalRateLimit(long now);
-
-        public long getRateLimit()
-        {
-            long now = getNow();
-
-            long global = getGlobalRateLimit(now);
-
-            // Check if the bucket reset time has expired
-            if (reset <= now)
-            {
-                // Update the remaining uses to the limit (we don't know better)
-                remaining = 1;
-            }
-
-            // If there are remaining requests we don't need to do anything, otherwise return backoff in milliseconds
-            return Math.max(global, remaining < 1 ? reset - now : 0L);
-        }
-
-        protected boolean isGlobalRateLimit()
+        public SequentialBucket(@Nonnull String bucketId, boolean interaction)
         {
-            return getGlobalRateLimit(getNow()) > 0;
+            super(bucketId, interaction);
         }
 
+        @Override
         protected void backoff()
         {
             // Schedule backoff if requests are not done
@@ -450,83 +190,6 @@ public final class SequentialRestRateLimiter implements RestRateLimiter
             });
         }
 
-        @Nonnull
-        public Queue<Work> getRequests()
-        {
-            return requests;
-        }
-
-        protected boolean moveRequest(@Nonnull Work request)
-        {
-            return MiscUtil.locked(lock, () ->
-            {
-                // Attempt moving request to correct bucket if it has been created
-                Bucket bucket = getBucket(request.getRoute());
-                if (bucket != this)
-                {
-                    bucket.enqueue(request);
-                    runBucket(bucket);
-                }
-                return bucket != this;
-            });
-        }
-
-        protected boolean execute(@Nonnull Work request)
-        {
-            try
-            {
-                Response response = request.execute();
-                if (response != null)
-                    updateBucket(request.getRoute(), response);
-                if (!request.isDone())
-                    retry(request);
-            }
-            catch (Throwable ex)
-            {
-                log.error("Encountered exception trying to execute request", ex);
-                if (ex instanceof Error)
-                    throw (Error) ex;
-                return true;
-            }
-            return false;
-        }
-
-        public void run()
-        {
-            log.trace("Bucket {} is running {} requests", bucketId, requests.size());
-            while (!requests.isEmpty())
-            {
-                long rateLimit = getRateLimit();
-                if (rateLimit > 0L)
-                {
-                    // We need to backoff since we ran out of remaining uses or hit the global rate limit
-                    Work request = requests.peekFirst(); // this *should* not be null
-                    String baseRoute = request != null ? request.getRoute().getBaseRoute().toString() : "N/A";
-                    if (!isGlobalRateLimit() && rateLimit >= 1000 * 60 * 30) // 30 minutes
-                        log.warn("Encountered long {} minutes Rate-Limit on route {}", TimeUnit.MILLISECONDS.toMinutes(rateLimit), baseRoute);
-                    log.debug("Backing off {} ms for bucket {} on route {}", rateLimit, bucketId, baseRoute);
-                    break;
-                }
-
-                Work request = requests.removeFirst();
-                if (request.isSkipped())
-                    continue;
-
-                if (isUninit() && moveRequest(request))
-                    continue;
-
-                if (execute(request)) break;
-            }
-
-            backoff();
-        }
-
-        @Override
-        public String toString()
-        {
-            return bucketId;
-        }
-
         @Override
         public int hashCode()
         {
@@ -538,40 +201,9 @@ public final class SequentialRestRateLimiter implements RestRateLimiter
         {
             if (obj == this)
                 return true;
-            if (!(obj instanceof Bucket))
+            if (!(obj instanceof SequentialBucket))
                 return false;
-            return this.bucketId.equals(((Bucket) obj).bucketId);
-        }
-    }
-
-    private class ClassicBucket extends Bucket
-    {
-        public ClassicBucket(String bucketId)
-        {
-            super(bucketId);
-        }
-
-        @Override
-        public long getGlobalRateLimit(long now)
-        {
-            GlobalRateLimit holder = config.getGlobalRateLimit();
-            long global = Math.max(holder.getClassic(), holder.getCloudflare());
-            return global - now;
-        }
-    }
-
-    private class InteractionBucket extends Bucket
-    {
-        public InteractionBucket(@Nonnull String bucketId)
-        {
-            super(bucketId);
-        }
-
-        @Override
-        public long getGlobalRateLimit(long now)
-        {
-            // Only cloudflare bans apply to interactions
-            return config.getGlobalRateLimit().getCloudflare() - now;
+            return this.bucketId.equals(((SequentialBucket) obj).bucketId);
         }
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Rate-limiter which handles buckets in the same way as {@link SequentialRestRateLimiter}, without a shared lock.
+ *
+ * <p>Buckets are stored in concurrent maps keyed by their hash and major parameters,
+ * so requests for different buckets never contend with each other.
+ * Each bucket tracks its worker with an atomic state machine, instead of a map of scheduled workers.
+ *
+ * <p>The global rate-limit is shared through {@link RateLimitConfig#getGlobalRateLimit()}
+ * and {@link RateLimitConfig#isRelative()} is honored like in the sequential implementation.
+ * This is primarily useful when many shards share a single rate-limiter, which can be configured with
+ * {@link RestConfig#setRateLimiterFactory(java.util.function.Function) setRateLimiterFactory(StripedRestRateLimiter::new)}.
+ */
+public final class StripedRestRateLimiter extends ConcurrentRestRateLimiter
+{
+    public StripedRestRateLimiter(@Nonnull RateLimitConfig config)
+    {
+        super(config);
+    }
+
+    @Override
+    protected boolean canRemove(@Nonnull ConcurrentBucket bucket)
+    {
+        // remove uninit if requests are empty
+        // If the requests of the bucket are drained and the reset is expired the bucket has no valuable information
+        // Remove empty buckets when the rate limiter is stopped
+        return bucket.isUninit() || bucket.reset <= getNow() || isStopped;
+    }
+}
@@ -524,15 +524,24 @@ public class DefaultShardManager implements ShardManager
         ScheduledExecutorService audioPool = audioPair.executor;
         boolean shutdownAudioPool = audioPair.automaticShutdown;
 
+        ExecutorPair<ExecutorService> guildSetupPair = resolveExecutor(threadingConfig.getGuildSetupPoolProvider(), shardId);
+        ExecutorService guildSetupPool = guildSetupPair.executor;
+        boolean shutdownGuildSetupPool = guildSetupPair.automaticShutdown;
+
         AuthorizationConfig authConfig = new AuthorizationConfig(token);
         SessionConfig sessionConfig = this.sessionConfig.toSessionConfig(httpClient);
+        if (this.sessionConfig.getCacheSnapshotDirectory() != null)
+            sessionConfig.setCacheSnapshotFile(this.sessionConfig.getCacheSnapshotDirectory().resolve("shard-" + shardId + ".snapshot"));
         ThreadingConfig threadingConfig = new ThreadingConfig();
         threadingConfig.setRateLimitScheduler(rateLimitScheduler, shutdownRateLimitScheduler);
         threadingConfig.setRateLimitElastic(rateLimitElastic, shutdownRateLimitElastic);
         threadingConfig.setGatewayPool(gatewayPool, shutdownGatewayPool);
         threadingConfig.setCallbackPool(callbackPool, shutdownCallbackPool);
         threadingConfig.setEventPool(eventPool, shutdownEventPool);
+        threadingConfig.setVirtualEventPool(this.threadingConfig.isVirtualEventPool());
+        threadingConfig.setEventQueueLimit(this.threadingConfig.getEventQueueLimit(), this.threadingConfig.getEventQueuePolicy());
         threadingConfig.setAudioPool(audioPool, shutdownAudioPool);
+        threadingConfig.setGuildSetupPool(guildSetupPool, shutdownGuildSetupPool);
         MetaConfig metaConfig = new MetaConfig(this.metaConfig.getMaxBufferSize(), this.metaConfig.getContextMap(shardId), this.metaConfig.getCacheFlags(), this.sessionConfig.getFlags());
         RestConfig restConfig = this.restConfigProvider.apply(shardId);
         if (restConfig == null)
@@ -22,6 +22,7 @@ import net.dv8tion.jda.api.audio.factory.IAudioSendFactory;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.events.Event;
 import net.dv8tion.jda.api.exceptions.InvalidTokenException;
+import net.dv8tion.jda.api.hooks.EventQueuePolicy;
 import net.dv8tion.jda.api.hooks.IEventManager;
 import net.dv8tion.jda.api.hooks.VoiceDispatchInterceptor;
 import net.dv8tion.jda.api.requests.GatewayIntent;
@@ -34,7 +35,9 @@ import net.dv8tion.jda.api.utils.SessionController;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.compress.ZstdDecompressor;
 import net.dv8tion.jda.internal.utils.concurrent.CountingThreadFactory;
+import net.dv8tion.jda.internal.utils.config.SessionConfig;
 import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
 import net.dv8tion.jda.internal.utils.config.flags.ShardingConfigFlag;
 import net.dv8tion.jda.internal.utils.config.sharding.*;
@@ -43,6 +46,7 @@ import okhttp3.OkHttpClient;
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.function.IntFunction;
@@ -100,7 +104,11 @@ public class  DefaultShardManagerBuilder
     );
     protected ThreadPoolProvider<? extends ExecutorService> callbackPoolProvider = null;
     protected ThreadPoolProvider<? extends ExecutorService> eventPoolProvider = null;
+    protected boolean virtualEventPool = false;
+    protected int eventQueueLimit = 0;
+    protected EventQueuePolicy eventQueuePolicy = EventQueuePolicy.BLOCK;
     protected ThreadPoolProvider<? extends ScheduledExecutorService> audioPoolProvider = null;
+    protected ThreadPoolProvider<? extends ExecutorService> guildSetupPoolProvider = null;
     protected IntFunction<? extends RestConfig> restConfigProvider = null;
     protected Collection<Integer> shards = null;
     protected OkHttpClient.Builder httpClientBuilder = null;
@@ -109,6 +117,9 @@ public class  DefaultShardManagerBuilder
     protected IAudioSendFactory audioSendFactory = null;
     protected ThreadFactory threadFactory = null;
     protected ChunkingFilter chunkingFilter = ChunkingFilter.ALL;
+    protected Set<String> ignoredDispatchTypes = Collections.emptySet();
+    protected long presenceCoalescingWindow = 0;
+    protected Path cacheSnapshotDirectory = null;
     protected MemberCachePolicy memberCachePolicy = MemberCachePolicy.ALL;
 
     protected DefaultShardManagerBuilder(@Nullable String token, int intents)
@@ -837,7 +848,7 @@ public class  DefaultShardManagerBuilder
      *         The compression algorithm to use for the gateway connection
      *
      * @throws java.lang.IllegalArgumentException
-     *         If provided with null
+     *         If provided with null, or {@link Compression#ZSTD} is used without the optional zstd-jni dependency
      *
      * @return The DefaultShardManagerBuilder instance. Useful for chaining.
      *
@@ -847,6 +858,8 @@ public class  DefaultShardManagerBuilder
     public DefaultShardManagerBuilder setCompression(@Nonnull Compression compression)
     {
         Checks.notNull(compression, "Compression");
+        Checks.check(compression != Compression.ZSTD || ZstdDecompressor.isSupported(),
+            "Cannot use ZSTD compression without the com.github.luben:zstd-jni dependency");
         this.compression = compression;
         return this;
     }
@@ -1084,6 +1097,51 @@ public class  DefaultShardManagerBuilder
         return setFlag(ConfigFlag.SHUTDOWN_HOOK, enable);
     }
 
+    /**
+     * Enables/Disables the concurrent cache backend for the user, guild, and member caches.
+     * <br>When enabled, these caches are backed by a lock-striped map which allows lookups by id,
+     * such as {@link net.dv8tion.jda.api.JDA#getUserById(long) JDA.getUserById(long)} or {@link net.dv8tion.jda.api.entities.Guild#getMemberById(long) Guild.getMemberById(long)},
+     * without acquiring the read-lock of the cache.
+     *
+     * <p>This is useful for bots which perform a lot of id lookups from many threads concurrently,
+     * in exchange for a slightly higher memory footprint per cached entity.
+     * Iteration over the cache is not affected by this setting.
+     *
+     * <p>Default: <b>false (disabled)</b>
+     *
+     * @param  enable
+     *         True, if the concurrent cache backend should be used
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setConcurrentCacheEnabled(final boolean enable)
+    {
+        return setFlag(ConfigFlag.CONCURRENT_CACHE, enable);
+    }
+
+    /**
+     * Enables/Disables the permission cache of each guild.
+     * <br>When enabled, the effective permissions of a member in a channel are computed once and reused,
+     * until a role, the member roles, or the permission overrides of a channel are updated.
+     * Each guild keeps up to 65536 entries, and drops all of them once this is exceeded.
+     *
+     * <p>This is useful for bots which check permissions several times for every interaction or message,
+     * such as command frameworks, on guilds with many roles and permission overrides.
+     *
+     * <p>Default: <b>false (disabled)</b>
+     *
+     * @param  enable
+     *         True, if permissions should be cached
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setPermissionCacheEnabled(final boolean enable)
+    {
+        return setFlag(ConfigFlag.PERMISSION_CACHE, enable);
+    }
+
     /**
      * Sets a provider to change the internally used EventManager.
      * <br>There are 2 provided Implementations:
@@ -1658,6 +1716,195 @@ public class  DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * Whether events should be handled on virtual threads, starting a new virtual thread for every event.
+     * <br>Since virtual threads are cheap, a slow or blocking listener, for instance one using {@link net.dv8tion.jda.api.requests.RestAction#complete() RestAction.complete()},
+     * does not delay the handling of other events. This requires Java 21 or newer,
+     * older versions fall back to an unbounded pool of platform threads.
+     *
+     * <p>Events are no longer handled in the order they were received.
+     * Use {@link #setGuildOrderedEventsEnabled(boolean)} to keep the order of events within each guild.
+     *
+     * <p>This has no effect if an event pool is configured explicitly.
+     * Every shard uses its own executor, which is shutdown with the shard.
+     *
+     * <p>Default: {@code false}
+     *
+     * @param  enabled
+     *         True, to handle events on virtual threads
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @see    #setEventPool(ExecutorService)
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setVirtualEventPoolEnabled(boolean enabled)
+    {
+        this.virtualEventPool = enabled;
+        return this;
+    }
+
+    /**
+     * Whether events of the same guild should be handled sequentially in the order they were received,
+     * when an event pool is used.
+     * <br>Events of different guilds are still handled in parallel.
+     * Events which do not belong to a guild, such as direct messages, are handled in order relative to each other.
+     *
+     * <p>This has no effect if no event pool is configured, since events are then handled in order on the gateway thread.
+     *
+     * <p>Default: {@code false}
+     *
+     * @param  enabled
+     *         True, to keep the order of events within each guild
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @see    #setEventPool(ExecutorService)
+     * @see    #setVirtualEventPoolEnabled(boolean)
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setGuildOrderedEventsEnabled(boolean enabled)
+    {
+        return setFlag(ConfigFlag.GUILD_ORDERED_EVENTS, enabled);
+    }
+
+    /**
+     * Sets the {@link ExecutorService ExecutorService} used to build guilds with {@link #setParallelGuildSetupEnabled(boolean) parallel guild setup}.
+     * <br>By default, every shard creates a pool with one thread per processor once its first guild is built.
+     *
+     * <p>The executor will not be shutdown automatically when the shard is shutdown.
+     * To shut it down automatically use {@link #setGuildSetupPool(ExecutorService, boolean)}.
+     *
+     * @param  executor
+     *         The executor for guild builds, or null to use the default pool
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setGuildSetupPool(@Nullable ExecutorService executor)
+    {
+        return setGuildSetupPool(executor, executor == null);
+    }
+
+    /**
+     * Sets the {@link ExecutorService ExecutorService} used to build guilds with {@link #setParallelGuildSetupEnabled(boolean) parallel guild setup}.
+     * <br>By default, every shard creates a pool with one thread per processor once its first guild is built.
+     *
+     * @param  executor
+     *         The executor for guild builds, or null to use the default pool
+     * @param  automaticShutdown
+     *         True, if the executor should be shutdown when JDA shuts down
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setGuildSetupPool(@Nullable ExecutorService executor, boolean automaticShutdown)
+    {
+        return setGuildSetupPoolProvider(executor == null ? null : new ThreadPoolProviderImpl<>(executor, automaticShutdown));
+    }
+
+    /**
+     * Sets the {@link ExecutorService ExecutorService} provider used to build guilds with {@link #setParallelGuildSetupEnabled(boolean) parallel guild setup}.
+     * <br>By default, every shard creates a pool with one thread per processor once its first guild is built.
+     *
+     * @param  provider
+     *         The thread-pool provider to use for guild builds, or null to use the default pools
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setGuildSetupPoolProvider(@Nullable ThreadPoolProvider<? extends ExecutorService> provider)
+    {
+        this.guildSetupPoolProvider = provider;
+        return this;
+    }
+
+    /**
+     * Whether guilds received during setup should be built on a parallel pool.
+     * <br>By default, every {@code GUILD_CREATE} and member chunk is decoded and built on the gateway thread,
+     * which dominates the startup time of sessions with many guilds.
+     *
+     * <p>When enabled, the entities of a completed guild, such as channels, roles, and members,
+     * are built on the {@link #setGuildSetupPool(ExecutorService) guild setup pool}.
+     * This includes decoding the payload, regardless of the {@link net.dv8tion.jda.api.utils.Compression compression} or encoding.
+     * The built guild is then added to the cache and announced on the gateway thread,
+     * in the order the guilds completed their setup. When no other payloads arrive, this happens on the gateway pool instead.
+     * <br>The {@link net.dv8tion.jda.api.utils.MemberCachePolicy MemberCachePolicy} is called from the build pool for the members of these guilds.
+     * <br>Member chunks for guilds which are already cached, for instance from {@link net.dv8tion.jda.api.entities.Guild#loadMembers() Guild.loadMembers()},
+     * are decoded the same way and added to the cache in one batch per chunk.
+     *
+     * <p>Default: {@code false}
+     *
+     * @param  enabled
+     *         True, to build guilds in parallel
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setParallelGuildSetupEnabled(boolean enabled)
+    {
+        return setFlag(ConfigFlag.PARALLEL_GUILD_SETUP, enabled);
+    }
+
+    /**
+     * Whether arrays in JSON gateway payloads should only be decoded once they are accessed.
+     * <br>Most of a {@code GUILD_CREATE} payload consists of arrays, such as presences, emojis, or stickers,
+     * many of which are never read, depending on the enabled {@link CacheFlag CacheFlags}.
+     *
+     * <p>When enabled, arrays which are fields of objects are only scanned for their bounds and decoded on first access.
+     * This reduces allocations for large payloads, but each accessed array is tokenized twice.
+     * <br>This has no effect with the {@link net.dv8tion.jda.api.GatewayEncoding#ETF ETF} encoding.
+     *
+     * <p>Default: {@code false}
+     *
+     * @param  enabled
+     *         True, to decode arrays in gateway payloads lazily
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setLazyJsonEnabled(boolean enabled)
+    {
+        return setFlag(ConfigFlag.LAZY_JSON, enabled);
+    }
+
+    /**
+     * Limits the number of events which have been submitted to the event pool but were not handled yet.
+     * <br>Without a limit, the queue of the event pool grows without bound when listeners fall behind.
+     * Once the limit is reached, the provided {@link EventQueuePolicy} decides how to slow down.
+     *
+     * <p>Blocking stops reading from the gateway until listeners caught up.
+     * If that takes too long, the session will time out and reconnect.
+     * Events submitted from a thread which is currently handling an event never block.
+     *
+     * <p>This only applies when an event pool is used.
+     * The current state of the queue is available through {@link JDA#getEventQueueStatistics()}.
+     * The limit applies to each shard separately.
+     *
+     * <p>Default: Unbounded
+     *
+     * @param  limit
+     *         The maximum number of pending events, or {@code 0} for no limit
+     * @param  policy
+     *         The policy to apply once the limit is reached
+     *
+     * @throws IllegalArgumentException
+     *         If the limit is negative or the policy is null
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @see    #setEventPool(ExecutorService)
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setEventQueueLimit(int limit, @Nonnull EventQueuePolicy policy)
+    {
+        Checks.notNegative(limit, "Limit");
+        Checks.notNull(policy, "Policy");
+        this.eventQueueLimit = limit;
+        this.eventQueuePolicy = policy;
+        return this;
+    }
+
     /**
      * Sets the {@link ScheduledExecutorService ScheduledExecutorService} used by
      * the audio WebSocket connection. Used for sending keepalives and closing the connection.
@@ -1959,6 +2206,104 @@ public class  DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * Dispatch types, such as {@code "TYPING_START"}, which should be discarded before their payload is parsed.
+     * <br>Only the event type and sequence number of such payloads are read, which avoids the cost of decoding
+     * high-volume events the bot does not care about.
+     * Ignored events are not passed to any handler, so they neither fire events nor update the cache.
+     * This also applies to {@link net.dv8tion.jda.api.events.RawGatewayEvent RawGatewayEvents}.
+     *
+     * <p><b>Ignoring events which update cached entities, such as {@code "GUILD_MEMBER_UPDATE"},
+     * leaves the affected cache outdated until the entity is loaded again.</b>
+     * Prefer disabling the relevant {@link GatewayIntent GatewayIntents} where possible.
+     *
+     * <p>The types {@code READY}, {@code RESUMED}, {@code GUILD_CREATE}, {@code GUILD_DELETE}, and {@code GUILD_MEMBERS_CHUNK}
+     * are required to build the cache and cannot be ignored.
+     *
+     * @param  types
+     *         The dispatch types to ignore, as sent by Discord, or an empty collection to process all events
+     *
+     * @throws IllegalArgumentException
+     *         If null, blank, or a required type is provided
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setIgnoredDispatchTypes(@Nonnull Collection<String> types)
+    {
+        Checks.noneNull(types, "Types");
+        Checks.noneBlank(types, "Types");
+        for (String type : types)
+            Checks.check(!SessionConfig.REQUIRED_DISPATCH_TYPES.contains(type), "Cannot ignore required dispatch type %s", type);
+        this.ignoredDispatchTypes = types.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(types));
+        return this;
+    }
+
+    /**
+     * Merges presence updates of the same member which arrive within the provided window.
+     * <br>Large guilds send many redundant presence updates for the same user in quick succession.
+     * With coalescing enabled, only the latest presence of each member is applied to the cache once the window elapsed,
+     * which fires at most one {@link net.dv8tion.jda.api.events.user.update.UserUpdateOnlineStatusEvent UserUpdateOnlineStatusEvent}
+     * and one {@link net.dv8tion.jda.api.events.user.update.UserUpdateActivitiesEvent UserUpdateActivitiesEvent} per member and window.
+     *
+     * <p>The coalesced updates are applied once the window elapsed, never concurrently with other gateway events.
+     * Events received during the window are handled first, and the coalesced updates follow in the order
+     * in which the latest update of each member was received.
+     * Pending updates are dropped when the session is invalidated or JDA shuts down.
+     * <br>Presence updates are only received with {@link GatewayIntent#GUILD_PRESENCES} and a presence {@link CacheFlag}.
+     *
+     * <p>Default: {@code 0} (disabled)
+     *
+     * @param  window
+     *         The coalescing window, or {@code 0} to apply every update immediately
+     * @param  unit
+     *         The time unit of the window
+     *
+     * @throws IllegalArgumentException
+     *         If the window is negative or the unit is null
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setPresenceCoalescingWindow(long window, @Nonnull TimeUnit unit)
+    {
+        Checks.notNegative(window, "Window");
+        Checks.notNull(unit, "TimeUnit");
+        this.presenceCoalescingWindow = unit.toMillis(window);
+        return this;
+    }
+
+    /**
+     * Enables cache snapshots for a fast warm restart of each shard.
+     *
+     * <p>When a shard is shut down, for instance with {@link ShardManager#shutdown()}, its cache and gateway session are written to a binary snapshot in this directory, one file per shard.
+     * The shard started next with the same {@code directory} loads its snapshot, restores the cache from it, and resumes the stored session
+     * instead of identifying again. This skips downloading all guilds and members on restart.
+     * The snapshot is deleted once loaded, and is discarded if the account, shard, intents, or cache flags changed.
+     * If discord no longer accepts the stored session, a new session is started as usual.
+     *
+     * <p>To keep the stored session resumable, shutting down does not end the session on discord's side.
+     * The bot therefore still appears online until discord times out the session, usually within a minute,
+     * unless the next shard resumes it before then.
+     * This only applies if the snapshot was written successfully. If writing fails, or the snapshot cannot be taken,
+     * for instance because guilds are still being set up, the session is ended as usual.
+     *
+     * <p>The snapshot is not encrypted, store it in a location only accessible to the bot.
+     *
+     * <p>Default: {@code null} (disabled)
+     *
+     * @param  directory
+     *         The directory for the snapshot files, or {@code null} to disable snapshots
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setCacheSnapshotDirectory(@Nullable Path directory)
+    {
+        this.cacheSnapshotDirectory = directory;
+        return this;
+    }
+
     /**
      * Configures which events will be disabled.
      * Bots which did not enable presence/member updates in the developer dashboard are required to disable {@link GatewayIntent#GUILD_PRESENCES} and {@link GatewayIntent#GUILD_MEMBERS}!
@@ -2297,7 +2642,13 @@ public class  DefaultShardManagerBuilder
         presenceConfig.setStatusProvider(statusProvider);
         presenceConfig.setIdleProvider(idleProvider);
         final ThreadingProviderConfig threadingConfig = new ThreadingProviderConfig(rateLimitSchedulerProvider, rateLimitElasticProvider, gatewayPoolProvider, callbackPoolProvider, eventPoolProvider, audioPoolProvider, threadFactory);
+        threadingConfig.setVirtualEventPool(virtualEventPool);
+        threadingConfig.setEventQueueLimit(eventQueueLimit, eventQueuePolicy);
+        threadingConfig.setGuildSetupPoolProvider(guildSetupPoolProvider);
         final ShardingSessionConfig sessionConfig = new ShardingSessionConfig(sessionController, voiceDispatchInterceptor, httpClient, httpClientBuilder, wsFactory, audioSendFactory, flags, shardingFlags, maxReconnectDelay, largeThreshold);
+        sessionConfig.setIgnoredDispatchTypes(ignoredDispatchTypes);
+        sessionConfig.setPresenceCoalescingWindow(presenceCoalescingWindow);
+        sessionConfig.setCacheSnapshotDirectory(cacheSnapshotDirectory);
         final ShardingMetaConfig metaConfig = new ShardingMetaConfig(maxBufferSize, contextProvider, cacheFlags, flags, compression, encoding);
         final DefaultShardManager manager = new DefaultShardManager(this.token, this.shards, shardingConfig, eventConfig, presenceConfig, threadingConfig, sessionConfig, metaConfig, restConfigProvider, chunkingFilter);
 
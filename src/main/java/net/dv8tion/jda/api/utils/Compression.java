@@ -29,7 +29,13 @@ public enum Compression
     /** Don't use any compression */
     NONE(""),
     /** Use ZLIB transport compression */
-    ZLIB("zlib-stream");
+    ZLIB("zlib-stream"),
+    /**
+     * Use Zstandard transport compression.
+     * <br>This decompresses faster than {@link #ZLIB}, but requires the optional
+     * <a href="https://github.com/luben/zstd-jni" target="_blank">{@code com.github.luben:zstd-jni}</a> dependency.
+     */
+    ZSTD("zstd-stream");
 
     private final String key;
 
@@ -100,10 +100,66 @@ public class DataObject implements SerializableData
      */
     @Nonnull
     public static DataObject fromJson(@Nonnull byte[] data)
+    {
+        return fromJson(data, 0, data.length);
+    }
+
+    /**
+     * Parses a JSON payload, stored in a section of the provided array, into a DataObject instance.
+     * <br>The array is not referenced by the resulting DataObject and can be reused afterwards.
+     *
+     * @param  data
+     *         The array containing the correctly formatted JSON payload to parse
+     * @param  offset
+     *         The start of the payload in the array
+     * @param  length
+     *         The length of the payload
+     *
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided json is incorrectly formatted
+     *
+     * @return A DataObject instance for the provided payload
+     */
+    @Nonnull
+    public static DataObject fromJson(@Nonnull byte[] data, int offset, int length)
     {
         try
         {
-            Map<String, Object> map = mapper.readValue(data, mapType);
+            Map<String, Object> map = mapper.readValue(data, offset, length, mapType);
+            return new DataObject(map);
+        }
+        catch (IOException ex)
+        {
+            throw new ParsingException(ex);
+        }
+    }
+
+    /**
+     * Parses a JSON payload, stored in a section of the provided array, into a DataObject instance.
+     * <br>The array is not referenced by the resulting DataObject and can be reused afterwards.
+     *
+     * <p>Unlike {@link #fromJson(byte[], int, int)}, arrays which are fields of objects are only scanned
+     * and decoded once they are accessed. Arrays and objects inside such an array are decoded together with it.
+     * This is cheaper for large payloads, like {@code GUILD_CREATE}, where most arrays are never read.
+     *
+     * @param  data
+     *         The array containing the correctly formatted JSON payload to parse
+     * @param  offset
+     *         The start of the payload in the array
+     * @param  length
+     *         The length of the payload
+     *
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided json is incorrectly formatted
+     *
+     * @return A DataObject instance for the provided payload
+     */
+    @Nonnull
+    public static DataObject fromLazyJson(@Nonnull byte[] data, int offset, int length)
+    {
+        try
+        {
+            Map<String, Object> map = LazyJson.parseObject(mapper.getFactory(), data, offset, length);
             return new DataObject(map);
         }
         catch (IOException ex)
@@ -205,16 +261,39 @@ public class DataObject implements SerializableData
      */
     @Nonnull
     public static DataObject fromETF(@Nonnull byte[] data)
+    {
+        Checks.notNull(data, "Data");
+        return fromETF(data, 0, data.length);
+    }
+
+    /**
+     * Parses using {@link ExTermDecoder}, from a section of the provided array.
+     * <br>The array is not referenced by the resulting DataObject and can be reused afterwards.
+     *
+     * @param  data
+     *         The array containing the correctly formatted ETF payload to parse
+     * @param  offset
+     *         The start of the payload in the array
+     * @param  length
+     *         The length of the payload
+     *
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided ETF payload is incorrectly formatted or an I/O error occurred
+     *
+     * @return A DataObject instance for the provided payload
+     */
+    @Nonnull
+    public static DataObject fromETF(@Nonnull byte[] data, int offset, int length)
     {
         Checks.notNull(data, "Data");
         try
         {
-            Map<String, Object> map = ExTermDecoder.unpackMap(ByteBuffer.wrap(data));
+            Map<String, Object> map = ExTermDecoder.unpackMap(ByteBuffer.wrap(data, offset, length).slice());
             return new DataObject(map);
         }
         catch (Exception ex)
         {
-            log.error("Failed to parse ETF data {}", Arrays.toString(data), ex);
+            log.error("Failed to parse ETF data {}", Arrays.toString(Arrays.copyOfRange(data, offset, offset + length)), ex);
             throw new ParsingException(ex);
         }
     }
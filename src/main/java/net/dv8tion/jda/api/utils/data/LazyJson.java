@@ -0,0 +1,240 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.data;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.dv8tion.jda.api.exceptions.ParsingException;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Streaming JSON decoder which defers decoding of arrays nested in objects until they are accessed.
+ *
+ * <p>The bulk of large gateway payloads are arrays, such as members, presences, or emojis,
+ * many of which are never read. Such arrays are only scanned for their bounds and kept as a {@link RawArray},
+ * which is a slice of a single copy of the payload. Objects are always decoded eagerly, since they are small and almost always read.
+ *
+ * <p>A {@link RawArray} is decoded completely once it is accessed, including all arrays nested inside of it.
+ * This way, every part of the payload is tokenized at most twice, once while scanning and once while decoding.
+ */
+final class LazyJson
+{
+    private LazyJson() {}
+
+    @Nonnull
+    static Map<String, Object> parseObject(@Nonnull JsonFactory factory, @Nonnull byte[] data, int offset, int length) throws IOException
+    {
+        try (JsonParser parser = factory.createParser(data, offset, length))
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new JsonParseException(parser, "Expected JSON object but found " + parser.currentToken());
+            return new Scanner(factory, data, offset, length).readObject(parser);
+        }
+    }
+
+    private static Map<String, Object> readObject(JsonParser parser) throws IOException
+    {
+        Map<String, Object> map = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String key = parser.currentName();
+            map.put(key, readValue(parser, parser.nextToken()));
+        }
+        return map;
+    }
+
+    private static List<Object> readArray(JsonParser parser) throws IOException
+    {
+        List<Object> list = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY)
+            list.add(readValue(parser, token));
+        return list;
+    }
+
+    private static Object readValue(JsonParser parser, JsonToken token) throws IOException
+    {
+        switch (token)
+        {
+            case START_OBJECT:
+                return readObject(parser);
+            case START_ARRAY:
+                return readArray(parser);
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return true;
+            case VALUE_FALSE:
+                return false;
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new JsonParseException(parser, "Unexpected token " + token);
+        }
+    }
+
+    /**
+     * Reads the objects of the payload and skips over the arrays nested in them.
+     */
+    private static final class Scanner
+    {
+        private final JsonFactory factory;
+        private final byte[] data;
+        private final int offset, length;
+        // Copied once the first array is skipped, since the source buffer might be reused by the caller
+        private byte[] copy;
+
+        private Scanner(JsonFactory factory, byte[] data, int offset, int length)
+        {
+            this.factory = factory;
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        private Map<String, Object> readObject(JsonParser parser) throws IOException
+        {
+            Map<String, Object> map = new HashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String key = parser.currentName();
+                JsonToken token = parser.nextToken();
+                Object value;
+                if (token == JsonToken.START_ARRAY)
+                    value = skipArray(parser);
+                else if (token == JsonToken.START_OBJECT)
+                    value = readObject(parser);
+                else
+                    value = readValue(parser, token);
+                map.put(key, value);
+            }
+            return map;
+        }
+
+        private Object skipArray(JsonParser parser) throws IOException
+        {
+            // Byte offsets are relative to the offset the parser was created with
+            int start = (int) parser.currentTokenLocation().getByteOffset();
+            if (parser.nextToken() == JsonToken.END_ARRAY)
+                return new ArrayList<>();
+
+            do
+            {
+                parser.skipChildren();
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY);
+
+            int end = (int) parser.currentLocation().getByteOffset();
+            if (copy == null)
+                copy = Arrays.copyOfRange(data, offset, offset + length);
+            return new RawArray(factory, copy, start, end - start);
+        }
+    }
+
+    /**
+     * Undecoded JSON array, decoded on first access.
+     * <br>This is a list itself, so type checks, null checks, and replacing the value do not decode it.
+     */
+    static final class RawArray extends AbstractList<Object> implements RandomAccess
+    {
+        private final JsonFactory factory;
+        private byte[] data;
+        private final int offset, length;
+        private volatile List<Object> decoded;
+
+        private RawArray(JsonFactory factory, byte[] data, int offset, int length)
+        {
+            this.factory = factory;
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        boolean isDecoded()
+        {
+            return decoded != null;
+        }
+
+        private List<Object> decode()
+        {
+            List<Object> list = decoded;
+            if (list != null)
+                return list;
+
+            synchronized (this)
+            {
+                if (decoded != null)
+                    return decoded;
+
+                try (JsonParser parser = factory.createParser(data, offset, length))
+                {
+                    parser.nextToken();
+                    list = readArray(parser);
+                }
+                catch (IOException e)
+                {
+                    throw new ParsingException(e);
+                }
+
+                decoded = list;
+                data = null;
+                return list;
+            }
+        }
+
+        @Override
+        public Object get(int index)
+        {
+            return decode().get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return decode().size();
+        }
+
+        @Override
+        public Object set(int index, Object element)
+        {
+            return decode().set(index, element);
+        }
+
+        @Override
+        public void add(int index, Object element)
+        {
+            decode().add(index, element);
+            modCount++;
+        }
+
+        @Override
+        public Object remove(int index)
+        {
+            modCount++;
+            return decode().remove(index);
+        }
+    }
+}
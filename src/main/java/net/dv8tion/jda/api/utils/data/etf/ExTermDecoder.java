@@ -169,7 +169,7 @@ public class ExTermDecoder
         ByteArrayOutputStream decompressed = new ByteArrayOutputStream(size);
         try (InflaterOutputStream inflater = new InflaterOutputStream(decompressed))
         {
-            inflater.write(buffer.array(), buffer.position(), buffer.remaining());
+            inflater.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
         }
         catch (IOException e)
         {
@@ -245,7 +245,9 @@ public class ExTermDecoder
 
     private static Object unpackAtom(@Nonnull ByteBuffer buffer, @Nonnull Charset charset, int length)
     {
-        String value = getString(buffer, charset, length);
+        String value = lookupKey(buffer, length);
+        if (value == null)
+            value = getString(buffer, charset, length);
         switch (value)
         {
         case "true": return true;
@@ -257,11 +259,44 @@ public class ExTermDecoder
 
     private static String getString(@Nonnull ByteBuffer buffer, @Nonnull Charset charset, int length)
     {
+        if (buffer.hasArray())
+        {
+            // Decode directly from the backing array to avoid an intermediate copy
+            int position = buffer.position();
+            if (length > buffer.remaining())
+                throw new IllegalArgumentException("String length " + length + " exceeds remaining bytes " + buffer.remaining());
+            String value = new String(buffer.array(), buffer.arrayOffset() + position, length, charset);
+            buffer.position(position + length);
+            return value;
+        }
+
         byte[] array = new byte[length];
         buffer.get(array);
         return new String(array, charset);
     }
 
+    private static String lookupKey(@Nonnull ByteBuffer buffer, int length)
+    {
+        if (!buffer.hasArray() || length > buffer.remaining())
+            return null;
+        int position = buffer.position();
+        String key = ExTermKeys.lookup(buffer.array(), buffer.arrayOffset() + position, length);
+        if (key != null)
+            buffer.position(position + length);
+        return key;
+    }
+
+    private static String unpackKey(@Nonnull ByteBuffer buffer)
+    {
+        if (buffer.get(buffer.position()) != BINARY)
+            return String.valueOf(unpack0(buffer));
+
+        buffer.get();
+        int length = buffer.getInt();
+        String key = lookupKey(buffer, length);
+        return key != null ? key : getString(buffer, StandardCharsets.UTF_8, length);
+    }
+
     private static List<Object> unpackList0(@Nonnull ByteBuffer buffer)
     {
         int length = buffer.getInt();
@@ -278,12 +313,13 @@ public class ExTermDecoder
 
     private static Map<String, Object> unpackMap0(@Nonnull ByteBuffer buffer)
     {
-        Map<String, Object> map = new HashMap<>();
         int arity = buffer.getInt();
+        // Each pair takes at least 2 bytes, which bounds the capacity for malformed input
+        int expected = Math.min(arity, buffer.remaining() / 2);
+        Map<String, Object> map = new HashMap<>((int) (expected / 0.75f) + 1);
         while (arity-- > 0)
         {
-            Object rawKey = unpack0(buffer);
-            String key = String.valueOf(rawKey);
+            String key = unpackKey(buffer);
             Object value = unpack0(buffer);
             map.put(key, value);
         }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.data.etf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed table of keys and atoms which are common in gateway payloads.
+ * <br>Lookups compare the encoded bytes directly, so known keys are decoded without allocating a new string.
+ */
+final class ExTermKeys
+{
+    private static final String[] KEYS = {
+        "true", "false", "nil",
+        "op", "d", "s", "t", "id", "guild_id", "channel_id", "user_id", "message_id", "application_id",
+        "owner_id", "parent_id", "webhook_id", "last_message_id", "session_id",
+        "user", "member", "members", "roles", "role_ids", "presences", "activities", "client_status",
+        "desktop", "mobile", "web", "status", "game",
+        "username", "global_name", "discriminator", "avatar", "avatar_decoration_data", "banner", "accent_color",
+        "bot", "system", "flags", "public_flags", "premium_type", "nick", "joined_at", "premium_since",
+        "deaf", "mute", "pending", "communication_disabled_until", "unusual_dm_activity_until",
+        "name", "type", "position", "permissions", "permission_overwrites", "allow", "deny",
+        "topic", "nsfw", "rate_limit_per_user", "bitrate", "user_limit", "rtc_region", "video_quality_mode",
+        "color", "colors", "hoist", "managed", "mentionable", "icon", "unicode_emoji", "tags",
+        "content", "author", "timestamp", "edited_timestamp", "tts", "mention_everyone", "mentions",
+        "mention_roles", "mention_channels", "attachments", "embeds", "components", "reactions", "nonce",
+        "pinned", "message_reference", "referenced_message", "interaction", "interaction_metadata",
+        "sticker_items", "thread", "poll", "emoji", "animated", "available", "require_colons",
+        "channels", "threads", "emojis", "stickers", "voice_states", "stage_instances", "guild_scheduled_events",
+        "soundboard_sounds", "unavailable", "features", "large", "member_count", "thread_metadata",
+        "archived", "locked", "auto_archive_duration", "archive_timestamp", "create_timestamp", "invitable",
+        "self_mute", "self_deaf", "self_video", "self_stream", "suppress", "request_to_speak_timestamp",
+        "created_at", "state", "details", "assets", "party", "url", "sync_id", "buttons",
+        "description", "format_type", "sort_value", "version", "hash", "guild_hashes", "_trace"
+    };
+
+    private static final int MASK = 511;
+    private static final String[] TABLE = new String[MASK + 1];
+    private static final byte[][] ENCODED = new byte[MASK + 1][];
+
+    static
+    {
+        for (String key : KEYS)
+        {
+            byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+            int index = hash(encoded, 0, encoded.length) & MASK;
+            while (TABLE[index] != null)
+                index = (index + 1) & MASK;
+            TABLE[index] = key;
+            ENCODED[index] = encoded;
+        }
+    }
+
+    private ExTermKeys() {}
+
+    private static int hash(byte[] array, int offset, int length)
+    {
+        int hash = length;
+        for (int i = 0; i < length; i++)
+            hash = 31 * hash + array[offset + i];
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Finds the known key with the provided encoding.
+     *
+     * @return The canonical key, or null if the key is not known
+     */
+    static String lookup(byte[] array, int offset, int length)
+    {
+        int index = hash(array, offset, length) & MASK;
+        while (true)
+        {
+            byte[] encoded = ENCODED[index];
+            if (encoded == null)
+                return null;
+            if (matches(encoded, array, offset, length))
+                return TABLE[index];
+            index = (index + 1) & MASK;
+        }
+    }
+
+    private static boolean matches(byte[] encoded, byte[] array, int offset, int length)
+    {
+        if (encoded.length != length)
+            return false;
+        for (int i = 0; i < length; i++)
+        {
+            if (encoded[i] != array[offset + i])
+                return false;
+        }
+        return true;
+    }
+}
@@ -42,6 +42,7 @@ import net.dv8tion.jda.api.events.session.ShutdownEvent;
 import net.dv8tion.jda.api.exceptions.InvalidTokenException;
 import net.dv8tion.jda.api.exceptions.ParsingException;
 import net.dv8tion.jda.api.exceptions.RateLimitedException;
+import net.dv8tion.jda.api.hooks.EventQueueStatistics;
 import net.dv8tion.jda.api.hooks.IEventManager;
 import net.dv8tion.jda.api.hooks.InterfacedEventManager;
 import net.dv8tion.jda.api.hooks.VoiceDispatchInterceptor;
@@ -61,6 +62,7 @@ import net.dv8tion.jda.api.utils.cache.ChannelCacheView;
 import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.entities.CacheSnapshot;
 import net.dv8tion.jda.internal.entities.EntityBuilder;
 import net.dv8tion.jda.internal.entities.UserImpl;
 import net.dv8tion.jda.internal.handle.EventCache;
@@ -90,6 +92,8 @@ import org.slf4j.Logger;
 import org.slf4j.MDC;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.*;
@@ -103,8 +107,8 @@ public class JDAImpl implements JDA
 {
     public static final Logger LOG = JDALogger.getLog(JDA.class);
 
-    protected final SnowflakeCacheViewImpl<User> userCache = new SnowflakeCacheViewImpl<>(User.class, User::getName);
-    protected final SnowflakeCacheViewImpl<Guild> guildCache = new SnowflakeCacheViewImpl<>(Guild.class, Guild::getName);
+    protected final SnowflakeCacheViewImpl<User> userCache;
+    protected final SnowflakeCacheViewImpl<Guild> guildCache;
     protected final ChannelCacheViewImpl<Channel> channelCache = new ChannelCacheViewImpl<>(Channel.class);
     protected final ArrayDeque<Long> privateChannelLRU = new ArrayDeque<>();
 
@@ -160,12 +164,14 @@ public class JDAImpl implements JDA
         this.sessionConfig = sessionConfig == null ? SessionConfig.getDefault() : sessionConfig;
         this.metaConfig = metaConfig == null ? MetaConfig.getDefault() : metaConfig;
         this.restConfig = restConfig == null ? new RestConfig() : restConfig;
+        this.userCache = new SnowflakeCacheViewImpl<>(User.class, User::getName, isConcurrentCache());
+        this.guildCache = new SnowflakeCacheViewImpl<>(Guild.class, Guild::getName, isConcurrentCache());
         this.shutdownHook = this.metaConfig.isUseShutdownHook() ? new Thread(this::shutdownNow, "JDA Shutdown Hook") : null;
         this.presence = new PresenceImpl(this);
         this.guildSetupController = new GuildSetupController(this);
         this.audioController = new DirectAudioControllerImpl(this);
         this.eventCache = new EventCache();
-        this.eventManager = new EventManagerProxy(new InterfacedEventManager(), this.threadConfig.getEventPool());
+        this.eventManager = new EventManagerProxy(new InterfacedEventManager(), this.threadConfig, this.sessionConfig.isGuildOrderedEvents());
     }
 
     public void handleEvent(@Nonnull GenericEvent event)
@@ -173,6 +179,11 @@ public class JDAImpl implements JDA
         eventManager.handle(event);
     }
 
+    public boolean isListening(@Nonnull Class<? extends GenericEvent> eventType)
+    {
+        return eventManager.isListening(eventType);
+    }
+
     public boolean isRawEvents()
     {
         return sessionConfig.isRawEvents();
@@ -183,6 +194,42 @@ public class JDAImpl implements JDA
         return sessionConfig.isEventPassthrough();
     }
 
+    public Set<String> getIgnoredDispatchTypes()
+    {
+        return sessionConfig.getIgnoredDispatchTypes();
+    }
+
+    public boolean isParallelGuildSetup()
+    {
+        return sessionConfig.isParallelGuildSetup();
+    }
+
+    public boolean isLazyJson()
+    {
+        return sessionConfig.isLazyJson();
+    }
+
+    public long getPresenceCoalescingWindow()
+    {
+        return sessionConfig.getPresenceCoalescingWindow();
+    }
+
+    @Nullable
+    public Path getCacheSnapshotFile()
+    {
+        return sessionConfig.getCacheSnapshotFile();
+    }
+
+    public boolean isConcurrentCache()
+    {
+        return metaConfig.isUseConcurrentCache();
+    }
+
+    public boolean isPermissionCache()
+    {
+        return metaConfig.isUsePermissionCache();
+    }
+
     public boolean isCacheFlagSet(CacheFlag flag)
     {
         return metaConfig.getCacheFlags().contains(flag);
@@ -330,7 +377,15 @@ public class JDAImpl implements JDA
             LOG.info("Login Successful!");
         }
 
-        client = new WebSocketClient(this, compression, intents, encoding);
+        CacheSnapshot snapshot = null;
+        if (getCacheSnapshotFile() != null)
+        {
+            snapshot = CacheSnapshot.read(this, getCacheSnapshotFile(), intents);
+            if (snapshot != null && !snapshot.restore(this))
+                snapshot = null;
+        }
+
+        client = new WebSocketClient(this, compression, intents, encoding, snapshot);
         // remove our MDC metadata when we exit our code
         if (previousContext != null)
             previousContext.forEach(MDC::put);
@@ -1081,6 +1136,13 @@ public class JDAImpl implements JDA
         return eventManager.getRegisteredListeners();
     }
 
+    @Nonnull
+    @Override
+    public EventQueueStatistics getEventQueueStatistics()
+    {
+        return eventManager.getQueueStatistics();
+    }
+
     @Nonnull
     @Override
     public <E extends GenericEvent> Once.Builder<E> listenOnce(@Nonnull Class<E> eventType)
@@ -1442,4 +1504,9 @@ public class JDAImpl implements JDA
     {
         return threadConfig.getAudioPool(this::getIdentifierString);
     }
+
+    public ExecutorService getGuildSetupPool()
+    {
+        return threadConfig.getGuildSetupPool(this::getIdentifierString);
+    }
 }
@@ -0,0 +1,739 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.entities;
+
+import gnu.trove.map.TLongObjectMap;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.*;
+import net.dv8tion.jda.api.entities.channel.ChannelFlag;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.attribute.IAgeRestrictedChannel;
+import net.dv8tion.jda.api.entities.channel.attribute.ICategorizableChannel;
+import net.dv8tion.jda.api.entities.channel.attribute.IPermissionContainer;
+import net.dv8tion.jda.api.entities.channel.attribute.IPositionableChannel;
+import net.dv8tion.jda.api.entities.channel.attribute.IPostContainer;
+import net.dv8tion.jda.api.entities.channel.attribute.ISlowmodeChannel;
+import net.dv8tion.jda.api.entities.channel.attribute.IThreadContainer;
+import net.dv8tion.jda.api.entities.channel.attribute.IVoiceStatusChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.StageChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
+import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChannel;
+import net.dv8tion.jda.api.entities.emoji.CustomEmoji;
+import net.dv8tion.jda.api.entities.emoji.EmojiUnion;
+import net.dv8tion.jda.api.entities.emoji.RichCustomEmoji;
+import net.dv8tion.jda.api.entities.emoji.UnicodeEmoji;
+import net.dv8tion.jda.api.entities.sticker.Sticker;
+import net.dv8tion.jda.api.exceptions.ParsingException;
+import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.channel.concrete.ForumChannelImpl;
+import net.dv8tion.jda.internal.entities.channel.concrete.ThreadChannelImpl;
+import net.dv8tion.jda.internal.entities.sticker.GuildStickerImpl;
+import net.dv8tion.jda.internal.handle.GuildSetupController;
+import net.dv8tion.jda.internal.utils.Helpers;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Binary snapshot of the guild cache and the gateway session, used to resume a session after a process restart.
+ *
+ * <p>The snapshot is a sequence of length-prefixed ETF records.
+ * The first record describes the session and the self user, every following record is a guild
+ * in the shape of a {@code GUILD_CREATE} payload, so restoring reuses the regular {@link EntityBuilder} paths.
+ *
+ * <p>Only state which is updated by gateway events is stored, since the resumed session replays
+ * every event dispatched after the stored sequence. This includes everything a {@code GUILD_CREATE} would provide,
+ * such as active threads, voice states, and presences, since a resumed session never receives it again.
+ */
+public class CacheSnapshot
+{
+    public static final Logger LOG = JDALogger.getLog(CacheSnapshot.class);
+
+    private static final int MAGIC = 0x4A444143; // JDAC
+    private static final int VERSION = 2;
+
+    private final DataObject session;
+    private final List<DataObject> guilds;
+
+    private CacheSnapshot(DataObject session, List<DataObject> guilds)
+    {
+        this.session = session;
+        this.guilds = guilds;
+    }
+
+    @Nonnull
+    public String getSessionId()
+    {
+        return session.getString("session_id");
+    }
+
+    @Nullable
+    public String getResumeUrl()
+    {
+        return session.getString("resume_gateway_url", null);
+    }
+
+    public int getSequence()
+    {
+        return session.getInt("seq");
+    }
+
+    /**
+     * Reads and deletes the snapshot file.
+     * <br>The file is deleted even if it cannot be used, a session can only be resumed once.
+     *
+     * @return The snapshot, or null if there is no snapshot or it does not belong to this session configuration
+     */
+    @Nullable
+    public static CacheSnapshot read(@Nonnull JDAImpl api, @Nonnull Path file, int intents)
+    {
+        CacheSnapshot snapshot;
+        try
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            {
+                LOG.warn("Ignoring cache snapshot with unknown format at {}", file);
+                return null;
+            }
+
+            DataObject session = readRecord(buffer);
+            List<DataObject> guilds = new ArrayList<>(session.getInt("guild_count"));
+            while (buffer.hasRemaining())
+                guilds.add(readRecord(buffer));
+            snapshot = new CacheSnapshot(session, guilds);
+        }
+        catch (NoSuchFileException e)
+        {
+            return null;
+        }
+        catch (IOException | BufferUnderflowException | ParsingException e)
+        {
+            LOG.warn("Failed to read cache snapshot at {}", file, e);
+            return null;
+        }
+        finally
+        {
+            delete(file);
+        }
+
+        String mismatch = snapshot.checkCompatible(api, intents);
+        if (mismatch != null)
+        {
+            LOG.info("Discarding cache snapshot, {} changed", mismatch);
+            return null;
+        }
+        return snapshot;
+    }
+
+    private static DataObject readRecord(ByteBuffer buffer)
+    {
+        byte[] data = new byte[buffer.getInt()];
+        buffer.get(data);
+        return DataObject.fromETF(data);
+    }
+
+    private static void delete(Path file)
+    {
+        try
+        {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e)
+        {
+            LOG.warn("Failed to delete cache snapshot at {}", file, e);
+        }
+    }
+
+    private String checkCompatible(JDAImpl api, int intents)
+    {
+        if (session.getUnsignedLong("self_id") != getSelfId(api))
+            return "account";
+        JDA.ShardInfo shardInfo = api.getShardInfo();
+        if (session.getInt("shard_id") != shardInfo.getShardId() || session.getInt("shard_total") != shardInfo.getShardTotal())
+            return "shard";
+        if (session.getInt("intents") != intents)
+            return "intents";
+        if (session.getLong("cache_flags") != getCacheFlagsRaw(api))
+            return "cache flags";
+        return null;
+    }
+
+    private static long getSelfId(JDAImpl api)
+    {
+        if (api.hasSelfUser())
+            return api.getSelfUser().getIdLong();
+
+        // Bot tokens start with the base64 encoded id of the bot user
+        String token = api.getToken().substring("Bot ".length());
+        int end = token.indexOf('.');
+        try
+        {
+            String id = new String(Base64.getDecoder().decode(end < 0 ? token : token.substring(0, end)), StandardCharsets.UTF_8);
+            return MiscUtil.parseSnowflake(id);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return 0;
+        }
+    }
+
+    private static long getCacheFlagsRaw(JDAImpl api)
+    {
+        long raw = 0;
+        for (CacheFlag flag : api.getCacheFlags())
+            raw |= 1L << flag.ordinal();
+        return raw;
+    }
+
+    /**
+     * Fills the empty cache of the provided session with the snapshot.
+     *
+     * @return True, if the cache was restored. Otherwise the cache is cleared again and the session has to identify.
+     */
+    public boolean restore(@Nonnull JDAImpl api)
+    {
+        EntityBuilder builder = api.getEntityBuilder();
+        GuildSetupController setupController = api.getGuildSetupController();
+        try
+        {
+            builder.createSelfUser(session.getObject("self"));
+
+            for (DataObject guild : guilds)
+            {
+                TLongObjectMap<DataObject> members = Helpers.convertToMap(
+                    (member) -> member.getObject("user").getUnsignedLong("id"),
+                    guild.getArray("members"));
+                builder.createGuild(guild.getUnsignedLong("id"), guild, members, guild.getInt("member_count"));
+            }
+
+            DataArray unavailable = session.getArray("unavailable_guilds");
+            for (int i = 0; i < unavailable.length(); i++)
+                setupController.onUnavailable(unavailable.getUnsignedLong(i));
+        }
+        catch (RuntimeException e)
+        {
+            LOG.error("Failed to restore cache snapshot, starting a new session instead", e);
+            api.getChannelsView().clear();
+            api.getGuildsView().clear();
+            api.getUsersView().clear();
+            setupController.clearCache();
+            return false;
+        }
+
+        api.setResponseTotal(getSequence());
+        LOG.info("Restored {} guilds from cache snapshot", guilds.size());
+        return true;
+    }
+
+    /**
+     * Writes the current cache and session to the provided file.
+     * <br>This must only be called while no gateway payloads are handled, so the cache is consistent with the sequence.
+     *
+     * @return True, if the snapshot was written
+     */
+    public static boolean write(@Nonnull JDAImpl api, @Nonnull Path file, @Nonnull String sessionId, @Nullable String resumeUrl, int intents)
+    {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try
+        {
+            if (file.getParent() != null)
+                Files.createDirectories(file.getParent());
+
+            List<Guild> guilds = api.getGuildCache().asList();
+            DataArray unavailable = DataArray.empty();
+            api.getGuildSetupController().getUnavailableGuilds().forEach(id -> {
+                unavailable.add(id);
+                return true;
+            });
+            DataObject session = DataObject.empty()
+                .put("session_id", sessionId)
+                .put("resume_gateway_url", resumeUrl)
+                .put("seq", api.getResponseTotal())
+                .put("self_id", api.getSelfUser().getIdLong())
+                .put("shard_id", api.getShardInfo().getShardId())
+                .put("shard_total", api.getShardInfo().getShardTotal())
+                .put("intents", intents)
+                .put("cache_flags", getCacheFlagsRaw(api))
+                .put("guild_count", guilds.size())
+                .put("unavailable_guilds", unavailable)
+                .put("self", serializeSelfUser(api.getSelfUser()));
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeRecord(out, session);
+                for (Guild guild : guilds)
+                    writeRecord(out, serializeGuild((GuildImpl) guild));
+            }
+
+            // Never leave a partially written snapshot behind
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.info("Saved {} guilds to cache snapshot", guilds.size());
+            return true;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOG.error("Failed to write cache snapshot to {}", file, e);
+            delete(temp);
+            return false;
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, DataObject record) throws IOException
+    {
+        byte[] data = record.toETF();
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static String formatTimestamp(long epochMillis)
+    {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(Helpers.toOffset(epochMillis));
+    }
+
+    private static DataObject serializeSelfUser(SelfUser self)
+    {
+        return serializeUser(self)
+            .put("application_id", self.getApplicationIdLong())
+            .put("verified", self.isVerified())
+            .put("mfa_enabled", self.isMfaEnabled());
+    }
+
+    private static DataObject serializeUser(User user)
+    {
+        return DataObject.empty()
+            .put("id", user.getIdLong())
+            .put("username", user.getName())
+            .put("global_name", user.getGlobalName())
+            .put("discriminator", user.getDiscriminator())
+            .put("avatar", user.getAvatarId())
+            .put("bot", user.isBot())
+            .put("system", user.isSystem())
+            .put("public_flags", user.getFlagsRaw());
+    }
+
+    private static DataObject serializeGuild(GuildImpl guild)
+    {
+        DataObject json = DataObject.empty()
+            .put("id", guild.getIdLong())
+            .put("name", guild.getName())
+            .put("icon", guild.getIconId())
+            .put("splash", guild.getSplashId())
+            .put("description", guild.getDescription())
+            .put("vanity_url_code", guild.getVanityCode())
+            .put("banner", guild.getBannerId())
+            .put("preferred_locale", guild.getLocale().getLocale())
+            .put("owner_id", guild.getOwnerIdLong())
+            .put("premium_subscription_count", guild.getBoostCount())
+            .put("premium_tier", guild.getBoostTier().getKey())
+            .put("max_members", guild.getMaxMembers())
+            .put("max_presences", guild.getMaxPresences())
+            .put("mfa_level", guild.getRequiredMFALevel().getKey())
+            .put("afk_timeout", guild.getAfkTimeout().getSeconds())
+            .put("verification_level", guild.getVerificationLevel().getKey())
+            .put("default_message_notifications", guild.getDefaultNotificationLevel().getKey())
+            .put("explicit_content_filter", guild.getExplicitContentLevel().getKey())
+            .put("nsfw_level", guild.getNSFWLevel().getKey())
+            .put("premium_progress_bar_enabled", guild.isBoostProgressBarEnabled())
+            .put("member_count", guild.getMemberCount())
+            .put("features", DataArray.fromCollection(guild.getFeatures()));
+
+        putChannelId(json, "afk_channel_id", guild.getAfkChannel());
+        putChannelId(json, "system_channel_id", guild.getSystemChannel());
+        putChannelId(json, "rules_channel_id", guild.getRulesChannel());
+        putChannelId(json, "public_updates_channel_id", guild.getCommunityUpdatesChannel());
+        putChannelId(json, "safety_alerts_channel_id", guild.getSafetyAlertsChannel());
+
+        json.put("roles", guild.getRoleCache().applyStream(stream ->
+            stream.map(CacheSnapshot::serializeRole).collect(Helpers.toDataArray())));
+        json.put("channels", guild.getChannelCache().applyStream(stream ->
+            stream.map(CacheSnapshot::serializeChannel).filter(Objects::nonNull).collect(Helpers.toDataArray())));
+        json.put("emojis", guild.getEmojiCache().applyStream(stream ->
+            stream.map(CacheSnapshot::serializeEmoji).collect(Helpers.toDataArray())));
+        json.put("members", guild.getMemberCache().applyStream(stream ->
+            stream.map(member -> serializeMember((MemberImpl) member)).collect(Helpers.toDataArray())));
+
+        // A resumed session does not receive these again, unlike the GUILD_CREATE of a new session
+        long selfId = guild.getJDA().getSelfUser().getIdLong();
+        json.put("threads", guild.getThreadChannelCache().applyStream(stream ->
+            stream.map(thread -> serializeThread((ThreadChannelImpl) thread, selfId)).collect(Helpers.toDataArray())));
+        json.put("stickers", guild.getStickerCache().applyStream(stream ->
+            stream.map(sticker -> serializeSticker((GuildStickerImpl) sticker)).collect(Helpers.toDataArray())));
+        json.put("guild_scheduled_events", guild.getScheduledEventCache().applyStream(stream ->
+            stream.map(event -> serializeScheduledEvent((ScheduledEventImpl) event)).collect(Helpers.toDataArray())));
+        json.put("stage_instances", guild.getStageChannelCache().applyStream(stream ->
+            stream.map(StageChannel::getStageInstance)
+                  .filter(Objects::nonNull)
+                  .map(CacheSnapshot::serializeStageInstance)
+                  .collect(Helpers.toDataArray())));
+        json.put("voice_states", guild.getVoiceStateView().applyStream(stream ->
+            stream.filter(voiceState -> voiceState.getChannel() != null)
+                  .map(CacheSnapshot::serializeVoiceState)
+                  .collect(Helpers.toDataArray())));
+        json.put("presences", guild.getMemberCache().applyStream(stream ->
+            stream.map(member -> (MemberImpl) member)
+                  .filter(member -> member.getPresence() != null)
+                  .map(member -> serializePresence(member.getIdLong(), member.getPresence()))
+                  .collect(Helpers.toDataArray())));
+        return json;
+    }
+
+    private static void putChannelId(DataObject json, String key, GuildChannel channel)
+    {
+        if (channel != null)
+            json.put(key, channel.getIdLong());
+    }
+
+    private static DataObject serializeRole(Role role)
+    {
+        Role.RoleColors colors = role.getColors();
+        DataObject colorsJson = DataObject.empty()
+            .put("primary_color", colors.getPrimaryColorRaw())
+            .put("secondary_color", colors.getSecondaryColorRaw())
+            .put("tertiary_color", colors.getTertiaryColorRaw());
+
+        Role.RoleTags tags = role.getTags();
+        DataObject tagsJson = DataObject.empty();
+        if (tags.isBot())
+            tagsJson.put("bot_id", tags.getBotIdLong());
+        if (tags.isIntegration())
+            tagsJson.put("integration_id", tags.getIntegrationIdLong());
+        if (tags.hasSubscriptionListing())
+            tagsJson.put("subscription_listing_id", tags.getSubscriptionIdLong());
+        // Discord marks these tags with a null value, only the presence of the key matters
+        if (tags.isBoost())
+            tagsJson.put("premium_subscriber", null);
+        if (tags.isAvailableForPurchase())
+            tagsJson.put("available_for_purchase", null);
+        if (tags.isLinkedRole())
+            tagsJson.put("guild_connections", null);
+
+        RoleIcon icon = role.getIcon();
+        return DataObject.empty()
+            .put("id", role.getIdLong())
+            .put("name", role.getName())
+            .put("position", role.getPositionRaw())
+            .put("permissions", role.getPermissionsRaw())
+            .put("managed", role.isManaged())
+            .put("hoist", role.isHoisted())
+            .put("mentionable", role.isMentionable())
+            .put("colors", colorsJson)
+            .put("tags", tagsJson)
+            .put("icon", icon == null ? null : icon.getIconId())
+            .put("unicode_emoji", icon == null ? null : icon.getEmoji());
+    }
+
+    private static DataObject serializeChannel(GuildChannel channel)
+    {
+        ChannelType type = channel.getType();
+        switch (type)
+        {
+        case TEXT:
+        case NEWS:
+        case VOICE:
+        case STAGE:
+        case CATEGORY:
+        case FORUM:
+        case MEDIA:
+            break;
+        default:
+            // Threads are sent again by the gateway when they become active
+            return null;
+        }
+
+        DataObject json = DataObject.empty()
+            .put("id", channel.getIdLong())
+            .put("type", type.getId())
+            .put("name", channel.getName());
+
+        if (channel instanceof IPositionableChannel)
+            json.put("position", ((IPositionableChannel) channel).getPositionRaw());
+        if (channel instanceof ICategorizableChannel)
+            json.put("parent_id", ((ICategorizableChannel) channel).getParentCategoryIdLong());
+        if (channel instanceof MessageChannel)
+            json.put("last_message_id", ((MessageChannel) channel).getLatestMessageIdLong());
+        if (channel instanceof IAgeRestrictedChannel)
+            json.put("nsfw", ((IAgeRestrictedChannel) channel).isNSFW());
+        if (channel instanceof ISlowmodeChannel)
+            json.put("rate_limit_per_user", ((ISlowmodeChannel) channel).getSlowmode());
+        if (channel instanceof IThreadContainer)
+            json.put("default_thread_rate_limit_per_user", ((IThreadContainer) channel).getDefaultThreadSlowmode());
+        if (channel instanceof StandardGuildMessageChannel)
+            json.put("topic", ((StandardGuildMessageChannel) channel).getTopic());
+        if (channel instanceof IVoiceStatusChannel)
+            json.put("status", ((IVoiceStatusChannel) channel).getStatus());
+        if (channel instanceof AudioChannel)
+        {
+            AudioChannel audio = (AudioChannel) channel;
+            json.put("bitrate", audio.getBitrate())
+                .put("user_limit", audio.getUserLimit())
+                .put("rtc_region", audio.getRegionRaw());
+        }
+        if (channel instanceof IPostContainer)
+        {
+            IPostContainer container = (IPostContainer) channel;
+            json.put("topic", container.getTopic())
+                .put("flags", ChannelFlag.getRaw(container.getFlags()))
+                .put("default_sort_order", container.getDefaultSortOrder().getKey())
+                .put("default_reaction_emoji", serializeReaction(container.getDefaultReaction()))
+                .put("available_tags", container.getAvailableTags().stream()
+                    .map(ForumTag::toData)
+                    .collect(Helpers.toDataArray()));
+        }
+        if (channel instanceof ForumChannel)
+            json.put("default_forum_layout", ((ForumChannelImpl) channel).getRawLayout());
+        if (channel instanceof IPermissionContainer)
+        {
+            json.put("permission_overwrites", ((IPermissionContainer) channel).getPermissionOverrides().stream()
+                .map(override -> DataObject.empty()
+                    .put("id", override.getIdLong())
+                    .put("type", override.isRoleOverride() ? 0 : 1)
+                    .put("allow", override.getAllowedRaw())
+                    .put("deny", override.getDeniedRaw()))
+                .collect(Helpers.toDataArray()));
+        }
+        return json;
+    }
+
+    private static DataObject serializeReaction(EmojiUnion emoji)
+    {
+        if (emoji instanceof CustomEmoji)
+            return DataObject.empty().put("emoji_id", ((CustomEmoji) emoji).getIdLong());
+        if (emoji instanceof UnicodeEmoji)
+            return DataObject.empty().put("emoji_name", emoji.getName());
+        return null;
+    }
+
+    private static DataObject serializeEmoji(RichCustomEmoji emoji)
+    {
+        User owner = emoji.getOwner();
+        return DataObject.empty()
+            .put("id", emoji.getIdLong())
+            .put("name", emoji.getName())
+            .put("animated", emoji.isAnimated())
+            .put("managed", emoji.isManaged())
+            .put("available", emoji.isAvailable())
+            .put("user", owner == null ? null : serializeUser(owner))
+            .put("roles", DataArray.fromCollection(emoji.getRoles().stream()
+                .map(Role::getIdLong)
+                .collect(Collectors.toList())));
+    }
+
+    private static DataObject serializeMember(MemberImpl member)
+    {
+        DataObject json = DataObject.empty()
+            .put("user", serializeUser(member.getUser()))
+            .put("nick", member.getNickname())
+            .put("avatar", member.getAvatarId())
+            .put("flags", member.getFlagsRaw())
+            .put("pending", member.isPending())
+            .put("roles", DataArray.fromCollection(Arrays.stream(member.getRoleIds())
+                .boxed()
+                .collect(Collectors.toList())))
+            .put("premium_since", member.getBoostDateRaw() == 0 ? null : formatTimestamp(member.getBoostDateRaw()))
+            .put("communication_disabled_until", member.getTimeOutEndRaw() == 0 ? null : formatTimestamp(member.getTimeOutEndRaw()));
+        if (member.hasTimeJoined())
+            json.put("joined_at", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(member.getTimeJoined()));
+        return json;
+    }
+
+    private static DataObject serializeThread(ThreadChannelImpl thread, long selfId)
+    {
+        ThreadChannel.AutoArchiveDuration autoArchiveDuration = thread.getAutoArchiveDuration();
+        DataObject metadata = DataObject.empty()
+            .put("locked", thread.isLocked())
+            .put("archived", thread.isArchived())
+            .put("invitable", thread.isInvitable())
+            .put("archive_timestamp", formatTimestamp(thread.getArchiveTimestamp()))
+            .put("create_timestamp", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(thread.getTimeCreated()))
+            .put("auto_archive_duration", autoArchiveDuration == null ? 0 : autoArchiveDuration.getMinutes());
+
+        DataObject json = DataObject.empty()
+            .put("id", thread.getIdLong())
+            .put("type", thread.getType().getId())
+            .put("parent_id", thread.getParentChannel().getIdLong())
+            .put("name", thread.getName())
+            .put("flags", thread.getRawFlags())
+            .put("owner_id", thread.getOwnerIdLong())
+            .put("member_count", thread.getMemberCount())
+            .put("message_count", thread.getMessageCount())
+            .put("total_message_count", thread.getTotalMessageCount())
+            .put("last_message_id", thread.getLatestMessageIdLong())
+            .put("rate_limit_per_user", thread.getSlowmode())
+            .put("applied_tags", DataArray.fromCollection(LongStream.of(thread.getAppliedTagsSet().toArray())
+                .boxed()
+                .collect(Collectors.toList())))
+            .put("thread_metadata", metadata);
+
+        ThreadMember self = thread.getThreadMemberView().get(selfId);
+        if (self != null)
+            json.put("member", DataObject.empty().put("join_timestamp", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(self.getTimeJoined())));
+        return json;
+    }
+
+    private static DataObject serializeSticker(GuildStickerImpl sticker)
+    {
+        User owner = sticker.getOwner();
+        return DataObject.empty()
+            .put("id", sticker.getIdLong())
+            .put("type", Sticker.Type.GUILD.getId())
+            .put("name", sticker.getName())
+            .put("format_type", sticker.getFormatType().getId())
+            .put("description", sticker.getDescription())
+            .put("tags", String.join(", ", sticker.getTags()))
+            .put("available", sticker.isAvailable())
+            .put("guild_id", sticker.getGuildIdLong())
+            .put("user", owner == null ? null : serializeUser(owner));
+    }
+
+    private static DataObject serializeScheduledEvent(ScheduledEventImpl event)
+    {
+        User creator = event.getCreator();
+        OffsetDateTime endTime = event.getEndTime();
+        DataObject json = DataObject.empty()
+            .put("id", event.getIdLong())
+            .put("name", event.getName())
+            .put("description", event.getDescription())
+            .put("image", event.getImageId())
+            .put("status", event.getStatus().getKey())
+            .put("entity_type", event.getType().getKey())
+            .put("user_count", event.getInterestedUserCount())
+            .put("scheduled_start_time", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(event.getStartTime()))
+            .put("scheduled_end_time", endTime == null ? null : DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(endTime))
+            .put("creator_id", event.getCreatorIdLong())
+            .put("creator", creator == null ? null : serializeUser(creator));
+
+        if (event.getType() == ScheduledEvent.Type.EXTERNAL)
+            json.put("entity_metadata", DataObject.empty().put("location", event.getLocation()));
+        else
+            json.put("channel_id", event.getLocation());
+        return json;
+    }
+
+    private static DataObject serializeStageInstance(StageInstance instance)
+    {
+        return DataObject.empty()
+            .put("id", instance.getIdLong())
+            .put("channel_id", instance.getChannel().getIdLong())
+            .put("topic", instance.getTopic())
+            .put("privacy_level", instance.getPrivacyLevel().getKey());
+    }
+
+    private static DataObject serializeVoiceState(GuildVoiceStateImpl voiceState)
+    {
+        OffsetDateTime requestToSpeak = voiceState.getRequestToSpeakTimestamp();
+        return DataObject.empty()
+            .put("user_id", voiceState.getIdLong())
+            .put("channel_id", voiceState.getChannel().getIdLong())
+            .put("session_id", Objects.toString(voiceState.getSessionId(), ""))
+            .put("self_mute", voiceState.isSelfMuted())
+            .put("self_deaf", voiceState.isSelfDeafened())
+            .put("mute", voiceState.isGuildMuted())
+            .put("deaf", voiceState.isGuildDeafened())
+            .put("suppress", voiceState.isSuppressed())
+            .put("self_stream", voiceState.isStream())
+            .put("request_to_speak_timestamp", requestToSpeak == null ? null : DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(requestToSpeak));
+    }
+
+    private static DataObject serializePresence(long userId, MemberPresenceImpl presence)
+    {
+        DataObject clientStatus = DataObject.empty();
+        presence.getClientStatus().forEach((type, status) -> clientStatus.put(type.getKey(), status.getKey()));
+        return DataObject.empty()
+            .put("user", DataObject.empty().put("id", userId))
+            .put("status", presence.getOnlineStatus().getKey())
+            .put("client_status", clientStatus)
+            .put("activities", presence.getActivities().stream()
+                .map(CacheSnapshot::serializeActivity)
+                .collect(Helpers.toDataArray()));
+    }
+
+    private static DataObject serializeActivity(Activity activity)
+    {
+        DataObject json = DataObject.empty()
+            .put("name", activity.getName())
+            .put("type", activity.getType().getKey())
+            .put("url", activity.getUrl());
+        // Custom status activities use the state as their name
+        if (activity.getType() != Activity.ActivityType.CUSTOM_STATUS)
+            json.put("state", activity.getState());
+
+        Activity.Timestamps timestamps = activity.getTimestamps();
+        if (timestamps != null)
+            json.put("timestamps", DataObject.empty().put("start", timestamps.getStart()).put("end", timestamps.getEnd()));
+        EmojiUnion emoji = activity.getEmoji();
+        if (emoji instanceof CustomEmoji)
+            json.put("emoji", DataObject.empty().put("id", ((CustomEmoji) emoji).getIdLong()).put("name", emoji.getName()).put("animated", ((CustomEmoji) emoji).isAnimated()));
+        else if (emoji != null)
+            json.put("emoji", DataObject.empty().put("name", emoji.getName()));
+
+        RichPresence rich = activity.asRichPresence();
+        if (rich == null)
+            return json;
+
+        json.put("application_id", rich.getApplicationIdLong())
+            .put("session_id", rich.getSessionId())
+            .put("sync_id", rich.getSyncId())
+            .put("flags", rich.getFlags())
+            .put("details", rich.getDetails());
+        RichPresence.Party party = rich.getParty();
+        if (party != null)
+            json.put("party", DataObject.empty().put("id", party.getId()).put("size", DataArray.empty().add(party.getSize()).add(party.getMax())));
+        DataObject assets = DataObject.empty();
+        putImage(assets, "large", rich.getLargeImage());
+        putImage(assets, "small", rich.getSmallImage());
+        return json.put("assets", assets);
+    }
+
+    private static void putImage(DataObject assets, String prefix, RichPresence.Image image)
+    {
+        if (image != null)
+            assets.put(prefix + "_image", image.getKey()).put(prefix + "_text", image.getText());
+    }
+}
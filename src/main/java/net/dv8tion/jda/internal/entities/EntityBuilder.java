@@ -16,8 +16,11 @@
 
 package net.dv8tion.jda.internal.entities;
 
+import gnu.trove.iterator.TLongObjectIterator;
 import gnu.trove.map.TLongObjectMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
 import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.audit.ActionType;
@@ -93,6 +96,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAccessor;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -118,9 +122,18 @@ public class EntityBuilder extends AbstractEntityBuilder
         richGameFields = Collections.unmodifiableSet(tmp);
     }
 
+    // Set for builders which build a guild without access to the shared caches, see stageGuild
+    private final StagedGuild stage;
+
     public EntityBuilder(JDAImpl api)
+    {
+        this(api, null);
+    }
+
+    private EntityBuilder(JDAImpl api, StagedGuild stage)
     {
         super(api);
+        this.stage = stage;
     }
 
     public SelfUser createSelfUser(DataObject self)
@@ -337,10 +350,13 @@ public class EntityBuilder extends AbstractEntityBuilder
                 .setNSFWLevel(Guild.NSFWLevel.fromKey(nsfwLevel))
                 .setBoostProgressBarEnabled(boostProgressBarEnabled);
 
-        SnowflakeCacheViewImpl<Guild> guildView = getJDA().getGuildsView();
-        try (UnlockHook hook = guildView.writeLock())
+        if (stage == null)
         {
-            guildView.getMap().put(guildId, guildObj);
+            SnowflakeCacheViewImpl<Guild> guildView = getJDA().getGuildsView();
+            try (UnlockHook hook = guildView.writeLock())
+            {
+                guildView.getMap().put(guildId, guildObj);
+            }
         }
 
         guildObj.setFeatures(featuresArray.map(array ->
@@ -371,8 +387,9 @@ public class EntityBuilder extends AbstractEntityBuilder
 
         TLongObjectMap<DataObject> voiceStates = Helpers.convertToMap((o) -> o.getUnsignedLong("user_id", 0L), voiceStateArray);
         TLongObjectMap<DataObject> presences = presencesArray.map(o1 -> Helpers.convertToMap(o2 -> o2.getObject("user").getUnsignedLong("id"), o1)).orElseGet(TLongObjectHashMap::new);
+        // Staged guilds do not write to the user cache, so they don't block it while building
         try (UnlockHook h1 = guildObj.getMembersView().writeLock();
-             UnlockHook h2 = getJDA().getUsersView().writeLock())
+             UnlockHook h2 = stage == null ? getJDA().getUsersView().writeLock() : null)
         {
             //Add members to cache when subscriptions are disabled when they appear here
             // this is done because we can still keep track of members in voice channels
@@ -387,18 +404,9 @@ public class EntityBuilder extends AbstractEntityBuilder
 
         if (guildObj.getOwner() == null)
             LOG.debug("Finished setup for guild with a null owner. GuildId: {} OwnerId: {}", guildId, guildJson.opt("owner_id").orElse(null));
-        if (guildObj.getMember(api.getSelfUser()) == null)
-        {
-            LOG.error("Guild is missing a SelfMember. GuildId: {}", guildId);
-            LOG.debug("Guild is missing a SelfMember. GuildId: {} JSON: \n{}", guildId, guildJson);
-            // This is actually a gateway request
-            guildObj.retrieveMembersByIds(api.getSelfUser().getIdLong()).onSuccess(m -> {
-                if (m.isEmpty())
-                    LOG.warn("Was unable to recover SelfMember for guild with id {}. This guild might be corrupted!", guildId);
-                else
-                    LOG.debug("Successfully recovered SelfMember for guild with id {}.", guildId);
-            });
-        }
+        // The member request needs the guild in cache, staged guilds are checked once they are published
+        if (stage == null)
+            checkSelfMember(guildObj, guildJson);
 
         for (int i = 0; i < threadArray.length(); i++)
         {
@@ -432,6 +440,124 @@ public class EntityBuilder extends AbstractEntityBuilder
         return guildObj;
     }
 
+    /**
+     * Builds a guild like {@link #createGuild(long, DataObject, TLongObjectMap, int)}, without modifying the caches shared between guilds.
+     * <br>This does not fire any events and can be used from any thread,
+     * the guild must then be added to the cache with {@link #publishGuild(StagedGuild)} on the gateway thread.
+     *
+     * @param  guildId
+     *         The guild id
+     * @param  guildJson
+     *         The guild payload
+     * @param  members
+     *         The member payloads by user id
+     * @param  memberCount
+     *         The total member count
+     *
+     * @return The staged guild
+     */
+    public StagedGuild stageGuild(long guildId, DataObject guildJson, TLongObjectMap<DataObject> members, int memberCount)
+    {
+        StagedGuild stage = new StagedGuild(guildJson, members);
+        stage.guild = new EntityBuilder(getJDA(), stage).createGuild(guildId, guildJson, members, memberCount);
+        return stage;
+    }
+
+    /**
+     * Adds a guild built by {@link #stageGuild(long, DataObject, TLongObjectMap, int)} to the cache.
+     * <br>Users which were cached by the time this is called receive the updates of the guild payload and fire the respective events.
+     *
+     * @param  stage
+     *         The staged guild
+     *
+     * @return The published guild
+     */
+    public GuildImpl publishGuild(StagedGuild stage)
+    {
+        GuildImpl guildObj = stage.guild;
+        SnowflakeCacheViewImpl<Guild> guildView = getJDA().getGuildsView();
+        try (UnlockHook hook = guildView.writeLock())
+        {
+            guildView.getMap().put(guildObj.getIdLong(), guildObj);
+        }
+
+        // Channels which were already cached had their cached events replayed before
+        TLongSet knownChannels = new TLongHashSet();
+        ChannelCacheViewImpl<Channel> channelView = getJDA().getChannelsView();
+        try (UnlockHook hook = channelView.writeLock())
+        {
+            stage.channels.forEach(channel ->
+            {
+                if (channelView.put(channel) != null)
+                    knownChannels.add(channel.getIdLong());
+            });
+        }
+
+        // Users might have been cached while the guild was built, those are updated like they would have been by createUser
+        List<UserImpl> updated = new ArrayList<>();
+        SnowflakeCacheViewImpl<User> userView = getJDA().getUsersView();
+        try (UnlockHook hook = userView.writeLock())
+        {
+            TLongObjectMap<User> userMap = userView.getMap();
+            for (TLongObjectIterator<UserImpl> it = stage.users.iterator(); it.hasNext();)
+            {
+                it.advance();
+                UserImpl user = it.value();
+                UserImpl cached = (UserImpl) userMap.get(it.key());
+                if (cached == null && stage.cachedUsers.contains(it.key()))
+                    userMap.put(it.key(), user);
+                if (cached != null && cached != user)
+                    updated.add(cached);
+                else if (!stage.createdUsers.contains(it.key()))
+                    updated.add(user);
+            }
+        }
+        for (UserImpl user : updated)
+            updateUser(user, stage.userJson.get(user.getIdLong()));
+
+        EventCache eventCache = getJDA().getEventCache();
+        for (StagedGuild.Playback playback : stage.playbacks)
+        {
+            if (playback.type != EventCache.Type.CHANNEL || !knownChannels.contains(playback.id))
+                eventCache.playbackCache(playback.type, playback.id);
+        }
+
+        checkSelfMember(guildObj, stage.guildJson);
+        return guildObj;
+    }
+
+    private void checkSelfMember(GuildImpl guildObj, DataObject guildJson)
+    {
+        long guildId = guildObj.getIdLong();
+        if (guildObj.getMember(api.getSelfUser()) == null)
+        {
+            LOG.error("Guild is missing a SelfMember. GuildId: {}", guildId);
+            LOG.debug("Guild is missing a SelfMember. GuildId: {} JSON: \n{}", guildId, guildJson);
+            // This is actually a gateway request
+            guildObj.retrieveMembersByIds(api.getSelfUser().getIdLong()).onSuccess(m -> {
+                if (m.isEmpty())
+                    LOG.warn("Was unable to recover SelfMember for guild with id {}. This guild might be corrupted!", guildId);
+                else
+                    LOG.debug("Successfully recovered SelfMember for guild with id {}.", guildId);
+            });
+        }
+    }
+
+    // Channels shared between guilds, staged guilds only see their own
+    private ChannelCacheViewImpl<Channel> getChannelsView()
+    {
+        return stage != null ? stage.channels : getJDA().getChannelsView();
+    }
+
+    // Cached events can only be handled once the entity is visible to the handlers
+    private void playbackCache(EventCache.Type type, long id)
+    {
+        if (stage != null)
+            stage.playback(type, id);
+        else
+            getJDA().getEventCache().playbackCache(type, id);
+    }
+
     public GuildChannel createGuildChannel(GuildImpl guildObj, DataObject channelData)
     {
         final ChannelType channelType = ChannelType.fromId(channelData.getInt("type"));
@@ -463,14 +589,18 @@ public class EntityBuilder extends AbstractEntityBuilder
         final long id = user.getLong("id");
         UserImpl userObj;
 
-        SnowflakeCacheViewImpl<User> userView = getJDA().getUsersView();
-        try (UnlockHook hook = userView.readLock())
+        userObj = stage != null ? stage.users.get(id) : null;
+        if (userObj == null)
         {
-            userObj = (UserImpl) userView.getElementById(id);
-            if (userObj == null)
+            SnowflakeCacheViewImpl<User> userView = getJDA().getUsersView();
+            try (UnlockHook hook = userView.readLock())
             {
-                userObj = new UserImpl(id, getJDA());
-                newUser = true;
+                userObj = (UserImpl) userView.getElementById(id);
+                if (userObj == null)
+                {
+                    userObj = new UserImpl(id, getJDA());
+                    newUser = true;
+                }
             }
         }
 
@@ -490,12 +620,15 @@ public class EntityBuilder extends AbstractEntityBuilder
                    .setFlags(user.getInt("public_flags", 0))
                    .setProfile(profile);
         }
-        else
+        else if (stage == null)
         {
             // Fire update events
             updateUser(userObj, user);
         }
 
+        // Cached users are updated once the guild is published
+        if (stage != null)
+            stage.addUser(userObj, user, newUser);
         return userObj;
     }
 
@@ -517,47 +650,52 @@ public class EntityBuilder extends AbstractEntityBuilder
         if (!oldName.equals(newName))
         {
             userObj.setName(newName);
-            jda.handleEvent(
-                new UserUpdateNameEvent(
-                    jda, responseNumber,
-                    userObj, oldName));
+            if (jda.isListening(UserUpdateNameEvent.class))
+                jda.handleEvent(
+                    new UserUpdateNameEvent(
+                        jda, responseNumber,
+                        userObj, oldName));
         }
 
         if (!Objects.equals(oldGlobalName, newGlobalName))
         {
             userObj.setGlobalName(newGlobalName);
-            jda.handleEvent(
-                new UserUpdateGlobalNameEvent(
-                    jda, responseNumber,
-                    userObj, oldGlobalName));
+            if (jda.isListening(UserUpdateGlobalNameEvent.class))
+                jda.handleEvent(
+                    new UserUpdateGlobalNameEvent(
+                        jda, responseNumber,
+                        userObj, oldGlobalName));
         }
 
         if (oldDiscriminator != newDiscriminator)
         {
             String oldDiscrimString = userObj.getDiscriminator();
             userObj.setDiscriminator(newDiscriminator);
-            jda.handleEvent(
-                new UserUpdateDiscriminatorEvent(
-                    jda, responseNumber,
-                    userObj, oldDiscrimString));
+            if (jda.isListening(UserUpdateDiscriminatorEvent.class))
+                jda.handleEvent(
+                    new UserUpdateDiscriminatorEvent(
+                        jda, responseNumber,
+                        userObj, oldDiscrimString));
         }
 
         if (!Objects.equals(oldAvatar, newAvatar))
         {
             userObj.setAvatarId(newAvatar);
-            jda.handleEvent(
-                new UserUpdateAvatarEvent(
-                    jda, responseNumber,
-                    userObj, oldAvatar));
+            if (jda.isListening(UserUpdateAvatarEvent.class))
+                jda.handleEvent(
+                    new UserUpdateAvatarEvent(
+                        jda, responseNumber,
+                        userObj, oldAvatar));
         }
 
         if (oldFlags != newFlags)
         {
             userObj.setFlags(newFlags);
-            jda.handleEvent(
-                    new UserUpdateFlagsEvent(
-                        jda, responseNumber,
-                        userObj, User.UserFlag.getFlags(oldFlags)));
+            if (jda.isListening(UserUpdateFlagsEvent.class))
+                jda.handleEvent(
+                        new UserUpdateFlagsEvent(
+                            jda, responseNumber,
+                            userObj, User.UserFlag.getFlags(oldFlags)));
         }
     }
 
@@ -576,7 +714,11 @@ public class EntityBuilder extends AbstractEntityBuilder
             if (membersView.remove(member.getIdLong()) == null)
                 return false;
             LOG.trace("Unloading member {}", member);
-            if (user.getMutualGuilds().isEmpty())
+            if (stage != null)
+            {
+                stage.cachedUsers.remove(user.getIdLong());
+            }
+            else if (user.getMutualGuilds().isEmpty())
             {
                 // we no longer share any guilds/channels with this user so remove it from cache
                 getJDA().getUsersView().remove(user.getIdLong());
@@ -591,7 +733,11 @@ public class EntityBuilder extends AbstractEntityBuilder
 
         LOG.trace("Loading member {}", member);
 
-        if (getJDA().getUserById(user.getIdLong()) == null)
+        if (stage != null)
+        {
+            stage.cachedUsers.add(user.getIdLong());
+        }
+        else if (getJDA().getUserById(user.getIdLong()) == null)
         {
             SnowflakeCacheViewImpl<User> usersView = getJDA().getUsersView();
             try (UnlockHook hook1 = usersView.writeLock())
@@ -608,8 +754,8 @@ public class EntityBuilder extends AbstractEntityBuilder
         }
 
         long hashId = guild.getIdLong() ^ user.getIdLong();
-        getJDA().getEventCache().playbackCache(EventCache.Type.USER, member.getIdLong());
-        getJDA().getEventCache().playbackCache(EventCache.Type.MEMBER, hashId);
+        playbackCache(EventCache.Type.USER, member.getIdLong());
+        playbackCache(EventCache.Type.MEMBER, hashId);
         return true;
     }
 
@@ -628,27 +774,12 @@ public class EntityBuilder extends AbstractEntityBuilder
             // Create a brand new member
             member = new MemberImpl(guild, user);
             configureMember(memberJson, member);
-            Set<Role> roles = member.getRoleSet();
-            for (int i = 0; i < roleArray.length(); i++)
-            {
-                long roleId = roleArray.getUnsignedLong(i);
-                Role role = guild.getRoleById(roleId);
-                if (role != null)
-                    roles.add(role);
-            }
+            member.setRoles(getRoles(guild, roleArray));
         }
         else
         {
             // Update cached member and fire events
-            List<Role> roles = new ArrayList<>(roleArray.length());
-            for (int i = 0; i < roleArray.length(); i++)
-            {
-                long roleId = roleArray.getUnsignedLong(i);
-                Role role = guild.getRoleById(roleId);
-                if (role != null)
-                    roles.add(role);
-            }
-            updateMember(guild, member, memberJson, roles);
+            updateMember(guild, member, memberJson, getRoles(guild, roleArray));
         }
 
         // Load voice state and presence if necessary
@@ -662,6 +793,110 @@ public class EntityBuilder extends AbstractEntityBuilder
         return member;
     }
 
+    private static List<Role> getRoles(GuildImpl guild, DataArray roleArray)
+    {
+        List<Role> roles = new ArrayList<>(roleArray.length());
+        for (int i = 0; i < roleArray.length(); i++)
+        {
+            long roleId = roleArray.getUnsignedLong(i);
+            Role role = guild.getRoleById(roleId);
+            if (role != null)
+                roles.add(role);
+        }
+        return roles;
+    }
+
+    /**
+     * Builds the members of a member chunk which are not cached yet, without modifying the caches or firing events.
+     * <br>This can be used from any thread, the members are then added to the cache by
+     * {@link #createMembers(GuildImpl, DataArray, TLongObjectMap, LongPredicate, StagedGuild)} on the gateway thread.
+     *
+     * @param  guild
+     *         The cached guild of the members
+     * @param  memberArray
+     *         The member objects
+     *
+     * @return The staged members
+     */
+    public StagedGuild stageMembers(GuildImpl guild, DataArray memberArray)
+    {
+        StagedGuild stage = new StagedGuild(null, new TLongObjectHashMap<>());
+        stage.guild = guild;
+        EntityBuilder builder = new EntityBuilder(getJDA(), stage);
+        for (int i = 0; i < memberArray.length(); i++)
+        {
+            DataObject json = memberArray.getObject(i);
+            long userId = json.getObject("user").getUnsignedLong("id");
+            // Cached members fire update events, so they are handled on the gateway thread
+            if (guild.getMembersView().get(userId) != null)
+                continue;
+            MemberImpl member = new MemberImpl(guild, builder.createUser(json.getObject("user")));
+            configureMember(json, member);
+            member.setRoles(getRoles(guild, json.getArray("roles")));
+            stage.builtMembers.put(userId, member);
+        }
+        return stage;
+    }
+
+    /**
+     * Creates and caches the members of a member chunk.
+     *
+     * @param  guild
+     *         The guild of the members
+     * @param  memberArray
+     *         The member objects
+     * @param  presences
+     *         The presences of the members by user id
+     * @param  skipped
+     *         Tests user ids of members which were updated by more recent events, these keep their cached state
+     * @param  stage
+     *         The members built by {@link #stageMembers(GuildImpl, DataArray)}, or null to build them here
+     *
+     * @return The members of the chunk
+     */
+    public List<Member> createMembers(GuildImpl guild, DataArray memberArray, TLongObjectMap<DataObject> presences,
+                                      @Nullable LongPredicate skipped, @Nullable StagedGuild stage)
+    {
+        List<Member> members = new ArrayList<>(memberArray.length());
+        for (int i = 0; i < memberArray.length(); i++)
+        {
+            DataObject json = memberArray.getObject(i);
+            long userId = json.getObject("user").getUnsignedLong("id");
+            if (skipped != null && skipped.test(userId))
+            {
+                Member cached = guild.getMembersView().get(userId);
+                if (cached != null)
+                    members.add(cached);
+                continue;
+            }
+
+            MemberImpl member = stage == null ? null : stage.builtMembers.get(userId);
+            // The member might have been cached by an event while the chunk was built
+            if (member == null || guild.getMembersView().get(userId) != null)
+                member = createMember(guild, json, null, presences.get(userId));
+            else
+                publishMember(stage, member, presences.get(userId));
+            updateMemberCache(member);
+            members.add(member);
+        }
+        return members;
+    }
+
+    private void publishMember(StagedGuild stage, MemberImpl member, DataObject presence)
+    {
+        // Users might have been cached while the member was built, those are updated like they would have been by createUser
+        long userId = member.getIdLong();
+        UserImpl user = stage.users.get(userId);
+        UserImpl cached = (UserImpl) getJDA().getUsersView().get(userId);
+        UserImpl current = cached != null ? cached : user;
+        if (current != user || !stage.createdUsers.contains(userId))
+            updateUser(current, stage.userJson.get(userId));
+
+        if (presence != null)
+            createPresence(member, presence);
+        member.getGuild().updateCacheVoiceStateMember(member);
+    }
+
     public GuildVoiceState createGuildVoiceState(MemberImpl member, DataObject voiceStateJson)
     {
         GuildVoiceStateImpl voiceState = member.getVoiceState();
@@ -716,10 +951,11 @@ public class EntityBuilder extends AbstractEntityBuilder
             if (!Objects.equals(oldNick, newNick))
             {
                 member.setNickname(newNick);
-                getJDA().handleEvent(
-                    new GuildMemberUpdateNicknameEvent(
-                        getJDA(), responseNumber,
-                        member, oldNick));
+                if (getJDA().isListening(GuildMemberUpdateNicknameEvent.class))
+                    getJDA().handleEvent(
+                        new GuildMemberUpdateNicknameEvent(
+                            getJDA(), responseNumber,
+                            member, oldNick));
             }
         }
         if (content.hasKey("avatar"))
@@ -729,10 +965,11 @@ public class EntityBuilder extends AbstractEntityBuilder
             if (!Objects.equals(oldAvatarId, newAvatarId))
             {
                 member.setAvatarId(newAvatarId);
-                getJDA().handleEvent(
-                        new GuildMemberUpdateAvatarEvent(
-                                getJDA(), responseNumber,
-                                member, oldAvatarId));
+                if (getJDA().isListening(GuildMemberUpdateAvatarEvent.class))
+                    getJDA().handleEvent(
+                            new GuildMemberUpdateAvatarEvent(
+                                    getJDA(), responseNumber,
+                                    member, oldAvatarId));
             }
         }
         if (content.hasKey("premium_since"))
@@ -744,10 +981,11 @@ public class EntityBuilder extends AbstractEntityBuilder
             {
                 OffsetDateTime oldTime = member.getTimeBoosted();
                 member.setBoostDate(epoch);
-                getJDA().handleEvent(
-                    new GuildMemberUpdateBoostTimeEvent(
-                        getJDA(), responseNumber,
-                        member, oldTime));
+                if (getJDA().isListening(GuildMemberUpdateBoostTimeEvent.class))
+                    getJDA().handleEvent(
+                        new GuildMemberUpdateBoostTimeEvent(
+                            getJDA(), responseNumber,
+                            member, oldTime));
             }
         }
 
@@ -760,10 +998,11 @@ public class EntityBuilder extends AbstractEntityBuilder
             {
                 OffsetDateTime oldTime = member.getTimeOutEnd();
                 member.setTimeOutEnd(epoch);
-                getJDA().handleEvent(
-                        new GuildMemberUpdateTimeOutEvent(
-                                getJDA(), responseNumber,
-                                member, oldTime));
+                if (getJDA().isListening(GuildMemberUpdateTimeOutEvent.class))
+                    getJDA().handleEvent(
+                            new GuildMemberUpdateTimeOutEvent(
+                                    getJDA(), responseNumber,
+                                    member, oldTime));
             }
         }
 
@@ -782,10 +1021,11 @@ public class EntityBuilder extends AbstractEntityBuilder
             if (pending != oldPending)
             {
                 member.setPending(pending);
-                getJDA().handleEvent(
-                    new GuildMemberUpdatePendingEvent(
-                        getJDA(), responseNumber,
-                        member, oldPending));
+                if (getJDA().isListening(GuildMemberUpdatePendingEvent.class))
+                    getJDA().handleEvent(
+                        new GuildMemberUpdatePendingEvent(
+                            getJDA(), responseNumber,
+                            member, oldPending));
             }
         }
 
@@ -796,10 +1036,11 @@ public class EntityBuilder extends AbstractEntityBuilder
             if (flags != oldFlags)
             {
                 member.setFlags(flags);
-                getJDA().handleEvent(
-                    new GuildMemberUpdateFlagsEvent(
-                        getJDA(), responseNumber,
-                        member, Member.MemberFlag.fromRaw(oldFlags)));
+                if (getJDA().isListening(GuildMemberUpdateFlagsEvent.class))
+                    getJDA().handleEvent(
+                        new GuildMemberUpdateFlagsEvent(
+                            getJDA(), responseNumber,
+                            member, Member.MemberFlag.fromRaw(oldFlags)));
             }
         }
 
@@ -808,7 +1049,7 @@ public class EntityBuilder extends AbstractEntityBuilder
 
     private void updateMemberRoles(MemberImpl member, List<Role> newRoles, long responseNumber)
     {
-        Set<Role> currentRoles = member.getRoleSet();
+        Set<Role> currentRoles = member.getUnsortedRoles();
         //Find the roles removed.
         List<Role> removedRoles = new LinkedList<>();
         each:
@@ -827,23 +1068,25 @@ public class EntityBuilder extends AbstractEntityBuilder
         }
 
         if (removedRoles.size() > 0)
-            currentRoles.removeAll(removedRoles);
+            member.removeRoles(removedRoles);
         if (newRoles.size() > 0)
-            currentRoles.addAll(newRoles);
+            member.addRoles(newRoles);
 
         if (removedRoles.size() > 0)
         {
-            getJDA().handleEvent(
-                new GuildMemberRoleRemoveEvent(
-                    getJDA(), responseNumber,
-                    member, removedRoles));
+            if (getJDA().isListening(GuildMemberRoleRemoveEvent.class))
+                getJDA().handleEvent(
+                    new GuildMemberRoleRemoveEvent(
+                        getJDA(), responseNumber,
+                        member, removedRoles));
         }
         if (newRoles.size() > 0)
         {
-            getJDA().handleEvent(
-                new GuildMemberRoleAddEvent(
-                    getJDA(), responseNumber,
-                    member, newRoles));
+            if (getJDA().isListening(GuildMemberRoleAddEvent.class))
+                getJDA().handleEvent(
+                    new GuildMemberRoleAddEvent(
+                        getJDA(), responseNumber,
+                        member, newRoles));
         }
     }
 
@@ -1063,7 +1306,7 @@ public class EntityBuilder extends AbstractEntityBuilder
             if (json.hasKey("creator"))
                 scheduledEvent.setCreator(createUser(json.getObject("creator")));
             else
-                scheduledEvent.setCreator(getJDA().getUserById(creatorId));
+                scheduledEvent.setCreator(stage != null && stage.users.containsKey(creatorId) ? stage.users.get(creatorId) : getJDA().getUserById(creatorId));
         }
         final ScheduledEvent.Type type = ScheduledEvent.Type.fromKey(json.getInt("entity_type"));
         scheduledEvent.setType(type);
@@ -1105,7 +1348,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         if (channel == null)
         {
             ChannelCacheViewImpl<GuildChannel> guildView = guild.getChannelView();
-            ChannelCacheViewImpl<Channel> globalView = getJDA().getChannelsView();
+            ChannelCacheViewImpl<Channel> globalView = getChannelsView();
             try (
                 UnlockHook glock = guildView.writeLock();
                 UnlockHook jlock = globalView.writeLock())
@@ -1119,7 +1362,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         configureCategory(json, channel);
         createOverridesPass(channel, json.getArray("permission_overwrites"));
         if (playbackCache)
-            getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
+            playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
 
@@ -1143,7 +1386,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         if (channel == null)
         {
             ChannelCacheViewImpl<GuildChannel> guildView = guildObj.getChannelView();
-            ChannelCacheViewImpl<Channel> globalView = getJDA().getChannelsView();
+            ChannelCacheViewImpl<Channel> globalView = getChannelsView();
             try (
                     UnlockHook glock = guildView.writeLock();
                     UnlockHook jlock = globalView.writeLock())
@@ -1157,7 +1400,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         configureTextChannel(json, channel);
         createOverridesPass(channel, json.getArray("permission_overwrites"));
         if (playbackCache)
-            getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
+            playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
 
@@ -1181,7 +1424,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         if (channel == null)
         {
             ChannelCacheViewImpl<GuildChannel> guildView = guildObj.getChannelView();
-            ChannelCacheViewImpl<Channel> globalView = getJDA().getChannelsView();
+            ChannelCacheViewImpl<Channel> globalView = getChannelsView();
             try (
                     UnlockHook glock = guildView.writeLock();
                     UnlockHook jlock = globalView.writeLock())
@@ -1195,7 +1438,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         configureNewsChannel(json, channel);
         createOverridesPass(channel, json.getArray("permission_overwrites"));
         if (playbackCache)
-            getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
+            playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
 
@@ -1218,7 +1461,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         if (channel == null)
         {
             ChannelCacheViewImpl<GuildChannel> guildView = guild.getChannelView();
-            ChannelCacheViewImpl<Channel> globalView = getJDA().getChannelsView();
+            ChannelCacheViewImpl<Channel> globalView = getChannelsView();
             try (
                     UnlockHook glock = guildView.writeLock();
                     UnlockHook jlock = globalView.writeLock())
@@ -1232,7 +1475,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         configureVoiceChannel(json, channel);
         createOverridesPass(channel, json.getArray("permission_overwrites"));
         if (playbackCache)
-            getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
+            playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
 
@@ -1255,7 +1498,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         if (channel == null)
         {
             ChannelCacheViewImpl<GuildChannel> guildView = guild.getChannelView();
-            ChannelCacheViewImpl<Channel> globalView = getJDA().getChannelsView();
+            ChannelCacheViewImpl<Channel> globalView = getChannelsView();
             try (
                     UnlockHook glock = guildView.writeLock();
                     UnlockHook jlock = globalView.writeLock())
@@ -1269,7 +1512,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         configureStageChannel(json, channel);
         createOverridesPass(channel, json.getArray("permission_overwrites"));
         if (playbackCache)
-            getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
+            playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
 
@@ -1298,11 +1541,11 @@ public class EntityBuilder extends AbstractEntityBuilder
         if (parent == null)
             throw new IllegalArgumentException(MISSING_CHANNEL);
 
-        ThreadChannelImpl channel = ((ThreadChannelImpl) getJDA().getThreadChannelById(id));
+        ThreadChannelImpl channel = (ThreadChannelImpl) getChannelsView().ofType(ThreadChannel.class).getElementById(id);
         if (channel == null)
         {
             ChannelCacheViewImpl<GuildChannel> guildThreadView = guild.getChannelView();
-            ChannelCacheViewImpl<Channel> threadView = getJDA().getChannelsView();
+            ChannelCacheViewImpl<Channel> threadView = getChannelsView();
             try (
                     UnlockHook vlock = guildThreadView.writeLock();
                     UnlockHook jlock = threadView.writeLock())
@@ -1339,7 +1582,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         }
 
         if (playbackCache)
-            getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
+            playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
 
@@ -1380,7 +1623,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         if (channel == null)
         {
             ChannelCacheViewImpl<GuildChannel> guildView = guild.getChannelView();
-            ChannelCacheViewImpl<Channel> globalView = getJDA().getChannelsView();
+            ChannelCacheViewImpl<Channel> globalView = getChannelsView();
             try (
                     UnlockHook glock = guildView.writeLock();
                     UnlockHook jlock = globalView.writeLock())
@@ -1393,7 +1636,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         configureForumChannel(json, channel);
         createOverridesPass(channel, json.getArray("permission_overwrites"));
         if (playbackCache)
-            getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
+            playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
 
@@ -1416,7 +1659,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         if (channel == null)
         {
             ChannelCacheViewImpl<GuildChannel> guildView = guild.getChannelView();
-            ChannelCacheViewImpl<Channel> globalView = getJDA().getChannelsView();
+            ChannelCacheViewImpl<Channel> globalView = getChannelsView();
             try (
                     UnlockHook glock = guildView.writeLock();
                     UnlockHook jlock = globalView.writeLock())
@@ -1429,7 +1672,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         configureMediaChannel(json, channel);
         createOverridesPass(channel, json.getArray("permission_overwrites"));
         if (playbackCache)
-            getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
+            playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
 
@@ -1550,7 +1793,7 @@ public class EntityBuilder extends AbstractEntityBuilder
         configureRole(roleJson, role, id);
 
         if (playbackCache)
-            getJDA().getEventCache().playbackCache(EventCache.Type.ROLE, id);
+            playbackCache(EventCache.Type.ROLE, id);
         return role;
     }
 
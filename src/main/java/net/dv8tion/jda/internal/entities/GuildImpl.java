@@ -112,7 +112,8 @@ public class GuildImpl implements Guild
     private final SortedSnowflakeCacheViewImpl<Role> roleCache = new SortedSnowflakeCacheViewImpl<>(Role.class, Role::getName, Comparator.reverseOrder());
     private final SnowflakeCacheViewImpl<RichCustomEmoji> emojicache = new SnowflakeCacheViewImpl<>(RichCustomEmoji.class, RichCustomEmoji::getName);
     private final SnowflakeCacheViewImpl<GuildSticker> stickerCache = new SnowflakeCacheViewImpl<>(GuildSticker.class, GuildSticker::getName);
-    private final MemberCacheViewImpl memberCache = new MemberCacheViewImpl();
+    private final MemberCacheViewImpl memberCache;
+    private final PermissionCache permissionCache;
     private final CacheView.SimpleCacheView<MemberPresenceImpl> memberPresences;
     private final SnowflakeCacheViewImpl<GuildVoiceStateImpl> voiceStateCache = new SnowflakeCacheViewImpl<>(GuildVoiceStateImpl.class, state -> state.getMember().getEffectiveName());
 
@@ -150,6 +151,8 @@ public class GuildImpl implements Guild
     {
         this.id = id;
         this.api = api;
+        this.memberCache = new MemberCacheViewImpl(api.isConcurrentCache());
+        this.permissionCache = api.isPermissionCache() ? new PermissionCache() : null;
         if (api.getCacheFlags().stream().anyMatch(CacheFlag::isPresence))
             memberPresences = new CacheView.SimpleCacheView<>(MemberPresenceImpl.class, null);
         else
@@ -214,6 +217,8 @@ public class GuildImpl implements Guild
         if (channelCache.remove(channel.getType(), id) == null)
             return;
 
+        invalidatePermissionCache(channel);
+
         api.getChannelsView().remove(channel.getType(), id);
 
         if (!keepThreads && channel instanceof IThreadContainer)
@@ -1800,7 +1805,7 @@ public class GuildImpl implements Guild
         Checks.notNull(member, "Member");
         checkGuild(member.getGuild(), "Member");
         checkPermission(Permission.MANAGE_ROLES);
-        Set<Role> currentRoles = new HashSet<>(((MemberImpl) member).getRoleSet());
+        Set<Role> currentRoles = new HashSet<>(member.getUnsortedRoles());
         if (rolesToAdd != null)
         {
             checkRoles(rolesToAdd, "add", "to");
@@ -2420,6 +2425,47 @@ public class GuildImpl implements Guild
         return memberPresences;
     }
 
+    @Nullable
+    public PermissionCache getPermissionCache()
+    {
+        return permissionCache;
+    }
+
+    public void invalidatePermissionCache(long memberId)
+    {
+        if (permissionCache != null)
+            permissionCache.invalidateMember(memberId);
+    }
+
+    // Threads use the overrides of their parent, and categories grant MANAGE_CHANNEL to their children
+    public void invalidatePermissionCache(GuildChannel channel)
+    {
+        if (permissionCache == null)
+            return;
+        permissionCache.invalidateChannel(channel.getIdLong());
+        if (channel instanceof Category)
+            ((Category) channel).getChannels().forEach(this::invalidatePermissionCache);
+        if (channel instanceof IThreadContainer)
+            ((IThreadContainer) channel).getThreadChannels().forEach(thread -> permissionCache.invalidateChannel(thread.getIdLong()));
+    }
+
+    public void invalidatePermissionCache(Role role)
+    {
+        if (permissionCache == null)
+            return;
+        if (role.isPublicRole())
+        {
+            permissionCache.invalidateAll();
+            return;
+        }
+        long roleId = role.getIdLong();
+        memberCache.forEach(member ->
+        {
+            if (((MemberImpl) member).hasRole(roleId))
+                permissionCache.invalidateMember(member.getIdLong());
+        });
+    }
+
     @Nonnull
     public SnowflakeCacheViewImpl<GuildVoiceStateImpl> getVoiceStateView()
     {
@@ -2436,6 +2482,7 @@ public class GuildImpl implements Guild
     public void onMemberRemove(long memberId)
     {
         memberCount--;
+        invalidatePermissionCache(memberId);
         this.voiceStateCache.remove(memberId);
         if (this.memberPresences != null)
             this.memberPresences.remove(memberId);
@@ -41,13 +41,15 @@ import java.awt.*;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 public class MemberImpl implements Member, MemberMixin<MemberImpl>
 {
+    private static final long[] NO_ROLES = new long[0];
+
     private final JDAImpl api;
-    private final Set<Role> roles = ConcurrentHashMap.newKeySet();
+    // Sorted role ids, replaced on every update so readers never observe partial changes
+    private volatile long[] roleIds = NO_ROLES;
 
     private GuildImpl guild;
     private User user;
@@ -205,7 +207,7 @@ public class MemberImpl implements Member, MemberMixin<MemberImpl>
     @Override
     public List<Role> getRoles()
     {
-        List<Role> roleList = new ArrayList<>(roles);
+        List<Role> roleList = resolveRoles(roleIds);
         roleList.sort(Comparator.reverseOrder());
         return Collections.unmodifiableList(roleList);
     }
@@ -214,7 +216,7 @@ public class MemberImpl implements Member, MemberMixin<MemberImpl>
     @Override
     public Set<Role> getUnsortedRoles()
     {
-        return Collections.unmodifiableSet(roles);
+        return new RoleView();
     }
 
     @Override
@@ -438,6 +440,7 @@ public class MemberImpl implements Member, MemberMixin<MemberImpl>
     public MemberImpl setTimeOutEnd(long time)
     {
         this.timeOutEnd = time;
+        getGuild().invalidatePermissionCache(getIdLong());
         return this;
     }
 
@@ -455,9 +458,82 @@ public class MemberImpl implements Member, MemberMixin<MemberImpl>
         return this;
     }
 
-    public Set<Role> getRoleSet()
+    public long[] getRoleIds()
     {
-        return roles;
+        return roleIds.clone();
+    }
+
+    public boolean hasRole(long roleId)
+    {
+        return Arrays.binarySearch(roleIds, roleId) >= 0;
+    }
+
+    public synchronized MemberImpl setRoles(Collection<? extends Role> roles)
+    {
+        long[] ids = new long[roles.size()];
+        int size = 0;
+        for (Role role : roles)
+            ids[size++] = role.getIdLong();
+        this.roleIds = toSortedSet(ids, size);
+        getGuild().invalidatePermissionCache(getIdLong());
+        return this;
+    }
+
+    public synchronized void addRoles(Collection<? extends Role> roles)
+    {
+        long[] current = this.roleIds;
+        long[] ids = Arrays.copyOf(current, current.length + roles.size());
+        int size = current.length;
+        for (Role role : roles)
+            ids[size++] = role.getIdLong();
+        this.roleIds = toSortedSet(ids, size);
+        getGuild().invalidatePermissionCache(getIdLong());
+    }
+
+    public synchronized void removeRoles(Collection<? extends Role> roles)
+    {
+        long[] current = this.roleIds;
+        long[] ids = new long[current.length];
+        int size = 0;
+        each:
+        for (long id : current)
+        {
+            for (Role role : roles)
+            {
+                if (role.getIdLong() == id)
+                    continue each;
+            }
+            ids[size++] = id;
+        }
+        this.roleIds = toSortedSet(ids, size);
+        getGuild().invalidatePermissionCache(getIdLong());
+    }
+
+    public synchronized void removeRole(long roleId)
+    {
+        long[] current = this.roleIds;
+        int index = Arrays.binarySearch(current, roleId);
+        if (index < 0)
+            return;
+        long[] ids = new long[current.length - 1];
+        System.arraycopy(current, 0, ids, 0, index);
+        System.arraycopy(current, index + 1, ids, index, ids.length - index);
+        this.roleIds = ids.length == 0 ? NO_ROLES : ids;
+        getGuild().invalidatePermissionCache(getIdLong());
+    }
+
+    private static long[] toSortedSet(long[] ids, int size)
+    {
+        if (size == 0)
+            return NO_ROLES;
+        Arrays.sort(ids, 0, size);
+        int unique = 1;
+        for (int i = 1; i < size; i++)
+        {
+            if (ids[i] != ids[unique - 1])
+                ids[unique++] = ids[i];
+        }
+        return unique == ids.length ? ids : Arrays.copyOf(ids, unique);
     }
 
     public long getBoostDateRaw()
@@ -498,4 +574,59 @@ public class MemberImpl implements Member, MemberMixin<MemberImpl>
                 .addMetadata("guild", getGuild())
                 .toString();
     }
+
+    // Resolves all ids with a single lookup in the role cache, ids of roles that have been removed in the meantime are skipped
+    private List<Role> resolveRoles(long[] ids)
+    {
+        List<Role> roles = new ArrayList<>(ids.length);
+        if (ids.length > 0)
+            getGuild().getRolesView().collect(ids, roles);
+        return roles;
+    }
+
+    // Live view of the current role ids, like the previous unmodifiable view of the role set
+    private class RoleView extends AbstractSet<Role>
+    {
+        @Nonnull
+        @Override
+        public Iterator<Role> iterator()
+        {
+            return Collections.unmodifiableList(resolveRoles(roleIds)).iterator();
+        }
+
+        @Nonnull
+        @Override
+        public Object[] toArray()
+        {
+            return resolveRoles(roleIds).toArray();
+        }
+
+        @Nonnull
+        @Override
+        public <T> T[] toArray(@Nonnull T[] a)
+        {
+            return resolveRoles(roleIds).toArray(a);
+        }
+
+        @Override
+        public int size()
+        {
+            return resolveRoles(roleIds).size();
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return size() == 0;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            if (!(o instanceof Role))
+                return false;
+            Role role = (Role) o;
+            return hasRole(role.getIdLong()) && getGuild().getRoleById(role.getIdLong()) != null;
+        }
+    }
 }
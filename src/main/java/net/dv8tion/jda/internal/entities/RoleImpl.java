@@ -413,7 +413,10 @@ public class RoleImpl implements Role, RoleMixin<RoleImpl>
     @Override
     public RoleImpl setRawPermissions(long rawPermissions)
     {
+        boolean changed = this.rawPermissions != rawPermissions;
         this.rawPermissions = rawPermissions;
+        if (changed && guild instanceof GuildImpl)
+            ((GuildImpl) guild).invalidatePermissionCache(this);
         return this;
     }
 
@@ -77,6 +77,12 @@ public class ScheduledEventImpl implements ScheduledEvent
         return image == null ? null : String.format(IMAGE_URL, getId(), image, image.startsWith("a_") ? "gif" : "png");
     }
 
+    @Nullable
+    public String getImageId()
+    {
+        return image;
+    }
+
     @Nullable
     @Override
     public User getCreator()
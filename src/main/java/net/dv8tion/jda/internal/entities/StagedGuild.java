@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.internal.entities;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.handle.EventCache;
+import net.dv8tion.jda.internal.utils.cache.ChannelCacheViewImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A guild built by {@link EntityBuilder#stageGuild(long, DataObject, TLongObjectMap, int)} without touching the caches shared between guilds,
+ * or the members of a chunk built by {@link EntityBuilder#stageMembers(GuildImpl, DataArray)}.
+ *
+ * <p>The guild, its channels, and its users are only visible to the thread that built them.
+ * Everything which would modify the shared caches or fire events is collected here instead,
+ * and applied by {@link EntityBuilder#publishGuild(StagedGuild)} or {@link EntityBuilder#createMembers(GuildImpl, DataArray, TLongObjectMap, java.util.function.LongPredicate, StagedGuild) createMembers}
+ * on the gateway thread.
+ */
+public class StagedGuild
+{
+    final DataObject guildJson;
+    final TLongObjectMap<DataObject> members;
+    final ChannelCacheViewImpl<Channel> channels = new ChannelCacheViewImpl<>(Channel.class);
+    // Every user referenced by the guild, with the latest payload received for them
+    final TLongObjectMap<UserImpl> users = new TLongObjectHashMap<>();
+    final TLongObjectMap<DataObject> userJson = new TLongObjectHashMap<>();
+    // Users which were not in the user cache while building
+    final TLongSet createdUsers = new TLongHashSet();
+    // Users of cached members, these are added to the user cache
+    final TLongSet cachedUsers = new TLongHashSet();
+    final List<Playback> playbacks = new ArrayList<>();
+    // Members of a chunk built by stageMembers, which were not cached yet
+    final TLongObjectMap<MemberImpl> builtMembers = new TLongObjectHashMap<>();
+    GuildImpl guild;
+
+    StagedGuild(DataObject guildJson, TLongObjectMap<DataObject> members)
+    {
+        this.guildJson = guildJson;
+        this.members = members;
+    }
+
+    public GuildImpl getGuild()
+    {
+        return guild;
+    }
+
+    /**
+     * The members the guild was built with.
+     *
+     * @return The member payloads by user id
+     */
+    public TLongObjectMap<DataObject> getMembers()
+    {
+        return members;
+    }
+
+    void addUser(UserImpl user, DataObject json, boolean created)
+    {
+        users.put(user.getIdLong(), user);
+        userJson.put(user.getIdLong(), json);
+        if (created)
+            createdUsers.add(user.getIdLong());
+    }
+
+    void playback(EventCache.Type type, long id)
+    {
+        playbacks.add(new Playback(type, id));
+    }
+
+    static final class Playback
+    {
+        final EventCache.Type type;
+        final long id;
+
+        Playback(EventCache.Type type, long id)
+        {
+            this.type = type;
+            this.id = id;
+        }
+    }
+}
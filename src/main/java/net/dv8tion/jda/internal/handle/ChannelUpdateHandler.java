@@ -258,6 +258,7 @@ public class ChannelUpdateHandler extends SocketHandler
 
         currentOverrides.forEachValue(override -> {
             channel.getPermissionOverrideMap().remove(override.getIdLong());
+            ((GuildImpl) guild).invalidatePermissionCache(channel);
             addPermissionHolder(changed, guild, override.getIdLong());
             api.handleEvent(
                 new PermissionOverrideDeleteEvent(
@@ -309,6 +310,7 @@ public class ChannelUpdateHandler extends SocketHandler
             {
                 // We delete empty overrides for the @everyone role because that's what the client also does, otherwise our sync checks don't work!
                 channel.getPermissionOverrideMap().remove(overrideId);
+                ((GuildImpl) channel.getGuild()).invalidatePermissionCache(channel);
                 api.handleEvent(
                     new PermissionOverrideDeleteEvent(
                         api, responseNumber,
@@ -318,6 +320,7 @@ public class ChannelUpdateHandler extends SocketHandler
 
             impl.setAllow(allow);
             impl.setDeny(deny);
+            ((GuildImpl) channel.getGuild()).invalidatePermissionCache(channel);
             api.handleEvent(
                 new PermissionOverrideUpdateEvent(
                     api, responseNumber,
@@ -333,6 +336,7 @@ public class ChannelUpdateHandler extends SocketHandler
             impl.setAllow(allow);
             impl.setDeny(deny);
             channel.getPermissionOverrideMap().put(overrideId, currentOverride);
+            ((GuildImpl) channel.getGuild()).invalidatePermissionCache(channel);
             api.handleEvent(
                 new PermissionOverrideCreateEvent(
                     api, responseNumber,
@@ -483,6 +487,7 @@ public class ChannelUpdateHandler extends SocketHandler
         Category oldParent = channel.getParentCategory();
         channel.setParentCategory(parentId);
         Category newParent = channel.getParentCategory();
+        ((GuildImpl) channel.getGuild()).invalidatePermissionCache(channel);
 
         api.handleEvent(
             new ChannelUpdateParentEvent(
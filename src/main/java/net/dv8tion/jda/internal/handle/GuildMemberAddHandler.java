@@ -45,6 +45,7 @@ public class GuildMemberAddHandler extends SocketHandler
             return null;
         }
 
+        getJDA().getClient().getChunkManager().onMemberEvent(id, content.getObject("user").getUnsignedLong("id"));
         // Update memberCount
         guild.onMemberAdd();
         MemberImpl member = getJDA().getEntityBuilder().createMember(guild, content);
@@ -57,6 +57,7 @@ public class GuildMemberRemoveHandler extends SocketHandler
             return null;
         }
 
+        getJDA().getClient().getChunkManager().onMemberEvent(id, userId);
         try
         {
             User user = api.getEntityBuilder().createUser(content.getObject("user"));
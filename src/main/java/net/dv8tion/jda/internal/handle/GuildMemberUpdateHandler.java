@@ -52,6 +52,7 @@ public class GuildMemberUpdateHandler extends SocketHandler
             return null;
         }
 
+        getJDA().getClient().getChunkManager().onMemberEvent(id, userId);
         MemberImpl member = (MemberImpl) guild.getMembersView().get(userId);
         if (member == null)
         {
@@ -64,7 +65,8 @@ public class GuildMemberUpdateHandler extends SocketHandler
         }
 
         getJDA().getEntityBuilder().updateMemberCache(member);
-        getJDA().handleEvent(new GuildMemberUpdateEvent(getJDA(), responseNumber, member));
+        if (getJDA().isListening(GuildMemberUpdateEvent.class))
+            getJDA().handleEvent(new GuildMemberUpdateEvent(getJDA(), responseNumber, member));
         return null;
     }
 
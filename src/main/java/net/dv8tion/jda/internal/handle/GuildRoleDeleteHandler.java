@@ -64,7 +64,7 @@ public class GuildRoleDeleteHandler extends SocketHandler
         guild.getMembersView().forEach(m ->
         {
             MemberImpl member = (MemberImpl) m;
-            member.getRoleSet().remove(removedRole);
+            member.removeRole(roleId);
         });
 
         for (RichCustomEmoji emoji : guild.getEmojiCache())
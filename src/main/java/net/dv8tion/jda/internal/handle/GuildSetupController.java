@@ -33,11 +33,11 @@ import net.dv8tion.jda.internal.utils.JDALogger;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("WeakerAccess")
@@ -58,6 +58,11 @@ public class GuildSetupController
 
     private Future<?> timeoutHandle;
 
+    // Guilds built on the build pool, finished in the order they were submitted
+    private final Queue<GuildBuild<?>> builds = new ConcurrentLinkedQueue<>();
+    // Serializes finishing builds with the handling of gateway events, only used while builds are pending
+    private final ReentrantLock buildLock = new ReentrantLock();
+
     protected StatusListener listener = (id, oldStatus, newStatus) -> log.trace("[{}] Updated status {}->{}", id, oldStatus, newStatus);
 
     public GuildSetupController(JDAImpl api)
@@ -280,6 +285,7 @@ public class GuildSetupController
 
     public void clearCache()
     {
+        builds.clear();
         setupNodes.clear();
         chunkingGuilds.clear();
         unavailableGuilds.clear();
@@ -336,6 +342,166 @@ public class GuildSetupController
         this.listener = Objects.requireNonNull(listener);
     }
 
+    // Parallel setup
+
+    /**
+     * Called by the gateway thread before handling a payload.
+     * <br>While builds are pending, this acquires the lock which serializes event handling with finishing builds,
+     * and finishes every build which is done.
+     */
+    public void lock()
+    {
+        if (builds.isEmpty())
+            return;
+        buildLock.lock();
+        finishBuilds();
+    }
+
+    /**
+     * Called by the gateway thread after handling a payload.
+     * <br>Finishes every build which is done and releases the lock, if it was acquired for this payload.
+     */
+    public void unlock()
+    {
+        if (!buildLock.isHeldByCurrentThread())
+            return;
+        try
+        {
+            finishBuilds();
+        }
+        finally
+        {
+            buildLock.unlock();
+        }
+        // Builds which completed after we finished could not be finished by the gateway pool while we held the lock
+        if (isNextBuildDone())
+            scheduleFinish();
+    }
+
+    void submitBuild(GuildSetupNode node, int buildId, TLongObjectMap<DataObject> members)
+    {
+        DataObject guildJson = node.getGuildPayload();
+        int memberCount = node.getExpectedMemberCount();
+        submitBuild(node.getIdLong(), () -> api.getEntityBuilder().stageGuild(node.getIdLong(), guildJson, members, memberCount), (stage) ->
+        {
+            // The guild might have been removed, become unavailable, or started a new build in the meantime
+            if (setupNodes.get(node.getIdLong()) == node && node.isCurrentBuild(buildId))
+                node.finishSetup(stage);
+        });
+    }
+
+    /**
+     * Runs the build task on the build pool.
+     * <br>Once built, the finish task runs on the gateway thread in submission order with all other builds.
+     * If the gateway thread is idle, the gateway pool finishes the build instead, while holding the same lock.
+     * This must only be used while handling a payload on the gateway thread with parallel guild setup enabled,
+     * since the lock acquired here is released once the payload was handled.
+     *
+     * @param guildId
+     *        The guild the build belongs to, used for logging
+     * @param build
+     *        The task which builds the result, this must not modify the cache or fire events
+     * @param finish
+     *        The task which applies the result to the cache, receives {@code null} if the build failed
+     */
+    public <T> void submitBuild(long guildId, Supplier<T> build, Consumer<? super T> finish)
+    {
+        // Only the gateway thread releases the lock once it is done with the current payload, any other thread would leak it
+        if (!WebSocketClient.WS_THREAD.get())
+            throw new IllegalStateException("Guild builds can only be submitted by the gateway thread");
+        if (!buildLock.isHeldByCurrentThread())
+            buildLock.lock();
+        GuildBuild<T> pending = new GuildBuild<>(guildId, finish);
+        builds.add(pending);
+        CompletableFuture.supplyAsync(build, api.getGuildSetupPool())
+            .whenComplete((result, error) ->
+            {
+                if (error != null)
+                    log.error("Failed to build guild {} in parallel, building it on the gateway thread instead", guildId, error);
+                pending.result = result;
+                pending.done = true;
+                scheduleFinish();
+            });
+    }
+
+    private void scheduleFinish()
+    {
+        try
+        {
+            api.getGatewayPool().execute(this::tryFinishBuilds);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            log.debug("Could not finish guild builds after shutdown", ex);
+        }
+    }
+
+    private void tryFinishBuilds()
+    {
+        while (isNextBuildDone() && buildLock.tryLock())
+        {
+            // Listeners called from here block the gateway, so they must not wait for gateway tasks
+            boolean gatewayThread = WebSocketClient.WS_THREAD.get();
+            WebSocketClient.WS_THREAD.set(true);
+            try
+            {
+                finishBuilds();
+            }
+            finally
+            {
+                WebSocketClient.WS_THREAD.set(gatewayThread);
+                buildLock.unlock();
+            }
+        }
+    }
+
+    private void finishBuilds()
+    {
+        GuildBuild<?> build;
+        while ((build = builds.peek()) != null && build.done)
+        {
+            try
+            {
+                build.finish();
+            }
+            catch (Exception ex)
+            {
+                log.error("Encountered exception finishing build for guild {}", build.guildId, ex);
+            }
+            finally
+            {
+                // Only removed once finished, so the gateway thread keeps taking the lock until then
+                builds.poll();
+            }
+        }
+    }
+
+    private boolean isNextBuildDone()
+    {
+        GuildBuild<?> build = builds.peek();
+        return build != null && build.done;
+    }
+
+    // Resolves lazily decoded arrays of the payload
+    public static void decode(Object value)
+    {
+        if (value instanceof DataObject)
+            value = ((DataObject) value).toMap();
+        else if (value instanceof DataArray)
+            value = ((DataArray) value).toList();
+
+        if (value instanceof Map)
+        {
+            for (Object element : ((Map<?, ?>) value).values())
+                decode(element);
+        }
+        else if (value instanceof List)
+        {
+            for (Object element : (List<?>) value)
+                decode(element);
+        }
+    }
+
     // Chunking
 
     int getIncompleteCount()
@@ -385,6 +551,19 @@ public class GuildSetupController
     }
 
     public void onTimeout()
+    {
+        lock();
+        try
+        {
+            handleTimeout();
+        }
+        finally
+        {
+            unlock();
+        }
+    }
+
+    private void handleTimeout()
     {
         if (incompleteCount < 1)
             return;
@@ -413,6 +592,25 @@ public class GuildSetupController
         REMOVED
     }
 
+    private static final class GuildBuild<T>
+    {
+        private final long guildId;
+        private final Consumer<? super T> finish;
+        private volatile T result;
+        private volatile boolean done;
+
+        private GuildBuild(long guildId, Consumer<? super T> finish)
+        {
+            this.guildId = guildId;
+            this.finish = finish;
+        }
+
+        private void finish()
+        {
+            finish.accept(result);
+        }
+    }
+
     @FunctionalInterface
     public interface StatusListener
     {
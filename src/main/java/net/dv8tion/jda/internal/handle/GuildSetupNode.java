@@ -33,7 +33,10 @@ import net.dv8tion.jda.api.managers.AudioManager;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.EntityBuilder;
 import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.StagedGuild;
 import net.dv8tion.jda.internal.managers.AudioManagerImpl;
 import net.dv8tion.jda.internal.utils.EntityString;
 import net.dv8tion.jda.internal.utils.UnlockHook;
@@ -53,6 +56,8 @@ public class GuildSetupNode
     private TLongSet removedMembers;
     private DataObject partialGuild;
     private int expectedMemberCount = 1;
+    // Incremented for every parallel build, so builds which were superseded in the meantime are discarded
+    private int buildCount;
     boolean requestedChunk;
 
     final Type type;
@@ -357,7 +362,51 @@ public class GuildSetupNode
         for (TLongIterator it = removedMembers.iterator(); it.hasNext(); )
             members.remove(it.next());
         removedMembers.clear();
-        GuildImpl guild = api.getEntityBuilder().createGuild(id, partialGuild, members, expectedMemberCount);
+
+        if (!api.isParallelGuildSetup())
+        {
+            finishSetup(null);
+            return;
+        }
+
+        // Members can still join or leave while building, so the build pool only gets a snapshot of them
+        getController().submitBuild(this, ++buildCount, new TLongObjectHashMap<>(members));
+    }
+
+    boolean isCurrentBuild(int buildId)
+    {
+        return status == GuildSetupController.Status.BUILDING && buildId == buildCount;
+    }
+
+    void finishSetup(@Nullable StagedGuild stage)
+    {
+        JDAImpl api = getController().getJDA();
+        EntityBuilder builder = api.getEntityBuilder();
+        GuildImpl guild;
+        if (stage == null)
+        {
+            guild = builder.createGuild(id, partialGuild, members, expectedMemberCount);
+        }
+        else
+        {
+            guild = builder.publishGuild(stage);
+            // Apply the members which joined or left while the guild was built
+            TLongObjectMap<DataObject> built = stage.getMembers();
+            for (TLongIterator it = removedMembers.iterator(); it.hasNext(); )
+            {
+                MemberImpl member = (MemberImpl) guild.getMembersView().get(it.next());
+                if (member != null)
+                    builder.updateMemberCache(member, true);
+            }
+            removedMembers.clear();
+            for (TLongObjectIterator<DataObject> it = members.iterator(); it.hasNext(); )
+            {
+                it.advance();
+                if (!built.containsKey(it.key()))
+                    builder.updateMemberCache(builder.createMember(guild, it.value()));
+            }
+            guild.setMemberCount(expectedMemberCount);
+        }
         updateAudioManagerReference(guild);
         switch (type)
         {
@@ -115,236 +115,262 @@ public class GuildUpdateHandler extends SocketHandler
                 WebSocketClient.LOG.debug("Received {} with owner not in cache. UserId: {} GuildId: {}", allContent.get("t"), ownerId, id);
             guild.setOwner(newOwner);
             guild.setOwnerId(ownerId);
-            getJDA().handleEvent(
-                new GuildUpdateOwnerEvent(
-                    getJDA(), responseNumber,
-                    guild, oldOwner,
-                    oldOwnerId, ownerId));
+            if (getJDA().isListening(GuildUpdateOwnerEvent.class))
+                getJDA().handleEvent(
+                    new GuildUpdateOwnerEvent(
+                        getJDA(), responseNumber,
+                        guild, oldOwner,
+                        oldOwnerId, ownerId));
         }
         if (!Objects.equals(description, guild.getDescription()))
         {
             String oldDescription = guild.getDescription();
             guild.setDescription(description);
-            getJDA().handleEvent(
-                new GuildUpdateDescriptionEvent(
-                    getJDA(), responseNumber,
-                    guild, oldDescription));
+            if (getJDA().isListening(GuildUpdateDescriptionEvent.class))
+                getJDA().handleEvent(
+                    new GuildUpdateDescriptionEvent(
+                        getJDA(), responseNumber,
+                        guild, oldDescription));
         }
         if (!Objects.equals(bannerId, guild.getBannerId()))
         {
             String oldBanner = guild.getBannerId();
             guild.setBannerId(bannerId);
-            getJDA().handleEvent(
-                new GuildUpdateBannerEvent(
-                    getJDA(), responseNumber,
-                    guild, oldBanner));
+            if (getJDA().isListening(GuildUpdateBannerEvent.class))
+                getJDA().handleEvent(
+                    new GuildUpdateBannerEvent(
+                        getJDA(), responseNumber,
+                        guild, oldBanner));
         }
         if (!Objects.equals(vanityCode, guild.getVanityCode()))
         {
             String oldCode = guild.getVanityCode();
             guild.setVanityCode(vanityCode);
-            getJDA().handleEvent(
-                new GuildUpdateVanityCodeEvent(
-                    getJDA(), responseNumber,
-                    guild, oldCode));
+            if (getJDA().isListening(GuildUpdateVanityCodeEvent.class))
+                getJDA().handleEvent(
+                    new GuildUpdateVanityCodeEvent(
+                        getJDA(), responseNumber,
+                        guild, oldCode));
         }
         if (maxMembers != guild.getMaxMembers())
         {
             int oldMax = guild.getMaxMembers();
             guild.setMaxMembers(maxMembers);
-            getJDA().handleEvent(
-                new GuildUpdateMaxMembersEvent(
-                    getJDA(), responseNumber,
-                    guild, oldMax));
+            if (getJDA().isListening(GuildUpdateMaxMembersEvent.class))
+                getJDA().handleEvent(
+                    new GuildUpdateMaxMembersEvent(
+                        getJDA(), responseNumber,
+                        guild, oldMax));
         }
         if (maxPresences != guild.getMaxPresences())
         {
             int oldMax = guild.getMaxPresences();
             guild.setMaxPresences(maxPresences);
-            getJDA().handleEvent(
-                new GuildUpdateMaxPresencesEvent(
-                    getJDA(), responseNumber,
-                    guild, oldMax));
+            if (getJDA().isListening(GuildUpdateMaxPresencesEvent.class))
+                getJDA().handleEvent(
+                    new GuildUpdateMaxPresencesEvent(
+                        getJDA(), responseNumber,
+                        guild, oldMax));
         }
         if (boostCount != guild.getBoostCount())
         {
             int oldCount = guild.getBoostCount();
             guild.setBoostCount(boostCount);
-            getJDA().handleEvent(
-                new GuildUpdateBoostCountEvent(
-                    getJDA(), responseNumber,
-                    guild, oldCount));
+            if (getJDA().isListening(GuildUpdateBoostCountEvent.class))
+                getJDA().handleEvent(
+                    new GuildUpdateBoostCountEvent(
+                        getJDA(), responseNumber,
+                        guild, oldCount));
         }
         if (Guild.BoostTier.fromKey(boostTier) != guild.getBoostTier())
         {
             Guild.BoostTier oldTier = guild.getBoostTier();
             guild.setBoostTier(boostTier);
-            getJDA().handleEvent(
-                new GuildUpdateBoostTierEvent(
-                    getJDA(), responseNumber,
-                    guild, oldTier));
+            if (getJDA().isListening(GuildUpdateBoostTierEvent.class))
+                getJDA().handleEvent(
+                    new GuildUpdateBoostTierEvent(
+                        getJDA(), responseNumber,
+                        guild, oldTier));
         }
         if (!Objects.equals(name, guild.getName()))
         {
             String oldName = guild.getName();
             guild.setName(name);
-            getJDA().handleEvent(
-                    new GuildUpdateNameEvent(
-                            getJDA(), responseNumber,
-                            guild, oldName));
+            if (getJDA().isListening(GuildUpdateNameEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateNameEvent(
+                                getJDA(), responseNumber,
+                                guild, oldName));
         }
         if (!Objects.equals(iconId, guild.getIconId()))
         {
             String oldIconId = guild.getIconId();
             guild.setIconId(iconId);
-            getJDA().handleEvent(
-                    new GuildUpdateIconEvent(
-                            getJDA(), responseNumber,
-                            guild, oldIconId));
+            if (getJDA().isListening(GuildUpdateIconEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateIconEvent(
+                                getJDA(), responseNumber,
+                                guild, oldIconId));
         }
         if (!features.equals(guild.getFeatures()))
         {
             Set<String> oldFeatures = guild.getFeatures();
             guild.setFeatures(features);
-            getJDA().handleEvent(
-                    new GuildUpdateFeaturesEvent(
-                            getJDA(), responseNumber,
-                            guild, oldFeatures));
+            if (getJDA().isListening(GuildUpdateFeaturesEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateFeaturesEvent(
+                                getJDA(), responseNumber,
+                                guild, oldFeatures));
         }
         if (!Objects.equals(splashId, guild.getSplashId()))
         {
             String oldSplashId = guild.getSplashId();
             guild.setSplashId(splashId);
-            getJDA().handleEvent(
-                    new GuildUpdateSplashEvent(
-                            getJDA(), responseNumber,
-                            guild, oldSplashId));
+            if (getJDA().isListening(GuildUpdateSplashEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateSplashEvent(
+                                getJDA(), responseNumber,
+                                guild, oldSplashId));
         }
         if (!Objects.equals(verificationLevel, guild.getVerificationLevel()))
         {
             Guild.VerificationLevel oldVerificationLevel = guild.getVerificationLevel();
             guild.setVerificationLevel(verificationLevel);
-            getJDA().handleEvent(
-                    new GuildUpdateVerificationLevelEvent(
-                            getJDA(), responseNumber,
-                            guild, oldVerificationLevel));
+            if (getJDA().isListening(GuildUpdateVerificationLevelEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateVerificationLevelEvent(
+                                getJDA(), responseNumber,
+                                guild, oldVerificationLevel));
         }
         if (!Objects.equals(notificationLevel, guild.getDefaultNotificationLevel()))
         {
             Guild.NotificationLevel oldNotificationLevel = guild.getDefaultNotificationLevel();
             guild.setDefaultNotificationLevel(notificationLevel);
-            getJDA().handleEvent(
-                    new GuildUpdateNotificationLevelEvent(
-                            getJDA(), responseNumber,
-                            guild, oldNotificationLevel));
+            if (getJDA().isListening(GuildUpdateNotificationLevelEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateNotificationLevelEvent(
+                                getJDA(), responseNumber,
+                                guild, oldNotificationLevel));
         }
         if (!Objects.equals(mfaLevel, guild.getRequiredMFALevel()))
         {
             Guild.MFALevel oldMfaLevel = guild.getRequiredMFALevel();
             guild.setRequiredMFALevel(mfaLevel);
-            getJDA().handleEvent(
-                    new GuildUpdateMFALevelEvent(
-                            getJDA(), responseNumber,
-                            guild, oldMfaLevel));
+            if (getJDA().isListening(GuildUpdateMFALevelEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateMFALevelEvent(
+                                getJDA(), responseNumber,
+                                guild, oldMfaLevel));
         }
         if (!Objects.equals(explicitContentLevel, guild.getExplicitContentLevel()))
         {
             Guild.ExplicitContentLevel oldExplicitContentLevel = guild.getExplicitContentLevel();
             guild.setExplicitContentLevel(explicitContentLevel);
-            getJDA().handleEvent(
-                    new GuildUpdateExplicitContentLevelEvent(
-                            getJDA(), responseNumber,
-                            guild, oldExplicitContentLevel));
+            if (getJDA().isListening(GuildUpdateExplicitContentLevelEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateExplicitContentLevelEvent(
+                                getJDA(), responseNumber,
+                                guild, oldExplicitContentLevel));
         }
         if (!Objects.equals(afkTimeout, guild.getAfkTimeout()))
         {
             Guild.Timeout oldAfkTimeout = guild.getAfkTimeout();
             guild.setAfkTimeout(afkTimeout);
-            getJDA().handleEvent(
-                    new GuildUpdateAfkTimeoutEvent(
-                            getJDA(), responseNumber,
-                            guild, oldAfkTimeout));
+            if (getJDA().isListening(GuildUpdateAfkTimeoutEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateAfkTimeoutEvent(
+                                getJDA(), responseNumber,
+                                guild, oldAfkTimeout));
         }
         if (!Objects.equals(locale, guild.getLocale()))
         {
         	DiscordLocale oldLocale = guild.getLocale();
             guild.setLocale(locale);
-            getJDA().handleEvent(
-                new GuildUpdateLocaleEvent(
-                    getJDA(), responseNumber,
-                    guild, oldLocale));
+            if (getJDA().isListening(GuildUpdateLocaleEvent.class))
+                getJDA().handleEvent(
+                    new GuildUpdateLocaleEvent(
+                        getJDA(), responseNumber,
+                        guild, oldLocale));
         }
         if (!Objects.equals(afkChannel, guild.getAfkChannel()))
         {
             VoiceChannel oldAfkChannel = guild.getAfkChannel();
             guild.setAfkChannel(afkChannel);
-            getJDA().handleEvent(
-                    new GuildUpdateAfkChannelEvent(
-                            getJDA(), responseNumber,
-                            guild, oldAfkChannel));
+            if (getJDA().isListening(GuildUpdateAfkChannelEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateAfkChannelEvent(
+                                getJDA(), responseNumber,
+                                guild, oldAfkChannel));
         }
         if (!Objects.equals(systemChannel, guild.getSystemChannel()))
         {
             TextChannel oldSystemChannel = guild.getSystemChannel();
             guild.setSystemChannel(systemChannel);
-            getJDA().handleEvent(
-                    new GuildUpdateSystemChannelEvent(
-                            getJDA(), responseNumber,
-                            guild, oldSystemChannel));
+            if (getJDA().isListening(GuildUpdateSystemChannelEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateSystemChannelEvent(
+                                getJDA(), responseNumber,
+                                guild, oldSystemChannel));
         }
         if (!Objects.equals(rulesChannel, guild.getRulesChannel()))
         {
             TextChannel oldRulesChannel = guild.getRulesChannel();
             guild.setRulesChannel(rulesChannel);
-            getJDA().handleEvent(
-                    new GuildUpdateRulesChannelEvent(
-                            getJDA(), responseNumber,
-                            guild, oldRulesChannel));
+            if (getJDA().isListening(GuildUpdateRulesChannelEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateRulesChannelEvent(
+                                getJDA(), responseNumber,
+                                guild, oldRulesChannel));
         }
         if (!Objects.equals(communityUpdatesChannel, guild.getCommunityUpdatesChannel()))
         {
             TextChannel oldCommunityUpdatesChannel = guild.getCommunityUpdatesChannel();
             guild.setCommunityUpdatesChannel(communityUpdatesChannel);
-            getJDA().handleEvent(
-                    new GuildUpdateCommunityUpdatesChannelEvent(
-                            getJDA(), responseNumber,
-                            guild, oldCommunityUpdatesChannel));
+            if (getJDA().isListening(GuildUpdateCommunityUpdatesChannelEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateCommunityUpdatesChannelEvent(
+                                getJDA(), responseNumber,
+                                guild, oldCommunityUpdatesChannel));
         }
         if (!Objects.equals(safetyAlertsChannel, guild.getSafetyAlertsChannel()))
         {
             TextChannel oldSafetyAlertsChannel = guild.getSafetyAlertsChannel();
             guild.setSafetyAlertsChannel(safetyAlertsChannel);
-            getJDA().handleEvent(
-                    new GuildUpdateSafetyAlertsChannelEvent(
-                            getJDA(), responseNumber,
-                            guild, oldSafetyAlertsChannel));
+            if (getJDA().isListening(GuildUpdateSafetyAlertsChannelEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateSafetyAlertsChannelEvent(
+                                getJDA(), responseNumber,
+                                guild, oldSafetyAlertsChannel));
         }
         if (!Objects.equals(securityIncidentActions, guild.getSecurityIncidentActions()))
         {
             SecurityIncidentActions oldIncidentActions = guild.getSecurityIncidentActions();
             guild.setSecurityIncidentActions(securityIncidentActions);
-            api.handleEvent(
-                new GuildUpdateSecurityIncidentActionsEvent(
-                    getJDA(), responseNumber,
-                    guild, oldIncidentActions));
+            if (api.isListening(GuildUpdateSecurityIncidentActionsEvent.class))
+                api.handleEvent(
+                    new GuildUpdateSecurityIncidentActionsEvent(
+                        getJDA(), responseNumber,
+                        guild, oldIncidentActions));
         }
         if (!Objects.equals(securityIncidentDetections, guild.getSecurityIncidentDetections()))
         {
             SecurityIncidentDetections oldIncidentDetections = guild.getSecurityIncidentDetections();
             guild.setSecurityIncidentDetections(securityIncidentDetections);
-            api.handleEvent(
-                new GuildUpdateSecurityIncidentDetectionsEvent(
-                    getJDA(), responseNumber,
-                    guild, oldIncidentDetections));
+            if (api.isListening(GuildUpdateSecurityIncidentDetectionsEvent.class))
+                api.handleEvent(
+                    new GuildUpdateSecurityIncidentDetectionsEvent(
+                        getJDA(), responseNumber,
+                        guild, oldIncidentDetections));
         }
         if (content.hasKey("nsfw_level") && nsfwLevel != guild.getNSFWLevel())
         {
             Guild.NSFWLevel oldNSFWLevel = guild.getNSFWLevel();
             guild.setNSFWLevel(nsfwLevel);
-            getJDA().handleEvent(
-                    new GuildUpdateNSFWLevelEvent(
-                            getJDA(), responseNumber,
-                            guild, oldNSFWLevel));
+            if (getJDA().isListening(GuildUpdateNSFWLevelEvent.class))
+                getJDA().handleEvent(
+                        new GuildUpdateNSFWLevelEvent(
+                                getJDA(), responseNumber,
+                                guild, oldNSFWLevel));
         }
         return null;
     }
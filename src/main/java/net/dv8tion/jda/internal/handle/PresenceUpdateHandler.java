@@ -38,14 +38,19 @@ import net.dv8tion.jda.internal.utils.UnlockHook;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
-import java.util.ArrayList;
-import java.util.EnumSet;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 public class PresenceUpdateHandler extends SocketHandler
 {
     private static final Logger log = JDALogger.getLog(PresenceUpdateHandler.class);
 
+    // Latest payload for each (guild, user) in the order the latest updates were received, only accessed while holding the handler lock
+    private final Map<PresenceKey, PendingPresence> pending = new LinkedHashMap<>();
+    // System.nanoTime() at which the pending updates are applied, only meaningful while updates are pending
+    private long flushDeadline;
+    private boolean flushing;
+
     public PresenceUpdateHandler(JDAImpl api)
     {
         super(api);
@@ -81,6 +86,14 @@ public class PresenceUpdateHandler extends SocketHandler
             return null; // technically this should be impossible
         DataObject jsonUser = content.getObject("user");
         final long userId = jsonUser.getUnsignedLong("id");
+
+        long window = getJDA().getPresenceCoalescingWindow();
+        if (window > 0 && !flushing)
+        {
+            coalesce(new PresenceKey(guildId, userId), window);
+            return null;
+        }
+
         MemberImpl member = (MemberImpl) guild.getMemberById(userId);
         MemberPresenceImpl presence = presences.get(userId);
         OnlineStatus status = OnlineStatus.fromKey(content.getString("status"));
@@ -121,15 +134,82 @@ public class PresenceUpdateHandler extends SocketHandler
             if (member != null)
             {
                 getJDA().getEntityBuilder().updateMemberCache(member);
-                getJDA().handleEvent(
-                    new UserUpdateOnlineStatusEvent(
-                        getJDA(), responseNumber,
-                        member, oldStatus));
+                if (getJDA().isListening(UserUpdateOnlineStatusEvent.class))
+                    getJDA().handleEvent(
+                        new UserUpdateOnlineStatusEvent(
+                            getJDA(), responseNumber,
+                            member, oldStatus));
             }
         }
         return null;
     }
 
+    private void coalesce(PresenceKey key, long window)
+    {
+        if (pending.isEmpty())
+        {
+            flushDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(window);
+            // Quiet shards might not receive another payload for a full heartbeat interval
+            getJDA().getClient().scheduleHandling(this::flushIfDue, window, TimeUnit.MILLISECONDS);
+        }
+        // Only the latest state of each member is applied, intermediate updates are skipped entirely.
+        // Removing the previous update moves the member to the end, so updates are applied in the order of their latest payload.
+        pending.remove(key);
+        pending.put(key, new PendingPresence(responseNumber, allContent));
+    }
+
+    /**
+     * Applies the coalesced updates, if the coalescing window has elapsed.
+     * <br>This is called before handling each payload, and by a task scheduled for the end of the window.
+     * Both hold the gateway handling locks, so the updates are never applied concurrently with other events.
+     *
+     * <p>Coalesced updates are applied after the events received during the window,
+     * in the order in which the latest update of each member was received.
+     */
+    public synchronized void flushIfDue()
+    {
+        if (!pending.isEmpty() && System.nanoTime() - flushDeadline >= 0)
+            flush();
+    }
+
+    /**
+     * Applies all coalesced updates immediately.
+     * <br>This must be called on the gateway thread.
+     */
+    public synchronized void flush()
+    {
+        flushing = true;
+        try
+        {
+            for (Iterator<PendingPresence> it = pending.values().iterator(); it.hasNext();)
+            {
+                PendingPresence presence = it.next();
+                it.remove();
+                try
+                {
+                    handle(presence.responseNumber, presence.payload);
+                }
+                catch (Exception ex)
+                {
+                    log.error("Encountered exception applying coalesced presence update", ex);
+                }
+            }
+        }
+        finally
+        {
+            flushing = false;
+        }
+    }
+
+    /**
+     * Drops all coalesced updates, used when the session is invalidated or shut down.
+     * <br>The updates would otherwise be applied to the cache of the next session.
+     */
+    public synchronized void clearPending()
+    {
+        pending.clear();
+    }
+
     private boolean parseActivities(long userId, DataArray activityArray, List<Activity> newActivities)
     {
         boolean parsedActivity = false;
@@ -164,10 +244,11 @@ public class PresenceUpdateHandler extends SocketHandler
             boolean deepEquals = Helpers.deepEquals(oldActivities, newActivities);
             if (!deepEquals)
             {
-                getJDA().handleEvent(
-                    new UserUpdateActivityOrderEvent(
-                        getJDA(), responseNumber,
-                        oldActivities, member));
+                if (getJDA().isListening(UserUpdateActivityOrderEvent.class))
+                    getJDA().handleEvent(
+                        new UserUpdateActivityOrderEvent(
+                            getJDA(), responseNumber,
+                            oldActivities, member));
             }
         }
         else
@@ -183,24 +264,27 @@ public class PresenceUpdateHandler extends SocketHandler
 
             for (Activity activity : startedActivities)
             {
-                getJDA().handleEvent(
-                    new UserActivityStartEvent(
-                        getJDA(), responseNumber,
-                        member, activity));
+                if (getJDA().isListening(UserActivityStartEvent.class))
+                    getJDA().handleEvent(
+                        new UserActivityStartEvent(
+                            getJDA(), responseNumber,
+                            member, activity));
             }
 
             for (Activity activity : stoppedActivities)
             {
-                getJDA().handleEvent(
-                    new UserActivityEndEvent(
-                        getJDA(), responseNumber,
-                        member, activity));
+                if (getJDA().isListening(UserActivityEndEvent.class))
+                    getJDA().handleEvent(
+                        new UserActivityEndEvent(
+                            getJDA(), responseNumber,
+                            member, activity));
             }
 
-            getJDA().handleEvent(
-                new UserUpdateActivitiesEvent(
-                    getJDA(), responseNumber,
-                    member, oldActivities));
+            if (getJDA().isListening(UserUpdateActivitiesEvent.class))
+                getJDA().handleEvent(
+                    new UserUpdateActivitiesEvent(
+                        getJDA(), responseNumber,
+                        member, oldActivities));
         }
     }
 
@@ -219,4 +303,43 @@ public class PresenceUpdateHandler extends SocketHandler
         for (ClientType type : EnumSet.complementOf(types))
             presence.setOnlineStatus(type, null); // set remaining types to offline
     }
+
+    private static final class PresenceKey
+    {
+        private final long guildId;
+        private final long userId;
+
+        private PresenceKey(long guildId, long userId)
+        {
+            this.guildId = guildId;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof PresenceKey))
+                return false;
+            PresenceKey other = (PresenceKey) obj;
+            return guildId == other.guildId && userId == other.userId;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Long.hashCode(guildId) * 31 + Long.hashCode(userId);
+        }
+    }
+
+    private static final class PendingPresence
+    {
+        private final long responseNumber;
+        private final DataObject payload;
+
+        private PendingPresence(long responseNumber, DataObject payload)
+        {
+            this.responseNumber = responseNumber;
+            this.payload = payload;
+        }
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.hooks;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.UpdateEvent;
+import net.dv8tion.jda.api.events.user.UserTypingEvent;
+import net.dv8tion.jda.api.events.user.update.GenericUserPresenceEvent;
+import net.dv8tion.jda.api.hooks.EventQueuePolicy;
+import net.dv8tion.jda.api.hooks.EventQueueStatistics;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of events submitted to the event pool and applies the {@link EventQueuePolicy} once the limit is reached.
+ */
+public class BoundedEventQueue
+{
+    // Listeners handing events to JDA from an event thread must never wait for other event threads
+    private static final ThreadLocal<Boolean> EVENT_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private final int limit;
+    private final EventQueuePolicy policy;
+    private final Semaphore permits;
+    // The latest event submitted for each guild, updates are only merged into the latest event to keep the order of events
+    private final Map<Long, PendingEvent> tails = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger highWatermark = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder handled = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    public BoundedEventQueue(int limit, @Nonnull EventQueuePolicy policy)
+    {
+        this.limit = Math.max(0, limit);
+        this.policy = policy;
+        this.permits = limit > 0 ? new Semaphore(limit) : null;
+    }
+
+    /**
+     * Creates the task which handles the provided event, blocking while the queue is full.
+     *
+     * @return The task to schedule, or null if the event was dropped or merged into a pending event
+     */
+    @Nullable
+    public Runnable offer(@Nonnull GenericEvent event, @Nonnull Consumer<? super GenericEvent> handler)
+    {
+        boolean coalesce = permits != null && policy == EventQueuePolicy.COALESCE_UPDATES;
+        UpdateKey key = coalesce && event instanceof UpdateEvent ? new UpdateKey((UpdateEvent<?, ?>) event) : null;
+        long guildId = coalesce ? EventGuildResolver.getGuildId(event) : 0L;
+        if (key != null && permits.availablePermits() == 0)
+        {
+            // Merging into an earlier update would move this update ahead of the events submitted in between
+            PendingEvent tail = tails.get(guildId);
+            if (tail != null && key.equals(tail.key) && tail.replace(event))
+            {
+                coalesced.increment();
+                return null;
+            }
+        }
+
+        boolean holdsPermit = permits != null && permits.tryAcquire();
+        if (permits != null && !holdsPermit)
+        {
+            if (policy == EventQueuePolicy.DROP_LOW_PRIORITY && isLowPriority(event))
+            {
+                dropped.increment();
+                return null;
+            }
+            holdsPermit = acquire();
+        }
+
+        PendingEvent pending = new PendingEvent(event, key);
+        if (coalesce)
+            tails.put(guildId, pending);
+
+        int currentSize = size.incrementAndGet();
+        highWatermark.accumulateAndGet(currentSize, Math::max);
+
+        boolean acquired = holdsPermit;
+        long submitted = System.nanoTime();
+        return () ->
+        {
+            long latency = System.nanoTime() - submitted;
+            handled.increment();
+            totalLatency.add(latency);
+            maxLatency.accumulateAndGet(latency, Math::max);
+
+            if (coalesce)
+                tails.remove(guildId, pending);
+            EVENT_THREAD.set(true);
+            try
+            {
+                handler.accept(pending.take());
+            }
+            finally
+            {
+                EVENT_THREAD.set(false);
+                size.decrementAndGet();
+                if (acquired)
+                    permits.release();
+            }
+        };
+    }
+
+    @Nonnull
+    public EventQueueStatistics getStatistics()
+    {
+        return new EventQueueStatisticsImpl(
+            limit, size.get(), highWatermark.get(),
+            dropped.sum(), coalesced.sum(), handled.sum(),
+            totalLatency.sum(), maxLatency.get()
+        );
+    }
+
+    private boolean acquire()
+    {
+        if (EVENT_THREAD.get())
+            return false;
+        try
+        {
+            permits.acquire();
+            return true;
+        }
+        catch (InterruptedException e)
+        {
+            // Don't lose the event, it is still scheduled without holding a permit
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean isLowPriority(GenericEvent event)
+    {
+        return event instanceof UserTypingEvent || event instanceof GenericUserPresenceEvent;
+    }
+
+    private static final class PendingEvent
+    {
+        private final AtomicReference<GenericEvent> event;
+        private final UpdateKey key;
+
+        private PendingEvent(GenericEvent event, UpdateKey key)
+        {
+            this.event = new AtomicReference<>(event);
+            this.key = key;
+        }
+
+        private boolean replace(GenericEvent newEvent)
+        {
+            GenericEvent current;
+            do
+            {
+                current = event.get();
+                if (current == null)
+                    return false;
+            }
+            while (!event.compareAndSet(current, newEvent));
+            return true;
+        }
+
+        private GenericEvent take()
+        {
+            return event.getAndSet(null);
+        }
+    }
+
+    private static final class UpdateKey
+    {
+        private final Class<?> type;
+        private final Object entity;
+
+        private UpdateKey(UpdateEvent<?, ?> event)
+        {
+            this.type = event.getClass();
+            this.entity = event.getEntity();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof UpdateKey))
+                return false;
+            UpdateKey other = (UpdateKey) obj;
+            // Entities are cached instances, so identity is sufficient
+            return type == other.type && entity == other.entity;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(type, System.identityHashCode(entity));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.hooks;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.channel.GenericChannelEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Resolves the guild an event belongs to, used to keep events of the same guild in order.
+ */
+public final class EventGuildResolver
+{
+    private static final Logger LOG = JDALogger.getLog(EventGuildResolver.class);
+    private static final MethodType getterType = MethodType.methodType(Guild.class, GenericEvent.class);
+    // Most events expose their guild through a getGuild() method, which is found once per event class
+    private static final ClassValue<MethodHandle> getters = new ClassValue<MethodHandle>()
+    {
+        @Override
+        protected MethodHandle computeValue(Class<?> type)
+        {
+            try
+            {
+                return MethodHandles.publicLookup()
+                        .findVirtual(type, "getGuild", MethodType.methodType(Guild.class))
+                        .asType(getterType);
+            }
+            catch (NoSuchMethodException | IllegalAccessException e)
+            {
+                return null;
+            }
+        }
+    };
+
+    private EventGuildResolver() {}
+
+    /**
+     * The id of the guild the event happened in.
+     *
+     * @param  event
+     *         The event
+     *
+     * @return The guild id, or {@code 0} if the event is not related to a guild
+     */
+    public static long getGuildId(@Nonnull GenericEvent event)
+    {
+        // These throw for events outside of guilds, which should not be used for control flow
+        if (event instanceof GenericMessageEvent && !((GenericMessageEvent) event).isFromGuild())
+            return 0L;
+        if (event instanceof GenericChannelEvent && !((GenericChannelEvent) event).isFromGuild())
+            return 0L;
+
+        MethodHandle getter = getters.get(event.getClass());
+        if (getter == null)
+            return 0L;
+
+        try
+        {
+            Guild guild = (Guild) getter.invokeExact(event);
+            return guild == null ? 0L : guild.getIdLong();
+        }
+        catch (RuntimeException e)
+        {
+            LOG.warn("Could not resolve the guild of {}, handling it in order with events outside of guilds", event.getClass().getSimpleName(), e);
+            return 0L;
+        }
+        catch (Error e)
+        {
+            throw e;
+        }
+        catch (Throwable e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+}
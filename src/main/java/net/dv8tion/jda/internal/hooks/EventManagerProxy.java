@@ -17,9 +17,12 @@
 package net.dv8tion.jda.internal.hooks;
 
 import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventQueueStatistics;
 import net.dv8tion.jda.api.hooks.IEventManager;
 import net.dv8tion.jda.api.hooks.InterfacedEventManager;
 import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.utils.concurrent.KeyedSerialExecutor;
+import net.dv8tion.jda.internal.utils.config.ThreadingConfig;
 
 import javax.annotation.Nonnull;
 import java.util.List;
@@ -28,13 +31,19 @@ import java.util.concurrent.RejectedExecutionException;
 
 public class EventManagerProxy implements IEventManager
 {
-    private final ExecutorService executor;
+    // The event pool might only be created once the session starts
+    private final ThreadingConfig threadingConfig;
+    private final boolean guildOrdered;
+    private final BoundedEventQueue queue;
+    private volatile KeyedSerialExecutor orderedExecutor;
     private IEventManager subject;
 
-    public EventManagerProxy(IEventManager subject, ExecutorService executor)
+    public EventManagerProxy(IEventManager subject, ThreadingConfig threadingConfig, boolean guildOrdered)
     {
         this.subject = subject;
-        this.executor = executor;
+        this.threadingConfig = threadingConfig;
+        this.guildOrdered = guildOrdered;
+        this.queue = new BoundedEventQueue(threadingConfig.getEventQueueLimit(), threadingConfig.getEventQueuePolicy());
     }
 
     public void setSubject(IEventManager subject)
@@ -59,20 +68,37 @@ public class EventManagerProxy implements IEventManager
         this.subject.unregister(listener);
     }
 
+    @Override
+    public boolean isListening(@Nonnull Class<? extends GenericEvent> eventType)
+    {
+        return subject.isListening(eventType);
+    }
+
     @Override
     public void handle(@Nonnull GenericEvent event)
     {
+        ExecutorService executor = threadingConfig.getEventPool();
+        if (executor == null || executor.isShutdown())
+        {
+            handleInternally(event);
+            return;
+        }
+
+        Runnable task = queue.offer(event, this::handleInternally);
+        if (task == null)
+            return;
+
         try
         {
-            if (executor != null && !executor.isShutdown())
-                executor.execute(() -> handleInternally(event));
+            if (guildOrdered)
+                getOrderedExecutor(executor).execute(EventGuildResolver.getGuildId(event), task);
             else
-                handleInternally(event);
+                executor.execute(task);
         }
         catch (RejectedExecutionException ex)
         {
             JDAImpl.LOG.warn("Event-Pool rejected event execution! Running on handling thread instead...");
-            handleInternally(event);
+            task.run();
         }
         catch (Exception ex)
         {
@@ -80,6 +106,21 @@ public class EventManagerProxy implements IEventManager
         }
     }
 
+    private KeyedSerialExecutor getOrderedExecutor(ExecutorService executor)
+    {
+        KeyedSerialExecutor ordered = orderedExecutor;
+        if (ordered == null)
+        {
+            synchronized (this)
+            {
+                ordered = orderedExecutor;
+                if (ordered == null)
+                    ordered = orderedExecutor = new KeyedSerialExecutor(executor);
+            }
+        }
+        return ordered;
+    }
+
     private void handleInternally(@Nonnull GenericEvent event)
     {
         // don't allow mere exceptions to obstruct the socket handler
@@ -93,6 +134,12 @@ public class EventManagerProxy implements IEventManager
         }
     }
 
+    @Nonnull
+    public EventQueueStatistics getQueueStatistics()
+    {
+        return queue.getStatistics();
+    }
+
     @Nonnull
     @Override
     public List<Object> getRegisteredListeners()
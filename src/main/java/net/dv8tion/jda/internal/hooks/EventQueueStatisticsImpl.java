@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.hooks;
+
+import net.dv8tion.jda.api.hooks.EventQueueStatistics;
+import net.dv8tion.jda.internal.utils.EntityString;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+public class EventQueueStatisticsImpl implements EventQueueStatistics
+{
+    private final int limit;
+    private final int size;
+    private final int highWatermark;
+    private final long droppedEvents;
+    private final long coalescedEvents;
+    private final long handledEvents;
+    private final long totalLatency;
+    private final long maxLatency;
+
+    public EventQueueStatisticsImpl(int limit, int size, int highWatermark, long droppedEvents, long coalescedEvents, long handledEvents, long totalLatency, long maxLatency)
+    {
+        this.limit = limit;
+        this.size = size;
+        this.highWatermark = highWatermark;
+        this.droppedEvents = droppedEvents;
+        this.coalescedEvents = coalescedEvents;
+        this.handledEvents = handledEvents;
+        this.totalLatency = totalLatency;
+        this.maxLatency = maxLatency;
+    }
+
+    @Override
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    @Override
+    public int getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public int getHighWatermark()
+    {
+        return highWatermark;
+    }
+
+    @Override
+    public long getDroppedEvents()
+    {
+        return droppedEvents;
+    }
+
+    @Override
+    public long getCoalescedEvents()
+    {
+        return coalescedEvents;
+    }
+
+    @Override
+    public long getHandledEvents()
+    {
+        return handledEvents;
+    }
+
+    @Override
+    public long getAverageLatency(@Nonnull TimeUnit unit)
+    {
+        return handledEvents == 0 ? 0 : unit.convert(totalLatency / handledEvents, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public long getMaxLatency(@Nonnull TimeUnit unit)
+    {
+        return unit.convert(maxLatency, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString()
+    {
+        return new EntityString(this)
+                .addMetadata("size", size)
+                .addMetadata("limit", limit)
+                .addMetadata("highWatermark", highWatermark)
+                .addMetadata("dropped", droppedEvents)
+                .addMetadata("coalesced", coalescedEvents)
+                .addMetadata("handled", handledEvents)
+                .toString();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * The top-level fields of a gateway payload, read with a streaming parser without materializing the payload.
+ *
+ * <p>Discord sends these fields ahead of the {@code d} field, so reading stops at the start of {@code d}.
+ * The position of {@code d} is kept, which allows {@link #parse(byte[], int, int)} to continue from there,
+ * instead of tokenizing the header a second time.
+ */
+public final class GatewayHeader
+{
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final int opCode;
+    private final String type;
+    private final long sequence;
+    private final int dataOffset;
+
+    private GatewayHeader(int opCode, String type, long sequence, int dataOffset)
+    {
+        this.opCode = opCode;
+        this.type = type;
+        this.sequence = sequence;
+        this.dataOffset = dataOffset;
+    }
+
+    /**
+     * Reads the {@code op}, {@code t}, and {@code s} fields of the provided json payload.
+     *
+     * @param  data
+     *         The array containing the raw json payload
+     * @param  offset
+     *         The start of the payload in the array
+     * @param  length
+     *         The length of the payload
+     *
+     * @return The header, or {@code null} if the payload is malformed and should go through the regular parser instead
+     */
+    @Nullable
+    public static GatewayHeader peek(byte[] data, int offset, int length)
+    {
+        try (JsonParser parser = FACTORY.createParser(data, offset, length))
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                return null;
+
+            int opCode = -1;
+            String type = null;
+            long sequence = -1;
+            boolean hasOp = false, hasType = false, hasSequence = false;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name)
+                {
+                    case "op":
+                        if (value != JsonToken.VALUE_NUMBER_INT)
+                            return null;
+                        opCode = parser.getIntValue();
+                        hasOp = true;
+                        break;
+                    case "t":
+                        type = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                        hasType = true;
+                        break;
+                    case "s":
+                        sequence = value == JsonToken.VALUE_NULL ? -1 : parser.getLongValue();
+                        hasSequence = true;
+                        break;
+                    case "d":
+                        // Byte offsets are relative to the offset the parser was created with
+                        if (hasOp && hasType && hasSequence && value == JsonToken.START_OBJECT)
+                            return new GatewayHeader(opCode, type, sequence, offset + (int) parser.currentTokenLocation().getByteOffset());
+                        parser.skipChildren();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+
+            return hasOp ? new GatewayHeader(opCode, type, sequence, -1) : null;
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the full payload this header was read from.
+     * <br>If the header was followed by an object in {@code d}, only that object is parsed,
+     * and the payload is assembled from the fields of this header.
+     * Discord does not send any fields after {@code d}.
+     *
+     * @param  data
+     *         The array containing the raw json payload
+     * @param  offset
+     *         The start of the payload in the array
+     * @param  length
+     *         The length of the payload
+     * @param  lazy
+     *         Whether to use {@link DataObject#fromLazyJson(byte[], int, int)}
+     *
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the payload is incorrectly formatted
+     *
+     * @return The parsed payload
+     */
+    @Nonnull
+    public DataObject parse(byte[] data, int offset, int length, boolean lazy)
+    {
+        if (dataOffset < 0)
+            return parse0(data, offset, length, lazy);
+
+        // Parsing stops at the end of the object, the closing brace of the payload is never read
+        DataObject content = parse0(data, dataOffset, offset + length - dataOffset, lazy);
+        return DataObject.empty()
+                .put("op", opCode)
+                .put("t", type)
+                .put("s", hasSequence() ? Integer.valueOf((int) sequence) : null)
+                .put("d", content);
+    }
+
+    private static DataObject parse0(byte[] data, int offset, int length, boolean lazy)
+    {
+        return lazy ? DataObject.fromLazyJson(data, offset, length) : DataObject.fromJson(data, offset, length);
+    }
+
+    public int getOpCode()
+    {
+        return opCode;
+    }
+
+    @Nullable
+    public String getType()
+    {
+        return type;
+    }
+
+    public boolean hasSequence()
+    {
+        return sequence >= 0;
+    }
+
+    public long getSequence()
+    {
+        return sequence;
+    }
+}
@@ -20,18 +20,22 @@ import gnu.trove.map.TLongObjectMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.utils.MiscUtil;
-import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
-import net.dv8tion.jda.internal.entities.EntityBuilder;
+import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.entities.GuildImpl;
-import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.StagedGuild;
+import net.dv8tion.jda.internal.handle.GuildSetupController;
 import net.dv8tion.jda.internal.utils.Helpers;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 public class MemberChunkManager
 {
@@ -39,6 +43,8 @@ public class MemberChunkManager
     private final WebSocketClient client;
     private final ReentrantLock lock = new ReentrantLock();
     private final TLongObjectMap<ChunkRequest> requests = new TLongObjectHashMap<>();
+    // Guilds with member chunks which are still being decoded in parallel
+    private final Map<Long, PendingChunks> pendingChunks = new ConcurrentHashMap<>();
     private Future<?> timeoutHandle;
 
     public MemberChunkManager(WebSocketClient client)
@@ -54,6 +60,7 @@ public class MemberChunkManager
     public void clear()
     {
         MiscUtil.locked(lock, requests::clear);
+        pendingChunks.clear();
     }
 
     private void init()
@@ -112,26 +119,101 @@ public class MemberChunkManager
 
     public boolean handleChunk(long guildId, DataObject response)
     {
-        return MiscUtil.locked(lock, () -> {
+        ChunkRequest request = MiscUtil.locked(lock, () -> {
             String nonce = response.getString("nonce", null);
             if (nonce == null || nonce.isEmpty())
-                return false;
-            long key = Long.parseLong(nonce);
-            ChunkRequest request = requests.get(key);
-            if (request == null)
-                return false;
-
-            boolean lastChunk = isLastChunk(response);
-            request.handleChunk(lastChunk, response);
+                return null;
+            return requests.get(Long.parseLong(nonce));
+        });
+        if (request == null)
+            return false;
+
+        boolean lastChunk = isLastChunk(response);
+        if (request.isDone())
+        {
+            // The request was cancelled or timed out, its remaining chunks are dropped
+            cancelRequest(request);
+            return true;
+        }
+
+        buildMembers(request.guild, response, members -> {
+            request.handleChunk(lastChunk, members);
             if (lastChunk || request.isCancelled())
             {
-                requests.remove(key);
+                cancelRequest(request);
                 request.complete(null);
             }
-            return true;
+        });
+        return true;
+    }
+
+    /**
+     * Creates and caches the members of a chunk for a guild which is already cached.
+     *
+     * <p>With parallel guild setup, the members which are not cached yet are built on the build pool.
+     * They are added to the cache afterwards, in the order the chunks were received. The callback runs once the members are cached.
+     *
+     * @param guild
+     *        The guild of the chunk
+     * @param chunk
+     *        The chunk payload
+     * @param callback
+     *        Receives the members of the chunk
+     */
+    public void buildMembers(GuildImpl guild, DataObject chunk, Consumer<List<Member>> callback)
+    {
+        JDAImpl api = guild.getJDA();
+        if (!api.isParallelGuildSetup())
+        {
+            callback.accept(toMembers(guild, chunk, null, null));
+            return;
+        }
+
+        long guildId = guild.getIdLong();
+        PendingChunks pending = pendingChunks.computeIfAbsent(guildId, (id) -> new PendingChunks());
+        pending.count.incrementAndGet();
+        int chunkId = pending.received.incrementAndGet();
+        GuildSetupController controller = api.getGuildSetupController();
+        controller.submitBuild(guildId, () -> {
+            GuildSetupController.decode(chunk);
+            return api.getEntityBuilder().stageMembers(guild, chunk.getArray("members"));
+        }, (stage) -> {
+            if (pending.count.decrementAndGet() == 0)
+                pendingChunks.remove(guildId, pending);
+            // The guild might have been removed from the cache while building
+            if (api.getGuildsView().get(guildId) != guild)
+                callback.accept(Collections.emptyList());
+            else
+                callback.accept(toMembers(guild, chunk, (userId) -> pending.isOutdated(userId, chunkId), stage));
         });
     }
 
+    /**
+     * Records that a gateway event updated the member of a guild.
+     * <br>Chunks which are still being built were received before this event and will not overwrite this member.
+     *
+     * @param guildId
+     *        The guild id
+     * @param userId
+     *        The user id of the member
+     */
+    public void onMemberEvent(long guildId, long userId)
+    {
+        if (pendingChunks.isEmpty())
+            return;
+        PendingChunks pending = pendingChunks.get(guildId);
+        if (pending != null)
+            pending.modified.put(userId, pending.received.get());
+    }
+
+    private static List<Member> toMembers(GuildImpl guild, DataObject chunk, LongPredicate skipped, StagedGuild stage)
+    {
+        TLongObjectMap<DataObject> presences = chunk.optArray("presences").map(it ->
+            Helpers.convertToMap(o -> o.getObject("user").getUnsignedLong("id"), it)
+        ).orElseGet(TLongObjectHashMap::new);
+        return guild.getJDA().getEntityBuilder().createMembers(guild, chunk.getArray("members"), presences, skipped, stage);
+    }
+
     public void cancelRequest(ChunkRequest request)
     {
         MiscUtil.locked(lock, () -> {
@@ -201,32 +283,12 @@ public class MemberChunkManager
             return request;
         }
 
-        private List<Member> toMembers(DataObject chunk)
-        {
-            EntityBuilder builder = guild.getJDA().getEntityBuilder();
-            DataArray memberArray = chunk.getArray("members");
-            TLongObjectMap<DataObject> presences = chunk.optArray("presences").map(it ->
-                Helpers.convertToMap(o -> o.getObject("user").getUnsignedLong("id"), it)
-            ).orElseGet(TLongObjectHashMap::new);
-            List<Member> collect = new ArrayList<>(memberArray.length());
-            for (int i = 0; i < memberArray.length(); i++)
-            {
-                DataObject json = memberArray.getObject(i);
-                long userId = json.getObject("user").getUnsignedLong("id");
-                DataObject presence = presences.get(userId);
-                MemberImpl member = builder.createMember(guild, json, null, presence);
-                builder.updateMemberCache(member);
-                collect.add(member);
-            }
-            return collect;
-        }
-
-        public void handleChunk(boolean last, DataObject chunk)
+        public void handleChunk(boolean last, List<Member> members)
         {
             try
             {
                 if (!isDone())
-                    handler.accept(last, toMembers(chunk));
+                    handler.accept(last, members);
             }
             catch (Throwable ex)
             {
@@ -245,6 +307,21 @@ public class MemberChunkManager
         }
     }
 
+    private static class PendingChunks
+    {
+        private final AtomicInteger count = new AtomicInteger();
+        // Numbers the chunks of the guild in the order they were received
+        private final AtomicInteger received = new AtomicInteger();
+        // The last chunk received before the latest event of each member
+        private final Map<Long, Integer> modified = new ConcurrentHashMap<>();
+
+        private boolean isOutdated(long userId, int chunkId)
+        {
+            Integer lastChunk = modified.get(userId);
+            return lastChunk != null && chunkId <= lastChunk;
+        }
+    }
+
     private class TimeoutHandler implements Runnable
     {
         @Override
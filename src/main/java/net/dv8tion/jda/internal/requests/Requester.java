@@ -24,6 +24,7 @@ import net.dv8tion.jda.internal.utils.IOUtil;
 import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
 import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
@@ -39,12 +40,19 @@ import java.io.InputStream;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public class Requester
@@ -60,6 +68,7 @@ public class Requester
         524, // a timeout occurred
         529, // The service is overloaded
     };
+    private static final int MAX_ATTEMPTS = 4;
 
     public static final Logger LOG = JDALogger.getLog(Requester.class);
     @SuppressWarnings("deprecation")
@@ -75,6 +84,11 @@ public class Requester
     private final String baseUrl;
     private final String userAgent;
     private final Consumer<? super okhttp3.Request.Builder> customBuilder;
+    private final boolean nonBlocking;
+    // Calls of GET requests, which identical requests can join, null if disabled
+    // Keyed by the method and the full url, including the query
+    private final Map<String, SingleFlight> inFlight;
+    private final ResponseCache responseCache;
 
     private final OkHttpClient httpClient;
 
@@ -95,6 +109,9 @@ public class Requester
         this.baseUrl = config.getBaseUrl();
         this.userAgent = config.getUserAgent();
         this.customBuilder = config.getCustomBuilder();
+        this.nonBlocking = config.isNonBlocking();
+        this.inFlight = config.isRequestCoalescing() ? new ConcurrentHashMap<>() : null;
+        this.responseCache = config.getResponseCacheSize() > 0 ? new ResponseCache(config.getResponseCacheSize(), config.getResponseCacheTtls()) : null;
         this.httpClient = this.api.getHttpClient();
     }
 
@@ -122,12 +139,97 @@ public class Requester
         if (rateLimiter.isStopped())
             throw new RejectedExecutionException("The Requester has been stopped! No new requests can be requested!");
 
+        if (serveCached(apiRequest))
+            return;
+
         if (apiRequest.shouldQueue())
-            rateLimiter.enqueue(new WorkTask(apiRequest));
+        {
+            WorkTask task = new WorkTask(apiRequest);
+            if (!coalesce(task))
+                rateLimiter.enqueue(task);
+        }
+        else if (nonBlocking)
+            executeAsync(new WorkTask(apiRequest), true);
         else
             execute(new WorkTask(apiRequest), true);
     }
 
+    /**
+     * Completes the request with a cached response, if one is available.
+     *
+     * @param  apiRequest
+     *         The request
+     *
+     * @return True, if the request was handled and must not be executed
+     */
+    private boolean serveCached(Request<?> apiRequest)
+    {
+        if (!isCacheable(apiRequest))
+            return false;
+
+        okhttp3.Response cached = responseCache.get(apiRequest.getRoute());
+        if (cached == null)
+            return false;
+
+        LOG.trace("Using cached response for request {} {}", apiRequest.getRoute().getMethod(), apiRequest.getRoute().getCompiledRoute());
+        // The cached body is held in memory, so the response does not need to be closed
+        if (!apiRequest.isSkipped())
+            apiRequest.handleResponse(new Response(cached, -1, Collections.emptySet()));
+        return true;
+    }
+
+    private boolean isCacheable(Request<?> apiRequest)
+    {
+        return responseCache != null
+                && responseCache.isCached(apiRequest.getRoute())
+                && apiRequest.getBody() == null
+                && (apiRequest.getHeaders() == null || apiRequest.getHeaders().isEmpty());
+    }
+
+    /**
+     * Attempts to join the call of an identical GET request.
+     * <br>If there is no such call, the provided task starts a new one.
+     *
+     * @param  task
+     *         The task of the request
+     *
+     * @return True, if the request joined another call and must not be enqueued
+     */
+    private boolean coalesce(WorkTask task)
+    {
+        Request<?> apiRequest = task.request;
+        if (inFlight == null
+                || apiRequest.getRoute().getMethod() != Method.GET
+                || apiRequest.isPriority()
+                || apiRequest.getBody() != null
+                || (apiRequest.getHeaders() != null && !apiRequest.getHeaders().isEmpty()))
+            return false;
+
+        SingleFlight flight = new SingleFlight(apiRequest);
+        while (true)
+        {
+            SingleFlight current = inFlight.putIfAbsent(flight.key, flight);
+            if (current == null)
+            {
+                task.flight = flight;
+                return false;
+            }
+            if (current.join(apiRequest))
+                return true;
+            // The call has completed in the meantime, start a new one
+            inFlight.remove(flight.key, current);
+        }
+    }
+
+    /**
+     * Identifies identical requests by their method and full url.
+     * <br>Unlike {@link Route.CompiledRoute#equals(Object)}, this includes the query, which distinguishes pages and options of the same route.
+     */
+    static String getRequestKey(Route.CompiledRoute route)
+    {
+        return route.getMethod() + " " + route.getCompiledRoute();
+    }
+
     private static boolean isRetry(Throwable e)
     {
         return e instanceof SocketException             // Socket couldn't be created or access failed
@@ -160,62 +262,42 @@ public class Requester
     public okhttp3.Response execute(WorkTask task, boolean retried, boolean handleOnRatelimit)
     {
         Route.CompiledRoute route = task.getRoute();
-
-        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
-
-        String url = baseUrl + route.getCompiledRoute();
-        builder.url(url);
-
         Request<?> apiRequest = task.request;
-
-        applyBody(apiRequest, builder);
-        applyHeaders(apiRequest, builder);
-        if (customBuilder != null)
-        {
-            try
-            {
-                customBuilder.accept(builder);
-            }
-            catch (Exception e)
-            {
-                LOG.error("Custom request builder caused exception", e);
-            }
-        }
-
-        okhttp3.Request request = builder.build();
+        String url = baseUrl + route.getCompiledRoute();
+        okhttp3.Request request = createRequest(task, url);
+        if (responseCache != null)
+            task.cacheGeneration = responseCache.getGeneration();
 
         Set<String> rays = new LinkedHashSet<>();
-        okhttp3.Response[] responses = new okhttp3.Response[4];
+        okhttp3.Response[] responses = new okhttp3.Response[MAX_ATTEMPTS];
         // we have an array of all responses to later close them all at once
         //the response below this comment is used as the first successful response from the server
         okhttp3.Response lastResponse = null;
         try
         {
             LOG.trace("Executing request {} {}", task.getRoute().getMethod(), url);
-            int code = 0;
             for (int attempt = 0; attempt < responses.length; attempt++)
             {
-                if (apiRequest.isSkipped())
+                if (task.isSkipped())
                     return null;
 
                 Call call = httpClient.newCall(request);
                 lastResponse = call.execute();
-                code = lastResponse.code();
                 responses[attempt] = lastResponse;
                 String cfRay = lastResponse.header("CF-RAY");
                 if (cfRay != null)
                     rays.add(cfRay);
 
                 // Retry a few specific server errors that are related to server issues
-                if (!shouldRetry(code))
+                if (!shouldRetry(lastResponse.code()))
                     break;
 
                 LOG.debug("Requesting {} -> {} returned status {}... retrying (attempt {})",
                         apiRequest.getRoute().getMethod(),
-                        url, code, attempt + 1);
+                        url, lastResponse.code(), attempt + 1);
                 try
                 {
-                    Thread.sleep(500 << attempt);
+                    Thread.sleep(getRetryDelay(attempt));
                 }
                 catch (InterruptedException ignored)
                 {
@@ -223,65 +305,18 @@ public class Requester
                 }
             }
 
-            LOG.trace("Finished Request {} {} with code {}", route.getMethod(), lastResponse.request().url(), code);
-
-            if (shouldRetry(code))
-            {
-                //Epic failure from other end. Attempted 4 times.
-                task.handleResponse(lastResponse, -1, rays);
-                return null;
-            }
-
-            if (!rays.isEmpty())
-                LOG.debug("Received response with following cf-rays: {}", rays);
-
-            if (handleOnRatelimit && code == 429)
-            {
-                long retryAfter = parseRetry(lastResponse);
-                task.handleResponse(lastResponse, retryAfter, rays);
-            }
-            else if (code != 429)
-            {
-                task.handleResponse(lastResponse, rays);
-            }
-            else if (getContentType(lastResponse).startsWith("application/json")) // potentially not json when cloudflare does 429
-            {
-                // On 429, replace the retry-after header if its wrong (discord moment)
-                // We just pick whichever is bigger between body and header
-                try (InputStream body = IOUtil.getBody(lastResponse))
-                {
-                    long retryAfterBody = (long) Math.ceil(DataObject.fromJson(body).getDouble("retry_after", 0));
-                    long retryAfterHeader = Long.parseLong(lastResponse.header(RestRateLimiter.RETRY_AFTER_HEADER));
-                    lastResponse = lastResponse.newBuilder()
-                            .header(RestRateLimiter.RETRY_AFTER_HEADER, Long.toString(Math.max(retryAfterHeader, retryAfterBody)))
-                            .build();
-                }
-                catch (Exception e)
-                {
-                    LOG.warn("Failed to parse retry-after response body", e);
-                }
-            }
-
-            return lastResponse;
-        }
-        catch (UnknownHostException e)
-        {
-            LOG.error("DNS resolution failed: {}", e.getMessage());
-            task.handleResponse(e, rays);
-            return null;
+            return handleResult(task, lastResponse, rays, handleOnRatelimit);
         }
         catch (IOException e)
         {
             if (retryOnTimeout && !retried && isRetry(e))
                 return execute(task, true, handleOnRatelimit);
-            LOG.error("There was an I/O error while executing a REST request: {}", e.getMessage());
-            task.handleResponse(e, rays);
+            handleError(task, e, rays);
             return null;
         }
         catch (Exception e)
         {
-            LOG.error("There was an unexpected error while executing a REST request", e);
-            task.handleResponse(e, rays);
+            handleError(task, e, rays);
             return null;
         }
         finally
@@ -295,6 +330,125 @@ public class Requester
         }
     }
 
+    /**
+     * Executes the request using asynchronous calls, without blocking the calling thread.
+     * <br>Retries of server errors are scheduled on the rate-limit scheduler.
+     *
+     * @param  task
+     *         The API request that needs to be sent
+     * @param  handleOnRatelimit
+     *         Whether to forward rate-limits, false if rate limit handling should take over
+     *
+     * @return Future completed with the same result as {@link #execute(WorkTask, boolean)}
+     */
+    public CompletableFuture<okhttp3.Response> executeAsync(WorkTask task, boolean handleOnRatelimit)
+    {
+        CompletableFuture<okhttp3.Response> future = new CompletableFuture<>();
+        try
+        {
+            String url = baseUrl + task.getRoute().getCompiledRoute();
+            AsyncCall call = new AsyncCall(task, createRequest(task, url), url, handleOnRatelimit, future);
+            if (responseCache != null)
+                task.cacheGeneration = responseCache.getGeneration();
+            LOG.trace("Executing request {} {}", task.getRoute().getMethod(), url);
+            call.start();
+        }
+        catch (Exception e)
+        {
+            handleError(task, e, new LinkedHashSet<>());
+            future.complete(null);
+        }
+        return future;
+    }
+
+    private okhttp3.Request createRequest(WorkTask task, String url)
+    {
+        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
+        builder.url(url);
+
+        Request<?> apiRequest = task.request;
+
+        applyBody(apiRequest, builder);
+        applyHeaders(apiRequest, builder);
+        if (customBuilder != null)
+        {
+            try
+            {
+                customBuilder.accept(builder);
+            }
+            catch (Exception e)
+            {
+                LOG.error("Custom request builder caused exception", e);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private okhttp3.Response handleResult(WorkTask task, okhttp3.Response lastResponse, Set<String> rays, boolean handleOnRatelimit)
+    {
+        int code = lastResponse.code();
+        LOG.trace("Finished Request {} {} with code {}", task.getRoute().getMethod(), lastResponse.request().url(), code);
+
+        if (responseCache != null)
+            responseCache.invalidate(task.getRoute());
+
+        if (shouldRetry(code))
+        {
+            //Epic failure from other end. Attempted 4 times.
+            task.handleResponse(lastResponse, -1, rays);
+            return null;
+        }
+
+        if (!rays.isEmpty())
+            LOG.debug("Received response with following cf-rays: {}", rays);
+
+        if (handleOnRatelimit && code == 429)
+        {
+            long retryAfter = parseRetry(lastResponse);
+            task.handleResponse(lastResponse, retryAfter, rays);
+        }
+        else if (code != 429)
+        {
+            if (isCacheable(task.request))
+                lastResponse = responseCache.put(task.getRoute(), lastResponse, task.cacheGeneration);
+            task.handleResponse(lastResponse, rays);
+        }
+        else if (getContentType(lastResponse).startsWith("application/json")) // potentially not json when cloudflare does 429
+        {
+            // On 429, replace the retry-after header if its wrong (discord moment)
+            // We just pick whichever is bigger between body and header
+            try (InputStream body = IOUtil.getBody(lastResponse))
+            {
+                long retryAfterBody = (long) Math.ceil(DataObject.fromJson(body).getDouble("retry_after", 0));
+                long retryAfterHeader = Long.parseLong(lastResponse.header(RestRateLimiter.RETRY_AFTER_HEADER));
+                lastResponse = lastResponse.newBuilder()
+                        .header(RestRateLimiter.RETRY_AFTER_HEADER, Long.toString(Math.max(retryAfterHeader, retryAfterBody)))
+                        .build();
+            }
+            catch (Exception e)
+            {
+                LOG.warn("Failed to parse retry-after response body", e);
+            }
+        }
+
+        return lastResponse;
+    }
+
+    private void handleError(WorkTask task, Exception e, Set<String> rays)
+    {
+        if (e instanceof UnknownHostException)
+            LOG.error("DNS resolution failed: {}", e.getMessage());
+        else if (e instanceof IOException)
+            LOG.error("There was an I/O error while executing a REST request: {}", e.getMessage());
+        else
+            LOG.error("There was an unexpected error while executing a REST request", e);
+        // A failed mutating request might still have been applied
+        if (responseCache != null)
+            responseCache.invalidate(task.getRoute());
+        task.handleResponse(e, rays);
+    }
+
     private void applyBody(Request<?> apiRequest, okhttp3.Request.Builder builder)
     {
         String method = apiRequest.getRoute().getMethod().toString();
@@ -351,6 +505,11 @@ public class Requester
         rateLimiter.stop(shutdown, callback);
     }
 
+    private static long getRetryDelay(int attempt)
+    {
+        return 500L << attempt;
+    }
+
     private static boolean shouldRetry(int code)
     {
         if (code < RETRY_ERROR_CODES[0] || code > RETRY_ERROR_CODES[RETRY_ERROR_CODES.length - 1])
@@ -375,10 +534,189 @@ public class Requester
         return type == null ? "" : type.toLowerCase(Locale.ROOT);
     }
 
+    private static byte[] readBody(okhttp3.Response response)
+    {
+        // Bodies which cannot be read are handed on as empty body
+        try
+        {
+            byte[] body = IOUtil.readBody(response);
+            return body == null ? new byte[0] : body;
+        }
+        catch (IOException e)
+        {
+            LOG.debug("Failed to read response body on url {}", response.request().url(), e);
+            return new byte[0];
+        }
+    }
+
+    private class AsyncCall implements Callback
+    {
+        private final WorkTask task;
+        private final okhttp3.Request request;
+        private final String url;
+        private final boolean handleOnRatelimit;
+        private final CompletableFuture<okhttp3.Response> future;
+
+        private final Set<String> rays = new LinkedHashSet<>();
+        // we keep all responses to later close them all at once
+        private final okhttp3.Response[] responses = new okhttp3.Response[MAX_ATTEMPTS];
+        private int attempt = 0;
+        private boolean retried = false;
+
+        private AsyncCall(WorkTask task, okhttp3.Request request, String url, boolean handleOnRatelimit, CompletableFuture<okhttp3.Response> future)
+        {
+            this.task = task;
+            this.request = request;
+            this.url = url;
+            this.handleOnRatelimit = handleOnRatelimit;
+            this.future = future;
+        }
+
+        private void start()
+        {
+            if (task.isSkipped())
+                complete(null);
+            else
+                httpClient.newCall(request).enqueue(this);
+        }
+
+        @Override
+        public void onResponse(@Nonnull Call call, @Nonnull okhttp3.Response response)
+        {
+            setContext();
+            responses[attempt] = response;
+            String cfRay = response.header("CF-RAY");
+            if (cfRay != null)
+                rays.add(cfRay);
+
+            // Retry a few specific server errors that are related to server issues
+            if (shouldRetry(response.code()) && attempt + 1 < responses.length)
+            {
+                LOG.debug("Requesting {} -> {} returned status {}... retrying (attempt {})",
+                        task.getRoute().getMethod(),
+                        url, response.code(), attempt + 1);
+                try
+                {
+                    // Schedule the retry instead of sleeping on the thread of the http client
+                    api.getRateLimitPool().schedule(this::start, getRetryDelay(attempt++), TimeUnit.MILLISECONDS);
+                    return;
+                }
+                catch (RejectedExecutionException ignored) {}
+            }
+
+            try
+            {
+                complete(handleResult(task, response, rays, handleOnRatelimit));
+            }
+            catch (Exception e)
+            {
+                handleError(task, e, rays);
+                complete(null);
+            }
+        }
+
+        @Override
+        public void onFailure(@Nonnull Call call, @Nonnull IOException e)
+        {
+            setContext();
+            if (retryOnTimeout && !retried && isRetry(e))
+            {
+                retried = true;
+                start();
+                return;
+            }
+
+            handleError(task, e, rays);
+            complete(null);
+        }
+
+        private void complete(okhttp3.Response response)
+        {
+            for (okhttp3.Response r : responses)
+            {
+                if (r == null)
+                    break;
+                r.close();
+            }
+            future.complete(response);
+        }
+    }
+
+    private class SingleFlight
+    {
+        private final String key;
+        // The requests which share this call, starting with the request which started it
+        private final List<Request<?>> requests = new ArrayList<>();
+        private boolean closed;
+
+        private SingleFlight(Request<?> request)
+        {
+            this.key = getRequestKey(request.getRoute());
+            this.requests.add(request);
+        }
+
+        private synchronized boolean join(Request<?> request)
+        {
+            if (closed)
+                return false;
+            requests.add(request);
+            return true;
+        }
+
+        // Removes the skipped requests, the call is only skipped once none of its requests need a response
+        private boolean isSkipped()
+        {
+            List<Request<?>> current;
+            synchronized (this)
+            {
+                if (closed)
+                    return true;
+                current = new ArrayList<>(requests);
+            }
+
+            // Checking a request can run its callbacks, which must not happen while holding the lock
+            List<Request<?>> skipped = new ArrayList<>();
+            for (Request<?> request : current)
+            {
+                if (request.isSkipped())
+                    skipped.add(request);
+            }
+
+            synchronized (this)
+            {
+                // A closed call no longer owns its requests
+                if (closed)
+                    return true;
+                requests.removeAll(skipped);
+                if (!requests.isEmpty())
+                    return false;
+                closed = true;
+            }
+            inFlight.remove(key, this);
+            return true;
+        }
+
+        // Detaches the requests of this call, identical requests start a new call afterwards
+        private List<Request<?>> close()
+        {
+            inFlight.remove(key, this);
+            synchronized (this)
+            {
+                if (closed)
+                    return Collections.emptyList();
+                closed = true;
+                return requests;
+            }
+        }
+    }
+
     private class WorkTask implements RestRateLimiter.Work
     {
         private final Request<?> request;
+        private SingleFlight flight;
         private boolean done;
+        // Generation of the response cache before the request was sent
+        private long cacheGeneration;
 
         private WorkTask(Request<?> request)
         {
@@ -406,10 +744,20 @@ public class Requester
             return Requester.this.execute(this);
         }
 
+        @Nonnull
+        @Override
+        public CompletableFuture<okhttp3.Response> executeAsync()
+        {
+            if (!nonBlocking)
+                return RestRateLimiter.Work.super.executeAsync();
+            return Requester.this.executeAsync(this, false);
+        }
+
         @Override
         public boolean isSkipped()
         {
-            return request.isSkipped();
+            // A shared call still runs for the requests which joined it, even if the first request was skipped
+            return flight == null ? request.isSkipped() : flight.isSkipped();
         }
 
         @Override
@@ -434,24 +782,61 @@ public class Requester
         public void cancel()
         {
             request.cancel();
+            if (flight != null)
+                flight.close().forEach(Request::cancel);
         }
 
         private void handleResponse(okhttp3.Response response, Set<String> rays)
         {
-            done = true;
-            request.handleResponse(new Response(response, -1, rays));
+            handleResponse(response, -1, rays);
         }
 
         private void handleResponse(Exception error, Set<String> rays)
         {
             done = true;
-            request.handleResponse(new Response(error, rays));
+            if (flight == null)
+            {
+                request.handleResponse(new Response(error, rays));
+                return;
+            }
+
+            for (Request<?> member : flight.close())
+                handleResponse(member, new Response(error, rays));
         }
 
         private void handleResponse(okhttp3.Response response, long retryAfter, Set<String> cfRays)
         {
             done = true;
-            request.handleResponse(new Response(response, retryAfter, cfRays));
+            if (flight == null)
+            {
+                request.handleResponse(new Response(response, retryAfter, cfRays));
+                return;
+            }
+
+            List<Request<?>> requests = flight.close();
+            if (requests.size() == 1)
+            {
+                handleResponse(requests.get(0), new Response(response, retryAfter, cfRays));
+                return;
+            }
+
+            // Every request parses its own copy of the body, since handlers can read it differently or modify the parsed data
+            byte[] body = readBody(response);
+            for (Request<?> member : requests)
+                handleResponse(member, new Response(IOUtil.withBody(response, body), retryAfter, cfRays));
+        }
+
+        private void handleResponse(Request<?> member, Response response)
+        {
+            try
+            {
+                if (!member.isSkipped())
+                    member.handleResponse(response);
+            }
+            catch (Exception e)
+            {
+                LOG.error("Encountered exception handling coalesced response for route {}", member.getRoute().getBaseRoute(), e);
+            }
         }
     }
 }
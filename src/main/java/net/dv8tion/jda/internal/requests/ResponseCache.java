@@ -0,0 +1,227 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests;
+
+import net.dv8tion.jda.api.requests.Method;
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.internal.utils.IOUtil;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded cache for responses of read-only routes.
+ *
+ * <p>Entries expire after the TTL configured for their route, and the least recently used entry is evicted once the cache is full.
+ * Any request with a mutating method invalidates all entries of the same scope.
+ * The scope of a route are its major parameters, or the first segment of its path for routes without major parameters.
+ *
+ * <p>Every invalidation starts a new generation of its scope.
+ * Responses of requests which were sent before the latest invalidation of their scope are not stored.
+ */
+public class ResponseCache
+{
+    private static final int MAX_INVALIDATIONS = 1000;
+
+    private final int maxSize;
+    private final Map<Route, Long> ttls = new HashMap<>();
+    // Keyed by the method and the full url, access ordered, so the eldest entry is the least recently used
+    private final LinkedHashMap<String, Entry> entries;
+    // Scope -> Generation of the latest invalidation, ordered by generation
+    private final LinkedHashMap<String, Long> invalidations;
+    private long generation;
+    // The latest generation which is no longer tracked, older responses are never stored
+    private long untracked;
+
+    public ResponseCache(int maxSize, Map<Route, Duration> ttls)
+    {
+        this.maxSize = maxSize;
+        ttls.forEach((route, ttl) -> this.ttls.put(route, ttl.toMillis()));
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+            {
+                return size() > ResponseCache.this.maxSize;
+            }
+        };
+        this.invalidations = new LinkedHashMap<String, Long>()
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest)
+            {
+                if (size() <= MAX_INVALIDATIONS)
+                    return false;
+                untracked = eldest.getValue();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * The current generation, which has to be retrieved before sending a request whose response might be stored.
+     *
+     * @return The current generation
+     */
+    public synchronized long getGeneration()
+    {
+        return generation;
+    }
+
+    public boolean isCached(Route.CompiledRoute route)
+    {
+        return route.getMethod() == Method.GET && ttls.containsKey(route.getBaseRoute());
+    }
+
+    /**
+     * A copy of the cached response for the provided route.
+     *
+     * @param  route
+     *         The route of the request
+     *
+     * @return The response, or null if no entry exists or the entry has expired
+     */
+    @Nullable
+    public synchronized okhttp3.Response get(Route.CompiledRoute route)
+    {
+        String key = Requester.getRequestKey(route);
+        Entry entry = entries.get(key);
+        if (entry == null)
+            return null;
+        if (entry.expiresAt <= System.currentTimeMillis())
+        {
+            entries.remove(key);
+            return null;
+        }
+        return entry.copy();
+    }
+
+    /**
+     * Stores the successful response for the provided route, if the route is cached.
+     * <br>This consumes the body of the response, the returned response should be used instead.
+     *
+     * <p>The response is not stored if the scope of the route was invalidated after the request was sent.
+     *
+     * @param  route
+     *         The route of the request
+     * @param  response
+     *         The successful response
+     * @param  generation
+     *         The {@link #getGeneration() generation} before the request was sent
+     *
+     * @return The response to use in place of the provided one
+     */
+    public okhttp3.Response put(Route.CompiledRoute route, okhttp3.Response response, long generation)
+    {
+        Long ttl = ttls.get(route.getBaseRoute());
+        if (ttl == null || route.getMethod() != Method.GET || !response.isSuccessful())
+            return response;
+
+        String scope = getScope(route);
+        synchronized (this)
+        {
+            if (isInvalidated(scope, generation))
+                return response;
+        }
+
+        byte[] body;
+        try
+        {
+            body = IOUtil.readBody(response);
+        }
+        catch (IOException e)
+        {
+            Requester.LOG.debug("Failed to read response body for cache on route {}", route.getBaseRoute(), e);
+            body = null;
+        }
+        // Malformed compressed bodies have already been read for logging, they are handed on as empty body
+        if (body == null)
+            return IOUtil.withBody(response, new byte[0]);
+
+        Entry entry = new Entry(IOUtil.withBody(response, body), body, scope, System.currentTimeMillis() + ttl);
+        synchronized (this)
+        {
+            // The scope might have been invalidated while reading the body
+            if (!isInvalidated(scope, generation))
+                entries.put(Requester.getRequestKey(route), entry);
+        }
+        return entry.copy();
+    }
+
+    /**
+     * Removes all entries which share the scope with the provided route, and starts a new generation for the scope.
+     *
+     * @param route
+     *        The route of a mutating request
+     */
+    public synchronized void invalidate(Route.CompiledRoute route)
+    {
+        if (route.getMethod() == Method.GET)
+            return;
+        String scope = getScope(route);
+        // Reinsert, so the scopes stay ordered by generation
+        invalidations.remove(scope);
+        invalidations.put(scope, ++generation);
+
+        entries.values().removeIf(entry -> scope.equals(entry.scope));
+    }
+
+    private boolean isInvalidated(String scope, long generation)
+    {
+        return generation < untracked || invalidations.getOrDefault(scope, 0L) > generation;
+    }
+
+    private static String getScope(Route.CompiledRoute route)
+    {
+        String major = route.getMajorParameters();
+        if (!major.isEmpty())
+            return major;
+
+        // Routes without major parameters are grouped by resource, like applications/{application_id}/commands
+        String path = route.getBaseRoute().getRoute();
+        if (path.startsWith("oauth2/"))
+            path = path.substring("oauth2/".length());
+        int end = path.indexOf('/');
+        return "/" + (end < 0 ? path : path.substring(0, end));
+    }
+
+    private static class Entry
+    {
+        private final okhttp3.Response response;
+        private final byte[] body;
+        private final String scope;
+        private final long expiresAt;
+
+        private Entry(okhttp3.Response response, byte[] body, String scope, long expiresAt)
+        {
+            this.response = response;
+            this.body = body;
+            this.scope = scope;
+            this.expiresAt = expiresAt;
+        }
+
+        private okhttp3.Response copy()
+        {
+            // Every use needs a fresh body, since a body can only be read once
+            return IOUtil.withBody(response, body);
+        }
+    }
+}
@@ -36,12 +36,14 @@ import net.dv8tion.jda.api.requests.CloseCode;
 import net.dv8tion.jda.api.utils.Compression;
 import net.dv8tion.jda.api.utils.MiscUtil;
 import net.dv8tion.jda.api.utils.SessionController;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.api.utils.data.DataType;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.audio.ConnectionRequest;
 import net.dv8tion.jda.internal.audio.ConnectionStage;
+import net.dv8tion.jda.internal.entities.CacheSnapshot;
 import net.dv8tion.jda.internal.entities.GuildImpl;
 import net.dv8tion.jda.internal.handle.*;
 import net.dv8tion.jda.internal.managers.AudioManagerImpl;
@@ -53,17 +55,21 @@ import net.dv8tion.jda.internal.utils.UnlockHook;
 import net.dv8tion.jda.internal.utils.cache.AbstractCacheView;
 import net.dv8tion.jda.internal.utils.compress.Decompressor;
 import net.dv8tion.jda.internal.utils.compress.ZlibDecompressor;
+import net.dv8tion.jda.internal.utils.compress.ZstdDecompressor;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.*;
@@ -82,6 +88,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
     protected static final String INVALIDATE_REASON = "INVALIDATE_SESSION";
     protected static final long IDENTIFY_BACKOFF = TimeUnit.SECONDS.toMillis(SessionController.IDENTIFY_DELAY);
+    protected static final long SNAPSHOT_LOCK_TIMEOUT = 5;
 
     protected final JDAImpl api;
     protected final JDA.ShardInfo shardInfo;
@@ -90,6 +97,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     protected final int gatewayIntents;
     protected final MemberChunkManager chunkManager;
     protected final GatewayEncoding encoding;
+    protected final boolean presenceCache;
 
     public WebSocket socket;
     protected String traceMetadata = null;
@@ -99,6 +107,8 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     protected String resumeUrl = null;
 
     protected final ReentrantLock queueLock = new ReentrantLock();
+    // Held while handling a payload, so deferred handler tasks only run in between payloads
+    protected final ReentrantLock handleLock = new ReentrantLock();
     protected final ScheduledExecutorService executor;
     protected WebSocketSendingThread ratelimitThread;
     protected volatile Future<?> keepAliveThread;
@@ -132,7 +142,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
     protected volatile ConnectNode connectNode;
 
-    public WebSocketClient(JDAImpl api, Compression compression, int gatewayIntents, GatewayEncoding encoding)
+    public WebSocketClient(JDAImpl api, Compression compression, int gatewayIntents, GatewayEncoding encoding, @Nullable CacheSnapshot snapshot)
     {
         this.api = api;
         this.executor = api.getGatewayPool();
@@ -142,7 +152,15 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         this.chunkManager = new MemberChunkManager(this);
         this.encoding = encoding;
         this.shouldReconnect = api.isAutoReconnect();
+        this.presenceCache = api.getCacheFlags().stream().anyMatch(CacheFlag::isPresence);
         this.connectNode = new StartingNode();
+        if (snapshot != null)
+        {
+            // The cache was already restored from the snapshot, the first connection resumes the stored session
+            this.sessionId = snapshot.getSessionId();
+            this.resumeUrl = snapshot.getResumeUrl();
+            this.processingReady = false;
+        }
         setupHandlers();
         try
         {
@@ -336,15 +354,19 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
     public void shutdown()
     {
+        // Written before closing, since the session may only stay alive if the snapshot can resume it
+        boolean snapshotSaved = saveSnapshot();
         boolean callOnShutdown = MiscUtil.locked(reconnectLock, () -> {
             if (shutdown)
                 return false;
             shutdown = true;
             shouldReconnect = false;
+            this.<PresenceUpdateHandler>getHandler("PRESENCE_UPDATE").clearPending();
             if (connectNode != null)
                 api.getSessionController().removeSession(connectNode);
             boolean wasConnected = connected;
-            close(1000, "Shutting down");
+            // Closing with 1000 drops the session, which could then no longer be resumed from the cache snapshot
+            close(snapshotSaved ? 4900 : 1000, "Shutting down");
             reconnectCondvar.signalAll(); // signal reconnect attempts to stop
             return !wasConnected;
         });
@@ -387,6 +409,10 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                         if (decompressor == null || decompressor.getType() != Compression.ZLIB)
                             decompressor = new ZlibDecompressor(api.getMaxBufferSize());
                         break;
+                    case ZSTD:
+                        if (decompressor == null || decompressor.getType() != Compression.ZSTD)
+                            decompressor = new ZstdDecompressor(api.getMaxBufferSize());
+                        break;
                     default:
                         throw new IllegalStateException("Unknown compression");
                 }
@@ -792,6 +818,39 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         api.setStatus(JDA.Status.AWAITING_LOGIN_CONFIRMATION);
     }
 
+    protected boolean saveSnapshot()
+    {
+        Path file = api.getCacheSnapshotFile();
+        if (file == null)
+            return false;
+        try
+        {
+            // Payloads are not handled while the snapshot is written, so the cache stays consistent with the sequence.
+            // Bounded, since a listener calling shutdown could otherwise wait for the gateway thread it blocks.
+            if (!handleLock.tryLock(SNAPSHOT_LOCK_TIMEOUT, TimeUnit.SECONDS))
+            {
+                LOG.warn("Gateway thread is busy, shutting down without cache snapshot");
+                return false;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try
+        {
+            // Guilds which are still being set up are not in the cache yet and would be lost on resume
+            if (sessionId == null || initiating || !api.getGuildSetupController().getSetupNodes().isEmpty())
+                return false;
+            return CacheSnapshot.write(api, file, sessionId, resumeUrl, gatewayIntents);
+        }
+        finally
+        {
+            handleLock.unlock();
+        }
+    }
+
     protected void invalidate()
     {
         resumeUrl = null;
@@ -808,6 +867,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         api.getEventCache().clear();
         api.getGuildSetupController().clearCache();
         chunkManager.clear();
+        this.<PresenceUpdateHandler>getHandler("PRESENCE_UPDATE").clearPending();
 
         api.handleEvent(new SessionInvalidateEvent(api));
     }
@@ -865,6 +925,9 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
     protected void handleEvent(DataObject content)
     {
+        GuildSetupController setupController = api.getGuildSetupController();
+        setupController.lock();
+        handleLock.lock();
         try
         {
             onEvent(content);
@@ -874,11 +937,56 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             LOG.error("Encountered exception on lifecycle level\nJSON: {}", content, ex);
             api.handleEvent(new ExceptionEvent(api, ex, true));
         }
+        finally
+        {
+            handleLock.unlock();
+            setupController.unlock();
+        }
+    }
+
+    /**
+     * Runs the task on the gateway pool after the provided delay.
+     * <br>The task holds the same locks as the handling of a payload, so it never runs concurrently with gateway events.
+     */
+    public void scheduleHandling(Runnable task, long delay, TimeUnit unit)
+    {
+        try
+        {
+            executor.schedule(() ->
+            {
+                GuildSetupController setupController = api.getGuildSetupController();
+                setupController.lock();
+                handleLock.lock();
+                boolean gatewayThread = WS_THREAD.get();
+                WS_THREAD.set(true);
+                try
+                {
+                    task.run();
+                }
+                catch (Exception ex)
+                {
+                    LOG.error("Encountered exception in deferred gateway task", ex);
+                }
+                finally
+                {
+                    WS_THREAD.set(gatewayThread);
+                    handleLock.unlock();
+                    setupController.unlock();
+                }
+            }, delay, unit);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            LOG.debug("Could not schedule deferred gateway task after shutdown", ex);
+        }
     }
 
     protected void onEvent(DataObject content)
     {
         WS_THREAD.set(true);
+        // Coalesced presence updates are applied before this payload, if the window elapsed without a flush
+        PresenceUpdateHandler presenceHandler = getHandler("PRESENCE_UPDATE");
+        presenceHandler.flushIfDue();
         int opCode = content.getInt("op");
 
         if (!content.isNull("s"))
@@ -935,6 +1043,15 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         String type = raw.getString("t");
         long responseTotal = api.getResponseTotal();
 
+        // Payloads which could not be peeked before parsing, such as ETF, are filtered here instead
+        if (api.getIgnoredDispatchTypes().contains(type))
+        {
+            LOG.trace("{} -> skipped", type);
+            if (responseTotal % EventCache.TIMEOUT_AMOUNT == 0)
+                api.getEventCache().timeout(responseTotal);
+            return;
+        }
+
         if (!raw.isType("d", DataType.OBJECT))
         {
             // Needs special handling due to content of "d" being an array
@@ -988,7 +1105,9 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     traceMetadata = content.opt("_trace").map(String::valueOf).orElse(traceMetadata);
                     if (!processingReady)
                     {
-                        initiating = false;
+                        // A session restored from a cache snapshot still has to fire its ReadyEvent
+                        if (!firstInit)
+                            initiating = false;
                         ready();
                     }
                     else
@@ -1029,10 +1148,46 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             jda.getEventCache().timeout(responseTotal);
     }
 
+    protected boolean isIgnoredDispatch(String type)
+    {
+        if (type == null)
+            return false;
+        if (api.getIgnoredDispatchTypes().contains(type))
+            return true;
+        if (api.isRawEvents())
+            return false;
+        // Presences are routed through the presence handler, which drops them without a presence cache
+        if (type.equals("PRESENCE_UPDATE") || type.equals("PRESENCES_REPLACE"))
+            return !presenceCache;
+        return handlers.get(type) instanceof SocketHandler.NOPHandler;
+    }
+
+    // Ignored dispatches are never materialized, everything else is parsed from where the header ended
+    protected DataObject parseJson(byte[] data, int offset, int length)
+    {
+        GatewayHeader header = GatewayHeader.peek(data, offset, length);
+        if (header == null)
+            return api.isLazyJson() ? DataObject.fromLazyJson(data, offset, length) : DataObject.fromJson(data, offset, length);
+        if (header.getOpCode() != WebSocketCode.DISPATCH || !isIgnoredDispatch(header.getType()))
+            return header.parse(data, offset, length, api.isLazyJson());
+
+        // Only keep track of the sequence, the payload itself would be discarded by its handler anyway
+        WS_THREAD.set(true);
+        if (header.hasSequence())
+            api.setResponseTotal((int) header.getSequence());
+        long responseTotal = api.getResponseTotal();
+        LOG.trace("{} -> skipped", header.getType());
+        if (responseTotal % EventCache.TIMEOUT_AMOUNT == 0)
+            api.getEventCache().timeout(responseTotal);
+        return null;
+    }
+
     @Override
     public void onTextMessage(WebSocket websocket, byte[] data)
     {
-        handleEvent(DataObject.fromJson(data));
+        DataObject message = parseJson(data, 0, data.length);
+        if (message != null)
+            handleEvent(message);
     }
 
     @Override
@@ -1057,7 +1212,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             throw new IllegalStateException("Cannot decompress binary message due to unknown compression algorithm: " + compression);
         }
         // Scoping allows us to print the json that possibly failed parsing
-        byte[] data;
+        ByteBuffer data;
         try
         {
             data = decompressor.decompress(binary);
@@ -1070,19 +1225,23 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             throw e;
         }
 
+        // The decompressed data is only valid until the next frame, which is fine since parsing copies everything it keeps
+        byte[] array = data.array();
+        int offset = data.arrayOffset() + data.position();
+        int length = data.remaining();
         try
         {
             if (encoding == GatewayEncoding.ETF)
-                return DataObject.fromETF(data);
+                return DataObject.fromETF(array, offset, length);
             else
-                return DataObject.fromJson(data);
+                return parseJson(array, offset, length);
         }
         catch (ParsingException e)
         {
             String jsonString = "malformed";
             try
             {
-                jsonString = new String(data, StandardCharsets.UTF_8);
+                jsonString = new String(array, offset, length, StandardCharsets.UTF_8);
             }
             catch (Exception ignored) {}
             // Print the string that could not be parsed and re-throw the exception
@@ -22,9 +22,11 @@ import okhttp3.ConnectionPool;
 import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
 import okio.Okio;
 import org.slf4j.Logger;
 
+import javax.annotation.Nullable;
 import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -289,4 +291,46 @@ public class IOUtil
         }
         return data;
     }
+
+    /**
+     * Reads the decoded body of the provided {@link okhttp3.Response Response} into memory.
+     * <br>This consumes the body of the response.
+     *
+     * @param  response
+     *         The not-null Response object
+     *
+     * @throws IOException
+     *         If the body could not be read
+     *
+     * @return The decoded body, or null if the encoded body was malformed
+     */
+    @Nullable
+    public static byte[] readBody(okhttp3.Response response) throws IOException
+    {
+        try (InputStream stream = getBody(response))
+        {
+            return stream == null ? null : readFully(stream);
+        }
+    }
+
+    /**
+     * Creates a copy of the provided {@link okhttp3.Response Response} with a decoded body held in memory.
+     * <br>The returned response can be read independently of the original response.
+     *
+     * @param  response
+     *         The not-null Response object
+     * @param  body
+     *         The decoded body, see {@link #readBody(okhttp3.Response)}
+     *
+     * @return The copy with the provided body
+     */
+    public static okhttp3.Response withBody(okhttp3.Response response, byte[] body)
+    {
+        // The body is decoded, so the encoding headers no longer apply
+        return response.newBuilder()
+                .removeHeader("content-encoding")
+                .removeHeader("content-length")
+                .body(ResponseBody.create(body, response.body().contentType()))
+                .build();
+    }
 }
@@ -24,6 +24,8 @@ import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.entities.emoji.RichCustomEmoji;
 import net.dv8tion.jda.api.exceptions.DetachedEntityException;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.utils.cache.PermissionCache;
 import org.apache.commons.collections4.CollectionUtils;
 
 import java.util.Arrays;
@@ -371,6 +373,15 @@ public class PermissionUtil
             return ALL_PERMISSIONS;
         }
 
+        // Timeouts expire without an update from discord, so these are never cached
+        PermissionCache cache = member instanceof MemberImpl ? ((MemberImpl) member).getGuild().getPermissionCache() : null;
+        if (cache == null || member.isTimedOut())
+            return computeEffectivePermission(channel, member);
+        return cache.get(member.getIdLong(), channel.getIdLong(), () -> computeEffectivePermission(channel, member));
+    }
+
+    private static long computeEffectivePermission(GuildChannel channel, Member member)
+    {
         long permission = getEffectivePermission(member);
         final long admin = Permission.ADMINISTRATOR.getRawValue();
         if (isApplied(permission, admin))
@@ -38,14 +38,24 @@ import java.util.stream.StreamSupport;
 
 public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> implements CacheView<T>
 {
-    protected final TLongObjectMap<T> elements = new TLongObjectHashMap<>();
+    protected final TLongObjectMap<T> elements;
     protected final T[] emptyArray;
     protected final Function<T, String> nameMapper;
     protected final Class<T> type;
+    protected final boolean concurrent;
 
-    @SuppressWarnings("unchecked")
     protected AbstractCacheView(Class<T> type, Function<T, String> nameMapper)
     {
+        this(type, nameMapper, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected AbstractCacheView(Class<T> type, Function<T, String> nameMapper, boolean concurrent)
+    {
+        // The concurrent map allows lookups by id without acquiring the read-lock,
+        // writes still have to go through the write-lock to keep the cached lists and iterators consistent
+        this.elements = concurrent ? new ConcurrentLongObjectMap<>() : new TLongObjectHashMap<>();
+        this.concurrent = concurrent;
         this.nameMapper = nameMapper;
         this.type = type;
         this.emptyArray = (T[]) Array.newInstance(type, 0);
@@ -68,12 +78,37 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
 
     public T get(long id)
     {
+        if (concurrent)
+            return elements.get(id);
         try (UnlockHook hook = readLock())
         {
             return elements.get(id);
         }
     }
 
+    public void collect(long[] ids, Collection<? super T> output)
+    {
+        if (concurrent)
+        {
+            collect0(ids, output);
+            return;
+        }
+        try (UnlockHook hook = readLock())
+        {
+            collect0(ids, output);
+        }
+    }
+
+    private void collect0(long[] ids, Collection<? super T> output)
+    {
+        for (long id : ids)
+        {
+            T element = elements.get(id);
+            if (element != null)
+                output.add(element);
+        }
+    }
+
     public T remove(long id)
     {
         try (UnlockHook hook = writeLock())
@@ -0,0 +1,632 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import gnu.trove.function.TObjectFunction;
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.procedure.TLongObjectProcedure;
+import gnu.trove.procedure.TLongProcedure;
+import gnu.trove.procedure.TObjectProcedure;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-striped open addressing map with {@code long} keys.
+ *
+ * <p>Reads never acquire a lock, they only perform volatile reads on the current table of the responsible stripe.
+ * Writes lock only the stripe which owns the key. Each slot holds an immutable entry, which means
+ * readers always observe a consistent key/value pair, even while a writer replaces or removes it.
+ *
+ * <p>Iteration is weakly consistent, similar to {@link java.util.concurrent.ConcurrentHashMap ConcurrentHashMap}.
+ * This map does not allow {@code null} values.
+ *
+ * @param <V> The value type
+ */
+public class ConcurrentLongObjectMap<V> implements TLongObjectMap<V>
+{
+    private static final int MIN_CAPACITY = 16;
+    private static final int DEFAULT_STRIPES = Math.max(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4));
+
+    private static final Entry<?> TOMBSTONE = new Entry<>(0, null);
+
+    private final Stripe<V>[] stripes;
+    private final int stripeShift;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public ConcurrentLongObjectMap()
+    {
+        this(DEFAULT_STRIPES);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongObjectMap(int concurrencyLevel)
+    {
+        if (concurrencyLevel < 1)
+            throw new IllegalArgumentException("Concurrency level must be positive");
+        int stripeCount = Integer.highestOneBit(concurrencyLevel);
+        if (stripeCount < concurrencyLevel)
+            stripeCount <<= 1;
+        this.stripes = new Stripe[stripeCount];
+        this.stripeShift = 32 - Integer.numberOfTrailingZeros(stripeCount);
+        for (int i = 0; i < stripeCount; i++)
+            stripes[i] = new Stripe<>(size);
+    }
+
+    // Snowflakes are mostly distinct in their high (timestamp) bits, so we mix all bits into the hash
+    private static int hash(long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private Stripe<V> stripeFor(int hash)
+    {
+        // stripeShift is 32 for a single stripe, which java treats as a shift by 0
+        return stripes.length == 1 ? stripes[0] : stripes[hash >>> stripeShift];
+    }
+
+    @Override
+    public long getNoEntryKey()
+    {
+        return 0;
+    }
+
+    @Override
+    public int size()
+    {
+        return size.get();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size.get() == 0;
+    }
+
+    @Override
+    public boolean containsKey(long key)
+    {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        if (value == null)
+            return false;
+        return !forEachValue(v -> !v.equals(value));
+    }
+
+    @Override
+    public V get(long key)
+    {
+        int hash = hash(key);
+        return stripeFor(hash).get(key, hash);
+    }
+
+    @Override
+    public V put(long key, V value)
+    {
+        Objects.requireNonNull(value, "Value");
+        int hash = hash(key);
+        return stripeFor(hash).put(key, hash, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(long key, V value)
+    {
+        Objects.requireNonNull(value, "Value");
+        int hash = hash(key);
+        return stripeFor(hash).put(key, hash, value, true);
+    }
+
+    @Override
+    public V remove(long key)
+    {
+        int hash = hash(key);
+        return stripeFor(hash).remove(key, hash);
+    }
+
+    @Override
+    public void putAll(@Nonnull Map<? extends Long, ? extends V> map)
+    {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public void putAll(@Nonnull TLongObjectMap<? extends V> map)
+    {
+        map.forEachEntry((key, value) ->
+        {
+            put(key, value);
+            return true;
+        });
+    }
+
+    @Override
+    public void clear()
+    {
+        for (Stripe<V> stripe : stripes)
+            stripe.clear();
+    }
+
+    /**
+     * Snapshot of the keys currently contained in this map.
+     * <br>Unlike trove maps, modifications of the returned set are not reflected in this map.
+     *
+     * @return {@link TLongSet} of keys
+     */
+    @Override
+    public TLongSet keySet()
+    {
+        return new TLongHashSet(keys());
+    }
+
+    @Override
+    public long[] keys()
+    {
+        return keys(new long[size()]);
+    }
+
+    @Override
+    public long[] keys(long[] array)
+    {
+        List<Entry<V>> entries = snapshot();
+        if (array.length < entries.size())
+            array = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++)
+            array[i] = entries.get(i).key;
+        return array;
+    }
+
+    @Override
+    public Collection<V> valueCollection()
+    {
+        return new ValueCollection();
+    }
+
+    @Override
+    public Object[] values()
+    {
+        List<Entry<V>> entries = snapshot();
+        Object[] array = new Object[entries.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = entries.get(i).value;
+        return array;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V[] values(V[] array)
+    {
+        List<Entry<V>> entries = snapshot();
+        if (array.length < entries.size())
+            array = (V[]) Array.newInstance(array.getClass().getComponentType(), entries.size());
+        for (int i = 0; i < entries.size(); i++)
+            array[i] = entries.get(i).value;
+        if (array.length > entries.size())
+            array[entries.size()] = null;
+        return array;
+    }
+
+    @Override
+    public TLongObjectIterator<V> iterator()
+    {
+        return new EntryIterator();
+    }
+
+    @Override
+    public boolean forEachKey(TLongProcedure procedure)
+    {
+        return forEachEntry((key, value) -> procedure.execute(key));
+    }
+
+    @Override
+    public boolean forEachValue(TObjectProcedure<? super V> procedure)
+    {
+        return forEachEntry((key, value) -> procedure.execute(value));
+    }
+
+    @Override
+    public boolean forEachEntry(TLongObjectProcedure<? super V> procedure)
+    {
+        for (Stripe<V> stripe : stripes)
+        {
+            AtomicReferenceArray<Entry<V>> table = stripe.table;
+            for (int i = 0; i < table.length(); i++)
+            {
+                Entry<V> entry = table.get(i);
+                if (entry != null && entry.value != null && !procedure.execute(entry.key, entry.value))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void transformValues(TObjectFunction<V, V> function)
+    {
+        for (Stripe<V> stripe : stripes)
+            stripe.transform(function);
+    }
+
+    @Override
+    public boolean retainEntries(TLongObjectProcedure<? super V> procedure)
+    {
+        boolean modified = false;
+        for (Stripe<V> stripe : stripes)
+            modified |= stripe.retain(procedure);
+        return modified;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int[] hashCode = { 0 };
+        forEachEntry((key, value) ->
+        {
+            hashCode[0] += Long.hashCode(key) ^ value.hashCode();
+            return true;
+        });
+        return hashCode[0];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object obj)
+    {
+        if (obj == this)
+            return true;
+        if (!(obj instanceof TLongObjectMap))
+            return false;
+        TLongObjectMap<Object> other = (TLongObjectMap<Object>) obj;
+        if (other.size() != size())
+            return false;
+        return forEachEntry((key, value) -> value.equals(other.get(key)));
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("{");
+        forEachEntry((key, value) ->
+        {
+            if (builder.length() > 1)
+                builder.append(", ");
+            builder.append(key).append('=').append(value);
+            return true;
+        });
+        return builder.append('}').toString();
+    }
+
+    private List<Entry<V>> snapshot()
+    {
+        List<Entry<V>> entries = new ArrayList<>(size());
+        for (Stripe<V> stripe : stripes)
+        {
+            AtomicReferenceArray<Entry<V>> table = stripe.table;
+            for (int i = 0; i < table.length(); i++)
+            {
+                Entry<V> entry = table.get(i);
+                if (entry != null && entry.value != null)
+                    entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private static final class Entry<V>
+    {
+        private final long key;
+        private final V value;
+
+        private Entry(long key, V value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    // Tombstones are only dropped when the table is rebuilt, so probe sequences of concurrent readers are never cut short
+    private static final class Stripe<T>
+    {
+        private final AtomicInteger size;
+        private volatile AtomicReferenceArray<Entry<T>> table = new AtomicReferenceArray<>(MIN_CAPACITY);
+        private int live;
+        private int used;
+
+        private Stripe(AtomicInteger size)
+        {
+            this.size = size;
+        }
+
+        private T get(long key, int hash)
+        {
+            AtomicReferenceArray<Entry<T>> table = this.table;
+            int mask = table.length() - 1;
+            for (int i = hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++)
+            {
+                Entry<T> entry = table.get(i);
+                if (entry == null)
+                    return null;
+                if (entry.key == key && entry.value != null)
+                    return entry.value;
+            }
+            return null;
+        }
+
+        private synchronized T put(long key, int hash, T value, boolean onlyIfAbsent)
+        {
+            AtomicReferenceArray<Entry<T>> table = this.table;
+            int mask = table.length() - 1;
+            int free = -1;
+            for (int i = hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++)
+            {
+                Entry<T> entry = table.get(i);
+                if (entry == null)
+                {
+                    if (free < 0)
+                        free = i;
+                    break;
+                }
+
+                if (entry.value == null)
+                {
+                    if (free < 0)
+                        free = i;
+                }
+                else if (entry.key == key)
+                {
+                    if (!onlyIfAbsent)
+                        table.set(i, new Entry<>(key, value));
+                    return entry.value;
+                }
+            }
+
+            boolean reusesTombstone = table.get(free) != null;
+            table.set(free, new Entry<>(key, value));
+            live++;
+            size.incrementAndGet();
+            if (!reusesTombstone && ++used > (table.length() >> 2) * 3)
+                rebuild();
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized T remove(long key, int hash)
+        {
+            AtomicReferenceArray<Entry<T>> table = this.table;
+            int mask = table.length() - 1;
+            for (int i = hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++)
+            {
+                Entry<T> entry = table.get(i);
+                if (entry == null)
+                    return null;
+                if (entry.key == key && entry.value != null)
+                {
+                    table.set(i, (Entry<T>) TOMBSTONE);
+                    live--;
+                    size.decrementAndGet();
+                    return entry.value;
+                }
+            }
+            return null;
+        }
+
+        private synchronized void clear()
+        {
+            size.addAndGet(-live);
+            table = new AtomicReferenceArray<>(MIN_CAPACITY);
+            live = 0;
+            used = 0;
+        }
+
+        private synchronized void transform(TObjectFunction<T, T> function)
+        {
+            AtomicReferenceArray<Entry<T>> table = this.table;
+            for (int i = 0; i < table.length(); i++)
+            {
+                Entry<T> entry = table.get(i);
+                if (entry != null && entry.value != null)
+                    table.set(i, new Entry<>(entry.key, Objects.requireNonNull(function.execute(entry.value), "Value")));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized boolean retain(TLongObjectProcedure<? super T> procedure)
+        {
+            boolean modified = false;
+            AtomicReferenceArray<Entry<T>> table = this.table;
+            for (int i = 0; i < table.length(); i++)
+            {
+                Entry<T> entry = table.get(i);
+                if (entry != null && entry.value != null && !procedure.execute(entry.key, entry.value))
+                {
+                    table.set(i, (Entry<T>) TOMBSTONE);
+                    live--;
+                    size.decrementAndGet();
+                    modified = true;
+                }
+            }
+            return modified;
+        }
+
+        // Readers keep using the old table until the new one is published, both are consistent on their own
+        private void rebuild()
+        {
+            AtomicReferenceArray<Entry<T>> old = this.table;
+            int capacity = MIN_CAPACITY;
+            while ((capacity >> 2) * 3 <= live * 2)
+                capacity <<= 1;
+
+            AtomicReferenceArray<Entry<T>> rebuilt = new AtomicReferenceArray<>(capacity);
+            int mask = capacity - 1;
+            for (int i = 0; i < old.length(); i++)
+            {
+                Entry<T> entry = old.get(i);
+                if (entry == null || entry.value == null)
+                    continue;
+                int index = hash(entry.key) & mask;
+                while (rebuilt.get(index) != null)
+                    index = (index + 1) & mask;
+                rebuilt.set(index, entry);
+            }
+
+            this.used = live;
+            this.table = rebuilt;
+        }
+    }
+
+    private class EntryIterator implements TLongObjectIterator<V>
+    {
+        private int stripeIndex = 0;
+        private int slot = 0;
+        private AtomicReferenceArray<Entry<V>> table = stripes[0].table;
+        private Entry<V> next;
+        private Entry<V> current;
+
+        private EntryIterator()
+        {
+            findNext();
+        }
+
+        private void findNext()
+        {
+            next = null;
+            while (next == null)
+            {
+                while (slot >= table.length())
+                {
+                    if (++stripeIndex >= stripes.length)
+                        return;
+                    table = stripes[stripeIndex].table;
+                    slot = 0;
+                }
+
+                Entry<V> entry = table.get(slot++);
+                if (entry != null && entry.value != null)
+                    next = entry;
+            }
+        }
+
+        @Override
+        public void advance()
+        {
+            if (next == null)
+                throw new NoSuchElementException();
+            current = next;
+            findNext();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return next != null;
+        }
+
+        @Override
+        public void remove()
+        {
+            if (current == null)
+                throw new IllegalStateException();
+            ConcurrentLongObjectMap.this.remove(current.key);
+            current = null;
+        }
+
+        @Override
+        public long key()
+        {
+            if (current == null)
+                throw new IllegalStateException();
+            return current.key;
+        }
+
+        @Override
+        public V value()
+        {
+            if (current == null)
+                throw new IllegalStateException();
+            return current.value;
+        }
+
+        @Override
+        public V setValue(V value)
+        {
+            if (current == null)
+                throw new IllegalStateException();
+            V old = put(current.key, value);
+            current = new Entry<>(current.key, value);
+            return old;
+        }
+    }
+
+    private class ValueCollection extends AbstractCollection<V>
+    {
+        @Nonnull
+        @Override
+        public Iterator<V> iterator()
+        {
+            EntryIterator iterator = new EntryIterator();
+            return new Iterator<V>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public V next()
+                {
+                    iterator.advance();
+                    return iterator.value();
+                }
+
+                @Override
+                public void remove()
+                {
+                    iterator.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return ConcurrentLongObjectMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return containsValue(o);
+        }
+
+        @Override
+        public void clear()
+        {
+            ConcurrentLongObjectMap.this.clear();
+        }
+    }
+}
@@ -30,7 +30,12 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
 {
     public MemberCacheViewImpl()
     {
-        super(Member.class, Member::getEffectiveName);
+        this(false);
+    }
+
+    public MemberCacheViewImpl(boolean concurrent)
+    {
+        super(Member.class, Member::getEffectiveName, concurrent);
     }
 
     @Override
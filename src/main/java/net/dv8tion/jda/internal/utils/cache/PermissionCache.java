@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-guild cache of effective channel permissions, keyed by channel and member id.
+ *
+ * <p>Entries are never updated in place. Any change which affects permissions removes the affected entries,
+ * and the next lookup computes them again. Every invalidation advances a generation counter first,
+ * and computations which started in an older generation are not stored, so stale values cannot survive the invalidation.
+ *
+ * <p>The cache holds at most {@link #MAX_ENTRIES} entries, once this is exceeded all entries are dropped.
+ */
+public class PermissionCache
+{
+    public static final int MAX_ENTRIES = 1 << 16;
+
+    private final ConcurrentLongObjectMap<Members> channels = new ConcurrentLongObjectMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxEntries;
+
+    public PermissionCache()
+    {
+        this(MAX_ENTRIES);
+    }
+
+    public PermissionCache(int maxEntries)
+    {
+        this.maxEntries = maxEntries;
+    }
+
+    public long get(long memberId, long channelId, LongSupplier compute)
+    {
+        Members members = channels.get(channelId);
+        if (members != null)
+        {
+            synchronized (members)
+            {
+                if (members.permissions.containsKey(memberId))
+                    return members.permissions.get(memberId);
+            }
+        }
+
+        // Computed outside of the lock, since parent categories are resolved through this cache as well
+        long version = generation.get();
+        long permissions = compute.getAsLong();
+
+        if (members == null)
+        {
+            Members created = new Members();
+            members = channels.putIfAbsent(channelId, created);
+            if (members == null)
+                members = created;
+        }
+
+        boolean added = false;
+        synchronized (members)
+        {
+            // A map which was already removed by an invalidation is no longer counted
+            if (!members.removed && generation.get() == version && !members.permissions.containsKey(memberId))
+            {
+                members.permissions.put(memberId, permissions);
+                added = true;
+            }
+        }
+
+        if (added && size.incrementAndGet() > maxEntries)
+            invalidateAll();
+        return permissions;
+    }
+
+    public int size()
+    {
+        return Math.max(0, size.get());
+    }
+
+    public void invalidateMember(long memberId)
+    {
+        generation.incrementAndGet();
+        channels.forEachValue(members ->
+        {
+            synchronized (members)
+            {
+                if (!members.removed && members.permissions.containsKey(memberId))
+                {
+                    members.permissions.remove(memberId);
+                    size.decrementAndGet();
+                }
+            }
+            return true;
+        });
+    }
+
+    public void invalidateChannel(long channelId)
+    {
+        generation.incrementAndGet();
+        remove(channelId);
+    }
+
+    public void invalidateAll()
+    {
+        generation.incrementAndGet();
+        for (long channelId : channels.keys())
+            remove(channelId);
+    }
+
+    private void remove(long channelId)
+    {
+        Members members = channels.remove(channelId);
+        if (members == null)
+            return;
+        synchronized (members)
+        {
+            members.removed = true;
+            size.addAndGet(-members.permissions.size());
+        }
+    }
+
+    private static class Members
+    {
+        private final TLongLongMap permissions = new TLongLongHashMap();
+        private boolean removed;
+    }
+}
@@ -28,6 +28,11 @@ public class SnowflakeCacheViewImpl<T extends ISnowflake> extends AbstractCacheV
         super(type, nameMapper);
     }
 
+    public SnowflakeCacheViewImpl(Class<T> type, Function<T, String> nameMapper, boolean concurrent)
+    {
+        super(type, nameMapper, concurrent);
+    }
+
     @Override
     public T getElementById(long id)
     {
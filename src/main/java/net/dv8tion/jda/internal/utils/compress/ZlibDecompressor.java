@@ -20,43 +20,33 @@ import net.dv8tion.jda.api.utils.Compression;
 import net.dv8tion.jda.internal.utils.IOUtil;
 import net.dv8tion.jda.internal.utils.JDALogger;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
-import java.util.zip.InflaterOutputStream;
 
 public class ZlibDecompressor implements Decompressor
 {
     private static final int Z_SYNC_FLUSH = 0x0000FFFF;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
 
     private final int maxBufferSize;
     private final Inflater inflater = new Inflater();
     private ByteBuffer flushBuffer = null;
-    private SoftReference<ByteArrayOutputStream> decompressBuffer = null;
+    private SoftReference<byte[]> decompressBuffer = null;
 
     public ZlibDecompressor(int maxBufferSize)
     {
         this.maxBufferSize = maxBufferSize;
     }
 
-    private SoftReference<ByteArrayOutputStream> newDecompressBuffer()
+    private byte[] getDecompressBuffer()
     {
-        return new SoftReference<>(new ByteArrayOutputStream(Math.min(1024, maxBufferSize)));
-    }
-
-    private ByteArrayOutputStream getDecompressBuffer()
-    {
-        // If no buffer has been allocated yet we do that here (lazy init)
-        if (decompressBuffer == null)
-            decompressBuffer = newDecompressBuffer();
-        // Check if the buffer has been collected by the GC or not
-        ByteArrayOutputStream buffer = decompressBuffer.get();
-        if (buffer == null) // create a ne buffer because the GC got it
-            decompressBuffer = new SoftReference<>(buffer = new ByteArrayOutputStream(Math.min(1024, maxBufferSize)));
+        // If no buffer has been allocated yet, or the GC collected it, we allocate a new one here (lazy init)
+        byte[] buffer = decompressBuffer == null ? null : decompressBuffer.get();
+        if (buffer == null)
+            buffer = new byte[INITIAL_BUFFER_SIZE];
         return buffer;
     }
 
@@ -85,9 +75,9 @@ public class ZlibDecompressor implements Decompressor
         flushBuffer.put(data);
     }
 
-    private Object lazy(byte[] data)
+    private Object lazy(byte[] data, int offset, int length)
     {
-        return JDALogger.getLazyString(() -> Arrays.toString(data));
+        return JDALogger.getLazyString(() -> Arrays.toString(Arrays.copyOfRange(data, offset, offset + length)));
     }
 
     @Override
@@ -100,6 +90,7 @@ public class ZlibDecompressor implements Decompressor
     public void reset()
     {
         inflater.reset();
+        flushBuffer = null;
     }
 
     @Override
@@ -109,8 +100,10 @@ public class ZlibDecompressor implements Decompressor
     }
 
     @Override
-    public byte[] decompress(byte[] data) throws DataFormatException
+    public ByteBuffer decompress(byte[] data) throws DataFormatException
     {
+        byte[] input = data;
+        int length = data.length;
         //Handle split messages
         if (!isFlush(data))
         {
@@ -122,37 +115,40 @@ public class ZlibDecompressor implements Decompressor
         else if (flushBuffer != null)
         {
             //This has a flush suffix and we have an incomplete package buffered
-            //concatenate the package with the new data and decompress it below
+            //decompress the package directly from the buffer, without concatenating it into a new array
             LOG.debug("Received final part of incomplete data");
             buffer(data);
-            byte[] arr = flushBuffer.array();
-            data = new byte[flushBuffer.position()];
-            System.arraycopy(arr, 0, data, 0, data.length);
+            input = flushBuffer.array();
+            length = flushBuffer.position();
             flushBuffer = null;
         }
-        LOG.trace("Decompressing data {}", lazy(data));
-        //Get the compressed message and inflate it
-        //We use the same buffer here to optimize gc use
-        ByteArrayOutputStream buffer = getDecompressBuffer();
-        try (InflaterOutputStream decompressor = new InflaterOutputStream(buffer, inflater))
-        {
-            // This decompressor writes the received data and inflates it
-            decompressor.write(data);
-            // Once decompressed we re-interpret the data as a String which can be used for JSON parsing
-            return buffer.toByteArray();
-        }
-        catch (IOException e)
-        {
-            // Some issue appeared during decompression that caused a failure
-            throw (DataFormatException) new DataFormatException("Malformed").initCause(e);
-        }
-        finally
+        LOG.trace("Decompressing data {}", lazy(input, 0, length));
+
+        //Inflate the message directly into the shared buffer, which grows as needed
+        byte[] buffer = getDecompressBuffer();
+        int size = 0;
+        inflater.setInput(input, 0, length);
+        while (true)
         {
-            // When done with decompression we want to reset the buffer so it can be used again later
-            if (buffer.size() > maxBufferSize)
-                decompressBuffer = newDecompressBuffer();
-            else
-                buffer.reset();
+            if (size == buffer.length)
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+
+            int inflated = inflater.inflate(buffer, size, buffer.length - size);
+            size += inflated;
+            if (inflated > 0)
+                continue;
+            if (inflater.needsInput() || inflater.finished())
+                break;
+            throw new DataFormatException("Malformed");
         }
+
+        //Only retain buffers within the configured limit, larger buffers are allocated again when needed
+        if (buffer.length > maxBufferSize)
+            decompressBuffer = null;
+        else if (decompressBuffer == null || decompressBuffer.get() != buffer)
+            decompressBuffer = new SoftReference<>(buffer);
+
+        // The returned view is only valid until the next call
+        return ByteBuffer.wrap(buffer, 0, size);
     }
 }
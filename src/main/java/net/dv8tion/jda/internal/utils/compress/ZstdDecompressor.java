@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.compress;
+
+import com.github.luben.zstd.ZstdDecompressCtx;
+import net.dv8tion.jda.api.utils.Compression;
+
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+// zstd-jni is an optional dependency, this class must only be instantiated after checking isSupported()
+public class ZstdDecompressor implements Decompressor
+{
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    // Size of the native buffers, payloads are streamed through these in chunks
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final boolean supported = checkSupported();
+
+    private final int maxBufferSize;
+    private ZstdDecompressCtx context;
+    private ByteBuffer input;
+    private ByteBuffer output;
+    private SoftReference<byte[]> decompressBuffer = null;
+
+    public ZstdDecompressor(int maxBufferSize)
+    {
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    public static boolean isSupported()
+    {
+        return supported;
+    }
+
+    private static boolean checkSupported()
+    {
+        try
+        {
+            // Initializing the class also loads the native library
+            Class.forName("com.github.luben.zstd.ZstdDecompressCtx");
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e)
+        {
+            return false;
+        }
+    }
+
+    private byte[] getDecompressBuffer()
+    {
+        // If no buffer has been allocated yet, or the GC collected it, we allocate a new one here (lazy init)
+        byte[] buffer = decompressBuffer == null ? null : decompressBuffer.get();
+        if (buffer == null)
+            buffer = new byte[INITIAL_BUFFER_SIZE];
+        return buffer;
+    }
+
+    @Override
+    public Compression getType()
+    {
+        return Compression.ZSTD;
+    }
+
+    @Override
+    public void reset()
+    {
+        // A new connection starts a new zstd stream
+        if (context != null)
+            context.reset();
+    }
+
+    @Override
+    public void shutdown()
+    {
+        if (context != null)
+            context.close();
+        context = null;
+        input = null;
+        output = null;
+    }
+
+    @Override
+    public ByteBuffer decompress(byte[] data) throws DataFormatException
+    {
+        if (context == null)
+        {
+            context = new ZstdDecompressCtx();
+            input = ByteBuffer.allocateDirect(CHUNK_SIZE);
+            output = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        }
+
+        // Every message ends on a flushed block, so everything we received can be decompressed right away
+        byte[] buffer = getDecompressBuffer();
+        int size = 0;
+        int offset = 0;
+        input.limit(0);
+        try
+        {
+            while (true)
+            {
+                if (!input.hasRemaining() && offset < data.length)
+                {
+                    int length = Math.min(input.capacity(), data.length - offset);
+                    input.clear();
+                    input.put(data, offset, length);
+                    input.flip();
+                    offset += length;
+                }
+
+                output.clear();
+                context.decompressDirectByteBufferStream(output, input);
+                output.flip();
+
+                int length = output.remaining();
+                if (size + length > buffer.length)
+                    buffer = Arrays.copyOf(buffer, Math.max(size + length, buffer.length * 2));
+                output.get(buffer, size, length);
+                size += length;
+
+                // Once all input is consumed and the output was not filled, the block has been flushed completely
+                if (!input.hasRemaining() && offset == data.length && length < output.capacity())
+                    break;
+            }
+        }
+        catch (RuntimeException e)
+        {
+            throw (DataFormatException) new DataFormatException("Malformed").initCause(e);
+        }
+
+        //Only retain buffers within the configured limit, larger buffers are allocated again when needed
+        if (buffer.length > maxBufferSize)
+            decompressBuffer = null;
+        else if (decompressBuffer == null || decompressBuffer.get() != buffer)
+            decompressBuffer = new SoftReference<>(buffer);
+
+        // The returned view is only valid until the next call
+        return ByteBuffer.wrap(buffer, 0, size);
+    }
+}
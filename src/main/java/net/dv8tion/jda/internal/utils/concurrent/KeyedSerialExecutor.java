@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.concurrent;
+
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs tasks on an executor, while tasks submitted with the same key are run sequentially in submission order.
+ * <br>Tasks for different keys may run in parallel. Keys without pending tasks do not hold any resources.
+ * If the executor rejects a task, it is run on the calling thread instead.
+ * If it rejects the continuation after a failed task, the remaining tasks of that key are run on the failing thread.
+ */
+public class KeyedSerialExecutor
+{
+    private static final Logger LOG = JDALogger.getLog(KeyedSerialExecutor.class);
+
+    private final Map<Long, SerialQueue> queues = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    public KeyedSerialExecutor(@Nonnull Executor executor)
+    {
+        this.executor = executor;
+    }
+
+    public void execute(long key, @Nonnull Runnable task)
+    {
+        SerialQueue[] created = new SerialQueue[1];
+        // The task is added while holding the lock for this key, so it can't be missed by a retiring queue
+        queues.compute(key, (k, queue) ->
+        {
+            if (queue == null)
+                queue = created[0] = new SerialQueue(k);
+            queue.tasks.add(task);
+            return queue;
+        });
+
+        if (created[0] == null)
+            return;
+
+        try
+        {
+            executor.execute(created[0]);
+        }
+        catch (RejectedExecutionException e)
+        {
+            created[0].run();
+        }
+    }
+
+    public int getPendingKeys()
+    {
+        return queues.size();
+    }
+
+    private class SerialQueue implements Runnable
+    {
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final long key;
+
+        private SerialQueue(long key)
+        {
+            this.key = key;
+        }
+
+        @Override
+        public void run()
+        {
+            boolean retired = false;
+            try
+            {
+                while (!retired)
+                {
+                    Runnable task = tasks.poll();
+                    if (task != null)
+                        task.run();
+                    else
+                        retired = retire();
+                }
+            }
+            finally
+            {
+                // Continue with the remaining tasks on another thread if a task failed
+                if (!retired)
+                    resubmit();
+            }
+        }
+
+        private boolean retire()
+        {
+            // Only retire this queue if no task was added in the meantime
+            return queues.computeIfPresent(key, (k, queue) -> queue.tasks.isEmpty() ? null : queue) == null;
+        }
+
+        private void resubmit()
+        {
+            try
+            {
+                executor.execute(this);
+            }
+            catch (RejectedExecutionException e)
+            {
+                drain();
+            }
+        }
+
+        // The executor was shut down, the remaining tasks are run here so the key does not stay registered forever
+        private void drain()
+        {
+            while (true)
+            {
+                Runnable task = tasks.poll();
+                if (task == null && retire())
+                    return;
+                if (task == null)
+                    continue;
+
+                try
+                {
+                    task.run();
+                }
+                catch (Throwable t)
+                {
+                    LOG.error("Task for key {} failed after the executor was shut down", key, t);
+                }
+            }
+        }
+    }
+}
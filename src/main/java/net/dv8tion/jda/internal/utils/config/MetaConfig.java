@@ -32,6 +32,8 @@ public class MetaConfig
     private final EnumSet<CacheFlag> cacheFlags;
     private final boolean enableMDC;
     private final boolean useShutdownHook;
+    private final boolean useConcurrentCache;
+    private final boolean usePermissionCache;
     private final int maxBufferSize;
 
     public MetaConfig(
@@ -47,6 +49,8 @@ public class MetaConfig
         else
             this.mdcContextMap = null;
         this.useShutdownHook = flags.contains(ConfigFlag.SHUTDOWN_HOOK);
+        this.useConcurrentCache = flags.contains(ConfigFlag.CONCURRENT_CACHE);
+        this.usePermissionCache = flags.contains(ConfigFlag.PERMISSION_CACHE);
     }
 
     @Nullable
@@ -71,6 +75,16 @@ public class MetaConfig
         return useShutdownHook;
     }
 
+    public boolean isUseConcurrentCache()
+    {
+        return useConcurrentCache;
+    }
+
+    public boolean isUsePermissionCache()
+    {
+        return usePermissionCache;
+    }
+
     public int getMaxBufferSize()
     {
         return maxBufferSize;
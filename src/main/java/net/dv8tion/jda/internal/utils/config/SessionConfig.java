@@ -25,10 +25,19 @@ import okhttp3.OkHttpClient;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
 
 public class SessionConfig
 {
+    // Ignoring any of these would prevent the session from ever becoming ready
+    public static final Set<String> REQUIRED_DISPATCH_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "READY", "RESUMED", "GUILD_CREATE", "GUILD_DELETE", "GUILD_MEMBERS_CHUNK")));
+
     private final SessionController sessionController;
     private final OkHttpClient httpClient;
     private final WebSocketFactory webSocketFactory;
@@ -36,6 +45,9 @@ public class SessionConfig
     private final int largeThreshold;
     private EnumSet<ConfigFlag> flags;
     private int maxReconnectDelay;
+    private Set<String> ignoredDispatchTypes = Collections.emptySet();
+    private long presenceCoalescingWindow;
+    private Path cacheSnapshotFile;
 
     public SessionConfig(
         @Nullable SessionController sessionController, @Nullable OkHttpClient httpClient,
@@ -64,6 +76,21 @@ public class SessionConfig
             flags.remove(ConfigFlag.AUTO_RECONNECT);
     }
 
+    public void setIgnoredDispatchTypes(@Nonnull Set<String> ignoredDispatchTypes)
+    {
+        this.ignoredDispatchTypes = ignoredDispatchTypes;
+    }
+
+    public void setPresenceCoalescingWindow(long presenceCoalescingWindow)
+    {
+        this.presenceCoalescingWindow = presenceCoalescingWindow;
+    }
+
+    public void setCacheSnapshotFile(@Nullable Path cacheSnapshotFile)
+    {
+        this.cacheSnapshotFile = cacheSnapshotFile;
+    }
+
     @Nonnull
     public SessionController getSessionController()
     {
@@ -113,11 +140,43 @@ public class SessionConfig
         return flags.contains(ConfigFlag.EVENT_PASSTHROUGH);
     }
 
+    public boolean isGuildOrderedEvents()
+    {
+        return flags.contains(ConfigFlag.GUILD_ORDERED_EVENTS);
+    }
+
+    public boolean isParallelGuildSetup()
+    {
+        return flags.contains(ConfigFlag.PARALLEL_GUILD_SETUP);
+    }
+
+    public boolean isLazyJson()
+    {
+        return flags.contains(ConfigFlag.LAZY_JSON);
+    }
+
     public boolean isRelativeRateLimit()
     {
         return flags.contains(ConfigFlag.USE_RELATIVE_RATELIMIT);
     }
 
+    @Nonnull
+    public Set<String> getIgnoredDispatchTypes()
+    {
+        return ignoredDispatchTypes;
+    }
+
+    public long getPresenceCoalescingWindow()
+    {
+        return presenceCoalescingWindow;
+    }
+
+    @Nullable
+    public Path getCacheSnapshotFile()
+    {
+        return cacheSnapshotFile;
+    }
+
     public int getMaxReconnectDelay()
     {
         return maxReconnectDelay;
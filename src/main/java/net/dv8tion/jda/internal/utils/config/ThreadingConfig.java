@@ -16,16 +16,23 @@
 
 package net.dv8tion.jda.internal.utils.config;
 
+import net.dv8tion.jda.api.hooks.EventQueuePolicy;
+import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.concurrent.CountingThreadFactory;
+import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.lang.reflect.Method;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 public class ThreadingConfig
 {
-    private final Object audioLock = new Object();
+    private static final Logger LOG = JDALogger.getLog(ThreadingConfig.class);
+
+    private final Object lazyPoolLock = new Object();
 
     private ScheduledExecutorService rateLimitScheduler;
     private ExecutorService rateLimitElastic;
@@ -33,6 +40,7 @@ public class ThreadingConfig
     private ExecutorService callbackPool;
     private ExecutorService eventPool;
     private ScheduledExecutorService audioPool;
+    private ExecutorService guildSetupPool;
 
     private boolean shutdownRateLimitScheduler;
     private boolean shutdownRateLimitElastic;
@@ -40,6 +48,11 @@ public class ThreadingConfig
     private boolean shutdownCallbackPool;
     private boolean shutdownEventPool;
     private boolean shutdownAudioPool;
+    private boolean shutdownGuildSetupPool;
+
+    private boolean virtualEventPool;
+    private int eventQueueLimit;
+    private EventQueuePolicy eventQueuePolicy = EventQueuePolicy.BLOCK;
 
     public ThreadingConfig()
     {
@@ -50,6 +63,7 @@ public class ThreadingConfig
         this.shutdownGatewayPool = true;
         this.shutdownCallbackPool = false;
         this.shutdownAudioPool = true;
+        this.shutdownGuildSetupPool = true;
     }
 
     public void setRateLimitScheduler(@Nullable ScheduledExecutorService executor, boolean shutdown)
@@ -88,6 +102,23 @@ public class ThreadingConfig
         this.shutdownAudioPool = shutdown;
     }
 
+    public void setGuildSetupPool(@Nullable ExecutorService executor, boolean shutdown)
+    {
+        this.guildSetupPool = executor;
+        this.shutdownGuildSetupPool = shutdown;
+    }
+
+    public void setVirtualEventPool(boolean virtualEventPool)
+    {
+        this.virtualEventPool = virtualEventPool;
+    }
+
+    public void setEventQueueLimit(int limit, @Nonnull EventQueuePolicy policy)
+    {
+        this.eventQueueLimit = limit;
+        this.eventQueuePolicy = policy;
+    }
+
     public void init(@Nonnull Supplier<String> identifier)
     {
         if (this.rateLimitScheduler == null)
@@ -103,6 +134,11 @@ public class ThreadingConfig
                 ((ThreadPoolExecutor) this.rateLimitElastic).setKeepAliveTime(2, TimeUnit.MINUTES);
             }
         }
+        if (this.eventPool == null && this.virtualEventPool)
+        {
+            this.eventPool = newVirtualThreadPool(identifier, "Event");
+            this.shutdownEventPool = true;
+        }
     }
 
     public void shutdown()
@@ -115,6 +151,8 @@ public class ThreadingConfig
             eventPool.shutdown();
         if (shutdownAudioPool && audioPool != null)
             audioPool.shutdown();
+        if (shutdownGuildSetupPool && guildSetupPool != null)
+            guildSetupPool.shutdown();
     }
 
     public void shutdownRequester()
@@ -139,6 +177,8 @@ public class ThreadingConfig
             eventPool.shutdownNow();
         if (shutdownAudioPool && audioPool != null)
             audioPool.shutdownNow();
+        if (shutdownGuildSetupPool && guildSetupPool != null)
+            guildSetupPool.shutdownNow();
     }
 
     @Nonnull
@@ -177,7 +217,7 @@ public class ThreadingConfig
         ScheduledExecutorService pool = audioPool;
         if (pool == null)
         {
-            synchronized (audioLock)
+            synchronized (lazyPoolLock)
             {
                 pool = audioPool;
                 if (pool == null)
@@ -187,6 +227,22 @@ public class ThreadingConfig
         return pool;
     }
 
+    @Nonnull
+    public ExecutorService getGuildSetupPool(@Nonnull Supplier<String> identifier)
+    {
+        ExecutorService pool = guildSetupPool;
+        if (pool == null)
+        {
+            synchronized (lazyPoolLock)
+            {
+                pool = guildSetupPool;
+                if (pool == null)
+                    pool = guildSetupPool = newGuildSetupPool(identifier);
+            }
+        }
+        return pool;
+    }
+
     public boolean isShutdownRateLimitScheduler()
     {
         return shutdownRateLimitScheduler;
@@ -217,6 +273,27 @@ public class ThreadingConfig
         return shutdownAudioPool;
     }
 
+    public boolean isShutdownGuildSetupPool()
+    {
+        return shutdownGuildSetupPool;
+    }
+
+    public boolean isVirtualEventPool()
+    {
+        return virtualEventPool;
+    }
+
+    public int getEventQueueLimit()
+    {
+        return eventQueueLimit;
+    }
+
+    @Nonnull
+    public EventQueuePolicy getEventQueuePolicy()
+    {
+        return eventQueuePolicy;
+    }
+
     @Nonnull
     public static ScheduledThreadPoolExecutor newScheduler(int coreSize, Supplier<String> identifier, String baseName)
     {
@@ -229,6 +306,49 @@ public class ThreadingConfig
         return new ScheduledThreadPoolExecutor(coreSize, new CountingThreadFactory(identifier, baseName, daemon));
     }
 
+    /**
+     * Creates the pool used to build guilds with parallel guild setup, with one thread per processor.
+     * <br>The threads are only started once guilds are built, and stop again once they are idle for a minute.
+     */
+    @Nonnull
+    public static ExecutorService newGuildSetupPool(Supplier<String> identifier)
+    {
+        int size = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), new CountingThreadFactory(identifier, "GuildSetup"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Creates an executor which starts a new virtual thread for every task.
+     * <br>Virtual threads are only available on Java 21 and newer, older versions use an unbounded pool of platform threads instead.
+     */
+    @Nonnull
+    public static ExecutorService newVirtualThreadPool(Supplier<String> identifier, String baseName)
+    {
+        try
+        {
+            // Accessed reflectively, since we still compile for Java 8
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+
+            AtomicLong count = new AtomicLong(1);
+            ThreadFactory namedFactory = r ->
+            {
+                Thread thread = factory.newThread(r);
+                thread.setName(identifier.get() + " " + baseName + "-Worker " + count.getAndIncrement());
+                return thread;
+            };
+            return (ExecutorService) newExecutor.invoke(null, namedFactory);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            LOG.warn("Virtual threads are not supported by this Java version, falling back to platform threads for {} pool", baseName);
+            return Executors.newCachedThreadPool(new CountingThreadFactory(identifier, baseName));
+        }
+    }
+
     @Nonnull
     public static ThreadingConfig getDefault()
     {
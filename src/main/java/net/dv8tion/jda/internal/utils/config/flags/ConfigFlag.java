@@ -27,6 +27,11 @@ public enum ConfigFlag
     BULK_DELETE_SPLIT(true),
     SHUTDOWN_HOOK(true),
     MDC_CONTEXT(true),
+    CONCURRENT_CACHE,
+    PERMISSION_CACHE,
+    GUILD_ORDERED_EVENTS,
+    PARALLEL_GUILD_SETUP,
+    LAZY_JSON,
     AUTO_RECONNECT(true);
 
     private final boolean isDefault;
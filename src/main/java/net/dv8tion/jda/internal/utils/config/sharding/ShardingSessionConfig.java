@@ -28,6 +28,7 @@ import okhttp3.OkHttpClient;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.EnumSet;
 
 public class ShardingSessionConfig extends SessionConfig
@@ -35,6 +36,7 @@ public class ShardingSessionConfig extends SessionConfig
     private final OkHttpClient.Builder builder;
     private final IAudioSendFactory audioSendFactory;
     private final EnumSet<ShardingConfigFlag> shardingFlags;
+    private Path cacheSnapshotDirectory;
 
     public ShardingSessionConfig(
         @Nullable SessionController sessionController, @Nullable VoiceDispatchInterceptor interceptor,
@@ -54,7 +56,10 @@ public class ShardingSessionConfig extends SessionConfig
 
     public SessionConfig toSessionConfig(OkHttpClient client)
     {
-        return new SessionConfig(getSessionController(), client, getWebSocketFactory(), getVoiceDispatchInterceptor(), getFlags(), getMaxReconnectDelay(), getLargeThreshold());
+        SessionConfig config = new SessionConfig(getSessionController(), client, getWebSocketFactory(), getVoiceDispatchInterceptor(), getFlags(), getMaxReconnectDelay(), getLargeThreshold());
+        config.setIgnoredDispatchTypes(getIgnoredDispatchTypes());
+        config.setPresenceCoalescingWindow(getPresenceCoalescingWindow());
+        return config;
     }
 
     public EnumSet<ShardingConfigFlag> getShardingFlags()
@@ -62,6 +67,17 @@ public class ShardingSessionConfig extends SessionConfig
         return this.shardingFlags;
     }
 
+    public void setCacheSnapshotDirectory(@Nullable Path cacheSnapshotDirectory)
+    {
+        this.cacheSnapshotDirectory = cacheSnapshotDirectory;
+    }
+
+    @Nullable
+    public Path getCacheSnapshotDirectory()
+    {
+        return cacheSnapshotDirectory;
+    }
+
     @Nullable
     public OkHttpClient.Builder getHttpBuilder()
     {
@@ -16,6 +16,7 @@
 
 package net.dv8tion.jda.internal.utils.config.sharding;
 
+import net.dv8tion.jda.api.hooks.EventQueuePolicy;
 import net.dv8tion.jda.api.sharding.ThreadPoolProvider;
 
 import javax.annotation.Nonnull;
@@ -33,6 +34,10 @@ public class ThreadingProviderConfig
     private final ThreadPoolProvider<? extends ExecutorService> eventPoolProvider;
     private final ThreadPoolProvider<? extends ScheduledExecutorService> audioPoolProvider;
     private final ThreadFactory threadFactory;
+    private ThreadPoolProvider<? extends ExecutorService> guildSetupPoolProvider;
+    private boolean virtualEventPool;
+    private int eventQueueLimit;
+    private EventQueuePolicy eventQueuePolicy = EventQueuePolicy.BLOCK;
 
     public ThreadingProviderConfig(
             @Nullable ThreadPoolProvider<? extends ScheduledExecutorService> rateLimitSchedulerProvider,
@@ -52,6 +57,38 @@ public class ThreadingProviderConfig
         this.threadFactory = threadFactory;
     }
 
+    public void setGuildSetupPoolProvider(@Nullable ThreadPoolProvider<? extends ExecutorService> guildSetupPoolProvider)
+    {
+        this.guildSetupPoolProvider = guildSetupPoolProvider;
+    }
+
+    public void setVirtualEventPool(boolean virtualEventPool)
+    {
+        this.virtualEventPool = virtualEventPool;
+    }
+
+    public boolean isVirtualEventPool()
+    {
+        return virtualEventPool;
+    }
+
+    public void setEventQueueLimit(int limit, @Nonnull EventQueuePolicy policy)
+    {
+        this.eventQueueLimit = limit;
+        this.eventQueuePolicy = policy;
+    }
+
+    public int getEventQueueLimit()
+    {
+        return eventQueueLimit;
+    }
+
+    @Nonnull
+    public EventQueuePolicy getEventQueuePolicy()
+    {
+        return eventQueuePolicy;
+    }
+
     @Nullable
     public ThreadFactory getThreadFactory()
     {
@@ -78,6 +115,7 @@ public class ThreadingProviderConfig
         init(callbackPoolProvider, shardTotal);
         init(eventPoolProvider, shardTotal);
         init(audioPoolProvider, shardTotal);
+        init(guildSetupPoolProvider, shardTotal);
     }
 
     public void shutdown()
@@ -88,6 +126,7 @@ public class ThreadingProviderConfig
         shutdown(callbackPoolProvider);
         shutdown(eventPoolProvider);
         shutdown(audioPoolProvider);
+        shutdown(guildSetupPoolProvider);
     }
 
     @Nullable
@@ -126,6 +165,12 @@ public class ThreadingProviderConfig
         return audioPoolProvider;
     }
 
+    @Nullable
+    public ThreadPoolProvider<? extends ExecutorService> getGuildSetupPoolProvider()
+    {
+        return guildSetupPoolProvider;
+    }
+
     @Nonnull
     public static ThreadingProviderConfig getDefault()
     {
@@ -24,6 +24,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 
 import static net.dv8tion.jda.api.requests.GatewayIntent.ALL_INTENTS;
@@ -140,6 +142,19 @@ public class JDABuilderTest extends AbstractSnapshotTest
             .matchesSnapshot();
     }
 
+    @Test
+    void testIgnoredDispatchTypes()
+    {
+        TestJDABuilder builder = new TestJDABuilder(0);
+
+        assertThatNoException().isThrownBy(() -> builder.setIgnoredDispatchTypes(Arrays.asList("TYPING_START", "PRESENCE_UPDATE")));
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> builder.setIgnoredDispatchTypes(Collections.singleton("GUILD_CREATE")))
+            .withMessage("Cannot ignore required dispatch type GUILD_CREATE");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> builder.setIgnoredDispatchTypes(Collections.singleton(" ")));
+    }
+
     static class TestJDABuilder extends JDABuilder
     {
         public TestJDABuilder(int intents)
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.data;
+
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.requests.GatewayHeader;
+import net.dv8tion.jda.internal.requests.WebSocketCode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GatewayHeaderTest
+{
+    @Test
+    void testDispatch()
+    {
+        GatewayHeader header = peek("{\"t\":\"PRESENCE_UPDATE\",\"s\":42,\"op\":0,\"d\":{\"user\":{\"id\":\"1\"},\"activities\":[]}}");
+
+        assertThat(header).isNotNull();
+        assertThat(header.getOpCode()).isEqualTo(WebSocketCode.DISPATCH);
+        assertThat(header.getType()).isEqualTo("PRESENCE_UPDATE");
+        assertThat(header.hasSequence()).isTrue();
+        assertThat(header.getSequence()).isEqualTo(42);
+    }
+
+    @Test
+    void testDataFirst()
+    {
+        GatewayHeader header = peek("{\"d\":{\"heartbeat_interval\":41250,\"nested\":[{},[]]},\"op\":10,\"t\":null,\"s\":null}");
+
+        assertThat(header).isNotNull();
+        assertThat(header.getOpCode()).isEqualTo(WebSocketCode.HELLO);
+        assertThat(header.getType()).isNull();
+        assertThat(header.hasSequence()).isFalse();
+    }
+
+    @Test
+    void testMalformed()
+    {
+        assertThat(peek("[0]")).isNull();
+        assertThat(peek("{\"t\":\"READY\"}")).isNull();
+        assertThat(peek("{\"op\":\"0\"}")).isNull();
+        assertThat(peek("{\"op\":0,")).isNull();
+    }
+
+    @Test
+    void testParseContinuesAfterHeader()
+    {
+        assertParsedLikeFullPayload("{\"t\":\"GUILD_MEMBER_UPDATE\",\"s\":7,\"op\":0,\"d\":{\"roles\":[\"1\",\"2\"],\"user\":{\"id\":\"3\"},\"nick\":\"}\"}}");
+        assertParsedLikeFullPayload("{\"d\":{\"heartbeat_interval\":41250},\"op\":10,\"t\":null,\"s\":null}");
+        assertParsedLikeFullPayload("{\"t\":null,\"s\":null,\"op\":9,\"d\":false}");
+    }
+
+    private static void assertParsedLikeFullPayload(String json)
+    {
+        byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+        // Surround the payload with garbage, like a reused decompression buffer
+        byte[] buffer = new byte[payload.length + 16];
+        Arrays.fill(buffer, (byte) '{');
+        System.arraycopy(payload, 0, buffer, 8, payload.length);
+
+        GatewayHeader header = GatewayHeader.peek(buffer, 8, payload.length);
+        assertThat(header).isNotNull();
+        assertThat(header.parse(buffer, 8, payload.length, false).toMap()).isEqualTo(DataObject.fromJson(payload).toMap());
+        assertThat(header.parse(buffer, 8, payload.length, true).toMap()).isEqualTo(DataObject.fromJson(payload).toMap());
+    }
+
+    private static GatewayHeader peek(String json)
+    {
+        byte[] data = json.getBytes(StandardCharsets.UTF_8);
+        return GatewayHeader.peek(data, 0, data.length);
+    }
+}
@@ -19,6 +19,7 @@ package net.dv8tion.jda.test.data;
 import net.dv8tion.jda.api.exceptions.ParsingException;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.api.utils.data.DataType;
 import net.dv8tion.jda.internal.utils.Helpers;
 import net.dv8tion.jda.test.PrettyRepresentation;
 import org.junit.jupiter.api.Nested;
@@ -157,6 +158,68 @@ public class JsonTest
                 .withRepresentation(new PrettyRepresentation())
                 .isEqualTo(reference);
         }
+
+        @Test
+        void testNestedArrays()
+        {
+            String json = "{\"d\":{\"members\":[{\"user\":{\"id\":\"1\"},\"roles\":[\"2\",\"3\"]},{\"roles\":[]}]," +
+                          "\"presences\":[ ],\"nested\":[[1,2],[\"]\",\"[\"]]}}";
+            DataObject reference = DataObject.fromJson(json);
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            DataObject object = DataObject.fromLazyJson(bytes, 0, bytes.length);
+
+            assertThat(object).isEqualTo(reference);
+            assertThat(object).hasToString(reference.toString());
+
+            DataObject d = object.getObject("d");
+            assertThat(d.isNull("members")).isFalse();
+            assertThat(d.isType("members", DataType.ARRAY)).isTrue();
+            DataArray members = d.getArray("members");
+            assertThat(members.length()).isEqualTo(2);
+            assertThat(members.getObject(0).getArray("roles").getUnsignedLong(1)).isEqualTo(3L);
+            assertThat(members.getObject(0).getObject("user").getString("id")).isEqualTo("1");
+            assertThat(d.getArray("presences").isEmpty()).isTrue();
+            assertThat(d.getArray("nested").getArray(1).getString(0)).isEqualTo("]");
+
+            // Decoded arrays are shared, so modifications are visible through the parent
+            members.add(DataObject.empty());
+            assertThat(d.getArray("members").length()).isEqualTo(3);
+
+            // Replacing an array does not decode it
+            d.put("nested", null);
+            assertThat(d.isNull("nested")).isTrue();
+
+            byte[] malformed = "{\"a\":[1,}".getBytes(StandardCharsets.UTF_8);
+            assertThatThrownBy(() -> DataObject.fromLazyJson(malformed, 0, malformed.length))
+                .isInstanceOf(ParsingException.class);
+        }
+
+        @Test
+        void testExTerm()
+        {
+            DataObject object = DataObject.empty()
+                    .put("id", "81384788765712384")
+                    .put("guild_id", "125227483518861312")
+                    .put("custom_key", "välue")
+                    .put("bot", true)
+                    .put("nick", null)
+                    .put("roles", DataArray.empty().add("1").add("2"))
+                    .put("user", DataObject.empty().put("username", "minn"));
+
+            byte[] etf = object.toETF();
+            DataObject decoded = DataObject.fromETF(etf);
+            assertThat(decoded)
+                .withRepresentation(new PrettyRepresentation())
+                .isEqualTo(object);
+            assertThat(decoded.isNull("nick")).isTrue();
+            assertThat(decoded.hasKey("nick")).isTrue();
+
+            byte[] padded = new byte[etf.length + 10];
+            System.arraycopy(etf, 0, padded, 5, etf.length);
+            assertThat(DataObject.fromETF(padded, 5, etf.length))
+                .withRepresentation(new PrettyRepresentation())
+                .isEqualTo(object);
+        }
     }
 
     @Nested
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.entities;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.hash.TLongHashSet;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.OnlineStatus;
+import net.dv8tion.jda.api.entities.*;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.sticker.Sticker;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.entities.CacheSnapshot;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.SelfUserImpl;
+import net.dv8tion.jda.internal.handle.EventCache;
+import net.dv8tion.jda.internal.handle.GuildSetupController;
+import net.dv8tion.jda.internal.utils.cache.ChannelCacheViewImpl;
+import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import net.dv8tion.jda.test.Constants;
+import net.dv8tion.jda.test.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+class CacheSnapshotTest extends IntegrationTest
+{
+    private static final int INTENTS = 513;
+    private static final long SELF_ID = 42L;
+    private static final long ROLE_ID = 100L;
+    private static final long TEXT_ID = 200L;
+    private static final long VOICE_ID = 201L;
+    private static final long THREAD_ID = 202L;
+    private static final long STICKER_ID = 300L;
+    private static final long EVENT_ID = 400L;
+    private static final EnumSet<CacheFlag> CACHE_FLAGS = EnumSet.of(
+        CacheFlag.EMOJI, CacheFlag.STICKER, CacheFlag.SCHEDULED_EVENTS, CacheFlag.VOICE_STATE,
+        CacheFlag.ONLINE_STATUS, CacheFlag.ACTIVITY, CacheFlag.CLIENT_STATUS);
+
+    @TempDir
+    private Path directory;
+    @Mock
+    private GuildSetupController setupController;
+    @Mock
+    private EventCache eventCache;
+
+    private SelfUserImpl selfUser;
+    private SnowflakeCacheViewImpl<Guild> guildsView;
+    private SnowflakeCacheViewImpl<User> usersView;
+    private ChannelCacheViewImpl<Channel> channelsView;
+
+    @BeforeEach
+    void setupSession()
+    {
+        selfUser = new SelfUserImpl(SELF_ID, jda);
+        selfUser.setName("bot");
+        resetCaches();
+        when(jda.hasSelfUser()).thenReturn(true);
+        when(jda.getSelfUser()).thenReturn(selfUser);
+        when(jda.getShardInfo()).thenReturn(JDA.ShardInfo.SINGLE);
+        when(jda.getCacheFlags()).thenReturn(CACHE_FLAGS);
+        when(jda.isCacheFlagSet(any())).thenAnswer(invocation -> CACHE_FLAGS.contains(invocation.<CacheFlag>getArgument(0)));
+        when(jda.getResponseTotal()).thenReturn(1337L);
+        when(jda.getGuildCache()).thenAnswer(invocation -> guildsView);
+        when(jda.getGuildsView()).thenAnswer(invocation -> guildsView);
+        when(jda.getUsersView()).thenAnswer(invocation -> usersView);
+        when(jda.getChannelsView()).thenAnswer(invocation -> channelsView);
+        when(jda.getGuildById(anyLong())).thenAnswer(invocation -> guildsView.getElementById(invocation.<Long>getArgument(0)));
+        when(jda.getUserById(anyLong())).thenAnswer(invocation -> usersView.getElementById(invocation.<Long>getArgument(0)));
+        when(jda.getEventCache()).thenReturn(eventCache);
+        when(jda.cacheMember(any())).thenReturn(true);
+        when(jda.getGuildSetupController()).thenReturn(setupController);
+        when(setupController.getUnavailableGuilds()).thenReturn(new TLongHashSet());
+    }
+
+    private void resetCaches()
+    {
+        guildsView = new SnowflakeCacheViewImpl<>(Guild.class, Guild::getName);
+        usersView = new SnowflakeCacheViewImpl<>(User.class, User::getName);
+        channelsView = new ChannelCacheViewImpl<>(Channel.class);
+    }
+
+    @Test
+    void readsWrittenSession()
+    {
+        Path file = directory.resolve("shard.snapshot");
+        assertThat(CacheSnapshot.write(jda, file, "session", "wss://resume.example", INTENTS)).isTrue();
+
+        CacheSnapshot snapshot = CacheSnapshot.read(jda, file, INTENTS);
+
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.getSessionId()).isEqualTo("session");
+        assertThat(snapshot.getResumeUrl()).isEqualTo("wss://resume.example");
+        assertThat(snapshot.getSequence()).isEqualTo(1337);
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void discardsSnapshotWithDifferentIntents()
+    {
+        Path file = directory.resolve("shard.snapshot");
+        CacheSnapshot.write(jda, file, "session", null, INTENTS);
+
+        assertThat(CacheSnapshot.read(jda, file, INTENTS | 1 << 1)).isNull();
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void reportsFailedWrite() throws Exception
+    {
+        // The session is only kept alive for a snapshot which was actually written
+        Path parent = directory.resolve("not-a-directory");
+        Files.write(parent, new byte[0]);
+
+        assertThat(CacheSnapshot.write(jda, parent.resolve("shard.snapshot"), "session", null, INTENTS)).isFalse();
+    }
+
+    @Test
+    void ignoresMalformedSnapshot() throws Exception
+    {
+        Path file = directory.resolve("shard.snapshot");
+        Files.write(file, new byte[] { 1, 2, 3 });
+
+        assertThat(CacheSnapshot.read(jda, file, INTENTS)).isNull();
+        assertThat(CacheSnapshot.read(jda, directory.resolve("missing.snapshot"), INTENTS)).isNull();
+    }
+
+    @Test
+    void restoresGuildCache()
+    {
+        GuildImpl guild = jda.getEntityBuilder().createGuild(Constants.GUILD_ID, guildJson(), members(), 2);
+        Path file = directory.resolve("shard.snapshot");
+        CacheSnapshot.write(jda, file, "session", null, INTENTS);
+
+        resetCaches();
+        CacheSnapshot snapshot = CacheSnapshot.read(jda, file, INTENTS);
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.restore(jda)).isTrue();
+
+        GuildImpl restored = (GuildImpl) guildsView.getElementById(Constants.GUILD_ID);
+        assertThat(restored).isNotNull().isNotSameAs(guild);
+        assertThat(restored.getName()).isEqualTo("guild");
+        assertThat(restored.getMemberCount()).isEqualTo(2);
+        assertThat(restored.getRoleById(ROLE_ID).getName()).isEqualTo("role");
+        assertThat(restored.getTextChannelById(TEXT_ID).getTopic()).isEqualTo("topic");
+        assertThat(channelsView.getElementById(TEXT_ID)).isSameAs(restored.getTextChannelById(TEXT_ID));
+
+        Member member = restored.getMemberById(Constants.MINN_USER_ID);
+        assertThat(member).isNotNull();
+        assertThat(member.getNickname()).isEqualTo("minn");
+        assertThat(member.getUser().getName()).isEqualTo("minnced");
+        assertThat(member.getRoles()).extracting(Role::getIdLong).containsExactly(ROLE_ID);
+        assertThat(restored.getSelfMember().getIdLong()).isEqualTo(SELF_ID);
+
+        ThreadChannel thread = restored.getThreadChannelById(THREAD_ID);
+        assertThat(thread).isNotNull();
+        assertThat(thread.getName()).isEqualTo("thread");
+        assertThat(thread.getParentChannel().getIdLong()).isEqualTo(TEXT_ID);
+        assertThat(thread.getAutoArchiveDuration()).isEqualTo(ThreadChannel.AutoArchiveDuration.TIME_24_HOURS);
+
+        GuildVoiceState voiceState = member.getVoiceState();
+        assertThat(voiceState).isNotNull();
+        assertThat(voiceState.getChannel()).isNotNull();
+        assertThat(voiceState.getChannel().getIdLong()).isEqualTo(VOICE_ID);
+        assertThat(voiceState.isSelfMuted()).isTrue();
+
+        assertThat(member.getOnlineStatus()).isEqualTo(OnlineStatus.DO_NOT_DISTURB);
+        assertThat(member.getOnlineStatus(ClientType.DESKTOP)).isEqualTo(OnlineStatus.DO_NOT_DISTURB);
+        assertThat(member.getActivities()).extracting(Activity::getName).containsExactly("game");
+
+        assertThat(restored.getStickerById(STICKER_ID).getName()).isEqualTo("sticker");
+        ScheduledEvent event = restored.getScheduledEventById(EVENT_ID);
+        assertThat(event.getName()).isEqualTo("event");
+        assertThat(event.getLocation()).isEqualTo("somewhere");
+    }
+
+    private static DataObject user(long id, String name)
+    {
+        return DataObject.empty()
+            .put("id", id)
+            .put("username", name)
+            .put("discriminator", "0");
+    }
+
+    private static TLongObjectMap<DataObject> members()
+    {
+        TLongObjectMap<DataObject> members = new TLongObjectHashMap<>();
+        members.put(SELF_ID, DataObject.empty()
+            .put("user", user(SELF_ID, "bot"))
+            .put("roles", DataArray.empty()));
+        members.put(Constants.MINN_USER_ID, DataObject.empty()
+            .put("user", user(Constants.MINN_USER_ID, "minnced"))
+            .put("nick", "minn")
+            .put("joined_at", "2020-01-01T00:00:00+00:00")
+            .put("roles", DataArray.empty().add(ROLE_ID)));
+        return members;
+    }
+
+    private static DataObject guildJson()
+    {
+        DataObject role = DataObject.empty()
+            .put("id", ROLE_ID)
+            .put("name", "role")
+            .put("position", 1)
+            .put("permissions", 0)
+            .put("colors", DataObject.empty().put("primary_color", 0));
+        DataObject text = DataObject.empty()
+            .put("id", TEXT_ID)
+            .put("type", ChannelType.TEXT.getId())
+            .put("name", "general")
+            .put("topic", "topic")
+            .put("position", 0)
+            .put("permission_overwrites", DataArray.empty());
+        DataObject voice = DataObject.empty()
+            .put("id", VOICE_ID)
+            .put("type", ChannelType.VOICE.getId())
+            .put("name", "voice")
+            .put("position", 1)
+            .put("user_limit", 0)
+            .put("bitrate", 64000)
+            .put("permission_overwrites", DataArray.empty());
+        DataObject thread = DataObject.empty()
+            .put("id", THREAD_ID)
+            .put("type", ChannelType.GUILD_PUBLIC_THREAD.getId())
+            .put("parent_id", TEXT_ID)
+            .put("name", "thread")
+            .put("owner_id", Constants.MINN_USER_ID)
+            .put("member_count", 1)
+            .put("message_count", 5)
+            .put("thread_metadata", DataObject.empty()
+                .put("archived", false)
+                .put("locked", false)
+                .put("archive_timestamp", "2020-01-01T00:00:00+00:00")
+                .put("auto_archive_duration", 1440));
+        DataObject voiceState = DataObject.empty()
+            .put("user_id", Constants.MINN_USER_ID)
+            .put("channel_id", VOICE_ID)
+            .put("session_id", "voice-session")
+            .put("self_mute", true);
+        DataObject presence = DataObject.empty()
+            .put("user", DataObject.empty().put("id", Constants.MINN_USER_ID))
+            .put("status", "dnd")
+            .put("client_status", DataObject.empty().put("desktop", "dnd"))
+            .put("activities", DataArray.empty().add(DataObject.empty().put("name", "game").put("type", 0)));
+        DataObject sticker = DataObject.empty()
+            .put("id", STICKER_ID)
+            .put("type", Sticker.Type.GUILD.getId())
+            .put("name", "sticker")
+            .put("format_type", Sticker.StickerFormat.PNG.getId())
+            .put("tags", "tag")
+            .put("available", true)
+            .put("guild_id", Constants.GUILD_ID);
+        DataObject event = DataObject.empty()
+            .put("id", EVENT_ID)
+            .put("name", "event")
+            .put("status", ScheduledEvent.Status.SCHEDULED.getKey())
+            .put("entity_type", ScheduledEvent.Type.EXTERNAL.getKey())
+            .put("entity_metadata", DataObject.empty().put("location", "somewhere"))
+            .put("scheduled_start_time", "2030-01-01T00:00:00+00:00");
+
+        return DataObject.empty()
+            .put("id", Constants.GUILD_ID)
+            .put("name", "guild")
+            .put("roles", DataArray.empty().add(role))
+            .put("channels", DataArray.empty().add(text).add(voice))
+            .put("threads", DataArray.empty().add(thread))
+            .put("voice_states", DataArray.empty().add(voiceState))
+            .put("presences", DataArray.empty().add(presence))
+            .put("stickers", DataArray.empty().add(sticker))
+            .put("guild_scheduled_events", DataArray.empty().add(event))
+            .put("emojis", DataArray.empty());
+    }
+}
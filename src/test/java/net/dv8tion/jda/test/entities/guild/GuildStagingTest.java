@@ -0,0 +1,306 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.entities.guild;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.entities.*;
+import net.dv8tion.jda.internal.handle.EventCache;
+import net.dv8tion.jda.internal.handle.GuildSetupController;
+import net.dv8tion.jda.internal.requests.MemberChunkManager;
+import net.dv8tion.jda.internal.requests.WebSocketClient;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.ChannelCacheViewImpl;
+import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import net.dv8tion.jda.test.Constants;
+import net.dv8tion.jda.test.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class GuildStagingTest extends IntegrationTest
+{
+    private static final long CHANNEL_ID = 1234L;
+    private static final long USER_ID = 4321L;
+
+    @Mock
+    SelfUserImpl selfUser;
+    @Mock
+    EventCache eventCache;
+
+    private SnowflakeCacheViewImpl<Guild> guildsView;
+    private SnowflakeCacheViewImpl<User> usersView;
+    private ChannelCacheViewImpl<Channel> channelsView;
+    private EntityBuilder builder;
+
+    @BeforeEach
+    void setupCaches()
+    {
+        guildsView = new SnowflakeCacheViewImpl<>(Guild.class, Guild::getName);
+        usersView = new SnowflakeCacheViewImpl<>(User.class, User::getName);
+        channelsView = new ChannelCacheViewImpl<>(Channel.class);
+        builder = jda.getEntityBuilder();
+
+        withCacheFlags(EnumSet.noneOf(CacheFlag.class));
+        when(selfUser.getIdLong()).thenReturn(Constants.BUTLER_USER_ID);
+        when(jda.getSelfUser()).thenReturn(selfUser);
+        when(jda.getGuildsView()).thenReturn(guildsView);
+        when(jda.getUsersView()).thenReturn(usersView);
+        when(jda.getChannelsView()).thenReturn(channelsView);
+        when(jda.getEventCache()).thenReturn(eventCache);
+        when(jda.cacheMember(any())).thenReturn(true);
+        when(jda.getUserById(anyLong())).thenAnswer(invocation -> usersView.getElementById(invocation.<Long>getArgument(0)));
+        when(jda.getGuildById(anyLong())).thenAnswer(invocation -> guildsView.getElementById(invocation.<Long>getArgument(0)));
+    }
+
+    private static DataObject user(long id, String name)
+    {
+        return DataObject.empty()
+            .put("id", id)
+            .put("username", name)
+            .put("discriminator", "0");
+    }
+
+    private static DataObject member(long id, String name)
+    {
+        return DataObject.empty()
+            .put("user", user(id, name))
+            .put("roles", DataArray.empty());
+    }
+
+    private static TLongObjectMap<DataObject> members()
+    {
+        TLongObjectMap<DataObject> members = new TLongObjectHashMap<>();
+        members.put(Constants.BUTLER_USER_ID, member(Constants.BUTLER_USER_ID, "butler"));
+        members.put(Constants.MINN_USER_ID, member(Constants.MINN_USER_ID, "minn"));
+        return members;
+    }
+
+    private static DataObject guild()
+    {
+        DataObject channel = DataObject.empty()
+            .put("id", CHANNEL_ID)
+            .put("type", 0)
+            .put("name", "general")
+            .put("position", 0)
+            .put("permission_overwrites", DataArray.empty());
+        return DataObject.empty()
+            .put("id", Constants.GUILD_ID)
+            .put("name", "guild")
+            .put("roles", DataArray.empty())
+            .put("channels", DataArray.empty().add(channel))
+            .put("threads", DataArray.empty())
+            .put("guild_scheduled_events", DataArray.empty())
+            .put("emojis", DataArray.empty())
+            .put("voice_states", DataArray.empty())
+            .put("premium_progress_bar_enabled", false);
+    }
+
+    private UserImpl cacheUser(long id, String name)
+    {
+        UserImpl user = new UserImpl(id, jda);
+        user.setName(name);
+        try (UnlockHook hook = usersView.writeLock())
+        {
+            usersView.getMap().put(id, user);
+        }
+        return user;
+    }
+
+    @Test
+    void testStagedGuildIsNotVisible()
+    {
+        StagedGuild stage = builder.stageGuild(Constants.GUILD_ID, guild(), members(), 2);
+
+        GuildImpl guild = stage.getGuild();
+        assertThat(guild.getMembersView().size()).isEqualTo(2);
+        assertThat(guild.getTextChannelById(CHANNEL_ID)).isNotNull();
+
+        assertThat(guildsView.isEmpty()).isTrue();
+        assertThat(usersView.isEmpty()).isTrue();
+        assertThat(channelsView.isEmpty()).isTrue();
+        verifyNoInteractions(eventCache);
+        verify(jda, never()).handleEvent(any());
+    }
+
+    @Test
+    void testPublishAddsGuildToCache()
+    {
+        StagedGuild stage = builder.stageGuild(Constants.GUILD_ID, guild(), members(), 2);
+        GuildImpl guild = builder.publishGuild(stage);
+
+        assertThat(guildsView.getElementById(Constants.GUILD_ID)).isSameAs(guild);
+        assertThat(channelsView.getElementById(CHANNEL_ID)).isSameAs(guild.getTextChannelById(CHANNEL_ID));
+        assertThat(usersView.getElementById(Constants.MINN_USER_ID)).isSameAs(guild.getMemberById(Constants.MINN_USER_ID).getUser());
+        assertThat(usersView.getElementById(Constants.BUTLER_USER_ID)).isNotNull();
+
+        verify(eventCache).playbackCache(EventCache.Type.CHANNEL, CHANNEL_ID);
+        verify(eventCache).playbackCache(EventCache.Type.USER, Constants.MINN_USER_ID);
+        verify(eventCache).playbackCache(EventCache.Type.MEMBER, Constants.GUILD_ID ^ Constants.MINN_USER_ID);
+    }
+
+    @Test
+    void testPublishUpdatesUsersCachedWhileStaging()
+    {
+        StagedGuild stage = builder.stageGuild(Constants.GUILD_ID, guild(), members(), 2);
+        // Another guild cached this user while the guild was built
+        UserImpl cached = cacheUser(Constants.MINN_USER_ID, "outdated");
+
+        GuildImpl guild = builder.publishGuild(stage);
+
+        assertThat(usersView.getElementById(Constants.MINN_USER_ID)).isSameAs(cached);
+        assertThat(cached.getName()).isEqualTo("minn");
+        assertThat(guild.getMemberById(Constants.MINN_USER_ID).getUser()).isSameAs(cached);
+    }
+
+    @Test
+    void testPublishUpdatesUsersCachedBeforeStaging()
+    {
+        UserImpl cached = cacheUser(Constants.MINN_USER_ID, "outdated");
+        StagedGuild stage = builder.stageGuild(Constants.GUILD_ID, guild(), members(), 2);
+
+        // The cached user is only updated once the guild is published
+        assertThat(cached.getName()).isEqualTo("outdated");
+
+        builder.publishGuild(stage);
+
+        assertThat(usersView.getElementById(Constants.MINN_USER_ID)).isSameAs(cached);
+        assertThat(cached.getName()).isEqualTo("minn");
+    }
+
+    @Test
+    void testStagedMembersAreNotVisible()
+    {
+        GuildImpl guild = builder.publishGuild(builder.stageGuild(Constants.GUILD_ID, guild(), members(), 3));
+        DataArray chunk = DataArray.empty().add(member(USER_ID, "user"));
+
+        StagedGuild stage = builder.stageMembers(guild, chunk);
+
+        assertThat(guild.getMembersView().get(USER_ID)).isNull();
+        assertThat(usersView.getElementById(USER_ID)).isNull();
+
+        List<Member> members = builder.createMembers(guild, chunk, new TLongObjectHashMap<>(), null, stage);
+
+        assertThat(members).hasSize(1);
+        assertThat(guild.getMembersView().get(USER_ID)).isSameAs(members.get(0));
+        assertThat(usersView.getElementById(USER_ID)).isSameAs(members.get(0).getUser());
+        assertThat(members.get(0).getUser().getName()).isEqualTo("user");
+    }
+
+    @Test
+    void testStagedMembersCachedWhileStaging()
+    {
+        GuildImpl guild = builder.publishGuild(builder.stageGuild(Constants.GUILD_ID, guild(), members(), 3));
+        DataArray chunk = DataArray.empty().add(member(USER_ID, "chunk"));
+        StagedGuild stage = builder.stageMembers(guild, chunk);
+
+        // A member event cached this member while the chunk was built
+        MemberImpl cached = builder.createMember(guild, member(USER_ID, "event"));
+        builder.updateMemberCache(cached);
+
+        List<Member> members = builder.createMembers(guild, chunk, new TLongObjectHashMap<>(), null, stage);
+
+        assertThat(members).containsExactly(cached);
+        assertThat(cached.getUser().getName()).isEqualTo("chunk");
+    }
+
+    @Test
+    void testSkippedMembersKeepCachedState()
+    {
+        GuildImpl guild = builder.publishGuild(builder.stageGuild(Constants.GUILD_ID, guild(), members(), 2));
+        Member cached = guild.getMembersView().get(Constants.MINN_USER_ID);
+        DataArray chunk = DataArray.empty()
+            .add(member(Constants.MINN_USER_ID, "minn").put("nick", "outdated"))
+            .add(member(USER_ID, "user"));
+
+        List<Member> members = builder.createMembers(guild, chunk, new TLongObjectHashMap<>(), (userId) -> userId != USER_ID, null);
+
+        assertThat(members).hasSize(2);
+        assertThat(members.get(0)).isSameAs(cached);
+        assertThat(cached.getNickname()).isNull();
+        assertThat(members.get(1).getNickname()).isNull();
+        assertThat(guild.getMembersView().get(USER_ID)).isSameAs(members.get(1));
+    }
+
+    @Test
+    void testChunksOnlySkipMembersUpdatedAfterThem() throws Exception
+    {
+        GuildImpl guild = builder.publishGuild(builder.stageGuild(Constants.GUILD_ID, guild(), members(), 3));
+        ScheduledExecutorService gatewayPool = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService buildPool = Executors.newFixedThreadPool(2);
+        try
+        {
+            GuildSetupController controller = new GuildSetupController(jda);
+            when(jda.isParallelGuildSetup()).thenReturn(true);
+            when(jda.getGatewayPool()).thenReturn(gatewayPool);
+            when(jda.getGuildSetupPool()).thenReturn(buildPool);
+            when(jda.getGuildSetupController()).thenReturn(controller);
+            WebSocketClient.WS_THREAD.set(true);
+
+            MemberChunkManager chunkManager = new MemberChunkManager(null);
+            List<List<Member>> chunks = new CopyOnWriteArrayList<>();
+            chunkManager.buildMembers(guild, chunk(member(USER_ID, "before")), chunks::add);
+            // Received after the first chunk, but before the second one
+            chunkManager.onMemberEvent(Constants.GUILD_ID, USER_ID);
+            chunkManager.buildMembers(guild, chunk(member(USER_ID, "after")), chunks::add);
+            controller.unlock();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (chunks.size() < 2 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+
+            assertThat(chunks).hasSize(2);
+            assertThat(chunks.get(0)).isEmpty();
+            assertThat(chunks.get(1)).hasSize(1);
+            assertThat(usersView.getElementById(USER_ID).getName()).isEqualTo("after");
+        }
+        finally
+        {
+            WebSocketClient.WS_THREAD.set(false);
+            gatewayPool.shutdownNow();
+            buildPool.shutdownNow();
+        }
+    }
+
+    private static DataObject chunk(DataObject member)
+    {
+        return DataObject.empty()
+            .put("guild_id", Constants.GUILD_ID)
+            .put("members", DataArray.empty().add(member))
+            .put("chunk_index", 0)
+            .put("chunk_count", 1);
+    }
+}
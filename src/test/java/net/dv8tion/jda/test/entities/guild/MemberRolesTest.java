@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.entities.guild;
+
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.RoleImpl;
+import net.dv8tion.jda.internal.entities.UserImpl;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.SortedSnowflakeCacheViewImpl;
+import net.dv8tion.jda.test.Constants;
+import net.dv8tion.jda.test.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class MemberRolesTest extends IntegrationTest
+{
+    @Mock
+    UserImpl user;
+
+    private GuildImpl guild;
+    private MemberImpl member;
+
+    @BeforeEach
+    void setupMember()
+    {
+        when(user.getJDA()).thenReturn(jda);
+        when(user.getIdLong()).thenReturn(Constants.MINN_USER_ID);
+
+        guild = new GuildImpl(jda, Constants.GUILD_ID);
+        member = new MemberImpl(guild, user);
+    }
+
+    private RoleImpl addRole(long id, int position)
+    {
+        RoleImpl role = new RoleImpl(id, guild);
+        role.setRawPosition(position);
+        SortedSnowflakeCacheViewImpl<Role> roles = guild.getRolesView();
+        try (UnlockHook hook = roles.writeLock())
+        {
+            roles.getMap().put(id, role);
+        }
+        return role;
+    }
+
+    @Test
+    void testRolesAreSortedByPosition()
+    {
+        RoleImpl low = addRole(3, 1);
+        RoleImpl high = addRole(1, 5);
+        RoleImpl middle = addRole(2, 3);
+        member.setRoles(Arrays.asList(low, high, middle, low));
+
+        assertThat(member.getRoleIds()).containsExactly(1, 2, 3);
+        assertThat(member.getRoles()).containsExactly(high, middle, low);
+        assertThat(member.hasRole(2)).isTrue();
+        assertThat(member.hasRole(4)).isFalse();
+    }
+
+    @Test
+    void testUnsortedRolesIsLiveView()
+    {
+        RoleImpl first = addRole(1, 1);
+        RoleImpl second = addRole(2, 2);
+        Set<Role> view = member.getUnsortedRoles();
+        assertThat(view).isEmpty();
+
+        member.addRoles(Arrays.asList(first, second));
+        assertThat(view).containsExactlyInAnyOrder(first, second);
+
+        member.removeRoles(Collections.singletonList(first));
+        assertThat(view).containsExactly(second);
+        assertThat(view.contains(first)).isFalse();
+
+        member.removeRole(second.getIdLong());
+        assertThat(view).isEmpty();
+        assertThat(member.getRoleIds()).isEmpty();
+    }
+
+    @Test
+    void testDeletedRolesAreSkipped()
+    {
+        RoleImpl kept = addRole(1, 1);
+        RoleImpl deleted = addRole(2, 2);
+        member.setRoles(Arrays.asList(kept, deleted));
+
+        guild.getRolesView().remove(deleted.getIdLong());
+
+        assertThat(member.getUnsortedRoles()).containsExactly(kept);
+        assertThat(member.getUnsortedRoles()).hasSize(1);
+        assertThat(member.getRoles()).containsExactly(kept);
+        assertThat(member.getUnsortedRoles().contains(deleted)).isFalse();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.events;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.StatusChangeEvent;
+import net.dv8tion.jda.api.events.user.UserTypingEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateNameEvent;
+import net.dv8tion.jda.api.hooks.EventQueuePolicy;
+import net.dv8tion.jda.api.hooks.EventQueueStatistics;
+import net.dv8tion.jda.internal.hooks.BoundedEventQueue;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BoundedEventQueueTest
+{
+    private final JDA jda = mock(JDA.class);
+    private final List<GenericEvent> handled = new ArrayList<>();
+
+    @Test
+    void testUnbounded()
+    {
+        BoundedEventQueue queue = new BoundedEventQueue(0, EventQueuePolicy.BLOCK);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            tasks.add(queue.offer(statusEvent(), handled::add));
+
+        assertThat(tasks).doesNotContainNull();
+        assertThat(queue.getStatistics().getSize()).isEqualTo(10);
+
+        tasks.forEach(Runnable::run);
+
+        EventQueueStatistics statistics = queue.getStatistics();
+        assertThat(handled).hasSize(10);
+        assertThat(statistics.getSize()).isZero();
+        assertThat(statistics.getHighWatermark()).isEqualTo(10);
+        assertThat(statistics.getHandledEvents()).isEqualTo(10);
+    }
+
+    @Test
+    void testDropLowPriority()
+    {
+        BoundedEventQueue queue = new BoundedEventQueue(1, EventQueuePolicy.DROP_LOW_PRIORITY);
+        Runnable first = queue.offer(statusEvent(), handled::add);
+        assertThat(first).isNotNull();
+
+        User user = mock(User.class);
+        UserTypingEvent typing = new UserTypingEvent(jda, 1, user, mock(MessageChannel.class), OffsetDateTime.now(), null);
+        assertThat(queue.offer(typing, handled::add)).isNull();
+
+        first.run();
+        assertThat(queue.offer(typing, handled::add)).isNotNull();
+
+        EventQueueStatistics statistics = queue.getStatistics();
+        assertThat(statistics.getDroppedEvents()).isEqualTo(1);
+        assertThat(statistics.getHighWatermark()).isEqualTo(1);
+    }
+
+    @Test
+    void testCoalesceUpdates()
+    {
+        BoundedEventQueue queue = new BoundedEventQueue(1, EventQueuePolicy.COALESCE_UPDATES);
+        User user = mock(User.class);
+        when(user.getName()).thenReturn("b", "c");
+
+        UserUpdateNameEvent first = new UserUpdateNameEvent(jda, 0, user, "a");
+        UserUpdateNameEvent second = new UserUpdateNameEvent(jda, 1, user, "b");
+        Runnable task = queue.offer(first, handled::add);
+        assertThat(task).isNotNull();
+        assertThat(queue.offer(second, handled::add)).isNull();
+
+        task.run();
+
+        EventQueueStatistics statistics = queue.getStatistics();
+        assertThat(handled).containsExactly(second);
+        assertThat(statistics.getCoalescedEvents()).isEqualTo(1);
+        assertThat(statistics.getHandledEvents()).isEqualTo(1);
+        assertThat(statistics.getSize()).isZero();
+    }
+
+    @Test
+    void testCoalesceOnlyLatestEvent()
+    {
+        BoundedEventQueue queue = new BoundedEventQueue(2, EventQueuePolicy.COALESCE_UPDATES);
+        User user = mock(User.class);
+        when(user.getName()).thenReturn("b", "c");
+
+        UserUpdateNameEvent first = new UserUpdateNameEvent(jda, 0, user, "a");
+        UserUpdateNameEvent second = new UserUpdateNameEvent(jda, 2, user, "b");
+        List<Runnable> nested = new ArrayList<>();
+        Runnable firstTask = queue.offer(first, handled::add);
+        // Offered from an event thread, so the full queue does not block
+        Runnable statusTask = queue.offer(statusEvent(), event -> nested.add(queue.offer(second, handled::add)));
+        assertThat(firstTask).isNotNull();
+        assertThat(statusTask).isNotNull();
+
+        // The status event was submitted after the first update, merging would handle the second update before it
+        statusTask.run();
+        assertThat(nested).hasSize(1).doesNotContainNull();
+
+        firstTask.run();
+        nested.get(0).run();
+
+        assertThat(handled).containsExactly(first, second);
+        assertThat(queue.getStatistics().getCoalescedEvents()).isZero();
+    }
+
+    @Test
+    void testNoBlockOnEventThread()
+    {
+        BoundedEventQueue queue = new BoundedEventQueue(1, EventQueuePolicy.BLOCK);
+        List<Runnable> nested = new ArrayList<>();
+        Runnable task = queue.offer(statusEvent(), event -> nested.add(queue.offer(statusEvent(), handled::add)));
+        task.run();
+
+        assertThat(nested).hasSize(1).doesNotContainNull();
+        nested.get(0).run();
+        assertThat(handled).hasSize(1);
+        assertThat(queue.getStatistics().getSize()).isZero();
+    }
+
+    private StatusChangeEvent statusEvent()
+    {
+        return new StatusChangeEvent(jda, JDA.Status.CONNECTED, JDA.Status.LOADING_SUBSYSTEMS);
+    }
+}
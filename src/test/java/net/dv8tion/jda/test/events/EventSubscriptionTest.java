@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.test.events;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.UpdateEvent;
+import net.dv8tion.jda.api.events.guild.member.update.GuildMemberUpdateNicknameEvent;
+import net.dv8tion.jda.api.events.guild.update.GenericGuildUpdateEvent;
+import net.dv8tion.jda.api.events.guild.update.GuildUpdateNameEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateNameEvent;
+import net.dv8tion.jda.api.hooks.*;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventSubscriptionTest
+{
+    @Test
+    void testListenerAdapterSubscriptions()
+    {
+        InterfacedEventManager manager = new InterfacedEventManager();
+        assertThat(manager.isListening(GuildUpdateNameEvent.class)).isFalse();
+
+        ListenerAdapter listener = new ListenerAdapter()
+        {
+            @Override
+            public void onGenericGuildUpdate(@Nonnull GenericGuildUpdateEvent event) {}
+        };
+        manager.register(listener);
+
+        assertThat(manager.isListening(GuildUpdateNameEvent.class)).isTrue();
+        assertThat(manager.isListening(GuildMemberUpdateNicknameEvent.class)).isFalse();
+
+        manager.unregister(listener);
+        assertThat(manager.isListening(GuildUpdateNameEvent.class)).isFalse();
+    }
+
+    @Test
+    void testGenericOverrides()
+    {
+        InterfacedEventManager manager = new InterfacedEventManager();
+        manager.register(new ListenerAdapter()
+        {
+            @Override
+            public void onGenericUpdate(@Nonnull UpdateEvent<?, ?> event) {}
+        });
+
+        assertThat(manager.isListening(UserUpdateNameEvent.class)).isTrue();
+
+        InterfacedEventManager genericManager = new InterfacedEventManager();
+        genericManager.register(new ListenerAdapter()
+        {
+            @Override
+            public void onGenericEvent(@Nonnull GenericEvent event) {}
+        });
+
+        assertThat(genericManager.isListening(GuildMemberUpdateNicknameEvent.class)).isTrue();
+    }
+
+    @Test
+    void testPlainListenerReceivesEverything()
+    {
+        InterfacedEventManager manager = new InterfacedEventManager();
+        manager.register((EventListener) event -> {});
+
+        assertThat(manager.isListening(GuildMemberUpdateNicknameEvent.class)).isTrue();
+    }
+
+    @Test
+    void testAnnotatedSubscriptions()
+    {
+        AnnotatedEventManager manager = new AnnotatedEventManager();
+        manager.register(new Object()
+        {
+            @SubscribeEvent
+            public void onNameUpdate(GuildUpdateNameEvent event) {}
+        });
+
+        assertThat(manager.isListening(GuildUpdateNameEvent.class)).isTrue();
+        assertThat(manager.isListening(UserUpdateNameEvent.class)).isFalse();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.events;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.StatusChangeEvent;
+import net.dv8tion.jda.api.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.hooks.GuildLaneEventManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GuildLaneEventManagerTest
+{
+    private final JDA jda = mock(JDA.class);
+
+    @Test
+    void testOrderedPerGuild() throws InterruptedException
+    {
+        GuildLaneEventManager manager = new GuildLaneEventManager(4);
+        try
+        {
+            int guilds = 20, events = 500;
+            Map<Long, List<Long>> received = new ConcurrentHashMap<>();
+            CountDownLatch done = new CountDownLatch(guilds * events);
+            manager.register((EventListener) event ->
+            {
+                if (event instanceof GenericGuildEvent)
+                {
+                    GenericGuildEvent guildEvent = (GenericGuildEvent) event;
+                    received.computeIfAbsent(guildEvent.getGuild().getIdLong(), k -> Collections.synchronizedList(new ArrayList<>()))
+                            .add(guildEvent.getResponseNumber());
+                    done.countDown();
+                }
+            });
+
+            List<Guild> guildList = new ArrayList<>();
+            for (long id = 1; id <= guilds; id++)
+                guildList.add(mockGuild(id));
+            for (long i = 0; i < events; i++)
+            {
+                for (Guild guild : guildList)
+                    manager.handle(new GuildReadyEvent(jda, i, guild));
+            }
+
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(received).hasSize(guilds);
+            for (List<Long> order : received.values())
+                assertThat(order).hasSize(events).isSorted();
+        }
+        finally
+        {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    void testLaneAssignment()
+    {
+        GuildLaneEventManager manager = new GuildLaneEventManager(3);
+        manager.shutdown();
+
+        assertThat(manager.getLaneCount()).isEqualTo(3);
+        assertThat(manager.getQueueDepths()).hasSize(3);
+
+        Set<Integer> used = new HashSet<>();
+        for (long id = 1; id <= 100; id++)
+        {
+            int lane = manager.getLane(id << 22);
+            assertThat(lane).isBetween(0, 2).isEqualTo(manager.getLane(id << 22));
+            used.add(lane);
+        }
+        assertThat(used).containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    @Test
+    void testHandledInlineAfterShutdown()
+    {
+        GuildLaneEventManager manager = new GuildLaneEventManager(1);
+        manager.shutdown();
+
+        List<GenericEvent> received = new ArrayList<>();
+        manager.register((EventListener) received::add);
+        GenericEvent event = new StatusChangeEvent(jda, JDA.Status.CONNECTED, JDA.Status.LOADING_SUBSYSTEMS);
+        manager.handle(event);
+
+        assertThat(received).containsExactly(event);
+    }
+
+    private static Guild mockGuild(long id)
+    {
+        Guild guild = mock(Guild.class);
+        when(guild.getIdLong()).thenReturn(id);
+        return guild;
+    }
+}
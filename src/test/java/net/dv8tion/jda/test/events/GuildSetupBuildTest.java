@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.events;
+
+import net.dv8tion.jda.internal.handle.GuildSetupController;
+import net.dv8tion.jda.internal.requests.WebSocketClient;
+import net.dv8tion.jda.test.IntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+public class GuildSetupBuildTest extends IntegrationTest
+{
+    private ScheduledExecutorService gatewayPool;
+    private ExecutorService buildPool;
+    private GuildSetupController controller;
+    private List<Object> finished;
+    private List<Boolean> finishedOnGateway;
+
+    @BeforeEach
+    void setupController()
+    {
+        gatewayPool = Executors.newSingleThreadScheduledExecutor();
+        buildPool = Executors.newFixedThreadPool(2);
+        when(jda.getGatewayPool()).thenReturn(gatewayPool);
+        when(jda.getGuildSetupPool()).thenReturn(buildPool);
+        // Builds are submitted while handling a payload on the gateway thread
+        WebSocketClient.WS_THREAD.set(true);
+        controller = new GuildSetupController(jda);
+        finished = new CopyOnWriteArrayList<>();
+        finishedOnGateway = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void shutdownPool()
+    {
+        WebSocketClient.WS_THREAD.set(false);
+        gatewayPool.shutdownNow();
+        buildPool.shutdownNow();
+    }
+
+    private void finish(Object result)
+    {
+        finished.add(result);
+        finishedOnGateway.add(WebSocketClient.WS_THREAD.get());
+    }
+
+    @Test
+    void testBuildsFinishInSubmissionOrder() throws Exception
+    {
+        CountDownLatch blocked = new CountDownLatch(1);
+        controller.submitBuild(1, () -> {
+            try
+            {
+                blocked.await();
+            }
+            catch (InterruptedException e)
+            {
+                throw new IllegalStateException(e);
+            }
+            return "first";
+        }, this::finish);
+        controller.submitBuild(2, () -> "second", this::finish);
+        controller.unlock();
+
+        // The second build is done, but has to wait for the first one
+        Thread.sleep(100);
+        assertThat(finished).isEmpty();
+
+        blocked.countDown();
+        awaitFinished(2);
+
+        assertThat(finished).containsExactly("first", "second");
+        assertThat(finishedOnGateway).containsOnly(true);
+    }
+
+    @Test
+    void testFailedBuildFinishesWithoutResult() throws Exception
+    {
+        controller.submitBuild(1, () -> {
+            throw new IllegalStateException("Expected failure");
+        }, this::finish);
+        controller.submitBuild(2, () -> "second", this::finish);
+        controller.unlock();
+
+        awaitFinished(2);
+        assertThat(finished).containsExactly(null, "second");
+    }
+
+    @Test
+    void testGatewayThreadFinishesBuilds() throws Exception
+    {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        controller.submitBuild(1, result::join, this::finish);
+
+        // The gateway thread holds the lock, so the gateway pool cannot finish the build
+        result.complete("first");
+        Thread.sleep(100);
+        assertThat(finished).isEmpty();
+
+        // The gateway thread finishes the build once it is done with the current payload
+        controller.unlock();
+        assertThat(finished).containsExactly("first");
+    }
+
+    @Test
+    void testOnlyGatewayThreadSubmitsBuilds() throws Exception
+    {
+        // The lock taken for the build would never be released by any other thread
+        Future<?> submitted = buildPool.submit(() -> controller.submitBuild(1, () -> "first", this::finish));
+        assertThatThrownBy(submitted::get).hasCauseInstanceOf(IllegalStateException.class);
+
+        controller.submitBuild(2, () -> "second", this::finish);
+        controller.unlock();
+        awaitFinished(1);
+        assertThat(finished).containsExactly("second");
+    }
+
+    private void awaitFinished(int count) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (finished.size() < count && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertThat(finished).hasSize(count);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.events;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.StatusChangeEvent;
+import net.dv8tion.jda.api.events.UpdateEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+
+public class ListenerAdapterTest
+{
+    private final JDA jda = mock(JDA.class);
+
+    @Test
+    void testDispatchOrder()
+    {
+        RecordingListener listener = new RecordingListener();
+        listener.onEvent(new StatusChangeEvent(jda, JDA.Status.CONNECTED, JDA.Status.LOADING_SUBSYSTEMS));
+        listener.onEvent(new StatusChangeEvent(jda, JDA.Status.SHUTDOWN, JDA.Status.CONNECTED));
+
+        assertThat(listener.calls).containsExactly(
+            "onGenericEvent", "onGenericUpdate", "onStatusChange",
+            "onGenericEvent", "onGenericUpdate", "onStatusChange"
+        );
+    }
+
+    @Test
+    void testCustomEventSubclass()
+    {
+        RecordingListener listener = new RecordingListener();
+        listener.onEvent(new CustomStatusChangeEvent(jda));
+
+        assertThat(listener.calls).containsExactly("onGenericEvent", "onGenericUpdate", "onStatusChange");
+    }
+
+    @Test
+    void testOverrideInSubclass()
+    {
+        List<String> calls = new ArrayList<>();
+        ListenerAdapter listener = new ListenerAdapter()
+        {
+            @Override
+            public void onStatusChange(@Nonnull StatusChangeEvent event)
+            {
+                calls.add("onStatusChange");
+            }
+        };
+
+        // Dispatch tables are per listener class, other listeners must not affect this one
+        new RecordingListener().onEvent(new StatusChangeEvent(jda, JDA.Status.CONNECTED, JDA.Status.LOADING_SUBSYSTEMS));
+        listener.onEvent(new StatusChangeEvent(jda, JDA.Status.CONNECTED, JDA.Status.LOADING_SUBSYSTEMS));
+
+        assertThat(calls).containsExactly("onStatusChange");
+    }
+
+    @Test
+    void testExceptionPropagates()
+    {
+        ListenerAdapter listener = new ListenerAdapter()
+        {
+            @Override
+            public void onStatusChange(@Nonnull StatusChangeEvent event)
+            {
+                throw new IllegalStateException("Failed");
+            }
+        };
+
+        assertThatIllegalStateException()
+            .isThrownBy(() -> listener.onEvent(new StatusChangeEvent(jda, JDA.Status.CONNECTED, JDA.Status.LOADING_SUBSYSTEMS)))
+            .withMessage("Failed");
+    }
+
+    static class RecordingListener extends ListenerAdapter
+    {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void onGenericEvent(@Nonnull GenericEvent event)
+        {
+            calls.add("onGenericEvent");
+        }
+
+        @Override
+        public void onGenericUpdate(@Nonnull UpdateEvent<?, ?> event)
+        {
+            calls.add("onGenericUpdate");
+        }
+
+        @Override
+        public void onStatusChange(@Nonnull StatusChangeEvent event)
+        {
+            calls.add("onStatusChange");
+        }
+    }
+
+    static class CustomStatusChangeEvent extends StatusChangeEvent
+    {
+        CustomStatusChangeEvent(JDA api)
+        {
+            super(api, JDA.Status.CONNECTED, JDA.Status.LOADING_SUBSYSTEMS);
+        }
+    }
+}
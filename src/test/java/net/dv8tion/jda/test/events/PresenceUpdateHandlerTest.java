@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.events;
+
+import net.dv8tion.jda.api.OnlineStatus;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberPresenceImpl;
+import net.dv8tion.jda.internal.handle.PresenceUpdateHandler;
+import net.dv8tion.jda.internal.requests.WebSocketClient;
+import net.dv8tion.jda.test.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PresenceUpdateHandlerTest extends AbstractSocketHandlerTest
+{
+    @Mock
+    private WebSocketClient client;
+    private GuildImpl guildImpl;
+    private PresenceUpdateHandler handler;
+
+    @BeforeEach
+    void setupPresenceContext()
+    {
+        withCacheFlags(EnumSet.of(CacheFlag.ONLINE_STATUS));
+        guildImpl = new GuildImpl(jda, Constants.GUILD_ID);
+        when(jda.getGuildById(eq(Constants.GUILD_ID))).thenReturn(guildImpl);
+        when(jda.getClient()).thenReturn(client);
+        handler = new PresenceUpdateHandler(jda);
+    }
+
+    @Test
+    void testAppliedImmediatelyWithoutWindow()
+    {
+        handler.handle(1, presence(OnlineStatus.IDLE));
+
+        assertThat(getStatus()).isEqualTo(OnlineStatus.IDLE);
+    }
+
+    @Test
+    void testOnlyLatestUpdateApplied()
+    {
+        when(jda.getPresenceCoalescingWindow()).thenReturn(TimeUnit.HOURS.toMillis(1));
+        handler.handle(1, presence(OnlineStatus.IDLE));
+        handler.handle(2, presence(OnlineStatus.DO_NOT_DISTURB));
+
+        // Nothing is applied until the window elapsed
+        handler.flushIfDue();
+        assertThat(getStatus()).isNull();
+
+        handler.flush();
+        assertThat(getStatus()).isEqualTo(OnlineStatus.DO_NOT_DISTURB);
+    }
+
+    @Test
+    void testFlushedOnceWindowElapsed()
+    {
+        when(jda.getPresenceCoalescingWindow()).thenReturn(1L);
+        handler.handle(1, presence(OnlineStatus.IDLE));
+        assertThat(getStatus()).isNull();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (getStatus() == null && System.nanoTime() < deadline)
+            handler.flushIfDue();
+        assertThat(getStatus()).isEqualTo(OnlineStatus.IDLE);
+    }
+
+    @Test
+    void testFlushScheduledForEndOfWindow() throws InterruptedException
+    {
+        when(jda.getPresenceCoalescingWindow()).thenReturn(1L);
+        handler.handle(1, presence(OnlineStatus.IDLE));
+        handler.handle(2, presence(OnlineStatus.DO_NOT_DISTURB));
+
+        // A single flush is scheduled per window, even if no other payload arrives
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(client, times(1)).scheduleHandling(task.capture(), eq(1L), eq(TimeUnit.MILLISECONDS));
+
+        TimeUnit.MILLISECONDS.sleep(2);
+        task.getValue().run();
+        assertThat(getStatus()).isEqualTo(OnlineStatus.DO_NOT_DISTURB);
+    }
+
+    @Test
+    void testClearPending()
+    {
+        when(jda.getPresenceCoalescingWindow()).thenReturn(TimeUnit.HOURS.toMillis(1));
+        handler.handle(1, presence(OnlineStatus.IDLE));
+
+        // The update belongs to an invalidated session and must not be applied to the next one
+        handler.clearPending();
+        handler.flush();
+
+        assertThat(getStatus()).isNull();
+    }
+
+    private OnlineStatus getStatus()
+    {
+        MemberPresenceImpl presence = guildImpl.getPresenceView().get(Constants.MINN_USER_ID);
+        return presence == null ? null : presence.getOnlineStatus();
+    }
+
+    private DataObject presence(OnlineStatus status)
+    {
+        return event("PRESENCE_UPDATE", DataObject.empty()
+            .put("guild_id", Constants.GUILD_ID)
+            .put("status", status.getKey())
+            .put("user", DataObject.empty().put("id", Constants.MINN_USER_ID)));
+    }
+}
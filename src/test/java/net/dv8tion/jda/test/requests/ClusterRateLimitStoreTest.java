@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.requests;
+
+import net.dv8tion.jda.api.requests.ClusterRestRateLimiter;
+import net.dv8tion.jda.api.requests.LoopbackRateLimitStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterRateLimitStoreTest
+{
+    private static final String BUCKET = "abc:channel_id=1";
+
+    @Test
+    void leasesUnknownBucket()
+    {
+        ClusterRestRateLimiter.InMemoryStore store = new ClusterRestRateLimiter.InMemoryStore();
+
+        assertThat(store.acquire(BUCKET, 1000, 500)).isZero();
+        assertThat(store.acquire(BUCKET, 1100, 500)).isEqualTo(400);
+
+        store.update(BUCKET, 2, 3000);
+        assertThat(store.acquire(BUCKET, 1200, 500)).isZero();
+        assertThat(store.acquire(BUCKET, 1200, 500)).isZero();
+        assertThat(store.acquire(BUCKET, 1200, 500)).isEqualTo(1800);
+    }
+
+    @Test
+    void keepsLowerRemainingInSameWindow()
+    {
+        ClusterRestRateLimiter.InMemoryStore store = new ClusterRestRateLimiter.InMemoryStore();
+        store.acquire(BUCKET, 1000, 500);
+        store.update(BUCKET, 1, 3000);
+
+        // A response which arrived out of order must not restore uses
+        store.update(BUCKET, 4, 3000);
+        assertThat(store.acquire(BUCKET, 1200, 500)).isZero();
+        assertThat(store.acquire(BUCKET, 1200, 500)).isEqualTo(1800);
+
+        store.update(BUCKET, 4, 4000);
+        assertThat(store.acquire(BUCKET, 3500, 500)).isZero();
+    }
+
+    @Test
+    void limitsGlobalBudgetPerWindow()
+    {
+        ClusterRestRateLimiter.InMemoryStore store = new ClusterRestRateLimiter.InMemoryStore();
+
+        assertThat(store.acquireGlobal(1, 20, 50)).isEqualTo(20);
+        assertThat(store.acquireGlobal(1, 20, 50)).isEqualTo(20);
+        assertThat(store.acquireGlobal(1, 20, 50)).isEqualTo(10);
+        assertThat(store.acquireGlobal(1, 20, 50)).isZero();
+        assertThat(store.acquireGlobal(2, 20, 50)).isEqualTo(20);
+    }
+
+    @Test
+    void ignoresStaleGlobalWindow()
+    {
+        ClusterRestRateLimiter.InMemoryStore store = new ClusterRestRateLimiter.InMemoryStore();
+        assertThat(store.acquireGlobal(2, 50, 50)).isEqualTo(50);
+
+        // A late call for the previous window must not reset the budget of the current one
+        assertThat(store.acquireGlobal(1, 20, 50)).isZero();
+        assertThat(store.acquireGlobal(2, 20, 50)).isZero();
+    }
+
+    @Test
+    void sharesStateThroughLoopback() throws IOException
+    {
+        try (LoopbackRateLimitStore.Server server = new LoopbackRateLimitStore.Server(0);
+             LoopbackRateLimitStore first = new LoopbackRateLimitStore(server.getPort());
+             LoopbackRateLimitStore second = new LoopbackRateLimitStore(server.getPort()))
+        {
+            assertThat(first.getHash("POST/channels/{channel_id}/messages")).isNull();
+            first.setHash("POST/channels/{channel_id}/messages", "abc");
+            assertThat(second.getHash("POST/channels/{channel_id}/messages")).isEqualTo("abc");
+
+            assertThat(first.acquire(BUCKET, 1000, 500)).isZero();
+            assertThat(second.acquire(BUCKET, 1000, 500)).isEqualTo(500);
+
+            second.setClassic(5000);
+            assertThat(first.getClassic()).isEqualTo(5000);
+            assertThat(first.acquireGlobal(1, 30, 50) + second.acquireGlobal(1, 30, 50)).isEqualTo(50);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.test.requests;
+
+import net.dv8tion.jda.api.requests.ClusterRestRateLimiter;
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.Route;
+import okhttp3.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.dv8tion.jda.test.requests.TestWork.createResponse;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClusterRestRateLimiterTest
+{
+    private static final Route.CompiledRoute ROUTE = Route.Messages.SEND_MESSAGE.compile("1");
+
+    // Workers are only run when the test runs them
+    private final Deque<Runnable> workers = new ArrayDeque<>();
+    private final List<Long> delays = new ArrayList<>();
+    private final TestStore store = new TestStore();
+    private ClusterRestRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setup()
+    {
+        ScheduledExecutorService scheduler = mock();
+        when(scheduler.scheduleAtFixedRate(any(), anyLong(), anyLong(), any())).thenReturn(mock(ScheduledFuture.class));
+        when(scheduler.schedule(any(Runnable.class), anyLong(), any())).thenAnswer(invocation -> {
+            workers.add(invocation.getArgument(0));
+            delays.add(invocation.getArgument(1));
+            return mock(ScheduledFuture.class);
+        });
+
+        // The scheduler is also the elastic pool, so workers run on the calling thread
+        RestRateLimiter.RateLimitConfig config = new RestRateLimiter.RateLimitConfig(scheduler, RestRateLimiter.GlobalRateLimit.create(), true);
+        rateLimiter = new ClusterRestRateLimiter(config, store, 50, 5);
+    }
+
+    private TestWork enqueue(Response response)
+    {
+        TestWork work = new TestWork(ROUTE, () -> response);
+        rateLimiter.enqueue(work);
+        return work;
+    }
+
+    private void runWorkers()
+    {
+        // Bounded, in case a bug keeps rescheduling the same worker
+        for (int i = 0; i < 10 && !workers.isEmpty(); i++)
+            workers.poll().run();
+    }
+
+    @Test
+    void acquiresGlobalPermitsInBatches()
+    {
+        Response response = createResponse(200);
+        List<TestWork> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            requests.add(enqueue(response));
+        runWorkers();
+
+        for (TestWork request : requests)
+            assertThat(request.executions).hasValue(1);
+        // Two batches of 5, or one more if the requests crossed into the next second
+        assertThat(store.globalCalls.get()).isBetween(2, 3);
+    }
+
+    @Test
+    void resolvesHashOnWorker()
+    {
+        store.setHash(ROUTE.getBaseRoute().toString(), "abc");
+        TestWork first = enqueue(createResponse(200));
+
+        // Enqueueing must never wait for the store
+        assertThat(store.hashCalls).hasValue(0);
+        runWorkers();
+        assertThat(first.executions).hasValue(1);
+        assertThat(store.hashCalls).hasValue(1);
+        assertThat(store.updates).contains("abc:channel_id=1 1 0");
+
+        // The hash is cached once it was looked up
+        enqueue(createResponse(200));
+        runWorkers();
+        assertThat(store.hashCalls).hasValue(1);
+    }
+
+    @Test
+    void releasesLeaseOnError()
+    {
+        TestWork work = new TestWork(ROUTE, () -> {
+            throw new IllegalStateException("Request failed");
+        });
+        rateLimiter.enqueue(work);
+        runWorkers();
+
+        assertThat(work.executions).hasValue(1);
+        assertThat(store.updates).hasSize(1);
+        assertThat(store.updates.get(0)).endsWith(" 1 0");
+    }
+
+    @Test
+    void retriesRateLimitedRequestIfStoreFails()
+    {
+        Response rateLimited = createResponse(429,
+                RestRateLimiter.RETRY_AFTER_HEADER, "0",
+                RestRateLimiter.HASH_HEADER, "abc",
+                "via", "1.1 google");
+        Response success = createResponse(200);
+        AtomicInteger calls = new AtomicInteger();
+        TestWork work = new TestWork(ROUTE, () -> calls.getAndIncrement() == 0 ? rateLimited : success);
+        store.failUpdates = true;
+        rateLimiter.enqueue(work);
+        runWorkers();
+
+        // The bucket state was lost, but the request is still retried and completed
+        assertThat(work.executions).hasValue(2);
+        assertThat(work.done).isTrue();
+    }
+
+    @Test
+    void sharesGlobalRateLimit()
+    {
+        Response rateLimited = createResponse(429,
+                RestRateLimiter.RETRY_AFTER_HEADER, "5",
+                RestRateLimiter.GLOBAL_HEADER, "true",
+                "via", "1.1 google");
+        TestWork work = enqueue(rateLimited);
+        runWorkers();
+
+        // The request backs off until the global rate-limit in the store ends
+        assertThat(store.getClassic()).isGreaterThan(System.currentTimeMillis());
+        assertThat(work.executions).hasValue(1);
+        assertThat(workers).hasSize(1);
+        assertThat(delays.get(delays.size() - 1)).isBetween(4000L, 5000L);
+    }
+
+    static class TestStore extends ClusterRestRateLimiter.InMemoryStore
+    {
+        final AtomicInteger globalCalls = new AtomicInteger();
+        final AtomicInteger hashCalls = new AtomicInteger();
+        final List<String> updates = new CopyOnWriteArrayList<>();
+        volatile boolean failUpdates;
+
+        @Nullable
+        @Override
+        public String getHash(@Nonnull String route)
+        {
+            hashCalls.incrementAndGet();
+            return super.getHash(route);
+        }
+
+        @Override
+        public void update(@Nonnull String bucketId, int remaining, long reset)
+        {
+            if (failUpdates)
+                throw new UncheckedIOException(new IOException("Store unavailable"));
+            updates.add(bucketId + " " + remaining + " " + reset);
+            super.update(bucketId, remaining, reset);
+        }
+
+        @Override
+        public int acquireGlobal(long window, int permits, int limit)
+        {
+            globalCalls.incrementAndGet();
+            return super.acquireGlobal(window, permits, limit);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.test.requests;
+
+import net.dv8tion.jda.api.requests.Request;
+import net.dv8tion.jda.api.requests.Response;
+import net.dv8tion.jda.api.requests.RestConfig;
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.Requester;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import okhttp3.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RequesterAsyncTest
+{
+    private final List<Callback> callbacks = new ArrayList<>();
+    private ScheduledExecutorService rateLimitPool;
+    private Call call;
+    private Request<Object> apiRequest;
+    private Requester requester;
+
+    @BeforeEach
+    void setup()
+    {
+        JDAImpl jda = mock();
+        OkHttpClient httpClient = mock();
+        RestRateLimiter rateLimiter = mock();
+        rateLimitPool = mock();
+        call = mock();
+
+        when(jda.getHttpClient()).thenReturn(httpClient);
+        when(jda.getRateLimitPool()).thenReturn(rateLimitPool);
+        when(httpClient.newCall(any())).thenReturn(call);
+        // Calls never run, the tests complete them through the enqueued callbacks
+        doAnswer(invocation -> callbacks.add(invocation.getArgument(0))).when(call).enqueue(any());
+
+        apiRequest = mock();
+        when(apiRequest.getRoute()).thenReturn(Route.Messages.SEND_MESSAGE.compile("1"));
+        when(apiRequest.shouldQueue()).thenReturn(false);
+
+        RestConfig config = new RestConfig().setNonBlocking(true);
+        requester = new Requester(jda, new AuthorizationConfig("token"), config, rateLimiter);
+    }
+
+    private static okhttp3.Response createResponse(int code)
+    {
+        return new okhttp3.Response.Builder()
+                .request(new okhttp3.Request.Builder().url("https://discord.com/api/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("Status " + code)
+                .body(ResponseBody.create("{}", Requester.MEDIA_TYPE_JSON))
+                .build();
+    }
+
+    private Runnable getScheduledRetry(long delay)
+    {
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        verify(rateLimitPool).schedule(retry.capture(), eq(delay), eq(TimeUnit.MILLISECONDS));
+        return retry.getValue();
+    }
+
+    private Response getHandledResponse()
+    {
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(apiRequest).handleResponse(response.capture());
+        return response.getValue();
+    }
+
+    @Test
+    void schedulesServerErrorRetry() throws IOException
+    {
+        requester.request(apiRequest);
+        assertThat(callbacks).hasSize(1);
+
+        callbacks.get(0).onResponse(call, createResponse(502));
+
+        // The retry is scheduled instead of blocking the thread of the http client
+        Runnable retry = getScheduledRetry(500);
+        assertThat(callbacks).hasSize(1);
+        verify(apiRequest, never()).handleResponse(any());
+
+        retry.run();
+        assertThat(callbacks).hasSize(2);
+
+        callbacks.get(1).onResponse(call, createResponse(200));
+        assertThat(getHandledResponse().code).isEqualTo(200);
+    }
+
+    @Test
+    void stopsRetryingAfterLastAttempt() throws IOException
+    {
+        requester.request(apiRequest);
+
+        long delay = 500;
+        for (int attempt = 0; attempt < 3; attempt++)
+        {
+            callbacks.get(attempt).onResponse(call, createResponse(503));
+            getScheduledRetry(delay).run();
+            delay <<= 1;
+        }
+
+        callbacks.get(3).onResponse(call, createResponse(503));
+        verifyNoMoreInteractions(rateLimitPool);
+        assertThat(callbacks).hasSize(4);
+        assertThat(getHandledResponse().code).isEqualTo(503);
+    }
+
+    @Test
+    void handlesServerErrorIfRetryIsRejected() throws IOException
+    {
+        when(rateLimitPool.schedule(any(Runnable.class), anyLong(), any())).thenThrow(new RejectedExecutionException());
+        requester.request(apiRequest);
+
+        callbacks.get(0).onResponse(call, createResponse(502));
+
+        assertThat(callbacks).hasSize(1);
+        assertThat(getHandledResponse().code).isEqualTo(502);
+    }
+
+    @Test
+    void skipsScheduledRetry() throws IOException
+    {
+        requester.request(apiRequest);
+        callbacks.get(0).onResponse(call, createResponse(502));
+        Runnable retry = getScheduledRetry(500);
+
+        // The request is cancelled or timed out while waiting for the retry
+        when(apiRequest.isSkipped()).thenReturn(true);
+        retry.run();
+
+        assertThat(callbacks).hasSize(1);
+        verify(apiRequest, never()).handleResponse(any());
+    }
+
+    @Test
+    void skipsRequestBeforeFirstCall()
+    {
+        when(apiRequest.isSkipped()).thenReturn(true);
+        requester.request(apiRequest);
+
+        assertThat(callbacks).isEmpty();
+        verify(apiRequest, never()).handleResponse(any());
+    }
+
+    @Test
+    void retriesTimeoutOnce()
+    {
+        requester.setRetryOnTimeout(true);
+        requester.request(apiRequest);
+
+        callbacks.get(0).onFailure(call, new SocketTimeoutException());
+        assertThat(callbacks).hasSize(2);
+        verify(apiRequest, never()).handleResponse(any());
+
+        callbacks.get(1).onFailure(call, new SocketTimeoutException());
+        assertThat(callbacks).hasSize(2);
+        assertThat(getHandledResponse().getException()).isInstanceOf(SocketTimeoutException.class);
+    }
+
+    @Test
+    void retriesTimeoutWithSuccess() throws IOException
+    {
+        requester.setRetryOnTimeout(true);
+        requester.request(apiRequest);
+
+        callbacks.get(0).onFailure(call, new SocketTimeoutException());
+        callbacks.get(1).onResponse(call, createResponse(200));
+
+        assertThat(getHandledResponse().code).isEqualTo(200);
+    }
+
+    @Test
+    void failsTimeoutWithoutRetry()
+    {
+        requester.request(apiRequest);
+
+        callbacks.get(0).onFailure(call, new SocketTimeoutException());
+
+        assertThat(callbacks).hasSize(1);
+        assertThat(getHandledResponse().getException()).isInstanceOf(SocketTimeoutException.class);
+    }
+}
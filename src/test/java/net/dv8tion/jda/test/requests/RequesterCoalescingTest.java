@@ -0,0 +1,234 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.test.requests;
+
+import net.dv8tion.jda.api.requests.Request;
+import net.dv8tion.jda.api.requests.Response;
+import net.dv8tion.jda.api.requests.RestConfig;
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.Requester;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import okhttp3.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RequesterCoalescingTest
+{
+    private static final Route.CompiledRoute ROUTE = Route.Guilds.GET_MEMBER.compile("1", "2");
+    private static final String BODY = "{\"id\":\"2\"}";
+
+    // Calls are only executed when the test runs them
+    private final List<RestRateLimiter.Work> enqueued = new CopyOnWriteArrayList<>();
+    private OkHttpClient httpClient;
+    private Requester requester;
+
+    @BeforeEach
+    void setup() throws IOException
+    {
+        JDAImpl jda = mock();
+        RestRateLimiter rateLimiter = mock();
+        httpClient = mock();
+        Call call = mock();
+
+        when(jda.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.newCall(any())).thenReturn(call);
+        when(call.execute()).thenAnswer(invocation -> createResponse());
+        doAnswer(invocation -> enqueued.add(invocation.getArgument(0))).when(rateLimiter).enqueue(any());
+
+        RestConfig config = new RestConfig().setRequestCoalescing(true);
+        requester = new Requester(jda, new AuthorizationConfig("token"), config, rateLimiter);
+    }
+
+    private static okhttp3.Response createResponse()
+    {
+        return new okhttp3.Response.Builder()
+                .request(new okhttp3.Request.Builder().url("https://discord.com/api/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(BODY, Requester.MEDIA_TYPE_JSON))
+                .build();
+    }
+
+    private Request<Object> request()
+    {
+        return request(ROUTE);
+    }
+
+    private Request<Object> request(Route.CompiledRoute route)
+    {
+        Request<Object> request = mock();
+        when(request.getRoute()).thenReturn(route);
+        when(request.shouldQueue()).thenReturn(true);
+        requester.request(request);
+        return request;
+    }
+
+    private static Response getHandledResponse(Request<Object> request)
+    {
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(request).handleResponse(response.capture());
+        return response.getValue();
+    }
+
+    @Test
+    void sharesCallBetweenIdenticalRequests()
+    {
+        Request<Object> first = request();
+        Request<Object> second = request();
+        assertThat(enqueued).hasSize(1);
+
+        enqueued.get(0).execute();
+        verify(httpClient, times(1)).newCall(any());
+
+        // Every request reads its own body, even if they parse it differently
+        Response firstResponse = getHandledResponse(first);
+        Response secondResponse = getHandledResponse(second);
+        assertThat(firstResponse).isNotSameAs(secondResponse);
+        firstResponse.getObject().put("id", "3");
+        assertThat(secondResponse.getString()).isEqualTo(BODY);
+        assertThat(firstResponse.getObject().getString("id")).isEqualTo("3");
+    }
+
+    @Test
+    void keepsRequestsWithDifferentQueriesApart()
+    {
+        Route.CompiledRoute route = Route.Guilds.GET_BANS.compile("1");
+        request(route.withQueryParams("limit", "1000"));
+        request(route.withQueryParams("limit", "1000", "after", "2"));
+
+        // Pages of the same route are different calls
+        assertThat(enqueued).hasSize(2);
+    }
+
+    @Test
+    void runsCallIfFirstRequestIsSkipped()
+    {
+        Request<Object> first = request();
+        Request<Object> second = request();
+        when(first.isSkipped()).thenReturn(true);
+
+        RestRateLimiter.Work work = enqueued.get(0);
+        assertThat(work.isSkipped()).isFalse();
+        work.execute();
+
+        // The call is not dispatched again, the remaining request uses the same call
+        assertThat(enqueued).hasSize(1);
+        verify(first, never()).handleResponse(any());
+        assertThat(getHandledResponse(second).code).isEqualTo(200);
+    }
+
+    @Test
+    void checksJoinedRequestsWhileWaiting()
+    {
+        Request<Object> first = request();
+        Request<Object> second = request();
+        when(second.isSkipped()).thenReturn(true);
+
+        // The deadline of a joined request is checked whenever the rate-limiter checks the call
+        RestRateLimiter.Work work = enqueued.get(0);
+        assertThat(work.isSkipped()).isFalse();
+        verify(second).isSkipped();
+
+        work.execute();
+        verify(second, never()).handleResponse(any());
+        assertThat(getHandledResponse(first).code).isEqualTo(200);
+    }
+
+    @Test
+    void skipsCallOnceEveryRequestIsSkipped()
+    {
+        Request<Object> first = request();
+        Request<Object> second = request();
+        when(first.isSkipped()).thenReturn(true);
+        when(second.isSkipped()).thenReturn(true);
+
+        assertThat(enqueued.get(0).isSkipped()).isTrue();
+
+        // Identical requests no longer join the skipped call
+        request();
+        assertThat(enqueued).hasSize(2);
+    }
+
+    @Test
+    void cancelsJoinedRequests()
+    {
+        Request<Object> first = request();
+        Request<Object> second = request();
+
+        enqueued.get(0).cancel();
+        verify(first).cancel();
+        verify(second).cancel();
+
+        request();
+        assertThat(enqueued).hasSize(2);
+    }
+
+    @Test
+    void joinRacingWithResponseHandlesEveryRequestOnce() throws InterruptedException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            for (int round = 0; round < 20; round++)
+            {
+                enqueued.clear();
+                List<Request<Object>> requests = new CopyOnWriteArrayList<>();
+                requests.add(request());
+
+                CountDownLatch latch = new CountDownLatch(40);
+                for (int i = 0; i < 40; i++)
+                {
+                    executor.execute(() -> {
+                        requests.add(request());
+                        latch.countDown();
+                    });
+                }
+                enqueued.get(0).execute();
+                assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+
+                // Requests which joined too late started their own call
+                for (int i = 1; i < enqueued.size(); i++)
+                    enqueued.get(i).execute();
+
+                for (Request<Object> request : new ArrayList<>(requests))
+                    verify(request, times(1)).handleResponse(any());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
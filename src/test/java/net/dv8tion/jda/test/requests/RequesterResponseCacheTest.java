@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.test.requests;
+
+import net.dv8tion.jda.api.requests.Request;
+import net.dv8tion.jda.api.requests.Response;
+import net.dv8tion.jda.api.requests.RestConfig;
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.Requester;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import okhttp3.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RequesterResponseCacheTest
+{
+    private static final Route.CompiledRoute GET_EMOJIS = Route.Emojis.GET_EMOJIS.compile("1");
+    private static final Route.CompiledRoute DELETE_EMOJI = Route.Emojis.DELETE_EMOJI.compile("1", "2");
+
+    private Call getCall;
+    private Call deleteCall;
+    private Requester requester;
+
+    @BeforeEach
+    void setup() throws IOException
+    {
+        JDAImpl jda = mock();
+        OkHttpClient httpClient = mock();
+        RestRateLimiter rateLimiter = mock();
+        getCall = mock();
+        deleteCall = mock();
+
+        when(jda.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.newCall(any())).thenAnswer(invocation -> {
+            okhttp3.Request request = invocation.getArgument(0);
+            return "GET".equals(request.method()) ? getCall : deleteCall;
+        });
+        when(getCall.execute()).thenAnswer(invocation -> createResponse(200, "[]"));
+        when(deleteCall.execute()).thenAnswer(invocation -> createResponse(204, ""));
+
+        RestConfig config = new RestConfig().setResponseCacheSize(10);
+        requester = new Requester(jda, new AuthorizationConfig("token"), config, rateLimiter);
+    }
+
+    private static okhttp3.Response createResponse(int code, String body)
+    {
+        return new okhttp3.Response.Builder()
+                .request(new okhttp3.Request.Builder().url("https://discord.com/api/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("Status " + code)
+                .body(ResponseBody.create(body, Requester.MEDIA_TYPE_JSON))
+                .build();
+    }
+
+    private Request<Object> request(Route.CompiledRoute route)
+    {
+        // Requests which are not queued are executed on the calling thread
+        Request<Object> request = mock();
+        when(request.getRoute()).thenReturn(route);
+        when(request.shouldQueue()).thenReturn(false);
+        requester.request(request);
+        return request;
+    }
+
+    private static Response getHandledResponse(Request<Object> request)
+    {
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(request).handleResponse(response.capture());
+        return response.getValue();
+    }
+
+    @Test
+    void servesCachedResponse() throws IOException
+    {
+        request(GET_EMOJIS);
+        Request<Object> cached = request(GET_EMOJIS);
+
+        verify(getCall, times(1)).execute();
+        assertThat(getHandledResponse(cached).code).isEqualTo(200);
+        assertThat(getHandledResponse(cached).getString()).isEqualTo("[]");
+    }
+
+    @Test
+    void invalidatesOnMutatingRequest() throws IOException
+    {
+        request(GET_EMOJIS);
+        request(DELETE_EMOJI);
+        request(GET_EMOJIS);
+
+        verify(getCall, times(2)).execute();
+    }
+
+    @Test
+    void dropsResponseOfRequestRacingWithMutation() throws IOException
+    {
+        // The emoji is deleted while the list of emojis is requested
+        when(getCall.execute()).thenAnswer(invocation -> {
+            request(DELETE_EMOJI);
+            return createResponse(200, "[]");
+        }).thenAnswer(invocation -> createResponse(200, "[]"));
+
+        Request<Object> stale = request(GET_EMOJIS);
+        assertThat(getHandledResponse(stale).code).isEqualTo(200);
+
+        request(GET_EMOJIS);
+        verify(getCall, times(2)).execute();
+        verify(deleteCall, times(1)).execute();
+    }
+}
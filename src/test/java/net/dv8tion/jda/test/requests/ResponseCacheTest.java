@@ -0,0 +1,193 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.requests;
+
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.internal.requests.ResponseCache;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest
+{
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private static ResponseCache createCache(int maxSize)
+    {
+        Map<Route, Duration> ttls = new HashMap<>();
+        ttls.put(Route.Emojis.GET_EMOJIS, Duration.ofMinutes(1));
+        ttls.put(Route.Interactions.GET_COMMANDS, Duration.ofMinutes(1));
+        ttls.put(Route.Invites.GET_INVITE, Duration.ofMinutes(1));
+        return new ResponseCache(maxSize, ttls);
+    }
+
+    private static Response createResponse(int code, String body)
+    {
+        return new Response.Builder()
+                .request(new Request.Builder().url("https://discord.com/api/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("OK")
+                .body(ResponseBody.create(body, JSON))
+                .build();
+    }
+
+    @Test
+    void servesStoredResponse() throws IOException
+    {
+        ResponseCache cache = createCache(10);
+        Route.CompiledRoute route = Route.Emojis.GET_EMOJIS.compile("1");
+
+        assertThat(cache.isCached(route)).isTrue();
+        assertThat(cache.get(route)).isNull();
+
+        Response stored = cache.put(route, createResponse(200, "[]"), cache.getGeneration());
+        assertThat(stored.body().string()).isEqualTo("[]");
+
+        // Every hit has its own body
+        assertThat(cache.get(route).body().string()).isEqualTo("[]");
+        assertThat(cache.get(route).body().string()).isEqualTo("[]");
+    }
+
+    @Test
+    void keepsPagesOfSameRouteApart() throws IOException
+    {
+        ResponseCache cache = new ResponseCache(10, Collections.singletonMap(Route.Guilds.GET_BANS, Duration.ofMinutes(1)));
+        Route.CompiledRoute route = Route.Guilds.GET_BANS.compile("1");
+        Route.CompiledRoute first = route.withQueryParams("limit", "1000");
+        Route.CompiledRoute second = route.withQueryParams("limit", "1000", "after", "2");
+
+        cache.put(first, createResponse(200, "[1]"), cache.getGeneration());
+        assertThat(cache.get(second)).isNull();
+
+        cache.put(second, createResponse(200, "[2]"), cache.getGeneration());
+        assertThat(cache.get(first).body().string()).isEqualTo("[1]");
+        assertThat(cache.get(second).body().string()).isEqualTo("[2]");
+    }
+
+    @Test
+    void ignoresUncachedRoutes()
+    {
+        ResponseCache cache = createCache(10);
+        Route.CompiledRoute route = Route.Emojis.GET_EMOJI.compile("1", "2");
+
+        assertThat(cache.isCached(route)).isFalse();
+        cache.put(route, createResponse(200, "{}"), cache.getGeneration());
+        assertThat(cache.get(route)).isNull();
+
+        Route.CompiledRoute emojis = Route.Emojis.GET_EMOJIS.compile("1");
+        cache.put(emojis, createResponse(404, "{}"), cache.getGeneration());
+        assertThat(cache.get(emojis)).isNull();
+    }
+
+    @Test
+    void invalidatesSameMajorParameters()
+    {
+        ResponseCache cache = createCache(10);
+        Route.CompiledRoute first = Route.Emojis.GET_EMOJIS.compile("1");
+        Route.CompiledRoute second = Route.Emojis.GET_EMOJIS.compile("2");
+        cache.put(first, createResponse(200, "[]"), cache.getGeneration());
+        cache.put(second, createResponse(200, "[]"), cache.getGeneration());
+
+        cache.invalidate(Route.Emojis.GET_EMOJI.compile("1", "3"));
+        assertThat(cache.get(first)).isNotNull();
+
+        cache.invalidate(Route.Emojis.DELETE_EMOJI.compile("1", "3"));
+        assertThat(cache.get(first)).isNull();
+        assertThat(cache.get(second)).isNotNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed()
+    {
+        ResponseCache cache = createCache(2);
+        Route.CompiledRoute first = Route.Emojis.GET_EMOJIS.compile("1");
+        Route.CompiledRoute second = Route.Emojis.GET_EMOJIS.compile("2");
+        Route.CompiledRoute third = Route.Emojis.GET_EMOJIS.compile("3");
+        cache.put(first, createResponse(200, "[]"), cache.getGeneration());
+        cache.put(second, createResponse(200, "[]"), cache.getGeneration());
+
+        assertThat(cache.get(first)).isNotNull();
+        cache.put(third, createResponse(200, "[]"), cache.getGeneration());
+
+        assertThat(cache.get(first)).isNotNull();
+        assertThat(cache.get(second)).isNull();
+        assertThat(cache.get(third)).isNotNull();
+    }
+
+    @Test
+    void expiresAfterTtl() throws InterruptedException
+    {
+        ResponseCache cache = new ResponseCache(10, Collections.singletonMap(Route.Emojis.GET_EMOJIS, Duration.ofMillis(200)));
+        Route.CompiledRoute route = Route.Emojis.GET_EMOJIS.compile("1");
+        cache.put(route, createResponse(200, "[]"), cache.getGeneration());
+        assertThat(cache.get(route)).isNotNull();
+
+        Thread.sleep(300);
+        assertThat(cache.get(route)).isNull();
+    }
+
+    @Test
+    void dropsResponseSentBeforeInvalidation()
+    {
+        ResponseCache cache = createCache(10);
+        Route.CompiledRoute route = Route.Emojis.GET_EMOJIS.compile("1");
+        Route.CompiledRoute other = Route.Emojis.GET_EMOJIS.compile("2");
+        long generation = cache.getGeneration();
+
+        // The request was sent before the emoji was deleted, so its response might still contain it
+        cache.invalidate(Route.Emojis.DELETE_EMOJI.compile("1", "3"));
+        cache.put(route, createResponse(200, "[]"), generation);
+        assertThat(cache.get(route)).isNull();
+
+        cache.put(other, createResponse(200, "[]"), generation);
+        assertThat(cache.get(other)).isNotNull();
+
+        cache.put(route, createResponse(200, "[]"), cache.getGeneration());
+        assertThat(cache.get(route)).isNotNull();
+    }
+
+    @Test
+    void invalidatesGlobalRoutesByResource()
+    {
+        ResponseCache cache = createCache(10);
+        Route.CompiledRoute commands = Route.Interactions.GET_COMMANDS.compile("1");
+        Route.CompiledRoute invite = Route.Invites.GET_INVITE.compile("abc");
+        cache.put(commands, createResponse(200, "[]"), cache.getGeneration());
+        cache.put(invite, createResponse(200, "{}"), cache.getGeneration());
+
+        // Unrelated routes without major parameters keep their entries
+        cache.invalidate(Route.Self.CREATE_PRIVATE_CHANNEL.compile());
+        assertThat(cache.get(commands)).isNotNull();
+        assertThat(cache.get(invite)).isNotNull();
+
+        cache.invalidate(Route.Interactions.EDIT_COMMAND.compile("1", "2"));
+        assertThat(cache.get(commands)).isNull();
+        assertThat(cache.get(invite)).isNotNull();
+    }
+}
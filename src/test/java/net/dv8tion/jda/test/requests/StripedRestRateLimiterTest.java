@@ -0,0 +1,271 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.test.requests;
+
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.api.requests.StripedRestRateLimiter;
+import okhttp3.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static net.dv8tion.jda.test.requests.TestWork.createBucketResponse;
+import static net.dv8tion.jda.test.requests.TestWork.createResponse;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StripedRestRateLimiterTest
+{
+    private static final Route.CompiledRoute ROUTE = Route.Messages.SEND_MESSAGE.compile("1");
+    private static final Route.CompiledRoute OTHER_ROUTE = Route.Messages.SEND_MESSAGE.compile("2");
+
+    // Workers are only run when the test runs them
+    private final Deque<Runnable> workers = new ArrayDeque<>();
+    private final List<Long> delays = new ArrayList<>();
+    private Runnable cleanup;
+    private StripedRestRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setup()
+    {
+        ScheduledExecutorService scheduler = mock();
+        when(scheduler.scheduleAtFixedRate(any(), anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            cleanup = invocation.getArgument(0);
+            return mock(ScheduledFuture.class);
+        });
+        when(scheduler.schedule(any(Runnable.class), anyLong(), any())).thenAnswer(invocation -> {
+            workers.add(invocation.getArgument(0));
+            delays.add(invocation.getArgument(1));
+            return mock(ScheduledFuture.class);
+        });
+
+        // The scheduler is also the elastic pool, so workers run on the calling thread
+        RestRateLimiter.RateLimitConfig config = new RestRateLimiter.RateLimitConfig(scheduler, RestRateLimiter.GlobalRateLimit.create(), true);
+        rateLimiter = new StripedRestRateLimiter(config);
+    }
+
+    private TestWork enqueue(Route.CompiledRoute route, Response response)
+    {
+        TestWork work = new TestWork(route, () -> response);
+        rateLimiter.enqueue(work);
+        return work;
+    }
+
+    private void runWorker()
+    {
+        assertThat(workers).isNotEmpty();
+        workers.poll().run();
+    }
+
+    @Test
+    void schedulesOneWorkerPerBucket()
+    {
+        Response response = createResponse(200);
+        TestWork first = enqueue(ROUTE, response);
+        TestWork second = enqueue(ROUTE, response);
+        TestWork other = enqueue(OTHER_ROUTE, response);
+
+        assertThat(workers).hasSize(2);
+        runWorker();
+        assertThat(first.executions).hasValue(1);
+        assertThat(second.executions).hasValue(1);
+        assertThat(other.executions).hasValue(0);
+
+        runWorker();
+        assertThat(other.executions).hasValue(1);
+        assertThat(workers).isEmpty();
+    }
+
+    @Test
+    void schedulesNewWorkerOnceIdle()
+    {
+        Response response = createResponse(200);
+        enqueue(ROUTE, response);
+        runWorker();
+        assertThat(workers).isEmpty();
+
+        // The worker released the bucket, the next request needs a new one
+        TestWork next = enqueue(ROUTE, response);
+        assertThat(workers).hasSize(1);
+        runWorker();
+        assertThat(next.executions).hasValue(1);
+    }
+
+    @Test
+    void backsOffOnExhaustedBucket()
+    {
+        Response response = createBucketResponse("abc", 0, "5.000");
+        TestWork first = enqueue(ROUTE, response);
+        TestWork second = enqueue(ROUTE, response);
+        runWorker();
+
+        // The second request is moved to the bucket of the hash, which is exhausted
+        assertThat(first.executions).hasValue(1);
+        assertThat(second.executions).hasValue(0);
+        assertThat(workers).hasSize(1);
+        assertThat(delays.get(delays.size() - 1)).isBetween(4000L, 5000L);
+    }
+
+    @Test
+    void retriesRateLimitedRequest()
+    {
+        Response rateLimited = createResponse(429,
+                RestRateLimiter.RETRY_AFTER_HEADER, "0",
+                RestRateLimiter.HASH_HEADER, "abc",
+                "via", "1.1 google");
+        Response success = createBucketResponse("abc", 4, "1.000");
+        AtomicBoolean limited = new AtomicBoolean(true);
+        TestWork work = new TestWork(ROUTE, () -> limited.getAndSet(false) ? rateLimited : success);
+        rateLimiter.enqueue(work);
+
+        runWorker();
+        assertThat(work.executions).hasValue(1);
+        assertThat(work.isDone()).isFalse();
+
+        // The request is retried on the bucket of the hash
+        assertThat(workers).hasSize(1);
+        runWorker();
+        assertThat(work.executions).hasValue(2);
+        assertThat(work.isDone()).isTrue();
+    }
+
+    @Test
+    void skipsCancelledRequests()
+    {
+        Response response = createResponse(200);
+        TestWork cancelled = enqueue(ROUTE, response);
+        TestWork kept = enqueue(ROUTE, response);
+        cancelled.cancel();
+        runWorker();
+
+        assertThat(cancelled.executions).hasValue(0);
+        assertThat(kept.executions).hasValue(1);
+    }
+
+    @Test
+    void cleanupKeepsExhaustedBucket()
+    {
+        enqueue(ROUTE, createBucketResponse("abc", 0, "5.000"));
+        runWorker();
+        assertThat(workers).isEmpty();
+
+        // The uninit bucket is removed, the bucket of the hash still has to wait for its reset
+        cleanup.run();
+        TestWork next = enqueue(ROUTE, createResponse(200));
+        assertThat(workers).hasSize(1);
+        assertThat(delays.get(delays.size() - 1)).isBetween(4000L, 5000L);
+        assertThat(next.executions).hasValue(0);
+    }
+
+    @Test
+    void stopWaitsForQueuedRequests()
+    {
+        TestWork work = enqueue(ROUTE, createResponse(200));
+        AtomicBoolean stopped = new AtomicBoolean();
+        rateLimiter.stop(false, () -> stopped.set(true));
+
+        assertThat(rateLimiter.isStopped()).isTrue();
+        assertThat(stopped).isFalse();
+
+        // The last worker retires its bucket and completes the shutdown
+        runWorker();
+        assertThat(work.executions).hasValue(1);
+        assertThat(stopped).isTrue();
+
+        TestWork rejected = enqueue(ROUTE, createResponse(200));
+        assertThat(rejected.isCancelled()).isTrue();
+        assertThat(workers).isEmpty();
+    }
+
+    @Test
+    void enqueueRacingWithCleanupRunsEveryRequest() throws Exception
+    {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(4)
+        {
+            @Override
+            public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit)
+            {
+                cleanup = command;
+                return super.scheduleAtFixedRate(command, 1, 1, TimeUnit.DAYS);
+            }
+        };
+        ExecutorService elastic = Executors.newFixedThreadPool(4);
+        try
+        {
+            RestRateLimiter.RateLimitConfig config = new RestRateLimiter.RateLimitConfig(scheduler, elastic, RestRateLimiter.GlobalRateLimit.create(), true);
+            StripedRestRateLimiter rateLimiter = new StripedRestRateLimiter(config);
+
+            // Responses without hash keep the buckets uninit, which the cleanup retires as soon as they are empty
+            int threads = 4, perThread = 2000;
+            Response response = createResponse(200);
+            CountDownLatch executed = new CountDownLatch(threads * perThread);
+            Queue<TestWork> works = new ConcurrentLinkedQueue<>();
+            AtomicBoolean running = new AtomicBoolean(true);
+
+            Thread cleaner = new Thread(() -> {
+                while (running.get())
+                    cleanup.run();
+            });
+            cleaner.start();
+
+            List<Thread> producers = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+            {
+                Thread producer = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < perThread; j++)
+                    {
+                        TestWork work = new TestWork(Route.Messages.SEND_MESSAGE.compile(Integer.toString(random.nextInt(4))), () -> {
+                            executed.countDown();
+                            return response;
+                        });
+                        works.add(work);
+                        rateLimiter.enqueue(work);
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+
+            for (Thread producer : producers)
+                producer.join();
+            assertThat(executed.await(30, TimeUnit.SECONDS)).isTrue();
+            running.set(false);
+            cleaner.join();
+
+            for (TestWork work : works)
+                assertThat(work.executions).hasValue(1);
+        }
+        finally
+        {
+            scheduler.shutdownNow();
+            elastic.shutdownNow();
+        }
+    }
+}
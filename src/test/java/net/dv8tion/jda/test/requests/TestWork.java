@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.test.requests;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.Route;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Request for rate-limiter tests, which completes with the response of the provided supplier.
+ */
+class TestWork implements RestRateLimiter.Work
+{
+    private final Route.CompiledRoute route;
+    private final Supplier<Response> response;
+    final AtomicInteger executions = new AtomicInteger();
+    volatile boolean skipped, done, cancelled;
+
+    TestWork(Route.CompiledRoute route, Supplier<Response> response)
+    {
+        this.route = route;
+        this.response = response;
+    }
+
+    static Response createResponse(int code, String... headers)
+    {
+        Response.Builder builder = new Response.Builder()
+                .request(new Request.Builder().url("https://discord.com/api/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("Status " + code);
+        for (int i = 0; i < headers.length; i += 2)
+            builder.header(headers[i], headers[i + 1]);
+        return builder.build();
+    }
+
+    static Response createBucketResponse(String hash, int remaining, String resetAfter)
+    {
+        return createResponse(200,
+                RestRateLimiter.HASH_HEADER, hash,
+                RestRateLimiter.LIMIT_HEADER, "5",
+                RestRateLimiter.REMAINING_HEADER, Integer.toString(remaining),
+                RestRateLimiter.RESET_AFTER_HEADER, resetAfter);
+    }
+
+    @Nonnull
+    @Override
+    public Route.CompiledRoute getRoute()
+    {
+        return route;
+    }
+
+    @Nonnull
+    @Override
+    public JDA getJDA()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Response execute()
+    {
+        executions.incrementAndGet();
+        Response result = response.get();
+        done = result == null || result.code() != 429;
+        return result;
+    }
+
+    @Override
+    public boolean isSkipped()
+    {
+        return skipped;
+    }
+
+    @Override
+    public boolean isDone()
+    {
+        return skipped || done;
+    }
+
+    @Override
+    public boolean isPriority()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    @Override
+    public void cancel()
+    {
+        cancelled = skipped = true;
+    }
+}
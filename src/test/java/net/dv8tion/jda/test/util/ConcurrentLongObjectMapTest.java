@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.util;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.internal.utils.cache.ConcurrentLongObjectMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrentLongObjectMapTest
+{
+    private static final long BASE_ID = 1125196330646638592L;
+
+    @Test
+    void testBasicOperations()
+    {
+        ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>();
+        assertThat(map.isEmpty()).isTrue();
+
+        assertThat(map.put(BASE_ID, "a")).isNull();
+        assertThat(map.put(BASE_ID, "b")).isEqualTo("a");
+        assertThat(map.putIfAbsent(BASE_ID, "c")).isEqualTo("b");
+        assertThat(map.get(BASE_ID)).isEqualTo("b");
+        assertThat(map.size()).isEqualTo(1);
+
+        assertThat(map.remove(BASE_ID)).isEqualTo("b");
+        assertThat(map.remove(BASE_ID)).isNull();
+        assertThat(map.get(BASE_ID)).isNull();
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testGrowAndShrink()
+    {
+        ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>(4);
+        TLongObjectMap<Long> expected = new TLongObjectHashMap<>();
+        for (long i = 0; i < 10_000; i++)
+        {
+            map.put(BASE_ID + (i << 22), i);
+            expected.put(BASE_ID + (i << 22), i);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        assertThat(map).isEqualTo(expected);
+        assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+
+        for (long i = 0; i < 10_000; i += 2)
+            assertThat(map.remove(BASE_ID + (i << 22))).isEqualTo(i);
+
+        assertThat(map.size()).isEqualTo(5_000);
+        assertThat(map.valueCollection()).hasSize(5_000).allMatch(value -> value % 2 == 1);
+        assertThat(map.keys()).hasSize(5_000);
+
+        map.clear();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.values()).isEmpty();
+    }
+
+    @Test
+    void testReadsDuringWrites() throws Exception
+    {
+        ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>();
+        for (long i = 0; i < 1_000; i++)
+            map.put(BASE_ID + i, i);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try
+        {
+            List<Future<Boolean>> readers = new ArrayList<>();
+            for (int i = 0; i < 3; i++)
+            {
+                readers.add(pool.submit(() ->
+                {
+                    while (running.get())
+                    {
+                        for (long id = 0; id < 1_000; id++)
+                        {
+                            Long value = map.get(BASE_ID + id);
+                            if (value == null || value != id)
+                                return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+
+            // Writer churns through unrelated keys to force rebuilds while readers are active
+            for (long i = 1_000; i < 200_000; i++)
+            {
+                map.put(BASE_ID + i, i);
+                if (i % 3 == 0)
+                    map.remove(BASE_ID + i);
+            }
+
+            running.set(false);
+            for (Future<Boolean> reader : readers)
+                assertThat(reader.get(10, TimeUnit.SECONDS)).isTrue();
+        }
+        finally
+        {
+            running.set(false);
+            pool.shutdownNow();
+        }
+    }
+}
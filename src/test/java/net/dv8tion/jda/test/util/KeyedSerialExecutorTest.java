@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.util;
+
+import net.dv8tion.jda.internal.utils.concurrent.KeyedSerialExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KeyedSerialExecutorTest
+{
+    @Test
+    void testOrderedPerKey() throws InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try
+        {
+            KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+            int keys = 16, tasks = 2000;
+            List<List<Integer>> results = new ArrayList<>();
+            AtomicInteger[] running = new AtomicInteger[keys];
+            for (int i = 0; i < keys; i++)
+            {
+                results.add(Collections.synchronizedList(new ArrayList<>()));
+                running[i] = new AtomicInteger();
+            }
+
+            CountDownLatch done = new CountDownLatch(keys * tasks);
+            AtomicInteger overlaps = new AtomicInteger();
+            for (int i = 0; i < tasks; i++)
+            {
+                for (int key = 0; key < keys; key++)
+                {
+                    int value = i, k = key;
+                    executor.execute(key, () ->
+                    {
+                        if (running[k].incrementAndGet() != 1)
+                            overlaps.incrementAndGet();
+                        results.get(k).add(value);
+                        running[k].decrementAndGet();
+                        done.countDown();
+                    });
+                }
+            }
+
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(overlaps).hasValue(0);
+            for (List<Integer> result : results)
+            {
+                assertThat(result).hasSize(tasks);
+                assertThat(result).isSorted();
+            }
+            // Queues are removed once drained, which happens after the last task completed
+            pool.shutdown();
+            assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(executor.getPendingKeys()).isZero();
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRejectedRunsInline()
+    {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        pool.shutdown();
+
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+        List<Thread> threads = new ArrayList<>();
+        executor.execute(1, () -> threads.add(Thread.currentThread()));
+
+        assertThat(threads).containsExactly(Thread.currentThread());
+        assertThat(executor.getPendingKeys()).isZero();
+    }
+
+    @Test
+    void testContinuesAfterFailure() throws InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try
+        {
+            KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+            CountDownLatch done = new CountDownLatch(1);
+            executor.execute(1, () -> { throw new IllegalStateException("Expected"); });
+            executor.execute(1, done::countDown);
+
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDrainsWhenContinuationRejected() throws InterruptedException
+    {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try
+        {
+            KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(1);
+            executor.execute(1, () ->
+            {
+                started.countDown();
+                awaitUninterruptibly(release);
+                throw new IllegalStateException("Expected");
+            });
+            executor.execute(1, done::countDown);
+
+            // The failing task can no longer hand off the remaining tasks to the pool
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            pool.shutdown();
+            release.countDown();
+
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(pool.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(executor.getPendingKeys()).isZero();
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+}
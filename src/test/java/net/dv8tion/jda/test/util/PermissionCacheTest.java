@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.util;
+
+import net.dv8tion.jda.internal.utils.cache.PermissionCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PermissionCacheTest
+{
+    private static final long MEMBER = 1, OTHER_MEMBER = 2;
+    private static final long CHANNEL = 10, OTHER_CHANNEL = 20;
+
+    @Test
+    void testValuesAreReused()
+    {
+        PermissionCache cache = new PermissionCache();
+        AtomicInteger computations = new AtomicInteger();
+
+        assertThat(cache.get(MEMBER, CHANNEL, () -> computations.incrementAndGet() * 100L)).isEqualTo(100L);
+        assertThat(cache.get(MEMBER, CHANNEL, () -> computations.incrementAndGet() * 100L)).isEqualTo(100L);
+        assertThat(computations).hasValue(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidateMember()
+    {
+        PermissionCache cache = new PermissionCache();
+        cache.get(MEMBER, CHANNEL, () -> 1);
+        cache.get(MEMBER, OTHER_CHANNEL, () -> 1);
+        cache.get(OTHER_MEMBER, CHANNEL, () -> 1);
+
+        cache.invalidateMember(MEMBER);
+
+        assertThat(cache.get(MEMBER, CHANNEL, () -> 2)).isEqualTo(2);
+        assertThat(cache.get(MEMBER, OTHER_CHANNEL, () -> 2)).isEqualTo(2);
+        assertThat(cache.get(OTHER_MEMBER, CHANNEL, () -> 2)).isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidateChannel()
+    {
+        PermissionCache cache = new PermissionCache();
+        cache.get(MEMBER, CHANNEL, () -> 1);
+        cache.get(OTHER_MEMBER, CHANNEL, () -> 1);
+        cache.get(MEMBER, OTHER_CHANNEL, () -> 1);
+
+        cache.invalidateChannel(CHANNEL);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(MEMBER, CHANNEL, () -> 2)).isEqualTo(2);
+        assertThat(cache.get(OTHER_MEMBER, CHANNEL, () -> 2)).isEqualTo(2);
+        assertThat(cache.get(MEMBER, OTHER_CHANNEL, () -> 2)).isEqualTo(1);
+    }
+
+    @Test
+    void testComputationRacingInvalidationIsNotStored()
+    {
+        PermissionCache cache = new PermissionCache();
+
+        long stale = cache.get(MEMBER, CHANNEL, () ->
+        {
+            cache.invalidateChannel(CHANNEL);
+            return 1;
+        });
+
+        assertThat(stale).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get(MEMBER, CHANNEL, () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    void testBounded()
+    {
+        PermissionCache cache = new PermissionCache(8);
+        for (long channel = 0; channel < 8; channel++)
+            cache.get(MEMBER, channel, () -> 1);
+        assertThat(cache.size()).isEqualTo(8);
+
+        cache.get(MEMBER, 8, () -> 1);
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get(MEMBER, 0, () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    void testSizeSurvivesConcurrentInvalidations() throws InterruptedException
+    {
+        PermissionCache cache = new PermissionCache();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+        {
+            threads.add(new Thread(() ->
+            {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < 50_000; j++)
+                {
+                    long channel = random.nextInt(4);
+                    switch (random.nextInt(8))
+                    {
+                    case 0:
+                        cache.invalidateChannel(channel);
+                        break;
+                    case 1:
+                        cache.invalidateMember(random.nextInt(16));
+                        break;
+                    default:
+                        cache.get(random.nextInt(16), channel, () -> 1);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+
+        for (long channel = 0; channel < 4; channel++)
+            cache.invalidateChannel(channel);
+        assertThat(cache.size()).isZero();
+    }
+}
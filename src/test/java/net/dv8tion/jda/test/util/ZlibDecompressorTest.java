@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.util;
+
+import net.dv8tion.jda.internal.utils.compress.ZlibDecompressor;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ZlibDecompressorTest
+{
+    private final Deflater deflater = new Deflater();
+
+    @Test
+    void testStream() throws DataFormatException
+    {
+        ZlibDecompressor decompressor = new ZlibDecompressor(2048);
+        Random random = new Random(42);
+
+        // Mix of payloads below and above the retained buffer size, sharing a single zlib context
+        for (int i = 0; i < 50; i++)
+        {
+            byte[] payload = payload(random, 16 + random.nextInt(i % 5 == 0 ? 100_000 : 1_000));
+            assertThat(toArray(decompressor.decompress(compress(payload)))).isEqualTo(payload);
+        }
+    }
+
+    @Test
+    void testSplitFrames() throws DataFormatException
+    {
+        ZlibDecompressor decompressor = new ZlibDecompressor(2048);
+        byte[] payload = payload(new Random(42), 50_000);
+        byte[] compressed = compress(payload);
+
+        int third = compressed.length / 3;
+        assertThat(decompressor.decompress(Arrays.copyOfRange(compressed, 0, third))).isNull();
+        assertThat(decompressor.decompress(Arrays.copyOfRange(compressed, third, 2 * third))).isNull();
+        assertThat(toArray(decompressor.decompress(Arrays.copyOfRange(compressed, 2 * third, compressed.length)))).isEqualTo(payload);
+
+        byte[] next = "{\"op\":11}".getBytes(StandardCharsets.UTF_8);
+        assertThat(toArray(decompressor.decompress(compress(next)))).isEqualTo(next);
+    }
+
+    @Test
+    void testMalformed()
+    {
+        ZlibDecompressor decompressor = new ZlibDecompressor(2048);
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 0, 0, -1, -1};
+
+        assertThatThrownBy(() -> decompressor.decompress(garbage))
+            .isInstanceOf(DataFormatException.class);
+    }
+
+    private byte[] compress(byte[] payload)
+    {
+        deflater.setInput(payload);
+        byte[] buffer = new byte[payload.length + 64];
+        int length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static byte[] payload(Random random, int length)
+    {
+        // Somewhat compressible, like json
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++)
+            payload[i] = (byte) ('a' + random.nextInt(8));
+        return payload;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer)
+    {
+        byte[] array = new byte[buffer.remaining()];
+        buffer.get(array);
+        return array;
+    }
+}
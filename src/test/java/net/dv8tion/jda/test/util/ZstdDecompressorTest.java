@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.util;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdOutputStream;
+import net.dv8tion.jda.internal.utils.compress.ZstdDecompressor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ZstdDecompressorTest
+{
+    private ByteArrayOutputStream compressed;
+    private ZstdOutputStream compressor;
+
+    @BeforeEach
+    void setup() throws IOException
+    {
+        assertThat(ZstdDecompressor.isSupported()).isTrue();
+        compressed = new ByteArrayOutputStream();
+        compressor = new ZstdOutputStream(compressed);
+    }
+
+    @Test
+    void testStream() throws IOException, DataFormatException
+    {
+        ZstdDecompressor decompressor = new ZstdDecompressor(2048);
+        Random random = new Random(42);
+
+        // Mix of payloads below and above the native chunk size, sharing a single zstd stream
+        for (int i = 0; i < 50; i++)
+        {
+            byte[] payload = payload(random, 16 + random.nextInt(i % 5 == 0 ? 100_000 : 1_000));
+            assertThat(toArray(decompressor.decompress(compress(payload)))).isEqualTo(payload);
+        }
+
+        decompressor.shutdown();
+    }
+
+    @Test
+    void testFrame() throws DataFormatException
+    {
+        ZstdDecompressor decompressor = new ZstdDecompressor(2048);
+        byte[] json = "{\"op\":11,\"d\":null}".getBytes(StandardCharsets.UTF_8);
+
+        // Encoded by hand, independent of the compressor: one raw block followed by a run of 40 spaces
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        // Magic number, then a single segment header with one byte for the content size
+        byte[] header = {0x28, (byte) 0xB5, 0x2F, (byte) 0xFD, 0x20, (byte) (json.length + 40)};
+        frame.write(header, 0, header.length);
+        writeBlockHeader(frame, false, 0, json.length);
+        frame.write(json, 0, json.length);
+        writeBlockHeader(frame, true, 1, 40);
+        frame.write(' ');
+
+        byte[] expected = new byte[json.length + 40];
+        Arrays.fill(expected, (byte) ' ');
+        System.arraycopy(json, 0, expected, 0, json.length);
+
+        assertThat(toArray(decompressor.decompress(frame.toByteArray()))).isEqualTo(expected);
+        decompressor.shutdown();
+    }
+
+    @Test
+    void testCompletedFrames() throws DataFormatException
+    {
+        ZstdDecompressor decompressor = new ZstdDecompressor(2048);
+        Random random = new Random(42);
+
+        // Each message is a complete frame, the context has to start a new frame for every message
+        for (int i = 0; i < 10; i++)
+        {
+            byte[] payload = payload(random, 16 + random.nextInt(50_000));
+            assertThat(toArray(decompressor.decompress(Zstd.compress(payload)))).isEqualTo(payload);
+        }
+
+        decompressor.shutdown();
+    }
+
+    @Test
+    void testMalformed()
+    {
+        ZstdDecompressor decompressor = new ZstdDecompressor(2048);
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+        assertThatThrownBy(() -> decompressor.decompress(garbage))
+            .isInstanceOf(DataFormatException.class);
+        decompressor.shutdown();
+    }
+
+    private byte[] compress(byte[] payload) throws IOException
+    {
+        // Discord flushes the stream after every message
+        compressed.reset();
+        compressor.write(payload);
+        compressor.flush();
+        return compressed.toByteArray();
+    }
+
+    private static void writeBlockHeader(ByteArrayOutputStream out, boolean last, int type, int size)
+    {
+        int header = (last ? 1 : 0) | type << 1 | size << 3;
+        out.write(header);
+        out.write(header >> 8);
+        out.write(header >> 16);
+    }
+
+    private static byte[] payload(Random random, int length)
+    {
+        // Somewhat compressible, like json
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++)
+            payload[i] = (byte) ('a' + random.nextInt(8));
+        return payload;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer)
+    {
+        byte[] array = new byte[buffer.remaining()];
+        buffer.get(array);
+        return array;
+    }
+}